@@ -2,12 +2,18 @@ package it.robfrank.linklift;
 
 import com.arcadedb.remote.RemoteDatabase;
 import io.javalin.Javalin;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
 import it.robfrank.linklift.adapter.in.web.*;
+import it.robfrank.linklift.adapter.out.ai.BatchingEmbeddingGenerator;
+import it.robfrank.linklift.adapter.out.ai.CachingEmbeddingGenerator;
 import it.robfrank.linklift.adapter.out.ai.OllamaEmbeddingAdapter;
 import it.robfrank.linklift.adapter.out.ai.OllamaQuestionAnswerAdapter;
 import it.robfrank.linklift.adapter.out.content.SimpleTextSummarizer;
 import it.robfrank.linklift.adapter.out.event.SimpleEventPublisher;
+import it.robfrank.linklift.adapter.out.http.DownloadScheduler;
 import it.robfrank.linklift.adapter.out.http.HttpContentDownloader;
+import it.robfrank.linklift.adapter.out.http.HttpLinkPreviewer;
 import it.robfrank.linklift.adapter.out.http.JsoupContentExtractor;
 import it.robfrank.linklift.adapter.out.persistence.*;
 import it.robfrank.linklift.adapter.out.security.BCryptPasswordSecurityAdapter;
@@ -16,6 +22,7 @@ import it.robfrank.linklift.application.domain.event.*;
 import it.robfrank.linklift.application.domain.service.*;
 import it.robfrank.linklift.application.port.in.*;
 import it.robfrank.linklift.config.DatabaseInitializer;
+import it.robfrank.linklift.config.PipelineExecutors;
 import it.robfrank.linklift.config.SecureConfiguration;
 import it.robfrank.linklift.config.WebBuilder;
 import java.net.http.HttpClient;
@@ -34,10 +41,15 @@ public class Application {
   private static final String JWT_SECRET = SecureConfiguration.getJwtSecret();
 
   public static void main(String[] args) {
-    new Application().start(7070);
+    Javalin app = new Application().start(7070);
+    Runtime.getRuntime().addShutdownHook(new Thread(app::stop, "linklift-shutdown"));
   }
 
-  private static void configureEventSubscribers(SimpleEventPublisher eventPublisher, DownloadContentUseCase linkContentExtractorService) {
+  private static void configureEventSubscribers(
+    SimpleEventPublisher eventPublisher,
+    DownloadContentUseCase linkContentExtractorService,
+    RankLinksUseCase rankLinksUseCase
+  ) {
     // Configure event subscribers - this is where different components can
     // subscribe to events
     eventPublisher.subscribe(LinkCreatedEvent.class, event -> {
@@ -48,8 +60,24 @@ public class Application {
         .addArgument(event.getTimestamp())
         .log("Link created: {} for user: {} at {}");
       linkContentExtractorService.downloadContentAsync(new DownloadContentCommand(event.getLink().id(), event.getLink().url()));
+      rankLinksUseCase.scheduleRanking(event.getUserId());
     });
 
+    eventPublisher.subscribe(LinksImportedEvent.class, event -> {
+      logger.info("Links imported: {} for user: {} at {}", event.getLinks().size(), event.getUserId(), event.getTimestamp());
+      linkContentExtractorService.downloadContentBatchAsync(
+        event
+          .getLinks()
+          .stream()
+          .map(link -> new DownloadContentCommand(link.id(), link.url()))
+          .toList()
+      );
+      rankLinksUseCase.scheduleRanking(event.getUserId());
+    });
+
+    // Graph-derived data: link ranks are recomputed in the background after edges change
+    eventPublisher.subscribe(LinkGraphChangedEvent.class, event -> rankLinksUseCase.scheduleRanking(event.getUserId()));
+
     eventPublisher.subscribe(LinksQueryEvent.class, event -> {
       logger
         .atInfo()
@@ -110,16 +138,20 @@ public class Application {
 
     RemoteDatabase database = new RemoteDatabase(arcadedbServer, 2480, "linklift", "root", "playwithdata");
 
-    // Initialize repositories and mappers
+    // Initialize repositories and mappers; they share one id -> RID cache so deletes in one
+    // repository invalidate RIDs used by the others
+    RidCache ridCache = new RidCache();
     LinkMapper linkMapper = new LinkMapper();
-    ArcadeLinkRepository linkRepository = new ArcadeLinkRepository(database, linkMapper);
+    ArcadeLinkRepository linkRepository = new ArcadeLinkRepository(database, linkMapper, ridCache);
     LinkPersistenceAdapter linkPersistenceAdapter = new LinkPersistenceAdapter(linkRepository);
+    // Duplicate and backlink lookups go through the canonical URL hash, so older links need theirs first
+    linkRepository.backfillUrlHashes();
 
-    ArcadeContentRepository contentRepository = new ArcadeContentRepository(database);
+    ArcadeContentRepository contentRepository = new ArcadeContentRepository(database, ridCache);
     ContentPersistenceAdapter contentPersistenceAdapter = new ContentPersistenceAdapter(contentRepository);
 
     UserMapper userMapper = new UserMapper();
-    ArcadeUserRepository userRepository = new ArcadeUserRepository(database, userMapper);
+    ArcadeUserRepository userRepository = new ArcadeUserRepository(database, userMapper, ridCache);
     UserPersistenceAdapter userPersistenceAdapter = new UserPersistenceAdapter(userRepository);
 
     AuthTokenMapper authTokenMapper = new AuthTokenMapper();
@@ -133,22 +165,49 @@ public class Application {
     BCryptPasswordSecurityAdapter passwordSecurityAdapter = new BCryptPasswordSecurityAdapter();
     JwtTokenAdapter jwtTokenAdapter = new JwtTokenAdapter(JWT_SECRET);
 
-    // Initialize HTTP client for content download
-    HttpClient httpClient = Objects.requireNonNull(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build());
+    PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
 
-    HttpContentDownloader contentDownloader = new HttpContentDownloader(httpClient);
+    // Each stage of the content pipeline gets its own executor so one slow dependency cannot starve the rest
+    PipelineExecutors pipelineExecutors = new PipelineExecutors(
+      meterRegistry,
+      SecureConfiguration.getEmbedConcurrency(PipelineExecutors.DEFAULT_EMBED_CONCURRENCY),
+      SecureConfiguration.getEmbedQueueCapacity(PipelineExecutors.DEFAULT_EMBED_QUEUE_CAPACITY)
+    );
+
+    // Initialize HTTP client for content download
+    HttpClient httpClient = Objects.requireNonNull(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).executor(pipelineExecutors.io()).build());
+
+    // Downloads are queued per host so a bulk import from one site cannot flood it
+    DownloadScheduler contentDownloader = new DownloadScheduler(
+      new HttpContentDownloader(httpClient),
+      meterRegistry,
+      SecureConfiguration.getDownloadMaxInFlight(DownloadScheduler.DEFAULT_MAX_IN_FLIGHT),
+      SecureConfiguration.getDownloadMaxPerHost(DownloadScheduler.DEFAULT_MAX_PER_HOST)
+    );
 
     // Initialize content extractors
     JsoupContentExtractor contentExtractor = new JsoupContentExtractor();
     SimpleTextSummarizer contentSummarizer = new SimpleTextSummarizer();
-    OllamaEmbeddingAdapter embeddingGenerator = new OllamaEmbeddingAdapter(
-      httpClient,
-      SecureConfiguration.getOllamaUrl(),
-      SecureConfiguration.getOllamaModel()
+    // Repeated texts are served from the cache; the rest is coalesced into batch calls to Ollama
+    OllamaEmbeddingAdapter ollamaEmbeddings = new OllamaEmbeddingAdapter(httpClient, SecureConfiguration.getOllamaUrl(), SecureConfiguration.getOllamaModel());
+    CachingEmbeddingGenerator embeddingGenerator = new CachingEmbeddingGenerator(
+      new BatchingEmbeddingGenerator(
+        ollamaEmbeddings,
+        meterRegistry,
+        pipelineExecutors.io(),
+        SecureConfiguration.getEmbedBatchSize(BatchingEmbeddingGenerator.DEFAULT_MAX_BATCH_SIZE),
+        Duration.ofMillis(SecureConfiguration.getEmbedBatchWaitMillis((int) BatchingEmbeddingGenerator.DEFAULT_MAX_WAIT.toMillis())),
+        BatchingEmbeddingGenerator.DEFAULT_MAX_CONCURRENT_BATCHES
+      ),
+      ollamaEmbeddings.model(),
+      meterRegistry,
+      SecureConfiguration.getEmbeddingCacheEntries(CachingEmbeddingGenerator.DEFAULT_MAX_ENTRIES),
+      SecureConfiguration.getEmbeddingCacheFile().orElse(null),
+      CachingEmbeddingGenerator.DEFAULT_MAX_FILE_BYTES
     );
 
-    // Initialize executor service for background tasks
-    ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    // Background jobs block on the database and Ollama, so they run on virtual threads
+    ExecutorService executorService = pipelineExecutors.io();
 
     SimpleEventPublisher eventPublisher = new SimpleEventPublisher();
 
@@ -166,7 +225,7 @@ public class Application {
 
     AuthorizationService authorizationService = new AuthorizationService(jwtTokenAdapter, userPersistenceAdapter, userRolePersistenceAdapter);
 
-    DownloadContentUseCase downloadContentUseCase = new DownloadContentService(
+    DownloadContentService downloadContentService = new DownloadContentService(
       contentDownloader,
       contentPersistenceAdapter,
       eventPublisher,
@@ -176,10 +235,32 @@ public class Application {
       linkPersistenceAdapter,
       linkPersistenceAdapter,
       embeddingGenerator,
-      executorService
+      contentPersistenceAdapter,
+      new SharedPageCache(),
+      pipelineExecutors.downloadStages()
     );
 
-    configureEventSubscribers(eventPublisher, downloadContentUseCase);
+    // Downloads are queued as DownloadJob vertices, so they survive restarts and are shared by all nodes
+    DownloadJobPersistenceAdapter downloadJobPersistenceAdapter = new DownloadJobPersistenceAdapter(new ArcadeDownloadJobRepository(database));
+    DownloadJobService downloadJobService = new DownloadJobService(
+      downloadContentService,
+      downloadJobPersistenceAdapter,
+      linkPersistenceAdapter,
+      Executors.newSingleThreadScheduledExecutor()
+    );
+    DownloadContentUseCase downloadContentUseCase = downloadJobService;
+    RecrawlService recrawlService = new RecrawlService(
+      contentPersistenceAdapter,
+      contentPersistenceAdapter,
+      linkPersistenceAdapter,
+      downloadJobPersistenceAdapter,
+      downloadJobPersistenceAdapter,
+      Executors.newSingleThreadScheduledExecutor(),
+      SecureConfiguration.getRecrawlBudgetPerHour(RecrawlService.DEFAULT_BUDGET_PER_HOUR)
+    );
+
+    RankLinksUseCase rankLinksUseCase = new RankLinksService(linkPersistenceAdapter, linkPersistenceAdapter, executorService);
+    configureEventSubscribers(eventPublisher, downloadContentUseCase, rankLinksUseCase);
 
     SearchContentUseCase searchContentUseCase = new SearchContentService(contentPersistenceAdapter, embeddingGenerator);
     GetContentUseCase getContentUseCase = new GetContentService(contentPersistenceAdapter);
@@ -191,7 +272,13 @@ public class Application {
       executorService
     );
 
-    NewLinkUseCase newLinkUseCase = new NewLinkService(linkPersistenceAdapter, eventPublisher);
+    HttpLinkPreviewer linkPreviewer = new HttpLinkPreviewer(
+      httpClient,
+      Duration.ofMillis(SecureConfiguration.getLinkPreviewTimeoutMillis((int) HttpLinkPreviewer.DEFAULT_DEADLINE.toMillis())),
+      HttpLinkPreviewer.DEFAULT_MAX_BYTES
+    );
+    NewLinkUseCase newLinkUseCase = new NewLinkService(linkPersistenceAdapter, eventPublisher, linkPreviewer);
+    ImportLinksUseCase importLinksUseCase = new ImportLinksService(linkPersistenceAdapter, linkPersistenceAdapter, eventPublisher);
     ListLinksUseCase listLinksUseCase = new ListLinksService(linkPersistenceAdapter, eventPublisher);
     GetGraphUseCase getGraphUseCase = new GetGraphService(linkPersistenceAdapter);
 
@@ -205,7 +292,7 @@ public class Application {
     NoteController noteController = new NoteController(createNoteUseCase, updateNoteUseCase, deleteNoteUseCase, getNotesForLinkUseCase);
 
     // Initialize Collection and Related Links components
-    ArcadeCollectionRepository collectionRepository = new ArcadeCollectionRepository(database);
+    ArcadeCollectionRepository collectionRepository = new ArcadeCollectionRepository(database, ridCache);
     CollectionPersistenceAdapter collectionPersistenceAdapter = new CollectionPersistenceAdapter(collectionRepository);
     CreateCollectionUseCase createCollectionUseCase = new CreateCollectionService(collectionPersistenceAdapter);
     ListCollectionsUseCase listCollectionsUseCase = new ListCollectionsService(collectionPersistenceAdapter);
@@ -227,6 +314,7 @@ public class Application {
 
     // Initialize controllers
     NewLinkController newLinkController = new NewLinkController(newLinkUseCase);
+    ImportLinksController importLinksController = new ImportLinksController(importLinksUseCase);
     ListLinksController listLinksController = new ListLinksController.Builder()
       .withListLinksUseCase(listLinksUseCase)
       .withGetGraphUseCase(getGraphUseCase)
@@ -240,7 +328,7 @@ public class Application {
 
     // Initialize Link Management
     UpdateLinkUseCase updateLinkUseCase = new UpdateLinkService(linkPersistenceAdapter, linkPersistenceAdapter);
-    DeleteLinkUseCase deleteLinkUseCase = new DeleteLinkService(linkPersistenceAdapter, linkPersistenceAdapter);
+    DeleteLinkUseCase deleteLinkUseCase = new DeleteLinkService(linkPersistenceAdapter, linkPersistenceAdapter, eventPublisher);
     UpdateLinkStatusUseCase updateLinkStatusUseCase = new UpdateLinkStatusService(linkPersistenceAdapter, linkPersistenceAdapter);
     LinkController linkController = new LinkController(updateLinkUseCase, deleteLinkUseCase, updateLinkStatusUseCase);
 
@@ -259,7 +347,7 @@ public class Application {
     AskController askController = new AskController(askQuestionUseCase);
 
     // Initialize Tags components
-    ArcadeTagRepository arcadeTagRepository = new ArcadeTagRepository(database);
+    ArcadeTagRepository arcadeTagRepository = new ArcadeTagRepository(database, ridCache);
     TagPersistenceAdapter tagPersistenceAdapter = new TagPersistenceAdapter(arcadeTagRepository);
     CreateTagUseCase createTagUseCase = new CreateTagService(tagPersistenceAdapter);
     DeleteTagUseCase deleteTagUseCase = new DeleteTagService(tagPersistenceAdapter);
@@ -279,10 +367,11 @@ public class Application {
     );
 
     // Build and start web application
-    Javalin app = new WebBuilder()
+    Javalin app = new WebBuilder(meterRegistry)
       .withAuthorizationService(authorizationService)
       .withAuthenticationController(authenticationController)
       .withLinkController(newLinkController)
+      .withImportLinksController(importLinksController)
       .withListLinksController(listLinksController)
       .withSearchController(searchContentController)
       .withGetContentController(getContentController)
@@ -294,9 +383,16 @@ public class Application {
       .withNoteController(noteController)
       .withTagController(tagController)
       .withAskController(askController)
+      // Background workers first, so nothing is still feeding the pipeline when it is closed
+      .withCloseOnStop(recrawlService)
+      .withCloseOnStop(downloadJobService)
+      .withCloseOnStop(pipelineExecutors)
+      .withCloseOnStop(embeddingGenerator)
       .build();
 
     app.start(port);
+    downloadJobService.start();
+    recrawlService.start();
     return app;
   }
 }
@@ -0,0 +1,189 @@
+package it.robfrank.linklift.adapter.in.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.robfrank.linklift.application.domain.model.ImportedBookmark;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.jsoup.parser.Parser;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streaming parsers for bookmark exports. Both formats are read line by line, so an export of any
+ * size is parsed with constant memory.
+ *
+ * <ul>
+ *   <li>NDJSON: one JSON object per line with {@code url} and optional {@code title}, {@code description}.
+ *   <li>Netscape bookmark HTML, as exported by all major browsers: one {@code <DT><A HREF=...>} per
+ *       line, optionally followed by a {@code <DD>} description line.
+ * </ul>
+ */
+public final class BookmarkImportParser {
+
+  private static final Logger logger = LoggerFactory.getLogger(BookmarkImportParser.class);
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+  private static final Pattern ANCHOR = Pattern.compile("<A\\s([^>]*)>(.*?)</A>", Pattern.CASE_INSENSITIVE);
+  private static final Pattern HREF = Pattern.compile("HREF\\s*=\\s*\"([^\"]*)\"", Pattern.CASE_INSENSITIVE);
+  private static final Pattern ADD_DATE = Pattern.compile("ADD_DATE\\s*=\\s*\"(\\d+)\"", Pattern.CASE_INSENSITIVE);
+  private static final Pattern DESCRIPTION = Pattern.compile("<DD>(.*)", Pattern.CASE_INSENSITIVE);
+  private static final Pattern TAG = Pattern.compile("<[^>]+>");
+
+  private BookmarkImportParser() {}
+
+  public static @NonNull Stream<ImportedBookmark> parseNdjson(@NonNull InputStream input) {
+    BufferedReader reader = reader(input);
+    return reader
+      .lines()
+      .map(String::strip)
+      .filter(line -> !line.isEmpty())
+      .map(BookmarkImportParser::parseJsonLine)
+      .flatMap(Stream::ofNullable)
+      .onClose(() -> close(reader));
+  }
+
+  public static @NonNull Stream<ImportedBookmark> parseNetscape(@NonNull InputStream input) {
+    BufferedReader reader = reader(input);
+    Iterator<ImportedBookmark> iterator = new NetscapeIterator(reader);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(() ->
+      close(reader)
+    );
+  }
+
+  private static @Nullable ImportedBookmark parseJsonLine(String line) {
+    try {
+      JsonNode node = objectMapper.readTree(line);
+      String url = text(node, "url");
+      if (url == null) {
+        logger.debug("Skipping NDJSON bookmark without url: {}", line);
+        return null;
+      }
+      return new ImportedBookmark(url, text(node, "title"), text(node, "description"), null);
+    } catch (IOException e) {
+      logger.debug("Skipping malformed NDJSON bookmark line: {}", line);
+      return null;
+    }
+  }
+
+  private static @Nullable String text(JsonNode node, String field) {
+    JsonNode value = node.get(field);
+    return value != null && value.isTextual() && !value.asText().isBlank() ? value.asText().strip() : null;
+  }
+
+  private static BufferedReader reader(InputStream input) {
+    return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+  }
+
+  private static void close(BufferedReader reader) {
+    try {
+      reader.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Emits a bookmark once the line after its anchor shows whether a {@code <DD>} description follows. */
+  private static final class NetscapeIterator implements Iterator<ImportedBookmark> {
+
+    private final BufferedReader reader;
+    private @Nullable ImportedBookmark pending;
+    private @Nullable ImportedBookmark next;
+    private boolean exhausted;
+
+    NetscapeIterator(BufferedReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (next == null && !exhausted) {
+        advance();
+      }
+      return next != null;
+    }
+
+    @Override
+    public ImportedBookmark next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      ImportedBookmark result = next;
+      next = null;
+      return result;
+    }
+
+    private void advance() {
+      String line;
+      try {
+        line = reader.readLine();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      if (line == null) {
+        exhausted = true;
+        next = pending;
+        pending = null;
+        return;
+      }
+
+      Matcher description = DESCRIPTION.matcher(line);
+      if (pending != null && description.find()) {
+        next = new ImportedBookmark(pending.url(), pending.title(), cleanText(description.group(1)), pending.addedAt());
+        pending = null;
+        return;
+      }
+
+      Matcher anchor = ANCHOR.matcher(line);
+      if (anchor.find()) {
+        Matcher href = HREF.matcher(anchor.group(1));
+        if (href.find()) {
+          next = pending;
+          pending = new ImportedBookmark(Parser.unescapeEntities(href.group(1), true).strip(), cleanText(anchor.group(2)), null, addedAt(anchor.group(1)));
+          return;
+        }
+      }
+
+      // Folder headings and list markup end the current entry without a description
+      if (pending != null && !line.isBlank()) {
+        next = pending;
+        pending = null;
+      }
+    }
+
+    private static @Nullable LocalDateTime addedAt(String attributes) {
+      Matcher addDate = ADD_DATE.matcher(attributes);
+      if (!addDate.find()) {
+        return null;
+      }
+      try {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(Long.parseLong(addDate.group(1))), ZoneId.systemDefault());
+      } catch (NumberFormatException | DateTimeException e) {
+        return null;
+      }
+    }
+
+    private static @Nullable String cleanText(String html) {
+      String text = Parser.unescapeEntities(TAG.matcher(html).replaceAll(""), false).strip();
+      return text.isEmpty() ? null : text;
+    }
+  }
+}
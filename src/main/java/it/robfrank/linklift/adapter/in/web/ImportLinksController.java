@@ -0,0 +1,58 @@
+package it.robfrank.linklift.adapter.in.web;
+
+import io.javalin.http.Context;
+import it.robfrank.linklift.adapter.in.web.security.SecurityContext;
+import it.robfrank.linklift.application.domain.exception.AuthenticationException;
+import it.robfrank.linklift.application.domain.exception.ValidationException;
+import it.robfrank.linklift.application.domain.model.ImportResult;
+import it.robfrank.linklift.application.domain.model.ImportedBookmark;
+import it.robfrank.linklift.application.port.in.ImportLinksCommand;
+import it.robfrank.linklift.application.port.in.ImportLinksUseCase;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.stream.Stream;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Bulk import of a bookmark export. The request body is parsed as it is read, so exports with tens of
+ * thousands of entries are never buffered in memory.
+ */
+public class ImportLinksController {
+
+  private final ImportLinksUseCase importLinksUseCase;
+
+  public ImportLinksController(@NonNull ImportLinksUseCase importLinksUseCase) {
+    this.importLinksUseCase = importLinksUseCase;
+  }
+
+  public void importLinks(@NonNull Context ctx) {
+    String userId = SecurityContext.getCurrentUserId(ctx);
+    if (userId == null) {
+      throw AuthenticationException.unauthorizedAccess();
+    }
+
+    boolean html = isHtml(ctx.queryParam("format"), ctx.contentType());
+    InputStream body = ctx.bodyInputStream();
+    try (Stream<ImportedBookmark> bookmarks = html ? BookmarkImportParser.parseNetscape(body) : BookmarkImportParser.parseNdjson(body)) {
+      ImportResult result = importLinksUseCase.importLinks(new ImportLinksCommand(bookmarks, userId));
+      ctx.json(result);
+    }
+  }
+
+  private static boolean isHtml(String format, String contentType) {
+    String requested = format != null && !format.isBlank() ? format : contentType;
+    if (requested != null) {
+      String value = requested.toLowerCase(Locale.ROOT);
+      if (value.contains("html")) {
+        return true;
+      }
+      if (value.contains("ndjson") || value.contains("json")) {
+        return false;
+      }
+    }
+    throw new ValidationException("Unsupported import format").addFieldError(
+      "format",
+      "Use format=ndjson or format=html, or send application/x-ndjson or text/html"
+    );
+  }
+}
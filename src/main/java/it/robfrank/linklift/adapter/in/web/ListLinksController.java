@@ -4,7 +4,10 @@ import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
 import it.robfrank.linklift.adapter.in.web.security.SecurityContext;
 import it.robfrank.linklift.application.domain.exception.AuthenticationException;
+import it.robfrank.linklift.application.domain.exception.ValidationException;
+import it.robfrank.linklift.application.domain.model.ClusteredGraph;
 import it.robfrank.linklift.application.domain.model.GraphData;
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
 import it.robfrank.linklift.application.domain.model.LinkPage;
 import it.robfrank.linklift.application.domain.model.ReadStatus;
 import it.robfrank.linklift.application.port.in.GetGraphUseCase;
@@ -13,6 +16,8 @@ import it.robfrank.linklift.application.port.in.ListLinksUseCase;
 
 public class ListLinksController {
 
+  static final int DEFAULT_CLUSTER_LIMIT = 100;
+
   private final ListLinksUseCase listLinksUseCase;
   private final GetGraphUseCase getGraphUseCase;
 
@@ -37,6 +42,9 @@ public class ListLinksController {
     String favoritedParam = ctx.queryParam("favorited");
     String tagId = ctx.queryParam("tagId");
 
+    // Opaque keyset cursor from a previous page's nextCursor; takes precedence over page
+    String cursor = ctx.queryParam("cursor");
+
     ReadStatus readStatus = null;
     if (readStatusParam != null && !readStatusParam.isBlank()) {
       try {
@@ -52,7 +60,18 @@ public class ListLinksController {
     Boolean favorited = favoritedParam != null ? Boolean.parseBoolean(favoritedParam) : null;
 
     // Create query with user context and optional filters
-    ListLinksQuery query = ListLinksQuery.forUserWithFiltersAndTag(page, size, sortBy, sortDirection, currentUserId, readStatus, archived, favorited, tagId);
+    ListLinksQuery query = ListLinksQuery.forUserWithFiltersAndTag(
+      page,
+      size,
+      sortBy,
+      sortDirection,
+      currentUserId,
+      readStatus,
+      archived,
+      favorited,
+      tagId,
+      cursor
+    );
     LinkPage result = listLinksUseCase.listLinks(query);
 
     ctx.status(200).json(new LinkPageResponse(result, "Links retrieved successfully"));
@@ -66,14 +85,51 @@ public class ListLinksController {
       throw AuthenticationException.unauthorizedAccess();
     }
 
-    GraphData graphData = getGraphUseCase.getGraphData(currentUserId);
-    ctx.status(200).json(new GraphResponse(graphData, "Graph data retrieved successfully"));
+    // format=compact returns the CSR encoding: string tables plus offsets/targets int arrays
+    String format = ctx.queryParam("format");
+    if (format == null || format.isBlank()) {
+      GraphData graphData = getGraphUseCase.getGraphData(currentUserId);
+      ctx.status(200).json(new GraphResponse(graphData, "Graph data retrieved successfully"));
+    } else if ("compact".equalsIgnoreCase(format)) {
+      GraphSnapshot snapshot = getGraphUseCase.getGraphSnapshot(currentUserId);
+      ctx.status(200).json(new CompactGraphResponse(snapshot, "Graph data retrieved successfully"));
+    } else {
+      throw new ValidationException("Unsupported graph format").addFieldError("format", "Use format=compact or omit it");
+    }
+  }
+
+  public void getGraphClusters(Context ctx) {
+    String currentUserId = SecurityContext.getCurrentUserId(ctx);
+
+    if (currentUserId == null) {
+      throw AuthenticationException.unauthorizedAccess();
+    }
+
+    // Bounded by what the client can lay out, not by the size of the collection
+    Integer limit = ctx.queryParamAsClass("limit", Integer.class).getOrNull();
+    ClusteredGraph clusteredGraph = getGraphUseCase.getClusteredGraph(currentUserId, limit != null ? limit : DEFAULT_CLUSTER_LIMIT);
+    ctx.status(200).json(new ClusteredGraphResponse(clusteredGraph, "Graph clusters retrieved successfully"));
+  }
+
+  public void getGraphCluster(Context ctx) {
+    String currentUserId = SecurityContext.getCurrentUserId(ctx);
+
+    if (currentUserId == null) {
+      throw AuthenticationException.unauthorizedAccess();
+    }
+
+    GraphData graphData = getGraphUseCase.getClusterGraph(currentUserId, ctx.pathParam("clusterId"));
+    ctx.status(200).json(new GraphResponse(graphData, "Graph cluster retrieved successfully"));
   }
 
   public record LinkPageResponse(LinkPage data, String message) {}
 
   public record GraphResponse(GraphData data, String message) {}
 
+  public record CompactGraphResponse(GraphSnapshot data, String message) {}
+
+  public record ClusteredGraphResponse(ClusteredGraph data, String message) {}
+
   public static class Builder {
 
     private ListLinksUseCase listLinksUseCase;
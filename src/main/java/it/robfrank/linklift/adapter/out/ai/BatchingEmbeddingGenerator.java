@@ -0,0 +1,203 @@
+package it.robfrank.linklift.adapter.out.ai;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.robfrank.linklift.application.port.out.EmbeddingGenerator;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces concurrent embedding requests into batch calls on a delegate, typically the Ollama
+ * adapter and its {@code /api/embed} endpoint.
+ *
+ * <p>Texts wait until {@code maxBatchSize} of them are queued or the oldest has waited
+ * {@code maxWait}, then go out together and each caller gets its own vector back. At most
+ * {@code maxConcurrentBatches} calls are open at once; texts arriving meanwhile queue up and leave
+ * in the next batch. A batch that fails is retried one text at a time, so a text the model rejects
+ * only fails its own caller.
+ *
+ * <p>Reports {@code linklift.embedding.batch.size}, {@code linklift.embedding.batch.latency} (the
+ * delegate call), {@code linklift.embedding.wait} (time queued) and
+ * {@code linklift.embedding.queue.depth}.
+ */
+public class BatchingEmbeddingGenerator implements EmbeddingGenerator {
+
+  private static final Logger logger = LoggerFactory.getLogger(BatchingEmbeddingGenerator.class);
+
+  public static final int DEFAULT_MAX_BATCH_SIZE = 32;
+  public static final Duration DEFAULT_MAX_WAIT = Duration.ofMillis(10);
+  public static final int DEFAULT_MAX_CONCURRENT_BATCHES = 2;
+
+  private final EmbeddingGenerator delegate;
+  private final Executor executor;
+  private final int maxBatchSize;
+  private final long maxWaitNanos;
+  private final int maxConcurrentBatches;
+
+  // All state below is guarded by this
+  private final Deque<Request> pending = new ArrayDeque<>();
+  private int batchesInFlight;
+  private boolean flushScheduled;
+
+  private final DistributionSummary batchSize;
+  private final Timer batchLatency;
+  private final Timer waitTimer;
+
+  private record Request(String text, CompletableFuture<float[]> result, long enqueuedAt) {}
+
+  public BatchingEmbeddingGenerator(@NonNull EmbeddingGenerator delegate, @NonNull MeterRegistry registry, @NonNull Executor executor) {
+    this(delegate, registry, executor, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_WAIT, DEFAULT_MAX_CONCURRENT_BATCHES);
+  }
+
+  public BatchingEmbeddingGenerator(
+    @NonNull EmbeddingGenerator delegate,
+    @NonNull MeterRegistry registry,
+    @NonNull Executor executor,
+    int maxBatchSize,
+    @NonNull Duration maxWait,
+    int maxConcurrentBatches
+  ) {
+    if (maxBatchSize < 1 || maxConcurrentBatches < 1) {
+      throw new IllegalArgumentException("Batch size and concurrency must be positive");
+    }
+    this.delegate = delegate;
+    this.executor = executor;
+    this.maxBatchSize = maxBatchSize;
+    this.maxWaitNanos = maxWait.toNanos();
+    this.maxConcurrentBatches = maxConcurrentBatches;
+
+    this.batchSize = DistributionSummary.builder("linklift.embedding.batch.size").description("Texts sent in one embedding call").register(registry);
+    this.batchLatency = Timer.builder("linklift.embedding.batch.latency").description("Duration of one embedding call").register(registry);
+    this.waitTimer = Timer.builder("linklift.embedding.wait").description("Time a text waited for its batch").register(registry);
+    Gauge.builder("linklift.embedding.queue.depth", this, BatchingEmbeddingGenerator::queuedCount)
+      .description("Texts waiting for an embedding call")
+      .register(registry);
+  }
+
+  @Override
+  public @NonNull float[] generateEmbedding(@NonNull String text) {
+    return await(submit(List.of(text)).getFirst());
+  }
+
+  /** Queues all texts at once, so they share batches with each other and with concurrent callers. */
+  @Override
+  public @NonNull List<float[]> generateEmbeddings(@NonNull List<String> texts) {
+    return submit(texts).stream().map(BatchingEmbeddingGenerator::await).toList();
+  }
+
+  private List<CompletableFuture<float[]>> submit(List<String> texts) {
+    List<CompletableFuture<float[]>> results = new ArrayList<>(texts.size());
+    long now = System.nanoTime();
+    synchronized (this) {
+      for (String text : texts) {
+        CompletableFuture<float[]> result = new CompletableFuture<>();
+        pending.addLast(new Request(text, result, now));
+        results.add(result);
+      }
+    }
+    drain();
+    return results;
+  }
+
+  /** Sends every batch that is due while there is room for another call, and arms the flush timer for the rest. */
+  private void drain() {
+    List<List<Request>> batches = new ArrayList<>();
+    synchronized (this) {
+      while (!pending.isEmpty() && batchesInFlight < maxConcurrentBatches) {
+        if (pending.size() < maxBatchSize && System.nanoTime() - pending.peekFirst().enqueuedAt() < maxWaitNanos) {
+          break;
+        }
+        List<Request> batch = new ArrayList<>(Math.min(maxBatchSize, pending.size()));
+        while (batch.size() < maxBatchSize && !pending.isEmpty()) {
+          batch.add(pending.pollFirst());
+        }
+        batchesInFlight++;
+        batches.add(batch);
+      }
+      // A full set of open calls drains the queue when one of them completes
+      if (!pending.isEmpty() && batchesInFlight < maxConcurrentBatches && !flushScheduled) {
+        flushScheduled = true;
+        long delay = Math.max(0, pending.peekFirst().enqueuedAt() + maxWaitNanos - System.nanoTime());
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(this::flush);
+      }
+    }
+    for (List<Request> batch : batches) {
+      try {
+        executor.execute(() -> send(batch));
+      } catch (RejectedExecutionException e) {
+        batch.forEach(request -> request.result().completeExceptionally(e));
+        synchronized (this) {
+          batchesInFlight--;
+        }
+      }
+    }
+  }
+
+  private void flush() {
+    synchronized (this) {
+      flushScheduled = false;
+    }
+    drain();
+  }
+
+  private void send(List<Request> batch) {
+    long now = System.nanoTime();
+    batch.forEach(request -> waitTimer.record(now - request.enqueuedAt(), TimeUnit.NANOSECONDS));
+    batchSize.record(batch.size());
+    try {
+      List<float[]> embeddings = batchLatency.recordCallable(() -> delegate.generateEmbeddings(batch.stream().map(Request::text).toList()));
+      if (embeddings == null || embeddings.size() != batch.size()) {
+        throw new IllegalStateException("Expected %d embeddings, got %s".formatted(batch.size(), embeddings == null ? "none" : embeddings.size()));
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        batch.get(i).result().complete(embeddings.get(i));
+      }
+    } catch (Exception e) {
+      if (batch.size() == 1) {
+        batch.getFirst().result().completeExceptionally(e);
+      } else {
+        logger.warn("Embedding batch of {} texts failed, retrying them one by one: {}", batch.size(), e.toString());
+        for (Request request : batch) {
+          try {
+            request.result().complete(delegate.generateEmbedding(request.text()));
+          } catch (RuntimeException single) {
+            request.result().completeExceptionally(single);
+          }
+        }
+      }
+    } finally {
+      synchronized (this) {
+        batchesInFlight--;
+      }
+      drain();
+    }
+  }
+
+  private static float[] await(CompletableFuture<float[]> result) {
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new RuntimeException("Error generating embedding", e.getCause());
+    }
+  }
+
+  private synchronized int queuedCount() {
+    return pending.size();
+  }
+}
@@ -0,0 +1,191 @@
+package it.robfrank.linklift.adapter.out.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.robfrank.linklift.application.port.out.EmbeddingGenerator;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Embeddings keyed by model and a hash of the text the model actually sees, so a repeated search,
+ * question or page text is embedded once.
+ *
+ * <p>Vectors are kept as {@code float[]} in an on-heap LRU of {@code maxEntries}, backed by an
+ * optional {@link EmbeddingFileStore} that survives restarts. A miss in memory that the file has is
+ * promoted back into memory; a miss in both goes to the delegate and is written to both. If the file
+ * cannot be opened or written the cache carries on in memory only.
+ *
+ * <p>Reports {@code linklift.embedding.cache} hits per {@code tier} ({@code memory}, {@code file}) and
+ * misses ({@code tier=none}).
+ */
+public class CachingEmbeddingGenerator implements EmbeddingGenerator, AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(CachingEmbeddingGenerator.class);
+
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+  public static final long DEFAULT_MAX_FILE_BYTES = 256L * 1024 * 1024;
+
+  /** First 128 bits of the SHA-256 of model and text. */
+  record Key(long high, long low) {}
+
+  private final EmbeddingGenerator delegate;
+  private final byte[] model;
+  private final Map<Key, float[]> memory;
+  private final @Nullable EmbeddingFileStore file;
+
+  private final Counter memoryHits;
+  private final Counter fileHits;
+  private final Counter misses;
+
+  public CachingEmbeddingGenerator(@NonNull EmbeddingGenerator delegate, @NonNull String model, @NonNull MeterRegistry registry) {
+    this(delegate, model, registry, DEFAULT_MAX_ENTRIES, null, DEFAULT_MAX_FILE_BYTES);
+  }
+
+  public CachingEmbeddingGenerator(
+    @NonNull EmbeddingGenerator delegate,
+    @NonNull String model,
+    @NonNull MeterRegistry registry,
+    int maxEntries,
+    @Nullable Path file,
+    long maxFileBytes
+  ) {
+    this.delegate = delegate;
+    this.model = model.getBytes(StandardCharsets.UTF_8);
+    this.memory = new LinkedHashMap<>(256, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, float[]> eldest) {
+        return size() > maxEntries;
+      }
+    };
+    this.file = file != null ? openFile(file, maxFileBytes) : null;
+
+    this.memoryHits = Counter.builder("linklift.embedding.cache").tag("tier", "memory").description("Embedding cache lookups").register(registry);
+    this.fileHits = Counter.builder("linklift.embedding.cache").tag("tier", "file").description("Embedding cache lookups").register(registry);
+    this.misses = Counter.builder("linklift.embedding.cache").tag("tier", "none").description("Embedding cache lookups").register(registry);
+  }
+
+  private static EmbeddingFileStore openFile(Path file, long maxFileBytes) {
+    try {
+      return EmbeddingFileStore.open(file, maxFileBytes);
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Cannot open embedding cache {}, caching in memory only: {}", file, e.toString());
+      return null;
+    }
+  }
+
+  @Override
+  public @NonNull float[] generateEmbedding(@NonNull String text) {
+    Key key = keyOf(text);
+    float[] cached = lookup(key);
+    if (cached != null) {
+      return cached.clone();
+    }
+    float[] embedding = delegate.generateEmbedding(text);
+    store(key, embedding);
+    return embedding;
+  }
+
+  /** Serves what it can from the cache and embeds the rest with one call to the delegate. */
+  @Override
+  public @NonNull List<float[]> generateEmbeddings(@NonNull List<String> texts) {
+    List<float[]> embeddings = new ArrayList<>(texts.size());
+    List<Key> missingKeys = new ArrayList<>();
+    List<String> missingTexts = new ArrayList<>();
+    List<Integer> missingIndexes = new ArrayList<>();
+    for (String text : texts) {
+      Key key = keyOf(text);
+      float[] cached = lookup(key);
+      if (cached == null) {
+        missingKeys.add(key);
+        missingTexts.add(text);
+        missingIndexes.add(embeddings.size());
+      }
+      embeddings.add(cached != null ? cached.clone() : null);
+    }
+    if (!missingTexts.isEmpty()) {
+      List<float[]> generated = delegate.generateEmbeddings(missingTexts);
+      for (int i = 0; i < generated.size(); i++) {
+        store(missingKeys.get(i), generated.get(i));
+        embeddings.set(missingIndexes.get(i), generated.get(i));
+      }
+    }
+    return embeddings;
+  }
+
+  private float[] lookup(Key key) {
+    float[] vector;
+    synchronized (memory) {
+      vector = memory.get(key);
+    }
+    if (vector != null) {
+      memoryHits.increment();
+      return vector;
+    }
+    if (file != null) {
+      try {
+        vector = file.get(key);
+      } catch (IOException | RuntimeException e) {
+        logger.warn("Failed to read embedding cache: {}", e.toString());
+      }
+      if (vector != null) {
+        synchronized (memory) {
+          memory.put(key, vector);
+        }
+        fileHits.increment();
+        return vector;
+      }
+    }
+    misses.increment();
+    return null;
+  }
+
+  /** Keeps a copy, so a caller changing its vector cannot change what later callers get. */
+  private void store(Key key, float[] embedding) {
+    if (embedding == null || embedding.length == 0) {
+      return;
+    }
+    float[] vector = embedding.clone();
+    synchronized (memory) {
+      memory.put(key, vector);
+    }
+    if (file != null) {
+      try {
+        file.put(key, vector);
+      } catch (IOException e) {
+        logger.warn("Failed to write embedding cache: {}", e.toString());
+      }
+    }
+  }
+
+  /** The model only sees the truncated text, so texts that agree up to the cut share a key. */
+  Key keyOf(String text) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(model);
+      digest.update((byte) 0);
+      ByteBuffer hash = ByteBuffer.wrap(digest.digest(OllamaEmbeddingAdapter.truncate(text).getBytes(StandardCharsets.UTF_8)));
+      return new Key(hash.getLong(), hash.getLong());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (file != null) {
+      file.close();
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package it.robfrank.linklift.adapter.out.ai;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only file of embeddings, the persistent tier of {@link CachingEmbeddingGenerator}.
+ *
+ * <p>After an 8-byte header ({@code LLEC}, version), each record is the 16-byte key, the number of
+ * dimensions, a CRC32C of the record and the floats themselves. The file is memory-mapped when
+ * opened and scanned once to index the records; only the records that pass the scan stay mapped, and
+ * vectors written later, which may reuse the space of a dropped tail, are read back from the channel.
+ * A record cut short by a crash, or whose blocks were allocated but never written, fails its checksum
+ * and is dropped with everything after it on the next open. Once the file reaches {@code maxBytes}
+ * new vectors are no longer written, while those already stored keep being served.
+ */
+final class EmbeddingFileStore implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(EmbeddingFileStore.class);
+
+  private static final int MAGIC = 0x4C4C4543;
+  private static final int VERSION = 2;
+  private static final int HEADER_BYTES = 8;
+  private static final int CHECKSUM_OFFSET = 20;
+  private static final int RECORD_HEADER_BYTES = 24;
+
+  private final Path file;
+  private final FileChannel channel;
+  private final MappedByteBuffer mapped;
+  private final long maxBytes;
+
+  // Guarded by this
+  private final Map<CachingEmbeddingGenerator.Key, Long> offsets = new HashMap<>();
+  private long size;
+  private boolean full;
+
+  private EmbeddingFileStore(Path file, FileChannel channel, long maxBytes) throws IOException {
+    this.file = file;
+    this.channel = channel;
+    this.maxBytes = maxBytes;
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    long length = channel.size();
+    if (length < HEADER_BYTES || channel.read(header, 0) < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+      if (length > 0) {
+        logger.warn("Embedding cache {} is not readable, starting a new one", file);
+      }
+      channel.truncate(0);
+      writeFully(header.clear().putInt(MAGIC).putInt(VERSION).flip(), 0);
+      length = HEADER_BYTES;
+    }
+
+    // Records beyond what one mapping can address are dropped along with a torn tail
+    MappedByteBuffer scanned = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(length, Integer.MAX_VALUE));
+    long position = HEADER_BYTES;
+    while (position + RECORD_HEADER_BYTES <= scanned.capacity()) {
+      int dimensions = scanned.getInt((int) position + 16);
+      long next = position + RECORD_HEADER_BYTES + 4L * dimensions;
+      if (
+        dimensions <= 0 ||
+        next > scanned.capacity() ||
+        scanned.getInt((int) position + CHECKSUM_OFFSET) != checksum(scanned.slice((int) position, (int) (next - position)))
+      ) {
+        break;
+      }
+      offsets.put(new CachingEmbeddingGenerator.Key(scanned.getLong((int) position), scanned.getLong((int) position + 8)), position);
+      position = next;
+    }
+    if (position < length) {
+      logger.warn("Dropping {} bytes of incomplete records at the end of embedding cache {}", length - position, file);
+      // Mapped again first, so no mapping reaches past the new end of the file
+      scanned = channel.map(FileChannel.MapMode.READ_ONLY, 0, position);
+      channel.truncate(position);
+    }
+    this.mapped = scanned;
+    this.size = position;
+    logger.info("Embedding cache {} holds {} vectors", file, offsets.size());
+  }
+
+  static EmbeddingFileStore open(Path file, long maxBytes) throws IOException {
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      return new EmbeddingFileStore(file, channel, maxBytes);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /** The stored vector for {@code key}, or {@code null}. */
+  float[] get(CachingEmbeddingGenerator.Key key) throws IOException {
+    Long offset;
+    synchronized (this) {
+      offset = offsets.get(key);
+    }
+    if (offset == null) {
+      return null;
+    }
+    // The mapping ends after the last whole record of the scan; everything after it is read from the channel
+    if (offset < mapped.capacity()) {
+      int dimensions = mapped.getInt(offset.intValue() + 16);
+      float[] vector = new float[dimensions];
+      mapped.slice(offset.intValue() + RECORD_HEADER_BYTES, 4 * dimensions).asFloatBuffer().get(vector);
+      return vector;
+    }
+    ByteBuffer dimensions = ByteBuffer.allocate(4);
+    readFully(dimensions, offset + 16);
+    ByteBuffer floats = ByteBuffer.allocate(4 * dimensions.getInt(0));
+    readFully(floats, offset + RECORD_HEADER_BYTES);
+    float[] vector = new float[floats.capacity() / 4];
+    floats.flip().asFloatBuffer().get(vector);
+    return vector;
+  }
+
+  synchronized void put(CachingEmbeddingGenerator.Key key, float[] vector) throws IOException {
+    if (offsets.containsKey(key)) {
+      return;
+    }
+    int length = RECORD_HEADER_BYTES + 4 * vector.length;
+    if (size + length > maxBytes) {
+      if (!full) {
+        full = true;
+        logger.warn("Embedding cache {} reached {} bytes, new vectors are kept in memory only", file, maxBytes);
+      }
+      return;
+    }
+    ByteBuffer record = ByteBuffer.allocate(length).putLong(key.high()).putLong(key.low()).putInt(vector.length).putInt(0);
+    for (float value : vector) {
+      record.putFloat(value);
+    }
+    record.putInt(CHECKSUM_OFFSET, checksum(record));
+    writeFully(record.flip(), size);
+    offsets.put(key, size);
+    size += length;
+  }
+
+  /** CRC32C of a whole record except its checksum field. */
+  private static int checksum(ByteBuffer record) {
+    CRC32C crc = new CRC32C();
+    crc.update(record.slice(0, CHECKSUM_OFFSET));
+    crc.update(record.slice(RECORD_HEADER_BYTES, record.capacity() - RECORD_HEADER_BYTES));
+    return (int) crc.getValue();
+  }
+
+  private void writeFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new EOFException("Embedding cache " + file + " ends inside a record");
+      }
+      position += read;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -1,17 +1,21 @@
 package it.robfrank.linklift.adapter.out.ai;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import it.robfrank.linklift.application.port.out.EmbeddingGenerator;
 import it.robfrank.linklift.config.SecureConfiguration;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +28,7 @@ public class OllamaEmbeddingAdapter implements EmbeddingGenerator {
    * Maximum characters to send to the model.
    * The all-minilm:l6-v2 model has a context length of 256 tokens.
    * Using 512 characters as a safe limit (typically 1 char ≈ 0.5 tokens for English text).
+   * Page text is split into passages below this limit before it gets here, see ContentChunker.
    */
   private static final int MAX_TEXT_LENGTH = 512;
 
@@ -44,37 +49,16 @@ public class OllamaEmbeddingAdapter implements EmbeddingGenerator {
 
   @Override
   @NonNull
-  public List<Float> generateEmbedding(@NonNull String text) {
+  public float[] generateEmbedding(@NonNull String text) {
     try {
       // Truncate text if it exceeds the model's context length
       String truncatedText = truncateText(text);
 
-      Map<String, String> requestBody = Map.of("model", model, "prompt", truncatedText);
-      String body = objectMapper.writeValueAsString(requestBody);
-
-      HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create(ollamaUrl + "/api/embeddings"))
-        .header("Content-Type", "application/json")
-        .POST(HttpRequest.BodyPublishers.ofString(body))
-        .build();
-
-      HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-      if (response.statusCode() != 200) {
-        throw new RuntimeException("Failed to generate embedding: " + response.body());
-      }
-
-      Map<String, Object> responseBody = objectMapper.readValue(response.body(), new TypeReference<Map<String, Object>>() {});
-      Object embeddingObj = responseBody.get("embedding");
-      if (!(embeddingObj instanceof List<?> list)) {
-        throw new RuntimeException("Unexpected response format from Ollama: embedding field missing or not a list");
-      }
-
-      List<Float> embedding = list.stream().filter(Objects::nonNull).map(n -> ((Number) n).floatValue()).toList();
+      float[] embedding = post("/api/embeddings", Map.of("model", model, "prompt", truncatedText), this::readEmbedding);
 
       // Validate dimensions on first successful embedding (thread-safe lazy validation)
       if (!dimensionValidated) {
-        validateDimensions(embedding.size());
+        validateDimensions(embedding.length);
       }
 
       return embedding;
@@ -88,6 +72,118 @@ public class OllamaEmbeddingAdapter implements EmbeddingGenerator {
     }
   }
 
+  /**
+   * Embeds all texts with one call to Ollama's batch endpoint, {@code /api/embed}, which takes an
+   * {@code input} array and answers with the vectors in the same order.
+   */
+  @Override
+  @NonNull
+  public List<float[]> generateEmbeddings(@NonNull List<String> texts) {
+    if (texts.isEmpty()) {
+      return List.of();
+    }
+    try {
+      List<String> input = texts.stream().map(this::truncateText).toList();
+      List<float[]> embeddings = post("/api/embed", Map.of("model", model, "input", input), this::readEmbeddings);
+      if (embeddings.size() != texts.size()) {
+        throw new RuntimeException("Unexpected response format from Ollama: expected %d embeddings".formatted(texts.size()));
+      }
+      if (!dimensionValidated) {
+        validateDimensions(embeddings.getFirst().length);
+      }
+      return embeddings;
+    } catch (IOException e) {
+      logger.error("Error generating {} embeddings via Ollama", texts.size(), e);
+      throw new RuntimeException("Error generating embeddings", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while generating embeddings", e);
+    }
+  }
+
+  private <T> T post(String path, Map<String, Object> requestBody, ResponseReader<T> reader) throws IOException, InterruptedException {
+    HttpRequest request = HttpRequest.newBuilder()
+      .uri(URI.create(ollamaUrl + path))
+      .header("Content-Type", "application/json")
+      .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(requestBody)))
+      .build();
+
+    HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+
+    try (InputStream body = response.body()) {
+      if (response.statusCode() != 200) {
+        throw new RuntimeException("Failed to generate embedding: " + new String(body.readAllBytes(), StandardCharsets.UTF_8));
+      }
+      try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+          throw new RuntimeException("Unexpected response format from Ollama: not a JSON object");
+        }
+        return reader.read(parser);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface ResponseReader<T> {
+    T read(JsonParser parser) throws IOException;
+  }
+
+  /** The {@code embedding} array of an {@code /api/embeddings} response; other fields are skipped. */
+  private float[] readEmbedding(JsonParser parser) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      if (parser.nextToken() == JsonToken.START_ARRAY && field.equals("embedding")) {
+        return readVector(parser);
+      }
+      parser.skipChildren();
+    }
+    throw new RuntimeException("Unexpected response format from Ollama: embedding field missing or not a list");
+  }
+
+  /** The {@code embeddings} array of arrays of an {@code /api/embed} response. */
+  private List<float[]> readEmbeddings(JsonParser parser) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      if (parser.nextToken() == JsonToken.START_ARRAY && field.equals("embeddings")) {
+        List<float[]> embeddings = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+          if (token != JsonToken.START_ARRAY) {
+            throw new RuntimeException("Unexpected response format from Ollama: embedding is not a list");
+          }
+          embeddings.add(readVector(parser));
+        }
+        return embeddings;
+      }
+      parser.skipChildren();
+    }
+    throw new RuntimeException("Unexpected response format from Ollama: embeddings field missing or not a list");
+  }
+
+  /**
+   * Reads the numbers of the array the parser is at straight into a {@code float[]} sized for the
+   * expected dimensions, so a vector of the configured model is neither boxed nor copied. Nulls are
+   * skipped.
+   */
+  private float[] readVector(JsonParser parser) throws IOException {
+    float[] vector = new float[Math.max(expectedDimensions, 1)];
+    int size = 0;
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      if (token == JsonToken.VALUE_NULL) {
+        continue;
+      }
+      if (token == null || !token.isNumeric()) {
+        throw new RuntimeException("Unexpected response format from Ollama: embedding contains " + token);
+      }
+      if (size == vector.length) {
+        vector = Arrays.copyOf(vector, size * 2);
+      }
+      vector[size++] = parser.getFloatValue();
+    }
+    return size == vector.length ? vector : Arrays.copyOf(vector, size);
+  }
+
   /**
    * Validates that the actual embedding dimensions match the expected dimensions.
    * This is called lazily on the first successful embedding generation.
@@ -130,6 +226,16 @@ public class OllamaEmbeddingAdapter implements EmbeddingGenerator {
 
     logger.warn("Text length ({} chars) exceeds maximum ({} chars) for model '{}'. Truncating to fit context window.", text.length(), MAX_TEXT_LENGTH, model);
 
-    return text.substring(0, MAX_TEXT_LENGTH);
+    return truncate(text);
+  }
+
+  /** The part of {@code text} the model is given, without logging. */
+  static String truncate(String text) {
+    return text == null || text.length() <= MAX_TEXT_LENGTH ? text : text.substring(0, MAX_TEXT_LENGTH);
+  }
+
+  /** Name of the model the embeddings come from. */
+  public @NonNull String model() {
+    return model;
   }
 }
@@ -0,0 +1,220 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Reads a page body without ever holding more than {@code maxBytes} of it.
+ *
+ * <p>The headers are checked first: a declared length over the cap or a type that is not a web page
+ * fails the download before any of the body is read. The body is then collected as it arrives and
+ * the download cancelled as soon as it passes the cap. Finally it is unpacked if the server gzipped
+ * or deflated it, again up to the cap, and decoded with the charset from the header, from a
+ * {@code <meta>} tag, or UTF-8.
+ *
+ * <p>Bodies of non-2xx responses are discarded and come back as {@code null}.
+ */
+final class CappedBodyHandler implements HttpResponse.BodyHandler<CappedBodyHandler.Body> {
+
+  // Types that may hold a page; anything else (images, PDFs, archives, media) is not downloaded
+  private static final Set<String> ACCEPTED_TYPES = Set.of("text/html", "application/xhtml+xml", "text/plain", "application/xml", "text/xml");
+  private static final int SNIFF_BYTES = 1024;
+  private static final Pattern CHARSET = Pattern.compile("charset\\s*=\\s*[\"']?([\\w.:-]+)", Pattern.CASE_INSENSITIVE);
+
+  private final int maxBytes;
+
+  /** The decoded page and its size in bytes after content decoding. */
+  record Body(String text, int length) {}
+
+  CappedBodyHandler(int maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  @Override
+  public HttpResponse.BodySubscriber<Body> apply(HttpResponse.ResponseInfo info) {
+    if (info.statusCode() < 200 || info.statusCode() >= 300) {
+      return HttpResponse.BodySubscribers.replacing(null);
+    }
+    Optional<String> contentType = info.headers().firstValue("Content-Type");
+    String mimeType = contentType.map(CappedBodyHandler::mimeTypeOf).orElse("text/html");
+    if (!ACCEPTED_TYPES.contains(mimeType)) {
+      return rejecting(new ContentRejectedException("Unsupported content type " + mimeType));
+    }
+    OptionalLong declaredLength = info.headers().firstValueAsLong("Content-Length");
+    if (declaredLength.isPresent() && declaredLength.getAsLong() > maxBytes) {
+      return rejecting(new ContentRejectedException("Content length %d exceeds maximum limit of %d bytes".formatted(declaredLength.getAsLong(), maxBytes)));
+    }
+
+    String encoding = info.headers().firstValue("Content-Encoding").map(value -> value.trim().toLowerCase(Locale.ROOT)).orElse("identity");
+    Optional<Charset> declaredCharset = contentType.flatMap(CappedBodyHandler::charsetOf);
+    int expected = (int) Math.min(declaredLength.orElse(0), maxBytes);
+    return HttpResponse.BodySubscribers.mapping(new CappedSubscriber(maxBytes, expected), raw -> {
+      byte[] bytes = decodeContent(raw, encoding);
+      Charset charset = declaredCharset.or(() -> sniffCharset(bytes)).orElse(StandardCharsets.UTF_8);
+      return new Body(new String(bytes, charset), bytes.length);
+    });
+  }
+
+  private byte[] decodeContent(byte[] raw, String encoding) {
+    try {
+      return switch (encoding) {
+        case "identity", "" -> raw;
+        case "gzip", "x-gzip" -> readCapped(new GZIPInputStream(new ByteArrayInputStream(raw)));
+        case "deflate" -> inflate(raw);
+        default -> throw new ContentRejectedException("Unsupported content encoding " + encoding);
+      };
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to decode " + encoding + " content", e);
+    }
+  }
+
+  /** HTTP deflate is meant to be zlib-wrapped, but some servers send raw deflate data. */
+  private byte[] inflate(byte[] raw) throws IOException {
+    try {
+      return readCapped(new InflaterInputStream(new ByteArrayInputStream(raw)));
+    } catch (ZipException e) {
+      return readCapped(new InflaterInputStream(new ByteArrayInputStream(raw), new Inflater(true)));
+    }
+  }
+
+  private byte[] readCapped(InputStream in) throws IOException {
+    try (in) {
+      byte[] bytes = in.readNBytes(maxBytes + 1);
+      if (bytes.length > maxBytes) {
+        throw new ContentRejectedException("Decoded content exceeds maximum limit of " + maxBytes + " bytes");
+      }
+      return bytes;
+    }
+  }
+
+  static String mimeTypeOf(String contentType) {
+    int separator = contentType.indexOf(';');
+    return (separator < 0 ? contentType : contentType.substring(0, separator)).trim().toLowerCase(Locale.ROOT);
+  }
+
+  static Optional<Charset> charsetOf(String text) {
+    Matcher matcher = CHARSET.matcher(text);
+    if (!matcher.find()) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Charset.forName(matcher.group(1)));
+    } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+      return Optional.empty();
+    }
+  }
+
+  /** Charset declared by a {@code <meta>} tag near the start of the page. */
+  private static Optional<Charset> sniffCharset(byte[] bytes) {
+    String head = new String(bytes, 0, Math.min(bytes.length, SNIFF_BYTES), StandardCharsets.ISO_8859_1);
+    int meta = head.toLowerCase(Locale.ROOT).indexOf("<meta");
+    return meta < 0 ? Optional.empty() : charsetOf(head.substring(meta));
+  }
+
+  private static HttpResponse.BodySubscriber<Body> rejecting(ContentRejectedException reason) {
+    return new HttpResponse.BodySubscriber<>() {
+      private final CompletableFuture<Body> body = CompletableFuture.failedFuture(reason);
+
+      @Override
+      public CompletionStage<Body> getBody() {
+        return body;
+      }
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.cancel();
+      }
+
+      @Override
+      public void onNext(List<ByteBuffer> item) {}
+
+      @Override
+      public void onError(Throwable throwable) {}
+
+      @Override
+      public void onComplete() {}
+    };
+  }
+
+  /** Collects the raw body, cancelling the download once it grows past the cap. */
+  private static final class CappedSubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+    private final int maxBytes;
+    private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private byte[] buffer;
+    private int size;
+
+    private CappedSubscriber(int maxBytes, int expected) {
+      this.maxBytes = maxBytes;
+      this.buffer = new byte[Math.max(expected, 8192)];
+    }
+
+    @Override
+    public CompletionStage<byte[]> getBody() {
+      return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+      if (body.isDone()) {
+        return;
+      }
+      for (ByteBuffer item : items) {
+        int remaining = item.remaining();
+        if ((long) size + remaining > maxBytes) {
+          subscription.cancel();
+          buffer = null;
+          body.completeExceptionally(new ContentRejectedException("Content size exceeds maximum limit of " + maxBytes + " bytes"));
+          return;
+        }
+        if (size + remaining > buffer.length) {
+          buffer = Arrays.copyOf(buffer, Math.min(maxBytes, Math.max(buffer.length * 2, size + remaining)));
+        }
+        item.get(buffer, size, remaining);
+        size += remaining;
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      body.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      if (!body.isDone()) {
+        body.complete(size == buffer.length ? buffer : Arrays.copyOf(buffer, size));
+      }
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import it.robfrank.linklift.application.domain.exception.ContentDownloadException;
+import org.jspecify.annotations.NonNull;
+
+/** The response is not a page we keep: too large, or of a type or encoding we cannot read. */
+class ContentRejectedException extends ContentDownloadException {
+
+  ContentRejectedException(@NonNull String message) {
+    super(message);
+  }
+}
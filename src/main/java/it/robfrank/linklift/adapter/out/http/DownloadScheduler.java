@@ -0,0 +1,341 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.robfrank.linklift.application.port.out.ContentDownloaderPort;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Politeness and retry layer in front of a {@link ContentDownloaderPort}: downloads are queued per
+ * host and started round-robin across hosts, with at most {@code maxPerHost} requests open against
+ * one host and {@code maxInFlight} overall.
+ *
+ * <p>This is the only place a download is retried. Transient failures are tried again after a
+ * jittered exponential backoff, following {@link RetryPolicy}, without holding a thread meanwhile.
+ * When a host throttles us it is paused for the {@code Retry-After} delay it sent, or
+ * {@link #DEFAULT_THROTTLE_DELAY} without one, and the throttled request goes back to the head of
+ * its queue. A host that keeps failing trips its circuit breaker, after which its downloads fail
+ * straight away until a trial request gets through.
+ */
+public class DownloadScheduler implements ContentDownloaderPort {
+
+  private static final Logger logger = LoggerFactory.getLogger(DownloadScheduler.class);
+
+  public static final int DEFAULT_MAX_IN_FLIGHT = 32;
+  public static final int DEFAULT_MAX_PER_HOST = 2;
+  static final Duration DEFAULT_THROTTLE_DELAY = Duration.ofSeconds(10);
+  // A host asking for a longer pause is retried after this anyway
+  static final Duration MAX_THROTTLE_DELAY = Duration.ofMinutes(5);
+
+  private final ContentDownloaderPort delegate;
+  private final int maxInFlight;
+  private final int maxPerHost;
+  private final RetryPolicy retryPolicy;
+
+  // All state below is guarded by this
+  private final Map<String, HostQueue> hosts = new HashMap<>();
+  // Hosts that have queued requests and may start one now, in round-robin order
+  private final Deque<HostQueue> ready = new ArrayDeque<>();
+  private final HostCircuitBreakers breakers;
+  private int inFlight;
+  private int queued;
+  private int pausedHosts;
+
+  private final Timer waitTimer;
+  private final Counter throttledCounter;
+  private final Counter throttledRetryCounter;
+  private final Counter transientRetryCounter;
+  private final Counter rejectedCounter;
+
+  private record Request(String url, Validators validators, CompletableFuture<DownloadedContent> result, long enqueuedAt, int attempt) {
+    Request next() {
+      return new Request(url, validators, result, System.nanoTime(), attempt + 1);
+    }
+  }
+
+  private static final class HostQueue {
+
+    private final String host;
+    private final Deque<Request> pending = new ArrayDeque<>();
+    private int inFlight;
+    private long pausedUntil;
+    private boolean paused;
+    private boolean ready;
+
+    private HostQueue(String host) {
+      this.host = host;
+    }
+  }
+
+  public DownloadScheduler(@NonNull ContentDownloaderPort delegate, @NonNull MeterRegistry registry) {
+    this(delegate, registry, DEFAULT_MAX_IN_FLIGHT, DEFAULT_MAX_PER_HOST);
+  }
+
+  public DownloadScheduler(@NonNull ContentDownloaderPort delegate, @NonNull MeterRegistry registry, int maxInFlight, int maxPerHost) {
+    this(delegate, registry, maxInFlight, maxPerHost, RetryPolicy.DEFAULT, new HostCircuitBreakers());
+  }
+
+  DownloadScheduler(
+    @NonNull ContentDownloaderPort delegate,
+    @NonNull MeterRegistry registry,
+    int maxInFlight,
+    int maxPerHost,
+    @NonNull RetryPolicy retryPolicy,
+    @NonNull HostCircuitBreakers breakers
+  ) {
+    if (maxInFlight < 1 || maxPerHost < 1) {
+      throw new IllegalArgumentException("In-flight limits must be positive");
+    }
+    this.delegate = delegate;
+    this.maxInFlight = maxInFlight;
+    this.maxPerHost = maxPerHost;
+    this.retryPolicy = retryPolicy;
+    this.breakers = breakers;
+
+    Gauge.builder("linklift.download.queue.depth", this, DownloadScheduler::queuedCount)
+      .description("Downloads waiting for a free slot")
+      .register(registry);
+    Gauge.builder("linklift.download.in.flight", this, DownloadScheduler::inFlightCount).description("Downloads currently open").register(registry);
+    Gauge.builder("linklift.download.hosts.paused", this, DownloadScheduler::pausedHostCount)
+      .description("Hosts paused after throttling us")
+      .register(registry);
+    for (HostCircuitBreakers.State state : List.of(HostCircuitBreakers.State.OPEN, HostCircuitBreakers.State.HALF_OPEN)) {
+      Gauge.builder("linklift.download.circuit.hosts", this, scheduler -> scheduler.breakerCount(state))
+        .description("Hosts whose circuit breaker is not closed")
+        .tag("state", state.name().toLowerCase(Locale.ROOT))
+        .register(registry);
+    }
+    this.waitTimer = Timer.builder("linklift.download.queue.wait").description("Time a download waited before it started").register(registry);
+    this.throttledCounter = Counter.builder("linklift.download.throttled").description("Responses that throttled a host").register(registry);
+    this.throttledRetryCounter = Counter.builder("linklift.download.retries").description("Downloads tried again").tag("reason", "throttled").register(registry);
+    this.transientRetryCounter = Counter.builder("linklift.download.retries").description("Downloads tried again").tag("reason", "transient").register(registry);
+    this.rejectedCounter = Counter.builder("linklift.download.circuit.rejected")
+      .description("Downloads failed without a request because the host's circuit was open")
+      .register(registry);
+  }
+
+  @Override
+  public @NonNull CompletableFuture<DownloadedContent> downloadContent(@NonNull String url) {
+    return downloadContent(url, Validators.NONE);
+  }
+
+  @Override
+  public @NonNull CompletableFuture<DownloadedContent> downloadContent(@NonNull String url, @NonNull Validators validators) {
+    CompletableFuture<DownloadedContent> result = new CompletableFuture<>();
+    enqueue(new Request(url, validators, result, System.nanoTime(), 0), false);
+    dispatch();
+    return result;
+  }
+
+  private void enqueue(Request request, boolean first) {
+    String host = hostOf(request.url());
+    synchronized (this) {
+      if (breakers.state(host) != HostCircuitBreakers.State.OPEN) {
+        HostQueue queue = hosts.computeIfAbsent(host, HostQueue::new);
+        if (first) {
+          queue.pending.addFirst(request);
+        } else {
+          queue.pending.addLast(request);
+        }
+        queued++;
+        markReady(queue);
+        return;
+      }
+    }
+    rejectedCounter.increment();
+    request.result().completeExceptionally(new HostUnavailableException(request.url(), host));
+  }
+
+  /** Starts as many queued requests as the limits allow; the downloads themselves start outside the lock. */
+  private void dispatch() {
+    List<Request> started = new ArrayList<>();
+    List<HostQueue> startedHosts = new ArrayList<>();
+    synchronized (this) {
+      while (inFlight < maxInFlight && !ready.isEmpty()) {
+        HostQueue queue = ready.pollFirst();
+        queue.ready = false;
+        Request request = queue.pending.pollFirst();
+        queue.inFlight++;
+        inFlight++;
+        queued--;
+        breakers.onStart(queue.host);
+        started.add(request);
+        startedHosts.add(queue);
+        markReady(queue);
+      }
+    }
+    for (int i = 0; i < started.size(); i++) {
+      start(started.get(i), startedHosts.get(i));
+    }
+  }
+
+  private void start(Request request, HostQueue queue) {
+    waitTimer.record(System.nanoTime() - request.enqueuedAt(), TimeUnit.NANOSECONDS);
+    CompletableFuture<DownloadedContent> download;
+    try {
+      download = delegate.downloadContent(request.url(), request.validators());
+    } catch (RuntimeException e) {
+      download = CompletableFuture.failedFuture(e);
+    }
+    download.whenComplete((content, error) -> complete(request, queue, content, error));
+  }
+
+  private void complete(Request request, HostQueue queue, DownloadedContent content, Throwable error) {
+    Optional<HostThrottledException> throttled = error == null ? Optional.empty() : throttledCause(error);
+    boolean retryable = error != null && throttled.isEmpty() && RetryPolicy.isRetryable(error);
+    boolean lastAttempt = request.attempt() + 1 >= retryPolicy.maxAttempts();
+    boolean requeued = false;
+    boolean delayed = false;
+    List<Request> rejected = List.of();
+    synchronized (this) {
+      queue.inFlight--;
+      inFlight--;
+      if (throttled.isPresent()) {
+        // A throttling host is up, it only wants us to slow down
+        breakers.onSuccess(queue.host);
+        throttledCounter.increment();
+        pause(queue, throttled.get().getRetryAfter().orElse(DEFAULT_THROTTLE_DELAY));
+        if (!lastAttempt) {
+          queue.pending.addFirst(request.next());
+          queued++;
+          requeued = true;
+        }
+      } else if (retryable) {
+        if (breakers.onFailure(queue.host)) {
+          logger.warn("Host {} keeps failing, rejecting its downloads for a while", queue.host);
+          rejected = new ArrayList<>(queue.pending);
+          queued -= queue.pending.size();
+          queue.pending.clear();
+          if (queue.ready) {
+            ready.remove(queue);
+            queue.ready = false;
+          }
+        } else if (!lastAttempt) {
+          delayed = true;
+        }
+      } else {
+        // Answered, even if with an error status
+        breakers.onSuccess(queue.host);
+      }
+      markReady(queue);
+      if (queue.pending.isEmpty() && queue.inFlight == 0 && !queue.paused) {
+        hosts.remove(queue.host);
+      }
+    }
+
+    if (requeued) {
+      throttledRetryCounter.increment();
+    } else if (delayed) {
+      Duration backoff = retryPolicy.backoff(request.attempt());
+      logger.debug("Retrying download of {} in {} after: {}", request.url(), backoff, error.getMessage());
+      transientRetryCounter.increment();
+      CompletableFuture.delayedExecutor(backoff.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+        enqueue(request.next(), true);
+        dispatch();
+      });
+    } else if (error == null) {
+      request.result().complete(content);
+    } else {
+      request.result().completeExceptionally(error);
+    }
+    for (Request dropped : rejected) {
+      rejectedCounter.increment();
+      dropped.result().completeExceptionally(new HostUnavailableException(dropped.url(), queue.host));
+    }
+    dispatch();
+  }
+
+  /** Keeps the host out of the ready rotation until the delay has passed. */
+  private void pause(HostQueue queue, Duration delay) {
+    Duration capped = delay.compareTo(MAX_THROTTLE_DELAY) > 0 ? MAX_THROTTLE_DELAY : delay;
+    long until = System.nanoTime() + capped.toNanos();
+    logger.warn("Host {} throttled downloads, pausing it for {}", queue.host, capped);
+    if (queue.paused && until - queue.pausedUntil <= 0) {
+      return;
+    }
+    if (!queue.paused) {
+      pausedHosts++;
+    }
+    queue.paused = true;
+    queue.pausedUntil = until;
+    if (queue.ready) {
+      ready.remove(queue);
+      queue.ready = false;
+    }
+    CompletableFuture.delayedExecutor(capped.toNanos(), TimeUnit.NANOSECONDS).execute(() -> resume(queue, until));
+  }
+
+  private void resume(HostQueue queue, long until) {
+    synchronized (this) {
+      // A later throttle moved the deadline and scheduled its own resume
+      if (!queue.paused || queue.pausedUntil != until) {
+        return;
+      }
+      queue.paused = false;
+      pausedHosts--;
+      markReady(queue);
+      if (queue.pending.isEmpty() && queue.inFlight == 0) {
+        hosts.remove(queue.host);
+      }
+    }
+    dispatch();
+  }
+
+  private void markReady(HostQueue queue) {
+    if (!queue.ready && !queue.paused && !queue.pending.isEmpty() && queue.inFlight < maxPerHost && breakers.permits(queue.host)) {
+      ready.addLast(queue);
+      queue.ready = true;
+    }
+  }
+
+  private synchronized int queuedCount() {
+    return queued;
+  }
+
+  private synchronized int inFlightCount() {
+    return inFlight;
+  }
+
+  private synchronized int pausedHostCount() {
+    return pausedHosts;
+  }
+
+  private synchronized int breakerCount(HostCircuitBreakers.State state) {
+    return breakers.count(state);
+  }
+
+  private static Optional<HostThrottledException> throttledCause(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof HostThrottledException throttled) {
+        return Optional.of(throttled);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /** Lower-cased host of the URL; malformed URLs share one queue and fail in the delegate. */
+  static String hostOf(String url) {
+    try {
+      String host = URI.create(url).getHost();
+      return host == null ? "" : host.toLowerCase(Locale.ROOT);
+    } catch (IllegalArgumentException e) {
+      return "";
+    }
+  }
+}
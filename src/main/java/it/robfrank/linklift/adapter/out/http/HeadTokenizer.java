@@ -0,0 +1,148 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pulls the title and description out of the start of a page without building a document.
+ *
+ * <p>Scans tags left to right and only looks at {@code <title>} and {@code <meta>}; comments and the
+ * contents of {@code <script>} and {@code <style>} are skipped. Open Graph values win over Twitter
+ * card values, which win over the plain {@code <title>} and {@code description}. Input cut off in
+ * the middle of a tag simply ends the scan.
+ */
+final class HeadTokenizer {
+
+  private static final Pattern ATTRIBUTE = Pattern.compile("([^\\s=/>\"']+)(?:\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s>]+)))?");
+  private static final Pattern ENTITY = Pattern.compile("&(#[xX][0-9a-fA-F]+|#[0-9]+|amp|lt|gt|quot|apos|nbsp);");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  record Head(String title, String description) {}
+
+  private HeadTokenizer() {}
+
+  static Head read(String html) {
+    Map<String, String> meta = new HashMap<>();
+    String title = null;
+    int position = 0;
+    while (true) {
+      int open = html.indexOf('<', position);
+      if (open < 0 || open + 1 >= html.length()) {
+        break;
+      }
+      if (html.startsWith("<!--", open)) {
+        int close = html.indexOf("-->", open + 4);
+        if (close < 0) {
+          break;
+        }
+        position = close + 3;
+        continue;
+      }
+      int close = html.indexOf('>', open);
+      if (close < 0) {
+        break;
+      }
+      String tag = html.substring(open + 1, close);
+      String name = tagName(tag);
+      position = close + 1;
+      switch (name) {
+        case "title" -> {
+          int end = indexOfIgnoreCase(html, "</title", position);
+          if (end >= 0 && title == null) {
+            title = html.substring(position, end);
+          }
+          position = end < 0 ? html.length() : end;
+        }
+        case "script", "style" -> {
+          int end = indexOfIgnoreCase(html, "</" + name, position);
+          position = end < 0 ? html.length() : end;
+        }
+        case "meta" -> {
+          Map<String, String> attributes = attributes(tag.substring(4));
+          String key = attributes.getOrDefault("property", attributes.get("name"));
+          String content = attributes.get("content");
+          if (key != null && content != null) {
+            meta.putIfAbsent(key.toLowerCase(Locale.ROOT), content);
+          }
+        }
+        case "/head", "body" -> position = html.length();
+        default -> {}
+      }
+    }
+    return new Head(
+      first(meta.get("og:title"), meta.get("twitter:title"), title),
+      first(meta.get("og:description"), meta.get("twitter:description"), meta.get("description"))
+    );
+  }
+
+  private static String tagName(String tag) {
+    int end = tag.startsWith("/") ? 1 : 0;
+    while (end < tag.length() && !Character.isWhitespace(tag.charAt(end)) && tag.charAt(end) != '/') {
+      end++;
+    }
+    return tag.substring(0, end).toLowerCase(Locale.ROOT);
+  }
+
+  private static Map<String, String> attributes(String text) {
+    Map<String, String> attributes = new HashMap<>();
+    Matcher matcher = ATTRIBUTE.matcher(text);
+    while (matcher.find()) {
+      String value = matcher.group(2) != null ? matcher.group(2) : matcher.group(3) != null ? matcher.group(3) : matcher.group(4);
+      attributes.putIfAbsent(matcher.group(1).toLowerCase(Locale.ROOT), value);
+    }
+    return attributes;
+  }
+
+  private static int indexOfIgnoreCase(String text, String needle, int from) {
+    for (int i = from; i <= text.length() - needle.length(); i++) {
+      if (text.regionMatches(true, i, needle, 0, needle.length())) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** The first value that is not blank once entities are decoded and whitespace collapsed. */
+  private static String first(String... values) {
+    for (String value : values) {
+      if (value != null) {
+        String clean = WHITESPACE.matcher(decodeEntities(value)).replaceAll(" ").strip();
+        if (!clean.isEmpty()) {
+          return clean;
+        }
+      }
+    }
+    return null;
+  }
+
+  static String decodeEntities(String text) {
+    if (text.indexOf('&') < 0) {
+      return text;
+    }
+    return ENTITY.matcher(text).replaceAll(match -> {
+      String entity = match.group(1);
+      String decoded = switch (entity) {
+        case "amp" -> "&";
+        case "lt" -> "<";
+        case "gt" -> ">";
+        case "quot" -> "\"";
+        case "apos" -> "'";
+        case "nbsp" -> " ";
+        default -> {
+          try {
+            int codePoint = entity.charAt(1) == 'x' || entity.charAt(1) == 'X'
+              ? Integer.parseInt(entity.substring(2), 16)
+              : Integer.parseInt(entity.substring(1));
+            yield Character.isValidCodePoint(codePoint) ? Character.toString(codePoint) : match.group();
+          } catch (NumberFormatException e) {
+            yield match.group();
+          }
+        }
+      };
+      return Matcher.quoteReplacement(decoded);
+    });
+  }
+}
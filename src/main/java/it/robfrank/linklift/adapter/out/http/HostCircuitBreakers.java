@@ -0,0 +1,108 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * One circuit breaker per host. After {@code failureThreshold} consecutive transient failures the
+ * host is considered down and requests to it fail without being sent. Once {@code openDuration}
+ * has passed a single trial request goes through: success closes the breaker, failure opens it
+ * again.
+ *
+ * <p>Only hosts that failed recently are tracked. Not thread-safe; {@link DownloadScheduler}
+ * guards it with its own lock.
+ */
+final class HostCircuitBreakers {
+
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  static final int DEFAULT_FAILURE_THRESHOLD = 5;
+  static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+  private static final int MAX_TRACKED_HOSTS = 10_000;
+
+  private final int failureThreshold;
+  private final long openNanos;
+  private final LongSupplier nanoTime;
+  private final Map<String, Breaker> breakers = new LinkedHashMap<>(64, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Breaker> eldest) {
+      return size() > MAX_TRACKED_HOSTS;
+    }
+  };
+
+  private static final class Breaker {
+
+    private int failures;
+    private boolean open;
+    private long openUntil;
+    private boolean trialInFlight;
+  }
+
+  HostCircuitBreakers() {
+    this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION, System::nanoTime);
+  }
+
+  HostCircuitBreakers(int failureThreshold, Duration openDuration, LongSupplier nanoTime) {
+    this.failureThreshold = failureThreshold;
+    this.openNanos = openDuration.toNanos();
+    this.nanoTime = nanoTime;
+  }
+
+  State state(String host) {
+    Breaker breaker = breakers.get(host);
+    if (breaker == null || !breaker.open) {
+      return State.CLOSED;
+    }
+    return nanoTime.getAsLong() - breaker.openUntil < 0 ? State.OPEN : State.HALF_OPEN;
+  }
+
+  /** Whether a request to the host may be sent now; a half-open host gets one trial at a time. */
+  boolean permits(String host) {
+    return switch (state(host)) {
+      case CLOSED -> true;
+      case OPEN -> false;
+      case HALF_OPEN -> !breakers.get(host).trialInFlight;
+    };
+  }
+
+  void onStart(String host) {
+    if (state(host) == State.HALF_OPEN) {
+      breakers.get(host).trialInFlight = true;
+    }
+  }
+
+  /** The host answered; it is up, whatever the status. */
+  void onSuccess(String host) {
+    breakers.remove(host);
+  }
+
+  /** Records a transient failure and returns whether it opened the breaker. */
+  boolean onFailure(String host) {
+    Breaker breaker = breakers.computeIfAbsent(host, h -> new Breaker());
+    breaker.failures++;
+    boolean trialFailed = breaker.open && breaker.trialInFlight;
+    if (trialFailed || (!breaker.open && breaker.failures >= failureThreshold)) {
+      breaker.open = true;
+      breaker.openUntil = nanoTime.getAsLong() + openNanos;
+      breaker.trialInFlight = false;
+      return true;
+    }
+    return false;
+  }
+
+  int count(State state) {
+    int count = 0;
+    for (String host : breakers.keySet().toArray(String[]::new)) {
+      if (state(host) == state) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
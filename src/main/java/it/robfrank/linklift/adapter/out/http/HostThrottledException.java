@@ -0,0 +1,15 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import java.time.Duration;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * The host is rate limiting us: it answered 429, or 503 with a {@code Retry-After} header. The
+ * delay it asked for is kept so the scheduler can pause the whole host instead of retrying blindly.
+ */
+class HostThrottledException extends HttpStatusException {
+
+  HostThrottledException(@NonNull String url, int statusCode, Duration retryAfter) {
+    super(url, statusCode, retryAfter);
+  }
+}
@@ -0,0 +1,12 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import it.robfrank.linklift.application.domain.exception.ContentDownloadException;
+import org.jspecify.annotations.NonNull;
+
+/** Rejected without a request because the host's circuit breaker is open. */
+class HostUnavailableException extends ContentDownloadException {
+
+  HostUnavailableException(@NonNull String url, @NonNull String host) {
+    super("Host " + host + " is unavailable, not downloading URL: " + url);
+  }
+}
@@ -2,82 +2,113 @@ package it.robfrank.linklift.adapter.out.http;
 
 import it.robfrank.linklift.application.domain.exception.ContentDownloadException;
 import it.robfrank.linklift.application.port.out.ContentDownloaderPort;
-import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
+import java.util.concurrent.CompletionException;
 import org.jspecify.annotations.NonNull;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+/**
+ * Downloads a page with a single request, reading at most the configured number of bytes of it
+ * through {@link CappedBodyHandler}. Retries, backoff and per-host limits are the job of
+ * {@link DownloadScheduler}, which can tell transient failures apart by the exception types
+ * reported here.
+ */
 public class HttpContentDownloader implements ContentDownloaderPort {
 
-  private static final Logger logger = LoggerFactory.getLogger(HttpContentDownloader.class);
-
   private static final Duration TIMEOUT = Duration.ofSeconds(30);
-  private static final int MAX_RETRIES = 3;
+  public static final int DEFAULT_MAX_BODY_BYTES = 10 * 1024 * 1024; // 10MB
 
   private final HttpClient httpClient;
+  private final CappedBodyHandler bodyHandler;
 
   public HttpContentDownloader(@NonNull HttpClient httpClient) {
+    this(httpClient, DEFAULT_MAX_BODY_BYTES);
+  }
+
+  public HttpContentDownloader(@NonNull HttpClient httpClient, int maxBodyBytes) {
     this.httpClient = httpClient;
+    this.bodyHandler = new CappedBodyHandler(maxBodyBytes);
   }
 
   @Override
   public @NonNull CompletableFuture<DownloadedContent> downloadContent(@NonNull String url) {
-    return downloadWithRetry(url, 0);
+    return downloadContent(url, Validators.NONE);
   }
 
-  private CompletableFuture<DownloadedContent> downloadWithRetry(@NonNull String url, int attemptNumber) {
-    if (attemptNumber >= MAX_RETRIES) {
-      return CompletableFuture.failedFuture(new ContentDownloadException("Max retries exceeded for URL: " + url));
+  @Override
+  public @NonNull CompletableFuture<DownloadedContent> downloadContent(@NonNull String url, @NonNull Validators validators) {
+    HttpRequest request;
+    try {
+      HttpRequest.Builder builder = HttpRequest.newBuilder()
+        .uri(URI.create(url))
+        .timeout(TIMEOUT)
+        .header("User-Agent", "LinkLift/1.0 (Content Extractor)")
+        .header("Accept", "text/html,application/xhtml+xml;q=0.9,text/plain;q=0.5")
+        .header("Accept-Encoding", "gzip, deflate");
+      if (validators.etag() != null) {
+        builder.header("If-None-Match", validators.etag());
+      }
+      if (validators.lastModified() != null) {
+        builder.header("If-Modified-Since", validators.lastModified());
+      }
+      request = builder.GET().build();
+    } catch (IllegalArgumentException e) {
+      return CompletableFuture.failedFuture(new ContentDownloadException("Invalid URL: " + url, e));
     }
 
-    HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).timeout(TIMEOUT).header("User-Agent", "LinkLift/1.0 (Content Extractor)").GET().build();
-
     return httpClient
-      .sendAsync(request, HttpResponse.BodyHandlers.ofString())
+      .sendAsync(request, bodyHandler)
       .thenCompose(response -> {
+        Validators received = new Validators(
+          response.headers().firstValue("ETag").orElse(null),
+          response.headers().firstValue("Last-Modified").orElse(null)
+        );
+        if (response.statusCode() == 304 && !validators.isEmpty()) {
+          // A 304 may leave out validators that did not change
+          String etag = received.etag() != null ? received.etag() : validators.etag();
+          String lastModified = received.lastModified() != null ? received.lastModified() : validators.lastModified();
+          return CompletableFuture.completedFuture(DownloadedContent.unchanged(new Validators(etag, lastModified)));
+        }
         if (response.statusCode() >= 200 && response.statusCode() < 300) {
-          try {
-            String htmlContent = response.body();
-            String mimeType = response.headers().firstValue("Content-Type").orElse("text/html");
-
-            // Extract text content using Jsoup
-            Document doc = Jsoup.parse(htmlContent);
-            String textContent = doc.body().text();
-
-            int contentLength = htmlContent.getBytes().length;
-
-            return CompletableFuture.completedFuture(new DownloadedContent(htmlContent, textContent, mimeType, contentLength));
-          } catch (Exception e) {
-            return CompletableFuture.failedFuture(new ContentDownloadException("Failed to parse content from URL: " + url, e));
-          }
-        } else if (response.statusCode() >= 500 && attemptNumber < MAX_RETRIES - 1) {
-          // Retry on server errors
-          logger.warn("Retrying download for {} due to server error {} (attempt {})", url, response.statusCode(), attemptNumber + 1);
-          return downloadWithRetry(url, attemptNumber + 1);
-        } else {
-          return CompletableFuture.failedFuture(new ContentDownloadException("HTTP error " + response.statusCode() + " for URL: " + url));
+          // Parsing is left to the content extractor, which needs the document anyway
+          String mimeType = response.headers().firstValue("Content-Type").orElse("text/html");
+          return CompletableFuture.completedFuture(new DownloadedContent(response.body().text(), mimeType, response.body().length(), received, false));
         }
-      })
-      .exceptionally(throwable -> {
-        if (throwable.getCause() instanceof IOException && attemptNumber < MAX_RETRIES - 1) {
-          // Retry on network errors
-          logger.warn("Retrying download for {} due to network error (attempt {})", url, attemptNumber + 1);
-          try {
-            return downloadWithRetry(url, attemptNumber + 1).join();
-          } catch (Exception e) {
-            throw new ContentDownloadException("Failed to download content after retries: " + url, e);
-          }
-        } else {
-          throw new ContentDownloadException("Failed to download content from URL: " + url, throwable);
+        Duration retryAfter = response.headers().firstValue("Retry-After").flatMap(HttpContentDownloader::parseRetryAfter).orElse(null);
+        if (response.statusCode() == 429 || (response.statusCode() == 503 && retryAfter != null)) {
+          return CompletableFuture.failedFuture(new HostThrottledException(url, response.statusCode(), retryAfter));
         }
-      });
+        return CompletableFuture.failedFuture(new HttpStatusException(url, response.statusCode(), retryAfter));
+      })
+      .exceptionallyCompose(throwable ->
+        CompletableFuture.failedFuture(new ContentDownloadException("Failed to download content from URL: " + url, unwrap(throwable)))
+      );
+  }
+
+  private static Throwable unwrap(Throwable throwable) {
+    return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+  }
+
+  /** Parses a {@code Retry-After} value, either delay seconds or an HTTP date. */
+  static Optional<Duration> parseRetryAfter(String value) {
+    String trimmed = value.trim();
+    try {
+      return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed))));
+    } catch (NumberFormatException e) {
+      try {
+        Duration delay = Duration.between(Instant.now(), ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+        return Optional.of(delay.isNegative() ? Duration.ZERO : delay);
+      } catch (DateTimeParseException ignored) {
+        return Optional.empty();
+      }
+    }
   }
 }
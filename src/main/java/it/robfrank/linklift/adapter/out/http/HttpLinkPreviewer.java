@@ -0,0 +1,192 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import it.robfrank.linklift.application.port.out.LinkPreviewPort;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Previews a page from the first few kilobytes of its body. The response is read only until
+ * {@code </head>} or {@code <body} shows up, or {@code maxBytes} arrived, and the request is then
+ * cancelled; whatever was read by then goes through {@link HeadTokenizer}. The whole exchange has
+ * to fit in the deadline, otherwise there is no preview.
+ *
+ * <p>Previews go straight to the host, outside the {@link DownloadScheduler}: each is one small
+ * request made while a user waits, and the full download follows through the scheduler anyway.
+ */
+public class HttpLinkPreviewer implements LinkPreviewPort {
+
+  private static final Logger logger = LoggerFactory.getLogger(HttpLinkPreviewer.class);
+
+  public static final Duration DEFAULT_DEADLINE = Duration.ofMillis(1500);
+  public static final int DEFAULT_MAX_BYTES = 64 * 1024;
+  private static final Set<String> HTML_TYPES = Set.of("text/html", "application/xhtml+xml");
+
+  private final HttpClient httpClient;
+  private final Duration deadline;
+  private final int maxBytes;
+
+  public HttpLinkPreviewer(@NonNull HttpClient httpClient) {
+    this(httpClient, DEFAULT_DEADLINE, DEFAULT_MAX_BYTES);
+  }
+
+  public HttpLinkPreviewer(@NonNull HttpClient httpClient, @NonNull Duration deadline, int maxBytes) {
+    this.httpClient = httpClient;
+    this.deadline = deadline;
+    this.maxBytes = maxBytes;
+  }
+
+  @Override
+  public @NonNull Optional<LinkPreview> preview(@NonNull String url) {
+    HttpRequest request;
+    try {
+      request = HttpRequest.newBuilder()
+        .uri(URI.create(url))
+        .timeout(deadline)
+        .header("User-Agent", "LinkLift/1.0 (Content Extractor)")
+        .header("Accept", "text/html,application/xhtml+xml;q=0.9")
+        // The head is read from the raw bytes, so ask for them uncompressed
+        .header("Accept-Encoding", "identity")
+        .GET()
+        .build();
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+
+    CompletableFuture<HttpResponse<LinkPreview>> response = httpClient.sendAsync(request, this::headOnly);
+    try {
+      return Optional.ofNullable(response.get(deadline.toMillis(), TimeUnit.MILLISECONDS).body());
+    } catch (TimeoutException e) {
+      logger.debug("No preview for {} within {}", url, deadline);
+      response.cancel(true);
+      return Optional.empty();
+    } catch (ExecutionException e) {
+      logger.debug("No preview for {}: {}", url, e.getCause() != null ? e.getCause().toString() : e.toString());
+      return Optional.empty();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      response.cancel(true);
+      return Optional.empty();
+    }
+  }
+
+  private HttpResponse.BodySubscriber<LinkPreview> headOnly(HttpResponse.ResponseInfo info) {
+    if (info.statusCode() < 200 || info.statusCode() >= 300) {
+      return HttpResponse.BodySubscribers.replacing(null);
+    }
+    Optional<String> contentType = info.headers().firstValue("Content-Type");
+    String mimeType = contentType.map(CappedBodyHandler::mimeTypeOf).orElse("text/html");
+    boolean encoded = info.headers().firstValue("Content-Encoding").filter(value -> !value.isBlank() && !value.equalsIgnoreCase("identity")).isPresent();
+    if (!HTML_TYPES.contains(mimeType) || encoded) {
+      // Still worth knowing the type, the title is left to the full download
+      return HttpResponse.BodySubscribers.replacing(new LinkPreview(null, null, mimeType));
+    }
+    Optional<Charset> declaredCharset = contentType.flatMap(CappedBodyHandler::charsetOf);
+    return HttpResponse.BodySubscribers.mapping(new HeadSubscriber(maxBytes), bytes -> {
+      // Charset names are ASCII, so a meta charset can be found before the real charset is known
+      Charset charset = declaredCharset.or(() -> CappedBodyHandler.charsetOf(new String(bytes, StandardCharsets.ISO_8859_1))).orElse(StandardCharsets.UTF_8);
+      HeadTokenizer.Head head = HeadTokenizer.read(new String(bytes, charset));
+      return new LinkPreview(head.title(), head.description(), mimeType);
+    });
+  }
+
+  /** Collects the body until the head is complete or {@code maxBytes} arrived, then cancels the rest. */
+  private static final class HeadSubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+    private static final byte[][] HEAD_END = { "</head".getBytes(StandardCharsets.US_ASCII), "<body".getBytes(StandardCharsets.US_ASCII) };
+
+    private final int maxBytes;
+    private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private byte[] buffer = new byte[8192];
+    private int size;
+
+    private HeadSubscriber(int maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public CompletionStage<byte[]> getBody() {
+      return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+      if (body.isDone()) {
+        return;
+      }
+      for (ByteBuffer item : items) {
+        int from = Math.max(0, size - HEAD_END[0].length);
+        int length = Math.min(item.remaining(), maxBytes - size);
+        if (size + length > buffer.length) {
+          buffer = Arrays.copyOf(buffer, Math.min(maxBytes, Math.max(buffer.length * 2, size + length)));
+        }
+        item.get(buffer, size, length);
+        size += length;
+        if (size >= maxBytes || containsHeadEnd(from)) {
+          subscription.cancel();
+          onComplete();
+          return;
+        }
+      }
+    }
+
+    private boolean containsHeadEnd(int from) {
+      for (int i = from; i < size; i++) {
+        for (byte[] marker : HEAD_END) {
+          if (i + marker.length <= size && matchesIgnoreCase(i, marker)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    private boolean matchesIgnoreCase(int offset, byte[] marker) {
+      for (int j = 0; j < marker.length; j++) {
+        byte b = buffer[offset + j];
+        if (b != marker[j] && (b | 0x20) != marker[j]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      // A cut-off head still has a title more often than not
+      onComplete();
+    }
+
+    @Override
+    public void onComplete() {
+      if (!body.isDone()) {
+        body.complete(Arrays.copyOf(buffer, size));
+      }
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import it.robfrank.linklift.application.domain.exception.ContentDownloadException;
+import java.time.Duration;
+import java.util.Optional;
+import org.jspecify.annotations.NonNull;
+
+/** The host answered with a status other than 2xx, possibly asking to retry after a delay. */
+class HttpStatusException extends ContentDownloadException {
+
+  private final int statusCode;
+  private final Duration retryAfter;
+
+  HttpStatusException(@NonNull String url, int statusCode, Duration retryAfter) {
+    super("HTTP error " + statusCode + " for URL: " + url);
+    this.statusCode = statusCode;
+    this.retryAfter = retryAfter;
+  }
+
+  int getStatusCode() {
+    return statusCode;
+  }
+
+  Optional<Duration> getRetryAfter() {
+    return Optional.ofNullable(retryAfter);
+  }
+}
@@ -2,11 +2,17 @@ package it.robfrank.linklift.adapter.out.http;
 
 import it.robfrank.linklift.application.port.out.ContentExtractorPort;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.QueryParser;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -14,132 +20,201 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Jsoup-based implementation of ContentExtractorPort.
+ *
+ * <p>The page is parsed once and walked once: every element is matched against the precompiled
+ * selectors below and whatever it provides (a meta value, a link, the hero image, a main content
+ * candidate, boilerplate to drop) is recorded on the way. Only the chosen main content element is
+ * serialized afterwards, to HTML and to text, without parsing anything again.
  */
 public class JsoupContentExtractor implements ContentExtractorPort {
 
   private static final Logger logger = LoggerFactory.getLogger(JsoupContentExtractor.class);
   private static final int MAX_EXTRACTED_URLS = 200;
 
+  private enum Field {
+    TITLE,
+    DESCRIPTION,
+    AUTHOR,
+    PUBLISHED_DATE,
+    HERO_IMAGE,
+  }
+
+  /** Where a field value may come from; for each field the first rule listed wins. */
+  private record Rule(Field field, Evaluator evaluator, @Nullable String attribute) {
+    private Rule(Field field, String query, @Nullable String attribute) {
+      this(field, QueryParser.parse(query), attribute);
+    }
+
+    private String valueOf(Element element) {
+      return attribute == null ? element.text() : element.attr(attribute);
+    }
+  }
+
+  private static final List<Rule> RULES = List.of(
+    new Rule(Field.TITLE, "meta[property=og:title]", "content"),
+    new Rule(Field.TITLE, "meta[name=twitter:title]", "content"),
+    new Rule(Field.TITLE, "meta[property=article:title]", "content"),
+    new Rule(Field.DESCRIPTION, "meta[property=og:description]", "content"),
+    new Rule(Field.DESCRIPTION, "meta[name=twitter:description]", "content"),
+    new Rule(Field.DESCRIPTION, "meta[name=description]", "content"),
+    new Rule(Field.AUTHOR, "meta[property=article:author]", "content"),
+    new Rule(Field.AUTHOR, "meta[name=author]", "content"),
+    new Rule(Field.AUTHOR, "[itemprop=author]", "content"),
+    new Rule(Field.AUTHOR, "a[rel=author]", null),
+    new Rule(Field.PUBLISHED_DATE, "meta[property=article:published_time]", "content"),
+    new Rule(Field.PUBLISHED_DATE, "[itemprop=datePublished]", "content"),
+    new Rule(Field.PUBLISHED_DATE, "time[datetime]", "datetime"),
+    new Rule(Field.HERO_IMAGE, "meta[property=og:image]", "content"),
+    new Rule(Field.HERO_IMAGE, "meta[name=twitter:image]", "content"),
+    new Rule(Field.HERO_IMAGE, "article img, main img, img[src]", "src")
+  );
+
+  // In order of preference; the first element matching the earliest selector is the main content
+  private static final List<Evaluator> MAIN_CONTENT = List.of("article", "[role=main]", ".article-content", ".post-content", "main", ".content")
+    .stream()
+    .map(QueryParser::parse)
+    .toList();
+  private static final Evaluator BOILERPLATE = QueryParser.parse("script, style, nav, header, footer, aside, .ad, .advertisement");
+  private static final Evaluator LINK = QueryParser.parse("a[href]");
+
   @Override
   public ExtractedMetadata extractMetadata(@NonNull String html, @NonNull String url) {
     try {
       Document doc = Jsoup.parse(html, url);
+      Page page = new Page(doc);
+      NodeTraversor.traverse(
+        (node, depth) -> {
+          if (node instanceof Element element) {
+            page.visit(element);
+          }
+        },
+        doc
+      );
+
+      Element mainContent = page.mainContent();
+      // Before the boilerplate is detached, which would hide where each link sat
+      List<String> urls = page.urls(url);
+      String mainContentHtml = null;
+      String textContent = null;
+      if (mainContent != null) {
+        // Everything else has been read already, so the boilerplate can go from the document itself
+        page.boilerplate.forEach(Element::remove);
+        mainContentHtml = mainContent.html();
+        textContent = mainContent.text();
+      }
 
-      String title = extractTitle(doc);
-      String description = extractDescription(doc);
-      String author = extractAuthor(doc);
-      String publishedDate = extractPublishedDate(doc);
-      String heroImageUrl = extractHeroImage(doc, url);
-      String mainContent = extractMainContent(doc);
-      String textContent = extractTextContent(doc);
-      List<String> extractedUrls = extractUrls(doc, url);
-
-      return new ExtractedMetadata(title, description, author, publishedDate, heroImageUrl, mainContent, textContent, extractedUrls);
+      return new ExtractedMetadata(
+        page.value(Field.TITLE).orElse(doc.title().isEmpty() ? null : doc.title()),
+        page.value(Field.DESCRIPTION).orElse(null),
+        page.value(Field.AUTHOR).orElse(null),
+        page.value(Field.PUBLISHED_DATE).orElse(null),
+        page.value(Field.HERO_IMAGE).map(image -> resolveUrl(image, url)).orElse(null),
+        mainContentHtml,
+        textContent,
+        urls
+      );
     } catch (Exception e) {
       logger.error("Failed to extract metadata from HTML", e);
       return new ExtractedMetadata(null, null, null, null, null, null, null, null);
     }
   }
 
-  private @Nullable String extractTitle(@NonNull Document doc) {
-    String ogTitle = doc.select("meta[property=og:title]").attr("content");
-    if (!ogTitle.isEmpty()) return ogTitle;
-
-    String twitterTitle = doc.select("meta[name=twitter:title]").attr("content");
-    if (!twitterTitle.isEmpty()) return twitterTitle;
-
-    String articleTitle = doc.select("meta[property=article:title]").attr("content");
-    if (!articleTitle.isEmpty()) return articleTitle;
-
-    String htmlTitle = doc.title();
-    return htmlTitle.isEmpty() ? null : htmlTitle;
-  }
-
-  private @Nullable String extractDescription(@NonNull Document doc) {
-    String ogDescription = doc.select("meta[property=og:description]").attr("content");
-    if (!ogDescription.isEmpty()) return ogDescription;
-
-    String twitterDescription = doc.select("meta[name=twitter:description]").attr("content");
-    if (!twitterDescription.isEmpty()) return twitterDescription;
-
-    String metaDescription = doc.select("meta[name=description]").attr("content");
-    return metaDescription.isEmpty() ? null : metaDescription;
-  }
-
-  private @Nullable String extractAuthor(@NonNull Document doc) {
-    String articleAuthor = doc.select("meta[property=article:author]").attr("content");
-    if (!articleAuthor.isEmpty()) return articleAuthor;
-
-    String metaAuthor = doc.select("meta[name=author]").attr("content");
-    if (!metaAuthor.isEmpty()) return metaAuthor;
+  /** What a single walk over the document has found so far. */
+  private static final class Page {
 
-    String schemaAuthor = doc.select("[itemprop=author]").attr("content");
-    if (!schemaAuthor.isEmpty()) return schemaAuthor;
-
-    String relAuthor = doc.select("a[rel=author]").text();
-    return relAuthor.isEmpty() ? null : relAuthor;
-  }
-
-  private @Nullable String extractPublishedDate(@NonNull Document doc) {
-    String articlePublished = doc.select("meta[property=article:published_time]").attr("content");
-    if (!articlePublished.isEmpty()) return articlePublished;
-
-    String schemaPublished = doc.select("[itemprop=datePublished]").attr("content");
-    if (!schemaPublished.isEmpty()) return schemaPublished;
-
-    String timePublished = doc.select("time[datetime]").attr("datetime");
-    return timePublished.isEmpty() ? null : timePublished;
-  }
+    private final Document doc;
+    private final String[] ruleValues = new String[RULES.size()];
+    private final Element[] candidates = new Element[MAIN_CONTENT.size()];
+    private final List<Element> boilerplate = new ArrayList<>();
+    private final List<Element> links = new ArrayList<>();
 
-  private @Nullable String extractHeroImage(@NonNull Document doc, @NonNull String baseUrl) {
-    String ogImage = doc.select("meta[property=og:image]").attr("content");
-    if (!ogImage.isEmpty()) return resolveUrl(ogImage, baseUrl);
-
-    String twitterImage = doc.select("meta[name=twitter:image]").attr("content");
-    if (!twitterImage.isEmpty()) return resolveUrl(twitterImage, baseUrl);
-
-    Element firstImg = doc.selectFirst("article img, main img, img[src]");
-    if (firstImg != null) {
-      String src = firstImg.attr("src");
-      return resolveUrl(src, baseUrl);
+    private Page(Document doc) {
+      this.doc = doc;
     }
 
-    return null;
-  }
+    private void visit(Element element) {
+      for (int i = 0; i < ruleValues.length; i++) {
+        Rule rule = RULES.get(i);
+        if (ruleValues[i] == null && rule.evaluator().matches(doc, element)) {
+          String value = rule.valueOf(element);
+          if (!value.isEmpty()) {
+            ruleValues[i] = value;
+          }
+        }
+      }
+      for (int i = 0; i < candidates.length; i++) {
+        if (candidates[i] == null && MAIN_CONTENT.get(i).matches(doc, element)) {
+          candidates[i] = element;
+        }
+      }
+      if (BOILERPLATE.matches(doc, element)) {
+        boilerplate.add(element);
+      }
+      if (LINK.matches(doc, element)) {
+        links.add(element);
+      }
+    }
 
-  private @Nullable String extractMainContent(@NonNull Document doc) {
-    List<String> selectors = List.of("article", "[role=main]", ".article-content", ".post-content", "main", ".content");
+    private Optional<String> value(Field field) {
+      for (int i = 0; i < ruleValues.length; i++) {
+        if (ruleValues[i] != null && RULES.get(i).field() == field) {
+          return Optional.of(ruleValues[i]);
+        }
+      }
+      return Optional.empty();
+    }
 
-    for (String selector : selectors) {
-      Elements elements = doc.select(selector);
-      if (!elements.isEmpty()) {
-        Element content = elements.first();
-        if (content != null) {
-          content.select("script, style, nav, header, footer, aside, .ad, .advertisement").remove();
-          return content.html();
+    private @Nullable Element candidate() {
+      for (Element candidate : candidates) {
+        if (candidate != null) {
+          return candidate;
         }
       }
+      return null;
     }
 
-    Element body = doc.body();
-    if (body != null) {
-      Element bodyClone = body.clone();
-      bodyClone.select("script, style, nav, header, footer, aside, .ad, .advertisement").remove();
-      return bodyClone.html();
+    private @Nullable Element mainContent() {
+      Element candidate = candidate();
+      return candidate != null ? candidate : doc.body();
     }
 
-    return null;
-  }
+    /**
+     * Links of the page, except those in boilerplate of a main content candidate: ads and bylines
+     * inside an article are not citations. Boilerplate elsewhere, such as site navigation, is kept.
+     */
+    private List<String> urls(String baseUrl) {
+      Element candidate = candidate();
+      Set<String> urls = new LinkedHashSet<>();
+      int linkCount = 0;
+      for (Element link : links) {
+        if (candidate != null && inBoilerplateOf(link, candidate)) {
+          continue;
+        }
+        linkCount++;
+        String href = link.absUrl("href");
+        if (urls.size() < MAX_EXTRACTED_URLS && href.startsWith("http")) {
+          urls.add(href);
+        }
+      }
+      if (linkCount > MAX_EXTRACTED_URLS) {
+        logger.warn("Extracted URLs limited to {} from {} total links found in {}", MAX_EXTRACTED_URLS, linkCount, baseUrl);
+      }
+      return List.copyOf(urls);
+    }
 
-  private @Nullable String extractTextContent(@NonNull Document doc) {
-    String mainContent = extractMainContent(doc);
-    if (mainContent != null) {
-      return Jsoup.parse(mainContent).text();
+    private boolean inBoilerplateOf(Element element, Element container) {
+      boolean boilerplate = false;
+      for (Element current = element; current != null; current = current.parent()) {
+        boilerplate |= BOILERPLATE.matches(doc, current);
+        if (current == container) {
+          return boilerplate;
+        }
+      }
+      return false;
     }
-    return doc.body() != null ? doc.body().text() : null;
   }
 
-  private String resolveUrl(@NonNull String url, @NonNull String baseUrl) {
+  private static String resolveUrl(@NonNull String url, @NonNull String baseUrl) {
     if (url.startsWith("http://") || url.startsWith("https://")) return url;
     try {
       return new URL(new URL(baseUrl), url).toString();
@@ -147,22 +222,4 @@ public class JsoupContentExtractor implements ContentExtractorPort {
       return url;
     }
   }
-
-  private @NonNull List<String> extractUrls(@NonNull Document doc, @NonNull String baseUrl) {
-    Elements links = doc.select("a[href]");
-    List<String> urls = links
-      .stream()
-      .map(link -> link.attr("abs:href"))
-      .filter(href -> !href.isEmpty())
-      .filter(href -> href.startsWith("http"))
-      .distinct()
-      .limit(MAX_EXTRACTED_URLS)
-      .toList();
-
-    if (links.size() > MAX_EXTRACTED_URLS) {
-      logger.warn("Extracted URLs limited to {} from {} total links found in {}", MAX_EXTRACTED_URLS, links.size(), baseUrl);
-    }
-
-    return urls;
-  }
 }
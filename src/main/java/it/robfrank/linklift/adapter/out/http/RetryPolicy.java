@@ -0,0 +1,40 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When and how soon a failed download is tried again: transient failures only, a bounded number of
+ * attempts, and exponential backoff with full jitter so retries against a recovering host spread
+ * out instead of arriving together.
+ */
+record RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+  static final RetryPolicy DEFAULT = new RetryPolicy(3, Duration.ofSeconds(1), Duration.ofSeconds(30));
+
+  /** Network errors and timeouts, 408, 429 and 5xx; any other status or error will not change on a retry. */
+  static boolean isRetryable(Throwable error) {
+    // The HTTP client may report a rejected body as an I/O error around our exception
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof ContentRejectedException) {
+        return false;
+      }
+    }
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (cause instanceof HttpStatusException status) {
+        int code = status.getStatusCode();
+        return code == 408 || code == 429 || code >= 500;
+      }
+      if (cause instanceof IOException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Random delay before attempt {@code attempt + 1}, between zero and the capped exponential bound. */
+  Duration backoff(int attempt) {
+    long bound = Math.min(maxDelay.toMillis(), baseDelay.toMillis() << Math.min(attempt, 20));
+    return Duration.ofMillis(ThreadLocalRandom.current().nextLong(bound + 1));
+  }
+}
@@ -14,10 +14,16 @@ public class ArcadeCollectionRepository {
 
   private final RemoteDatabase database;
   private final LinkMapper linkMapper;
+  private final RidCache ridCache;
 
   public ArcadeCollectionRepository(RemoteDatabase database) {
+    this(database, new RidCache());
+  }
+
+  public ArcadeCollectionRepository(RemoteDatabase database, RidCache ridCache) {
     this.database = database;
     this.linkMapper = new LinkMapper();
+    this.ridCache = ridCache;
   }
 
   private Collection toCollection(Document vertex) {
@@ -83,18 +89,14 @@ public class ArcadeCollectionRepository {
 
   public void addLinkToCollection(String collectionId, String linkId) {
     try {
-      database.transaction(() -> {
+      ridCache.transaction(database, () -> {
         // Create edge from Collection to Link
         database.command(
           "sql",
-          """
-          CREATE EDGE ContainsLink
-          FROM (SELECT FROM Collection WHERE id = ?)
-          TO (SELECT FROM Link WHERE id = ?)
-          SET addedAt = SYSDATE()
-          """,
-          collectionId,
-          linkId
+          "CREATE EDGE ContainsLink FROM %s TO %s SET addedAt = SYSDATE()".formatted(
+            ridCache.require(database, "Collection", "id", collectionId),
+            ridCache.require(database, "Link", "id", linkId)
+          )
         );
       });
     } catch (ArcadeDBException e) {
@@ -150,6 +152,7 @@ public class ArcadeCollectionRepository {
         // Delete the collection vertex (edges will be cascade deleted)
         database.command("sql", "DELETE FROM Collection WHERE id = ?", collectionId);
       });
+      ridCache.invalidate("Collection", collectionId);
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to delete collection: " + collectionId, e);
     }
@@ -174,6 +177,7 @@ public class ArcadeCollectionRepository {
         // 2. Delete source collection (this will also delete the old edges)
         database.command("sql", "DELETE FROM Collection WHERE id = ?", sourceCollectionId);
       });
+      ridCache.invalidate("Collection", sourceCollectionId);
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to merge collection " + sourceCollectionId + " into " + targetCollectionId, e);
     }
@@ -5,12 +5,19 @@ import com.arcadedb.query.sql.executor.Result;
 import com.arcadedb.remote.RemoteDatabase;
 import it.robfrank.linklift.application.domain.exception.DatabaseException;
 import it.robfrank.linklift.application.domain.model.Content;
+import it.robfrank.linklift.application.domain.model.ContentChunk;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,22 +28,36 @@ public class ArcadeContentRepository {
 
   private static final int VECTOR_OVERFETCH_FACTOR = 5;
   private static final int VECTOR_OVERFETCH_MAX = 1000;
+  // Passages fetched per link wanted, as the nearest ones often come from the same few pages
+  private static final int CHUNKS_PER_LINK = 4;
 
   private final RemoteDatabase database;
   private final ContentMapper mapper;
+  private final RidCache ridCache;
 
   public ArcadeContentRepository(@NonNull RemoteDatabase database) {
+    this(database, new RidCache());
+  }
+
+  public ArcadeContentRepository(@NonNull RemoteDatabase database, @NonNull RidCache ridCache) {
     this.database = database;
     this.mapper = new ContentMapper();
+    this.ridCache = ridCache;
   }
 
   public @NonNull Content save(@NonNull Content content) {
     try {
+      AtomicReference<Object> rid = new AtomicReference<>();
       database.transaction(() -> {
         MutableVertex vertex = database.newVertex("Content");
         mapper.mapToVertex(content, vertex);
         vertex.save();
+        rid.set(vertex.getIdentity());
       });
+      // The HasContent edge usually follows right away; it can then address the vertex directly
+      if (rid.get() != null) {
+        ridCache.put("Content", content.id(), rid.get());
+      }
       return content;
     } catch (Exception e) {
       throw new DatabaseException("Failed to save content: " + e.getMessage(), e);
@@ -95,18 +116,14 @@ public class ArcadeContentRepository {
 
   public void createHasContentEdge(@NonNull String linkId, @NonNull String contentId) {
     try {
-      database.transaction(() -> {
-        // Create edge using SQL command
+      ridCache.transaction(database, () -> {
+        // Create edge using SQL command, addressing both vertices by RID
         database.command(
           "sql",
-          """
-          CREATE EDGE HasContent
-          FROM (SELECT FROM Link WHERE id = ?)
-          TO (SELECT FROM Content WHERE id = ?)
-          SET createdAt = ?
-          """,
-          linkId,
-          contentId,
+          "CREATE EDGE HasContent FROM %s TO %s SET createdAt = ?".formatted(
+            ridCache.require(database, "Link", "id", linkId),
+            ridCache.require(database, "Content", "id", contentId)
+          ),
           LocalDateTime.now()
         );
       });
@@ -117,15 +134,25 @@ public class ArcadeContentRepository {
 
   public void deleteByLinkId(@NonNull String linkId) {
     try {
+      List<String> contentIds = new ArrayList<>();
       database.transaction(() -> {
+        database.query("sql", "SELECT id FROM Content WHERE linkId = ?", linkId).stream().forEach(row -> contentIds.add(row.getProperty("id")));
         database.command("sql", "DELETE VERTEX Content WHERE linkId = ?", linkId);
+        database.command("sql", "DELETE FROM ContentChunk WHERE linkId = ?", linkId);
       });
+      ridCache.invalidate("Content", contentIds);
     } catch (Exception e) {
       throw new DatabaseException("Failed to delete content by link ID: " + e.getMessage(), e);
     }
   }
 
-  public @NonNull List<Content> findSimilar(@NonNull List<Float> queryVector, int limit, @NonNull String userId) {
+  /**
+   * Content of the user's links nearest to the query vector. Passages are searched first and a link
+   * ranks by its best passage (max-sim): neighbours come nearest first, so the first passage seen of
+   * a link is its best. Content stored before it was split into passages is then matched by its own
+   * embedding, after the links found through passages.
+   */
+  public @NonNull List<Content> findSimilar(@NonNull float[] queryVector, int limit, @NonNull String userId) {
     try {
       // Restrict results to links the user owns. ArcadeDB 26.6.x cannot apply a WHERE filter to a
       // vectorNeighbors() result (wrapping it in a subquery breaks index resolution), so we over-fetch
@@ -135,35 +162,31 @@ public class ArcadeContentRepository {
       if (ownedLinkIds.isEmpty()) {
         return List.of();
       }
+      String vectorLiteral = vectorLiteral(queryVector);
 
-      int fetch = Math.min(Math.max(limit, 1) * VECTOR_OVERFETCH_FACTOR, VECTOR_OVERFETCH_MAX);
-
-      // The query vector must be inlined as a literal: ArcadeDB 26.6.x fails index resolution
-      // ("No vector index found ...") when the vector is passed as a bound parameter. Inlining is safe
-      // because the values are finite floats (no SQL-injection surface); the guard below enforces that
-      // invariant so a future change widening the input type can't make this injectable.
-      StringBuilder vectorLiteral = new StringBuilder("[");
-      for (int i = 0; i < queryVector.size(); i++) {
-        Float v = queryVector.get(i);
-        if (v == null || !Float.isFinite(v)) {
-          throw new IllegalArgumentException("Query vector contains a non-finite value");
+      Set<String> rankedLinkIds = new LinkedHashSet<>();
+      for (ContentChunk chunk : nearestChunks(vectorLiteral, limit * CHUNKS_PER_LINK, ownedLinkIds)) {
+        if (rankedLinkIds.size() == limit) {
+          break;
         }
-        if (i > 0) vectorLiteral.append(',');
-        vectorLiteral.append(v.floatValue());
+        rankedLinkIds.add(chunk.linkId());
       }
-      vectorLiteral.append(']');
-      var resultSet = database.query("sql", "SELECT expand(vectorNeighbors('Content[embedding]', " + vectorLiteral + ", " + fetch + "))");
+      Map<String, Content> contentsByLinkId = findByLinkIds(rankedLinkIds);
       List<Content> results = new ArrayList<>();
-      while (resultSet.hasNext() && results.size() < limit) {
-        var result = resultSet.next();
-        try {
-          Content content = mapper.mapFromMap(result.toMap());
-          if (ownedLinkIds.contains(content.linkId())) {
+      for (String linkId : rankedLinkIds) {
+        Content content = contentsByLinkId.get(linkId);
+        if (content != null) {
+          results.add(content);
+        }
+      }
+      if (results.size() < limit) {
+        for (Content content : nearestContents(vectorLiteral, limit, ownedLinkIds)) {
+          if (results.size() == limit) {
+            break;
+          }
+          if (!rankedLinkIds.contains(content.linkId())) {
             results.add(content);
           }
-        } catch (Exception e) {
-          // Skip results that can't be mapped (e.g. placeholder zero-vector entries)
-          logger.error("Skipping vector search result that could not be mapped to Content: {}", e.getMessage(), e);
         }
       }
       return results;
@@ -172,11 +195,143 @@ public class ArcadeContentRepository {
     }
   }
 
+  /** Passages of the user's links nearest to the query vector, best first. */
+  public @NonNull List<ContentChunk> findSimilarChunks(@NonNull float[] queryVector, int limit, @NonNull String userId) {
+    try {
+      Set<String> ownedLinkIds = findOwnedLinkIds(userId);
+      if (ownedLinkIds.isEmpty()) {
+        return List.of();
+      }
+      return nearestChunks(vectorLiteral(queryVector), limit, ownedLinkIds);
+    } catch (Exception e) {
+      throw new DatabaseException("Failed to find similar passages: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * The query vector must be inlined as a literal: ArcadeDB 26.6.x fails index resolution
+   * ("No vector index found ...") when the vector is passed as a bound parameter. Inlining is safe
+   * because the values are finite floats (no SQL-injection surface); the guard below enforces that
+   * invariant so a future change widening the input type can't make this injectable.
+   */
+  private static String vectorLiteral(float[] queryVector) {
+    StringBuilder vectorLiteral = new StringBuilder(queryVector.length * 12).append('[');
+    for (int i = 0; i < queryVector.length; i++) {
+      float v = queryVector[i];
+      if (!Float.isFinite(v)) {
+        throw new IllegalArgumentException("Query vector contains a non-finite value");
+      }
+      if (i > 0) vectorLiteral.append(',');
+      vectorLiteral.append(v);
+    }
+    return vectorLiteral.append(']').toString();
+  }
+
+  private static int overfetch(int limit) {
+    return Math.min(Math.max(limit, 1) * VECTOR_OVERFETCH_FACTOR, VECTOR_OVERFETCH_MAX);
+  }
+
+  private List<ContentChunk> nearestChunks(String vectorLiteral, int limit, Set<String> ownedLinkIds) {
+    var resultSet = database.query("sql", "SELECT expand(vectorNeighbors('ContentChunk[embedding]', " + vectorLiteral + ", " + overfetch(limit) + "))");
+    List<ContentChunk> results = new ArrayList<>();
+    while (resultSet.hasNext() && results.size() < limit) {
+      var row = resultSet.next();
+      String linkId = row.getProperty("linkId");
+      String text = row.getProperty("text");
+      Object position = row.getProperty("position");
+      if (linkId != null && text != null && ownedLinkIds.contains(linkId)) {
+        results.add(new ContentChunk(linkId, position instanceof Number number ? number.intValue() : 0, text, null));
+      }
+    }
+    return results;
+  }
+
+  private List<Content> nearestContents(String vectorLiteral, int limit, Set<String> ownedLinkIds) {
+    var resultSet = database.query("sql", "SELECT expand(vectorNeighbors('Content[embedding]', " + vectorLiteral + ", " + overfetch(limit) + "))");
+    List<Content> results = new ArrayList<>();
+    while (resultSet.hasNext() && results.size() < limit) {
+      var result = resultSet.next();
+      try {
+        Content content = mapper.mapFromMap(result.toMap());
+        if (ownedLinkIds.contains(content.linkId())) {
+          results.add(content);
+        }
+      } catch (Exception e) {
+        // Skip results that can't be mapped (e.g. placeholder zero-vector entries)
+        logger.error("Skipping vector search result that could not be mapped to Content: {}", e.getMessage(), e);
+      }
+    }
+    return results;
+  }
+
+  private Map<String, Content> findByLinkIds(Set<String> linkIds) {
+    if (linkIds.isEmpty()) {
+      return Map.of();
+    }
+    Map<String, Content> contents = new HashMap<>();
+    database
+      .query("sql", "SELECT FROM Content WHERE linkId IN ?", List.copyOf(linkIds))
+      .stream()
+      .flatMap(row -> row.getVertex().stream())
+      .map(mapper::mapToDomain)
+      .forEach(content -> contents.put(content.linkId(), content));
+    return contents;
+  }
+
+  /**
+   * Deletes the passages of the link's content and writes {@code chunks} in their place with one
+   * {@code sqlscript} round trip, then marks the content as split so the start-up migration in
+   * {@code 022_create_content_chunks.sql} leaves it alone.
+   */
+  public void replaceChunks(@NonNull String linkId, @NonNull List<ContentChunk> chunks) {
+    try {
+      Map<String, Object> params = new HashMap<>();
+      params.put("linkId", linkId);
+      StringBuilder script = new StringBuilder("DELETE FROM ContentChunk WHERE linkId = :linkId;\n");
+      int i = 0;
+      for (ContentChunk chunk : chunks) {
+        // A vertex without its vector would break the LSM_VECTOR index, see ContentMapper
+        if (chunk.embedding() == null || chunk.embedding().length == 0) {
+          continue;
+        }
+        script.append("INSERT INTO ContentChunk SET linkId = :linkId, position = :position%1$d, text = :text%1$d, embedding = :embedding%1$d;\n".formatted(i));
+        params.put("position" + i, chunk.position());
+        params.put("text" + i, chunk.text());
+        params.put("embedding" + i, toList(chunk.embedding()));
+        i++;
+      }
+      script.append("UPDATE Content SET chunked = true WHERE linkId = :linkId;\n");
+      database.transaction(() -> database.command("sqlscript", script.toString(), params));
+    } catch (Exception e) {
+      throw new DatabaseException("Failed to store passages of link %s: %s".formatted(linkId, e.getMessage()), e);
+    }
+  }
+
+  /**
+   * Clears the split marker of the link's content and sets {@code needsEmbedding}, so both the
+   * embedding backfill and the start-up migration pick it up again.
+   */
+  public void markForEmbeddingBackfill(@NonNull String linkId) {
+    try {
+      database.transaction(() -> database.command("sql", "UPDATE Content SET chunked = null, needsEmbedding = true WHERE linkId = ?", linkId));
+    } catch (Exception e) {
+      throw new DatabaseException("Failed to flag content of link %s for the embedding backfill: %s".formatted(linkId, e.getMessage()), e);
+    }
+  }
+
+  private static List<Float> toList(float[] vector) {
+    List<Float> list = new ArrayList<>(vector.length);
+    for (float value : vector) {
+      list.add(value);
+    }
+    return list;
+  }
+
   private Set<String> findOwnedLinkIds(String userId) {
     Set<String> ids = new HashSet<>();
-    var rs = database.query("sql", "SELECT expand(out('OwnsLink').id) FROM User WHERE id = ?", userId);
+    var rs = database.query("sql", "SELECT id FROM Link WHERE ownerId = ?", userId);
     while (rs.hasNext()) {
-      Object value = rs.next().getProperty("value");
+      Object value = rs.next().getProperty("id");
       if (value != null) {
         ids.add(value.toString());
       }
@@ -199,4 +354,28 @@ public class ArcadeContentRepository {
       throw new DatabaseException("Failed to find contents without embeddings: " + e.getMessage(), e);
     }
   }
+
+  public @NonNull List<String> findLinkIdsDueForRecheck(@NonNull Instant now, int limit) {
+    try {
+      return database
+        .query("sql", "SELECT linkId FROM Content WHERE recheckAt <= ? AND status = 'COMPLETED' ORDER BY recheckAt LIMIT ?", now.toEpochMilli(), limit)
+        .stream()
+        .map(row -> row.<String>getProperty("linkId"))
+        .filter(Objects::nonNull)
+        .toList();
+    } catch (Exception e) {
+      throw new DatabaseException("Failed to find content due for recheck: " + e.getMessage(), e);
+    }
+  }
+
+  public void deferRecheck(@NonNull List<String> linkIds, @NonNull Instant until) {
+    if (linkIds.isEmpty()) {
+      return;
+    }
+    try {
+      database.transaction(() -> database.command("sql", "UPDATE Content SET recheckAt = ? WHERE linkId IN ?", until.toEpochMilli(), linkIds));
+    } catch (Exception e) {
+      throw new DatabaseException("Failed to defer recheck of %d contents: %s".formatted(linkIds.size(), e.getMessage()), e);
+    }
+  }
 }
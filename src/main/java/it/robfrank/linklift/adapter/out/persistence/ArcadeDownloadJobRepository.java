@@ -0,0 +1,295 @@
+package it.robfrank.linklift.adapter.out.persistence;
+
+import com.arcadedb.exception.ArcadeDBException;
+import com.arcadedb.exception.ConcurrentModificationException;
+import com.arcadedb.query.sql.executor.Result;
+import com.arcadedb.remote.RemoteDatabase;
+import it.robfrank.linklift.application.domain.exception.DatabaseException;
+import it.robfrank.linklift.application.domain.model.DownloadJob;
+import it.robfrank.linklift.application.domain.model.DownloadStatus;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@code DownloadJob} queue. Claims rely on ArcadeDB's optimistic concurrency: two workers
+ * leasing the same job touch the same record, so one of the transactions fails on commit and that
+ * worker simply claims nothing this round. The {@code RecrawlBudget} row that meters background
+ * jobs is updated the same way.
+ */
+public class ArcadeDownloadJobRepository {
+
+  private static final Logger logger = LoggerFactory.getLogger(ArcadeDownloadJobRepository.class);
+
+  private static final int ENQUEUE_CHUNK_SIZE = 500;
+  private static final int CLAIM_ATTEMPTS = 3;
+  // Evaluated against the stored job: one that is waiting or running keeps all of its values
+  private static final String ACTIVE = "eval(\"status IN ['PENDING', 'IN_PROGRESS']\")";
+  private static final String RECRAWL_BUDGET_ID = "recrawl";
+  private static final double MILLIS_PER_HOUR = Duration.ofHours(1).toMillis();
+
+  private final RemoteDatabase database;
+
+  public ArcadeDownloadJobRepository(@NonNull RemoteDatabase database) {
+    this.database = database;
+  }
+
+  public void enqueueJobs(@NonNull List<DownloadJob> jobs) {
+    try {
+      for (int from = 0; from < jobs.size(); from += ENQUEUE_CHUNK_SIZE) {
+        List<DownloadJob> chunk = jobs.subList(from, Math.min(from + ENQUEUE_CHUNK_SIZE, jobs.size()));
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < chunk.size(); i++) {
+          DownloadJob job = chunk.get(i);
+          // A new id also orphans a running attempt of the previous job, whose completion then matches nothing
+          script.append(
+            """
+            UPDATE DownloadJob SET id = :id%1$d, linkId = :linkId%1$d, url = :url%1$d, status = :status%1$d, priority = :priority%1$d,
+              attempts = 0, nextRunAt = :nextRunAt%1$d, leaseOwner = null, leaseExpiresAt = null, lastError = null, failedAt = null
+            UPSERT WHERE linkId = :linkId%1$d;
+            """.formatted(i)
+          );
+          params.put("id" + i, job.id());
+          params.put("linkId" + i, job.linkId());
+          params.put("url" + i, job.url());
+          params.put("status" + i, job.status().name());
+          params.put("priority" + i, job.priority());
+          params.put("nextRunAt" + i, job.nextRunAt().toEpochMilli());
+        }
+        database.transaction(() -> database.command("sqlscript", script.toString(), params));
+      }
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to enqueue %d download jobs".formatted(jobs.size()), e);
+    }
+  }
+
+  /**
+   * One conditional UPSERT per job, so the check and the write see the same record: a job claimed by
+   * a worker in the meantime is never reset. {@code status} is set last, after every other field has
+   * been decided on the stored one.
+   */
+  public int offerJobs(@NonNull List<DownloadJob> jobs) {
+    int queued = 0;
+    try {
+      for (int from = 0; from < jobs.size(); from += ENQUEUE_CHUNK_SIZE) {
+        List<DownloadJob> chunk = jobs.subList(from, Math.min(from + ENQUEUE_CHUNK_SIZE, jobs.size()));
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < chunk.size(); i++) {
+          DownloadJob job = chunk.get(i);
+          script.append(
+            """
+            UPDATE DownloadJob SET id = if(%2$s, id, :id%1$d), url = if(%2$s, url, :url%1$d), priority = if(%2$s, priority, :priority%1$d),
+              attempts = if(%2$s, attempts, 0), nextRunAt = if(%2$s, nextRunAt, :nextRunAt%1$d), leaseOwner = if(%2$s, leaseOwner, null),
+              leaseExpiresAt = if(%2$s, leaseExpiresAt, null), lastError = if(%2$s, lastError, null), failedAt = if(%2$s, failedAt, null),
+              linkId = :linkId%1$d, status = if(%2$s, status, :status%1$d)
+            UPSERT WHERE linkId = :linkId%1$d;
+            """.formatted(i, ACTIVE)
+          );
+          params.put("id" + i, job.id());
+          params.put("linkId" + i, job.linkId());
+          params.put("url" + i, job.url());
+          params.put("status" + i, job.status().name());
+          params.put("priority" + i, job.priority());
+          params.put("nextRunAt" + i, job.nextRunAt().toEpochMilli());
+        }
+        List<String> ids = chunk.stream().map(DownloadJob::id).toList();
+        AtomicLong offered = new AtomicLong();
+        database.transaction(() -> {
+          database.command("sqlscript", script.toString(), params);
+          // Only the jobs that were written carry the new ids
+          offered.set(database.query("sql", "SELECT count(*) as count FROM DownloadJob WHERE id IN ?", ids).next().<Number>getProperty("count").longValue());
+        });
+        queued += (int) offered.get();
+      }
+      return queued;
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to offer %d download jobs".formatted(jobs.size()), e);
+    }
+  }
+
+  public @NonNull List<DownloadJob> claimJobs(@NonNull String workerId, int limit, @NonNull Duration lease) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    long now = System.currentTimeMillis();
+    long expiresAt = now + lease.toMillis();
+    List<DownloadJob> claimed = new ArrayList<>();
+    try {
+      database.transaction(
+        () -> {
+          claimed.clear();
+          List<String> rids = database
+            .query(
+              "sql",
+              """
+              SELECT @rid as rid FROM DownloadJob
+              WHERE (status = 'PENDING' AND nextRunAt <= ?) OR (status = 'IN_PROGRESS' AND leaseExpiresAt < ?)
+              ORDER BY priority DESC, nextRunAt LIMIT ?
+              """,
+              now,
+              now,
+              limit
+            )
+            .stream()
+            .map(row -> RidCache.asRid(row.getProperty("rid")))
+            .flatMap(Optional::stream)
+            .toList();
+          if (rids.isEmpty()) {
+            return;
+          }
+          String ridList = String.join(", ", rids);
+          database.command(
+            "sql",
+            """
+            UPDATE DownloadJob SET status = 'IN_PROGRESS', leaseOwner = ?, leaseExpiresAt = ?, attempts = attempts + 1
+            WHERE @rid IN [%s] AND ((status = 'PENDING' AND nextRunAt <= ?) OR (status = 'IN_PROGRESS' AND leaseExpiresAt < ?))
+            """.formatted(ridList),
+            workerId,
+            expiresAt,
+            now,
+            now
+          );
+          database
+            .query("sql", "SELECT FROM DownloadJob WHERE @rid IN [%s] AND leaseOwner = ? AND leaseExpiresAt = ?".formatted(ridList), workerId, expiresAt)
+            .stream()
+            .map(ArcadeDownloadJobRepository::toJob)
+            .forEach(claimed::add);
+        },
+        false,
+        CLAIM_ATTEMPTS
+      );
+      return claimed;
+    } catch (ConcurrentModificationException e) {
+      logger.debug("Download jobs were claimed concurrently by another worker, {} retries next poll", workerId);
+      return List.of();
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to claim download jobs for worker: " + workerId, e);
+    }
+  }
+
+  public void completeJob(@NonNull String jobId, @NonNull String workerId) {
+    try {
+      database.transaction(() -> database.command("sql", "DELETE FROM DownloadJob WHERE id = ? AND leaseOwner = ?", jobId, workerId));
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to complete download job: " + jobId, e);
+    }
+  }
+
+  public void failJob(@NonNull String jobId, @NonNull String workerId, @NonNull String error) {
+    try {
+      database.transaction(() ->
+        database.command(
+          "sql",
+          "UPDATE DownloadJob SET status = 'FAILED', lastError = ?, failedAt = ?, leaseOwner = null, leaseExpiresAt = null WHERE id = ? AND leaseOwner = ?",
+          error,
+          System.currentTimeMillis(),
+          jobId,
+          workerId
+        )
+      );
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to mark download job as failed: " + jobId, e);
+    }
+  }
+
+  public void purgeFailedJobs(@NonNull Instant failedBefore) {
+    try {
+      // Jobs that failed before failedAt was recorded count as old
+      database.transaction(() ->
+        database.command(
+          "sql",
+          "DELETE FROM DownloadJob WHERE status = 'FAILED' AND (failedAt IS NULL OR failedAt < ?)",
+          failedBefore.toEpochMilli()
+        )
+      );
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to purge failed download jobs", e);
+    }
+  }
+
+  /**
+   * Takes up to {@code wanted} whole re-checks from the budget after refilling it for the time since
+   * its last update. Two nodes taking at once conflict on commit; the one that runs out of retries
+   * gets nothing this time.
+   */
+  public int takeRecheckBudget(int wanted, int perHour, int capacity) {
+    AtomicInteger granted = new AtomicInteger();
+    try {
+      database.transaction(
+        () -> {
+          long now = System.currentTimeMillis();
+          Optional<Result> budget = loadRecheckBudget();
+          Number tokens = budget.map(row -> row.<Number>getProperty("tokens")).orElse(null);
+          Number updatedAt = budget.map(row -> row.<Number>getProperty("updatedAt")).orElse(null);
+          double available = tokens == null || updatedAt == null
+            ? capacity
+            : Math.min(capacity, tokens.doubleValue() + (Math.max(0, now - updatedAt.longValue()) * perHour) / MILLIS_PER_HOUR);
+          int take = (int) Math.min(wanted, Math.floor(available));
+          granted.set(take);
+          database.command("sql", "UPDATE RecrawlBudget SET tokens = ?, updatedAt = ? UPSERT WHERE id = ?", available - take, now, RECRAWL_BUDGET_ID);
+        },
+        false,
+        CLAIM_ATTEMPTS
+      );
+      return granted.get();
+    } catch (ConcurrentModificationException e) {
+      logger.debug("Re-check budget was taken concurrently by another node");
+      return 0;
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to take from the re-check budget", e);
+    }
+  }
+
+  public void returnRecheckBudget(int count, int capacity) {
+    try {
+      database.transaction(
+        () ->
+          loadRecheckBudget()
+            .map(row -> row.<Number>getProperty("tokens"))
+            .ifPresent(tokens ->
+              database.command("sql", "UPDATE RecrawlBudget SET tokens = ? WHERE id = ?", Math.min(capacity, tokens.doubleValue() + count), RECRAWL_BUDGET_ID)
+            ),
+        false,
+        CLAIM_ATTEMPTS
+      );
+    } catch (ConcurrentModificationException e) {
+      // Lost to a concurrent update; the budget is only ever undercounted
+      logger.debug("Could not return {} re-checks to the budget", count);
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to return %d re-checks to the budget".formatted(count), e);
+    }
+  }
+
+  private Optional<Result> loadRecheckBudget() {
+    return database.query("sql", "SELECT tokens, updatedAt FROM RecrawlBudget WHERE id = ?", RECRAWL_BUDGET_ID).stream().findFirst();
+  }
+
+  private static DownloadJob toJob(Result row) {
+    Number priority = row.getProperty("priority");
+    Number attempts = row.getProperty("attempts");
+    Number nextRunAt = row.getProperty("nextRunAt");
+    Number leaseExpiresAt = row.getProperty("leaseExpiresAt");
+    return new DownloadJob(
+      row.getProperty("id"),
+      row.getProperty("linkId"),
+      row.getProperty("url"),
+      DownloadStatus.valueOf(row.getProperty("status")),
+      priority != null ? priority.intValue() : DownloadJob.NORMAL_PRIORITY,
+      attempts != null ? attempts.intValue() : 0,
+      Instant.ofEpochMilli(nextRunAt != null ? nextRunAt.longValue() : 0),
+      row.getProperty("leaseOwner"),
+      leaseExpiresAt != null ? Instant.ofEpochMilli(leaseExpiresAt.longValue()) : null
+    );
+  }
+}
@@ -0,0 +1,246 @@
+package it.robfrank.linklift.adapter.out.persistence;
+
+import com.arcadedb.exception.ArcadeDBException;
+import com.arcadedb.exception.ConcurrentModificationException;
+import com.arcadedb.query.sql.executor.Result;
+import com.arcadedb.remote.RemoteDatabase;
+import it.robfrank.linklift.application.domain.exception.DatabaseException;
+import it.robfrank.linklift.application.domain.model.ReadStatus;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Denormalized link counts, so list requests can report {@code totalElements} without a
+ * {@code count(*)} over every owned link.
+ *
+ * <p>Each user has one {@code LinkCounter} vertex with a counter per readStatus × archived ×
+ * favorited bucket; each {@code Tag} carries its own {@code linkCount}. Counters are built lazily
+ * from a single GROUP BY the first time they are read and are then adjusted by the link and tag
+ * writes. The mutators issue plain commands and must run inside the caller's
+ * {@code database.transaction(...)}; they are no-ops while no counter exists yet.
+ *
+ * <p>A user's counter only answers reads once it is {@code reconciled}. Until then it collects the
+ * writes' adjustments while {@link #rebuild} counts the links, which folds its count in as a delta.
+ */
+class ArcadeLinkCounterRepository {
+
+  private static final Logger logger = LoggerFactory.getLogger(ArcadeLinkCounterRepository.class);
+  private static final int REBUILD_PASSES = 3;
+
+  private static final List<String> ALL_BUCKETS = Arrays.stream(ReadStatus.values())
+    .flatMap(status -> Stream.of(bucket(status, false, false), bucket(status, false, true), bucket(status, true, false), bucket(status, true, true)))
+    .toList();
+
+  private final RemoteDatabase database;
+
+  ArcadeLinkCounterRepository(RemoteDatabase database) {
+    this.database = database;
+  }
+
+  /** Property name of the counter bucket for a link in the given state. */
+  static String bucket(ReadStatus readStatus, boolean archived, boolean favorited) {
+    ReadStatus status = readStatus != null ? readStatus : ReadStatus.UNREAD;
+    return "%s_%s_%s".formatted(status.name().toLowerCase(), archived ? "archived" : "active", favorited ? "favorited" : "plain");
+  }
+
+  /** Bucket for a raw Link row, applying the same defaults as {@link LinkMapper}. */
+  static String bucket(Result row) {
+    String readStatus = row.getProperty("readStatus");
+    Boolean archived = row.getProperty("archived");
+    Boolean favorited = row.getProperty("favorited");
+    return bucket(readStatus != null ? ReadStatus.valueOf(readStatus) : ReadStatus.UNREAD, archived != null && archived, favorited != null && favorited);
+  }
+
+  void increment(String userId, String bucket) {
+    add(userId, bucket, 1);
+  }
+
+  void add(String userId, String bucket, long delta) {
+    // Bucket names come from bucket(...), never from user input, so inlining them is safe
+    database.command("sql", "UPDATE LinkCounter SET %1$s = %1$s + ? WHERE userId = ?".formatted(bucket), delta, userId);
+  }
+
+  void decrement(String userId, String bucket) {
+    database.command("sql", "UPDATE LinkCounter SET %1$s = %1$s - 1 WHERE userId = ?".formatted(bucket), userId);
+  }
+
+  void move(String userId, String fromBucket, String toBucket) {
+    if (fromBucket.equals(toBucket)) {
+      return;
+    }
+    database.command("sql", "UPDATE LinkCounter SET %1$s = %1$s - 1, %2$s = %2$s + 1 WHERE userId = ?".formatted(fromBucket, toBucket), userId);
+  }
+
+  /** Drops the counters of the given users; they are rebuilt on the next read. */
+  void invalidate(List<String> userIds) {
+    database.command("sql", "DELETE FROM LinkCounter WHERE userId IN ?", userIds);
+  }
+
+  void incrementTag(String tagId) {
+    database.command("sql", "UPDATE Tag SET linkCount = linkCount + 1 WHERE id = ? AND linkCount IS NOT NULL", tagId);
+  }
+
+  void decrementTags(List<String> tagIds, long delta) {
+    if (tagIds.isEmpty() || delta == 0) {
+      return;
+    }
+    database.command("sql", "UPDATE Tag SET linkCount = linkCount - ? WHERE id IN ? AND linkCount IS NOT NULL", delta, tagIds);
+  }
+
+  /**
+   * Number of links owned by the user matching the optional status filters, summed from the
+   * matching buckets of the user's counter.
+   */
+  long count(String userId, ReadStatus readStatus, Boolean archived, Boolean favorited) {
+    Map<String, Long> buckets = loadBuckets(userId).orElseGet(() -> rebuild(userId));
+    long total = 0;
+    for (ReadStatus status : ReadStatus.values()) {
+      if (readStatus != null && readStatus != status) continue;
+      for (boolean a : new boolean[] { false, true }) {
+        if (archived != null && archived != a) continue;
+        for (boolean f : new boolean[] { false, true }) {
+          if (favorited != null && favorited != f) continue;
+          total += buckets.getOrDefault(bucket(status, a, f), 0L);
+        }
+      }
+    }
+    return total;
+  }
+
+  /** Number of links carrying the tag, computed once from the edges and then maintained. */
+  long countForTag(String tagId, String userId) {
+    try {
+      // Scoped to the owner so a foreign tag id reports no links, as the edge traversal did
+      Optional<Result> tag = database.query("sql", "SELECT linkCount FROM Tag WHERE id = ? AND userId = ?", tagId, userId).stream().findFirst();
+      if (tag.isEmpty()) {
+        return 0L;
+      }
+      Number stored = tag.get().getProperty("linkCount");
+      if (stored != null) {
+        return stored.longValue();
+      }
+      long actual = database
+        .query("sql", "SELECT in('HasTag').size() as count FROM Tag WHERE id = ?", tagId)
+        .stream()
+        .findFirst()
+        .map(result -> result.<Number>getProperty("count"))
+        .map(Number::longValue)
+        .orElse(0L);
+      database.transaction(() -> database.command("sql", "UPDATE Tag SET linkCount = ? WHERE id = ? AND linkCount IS NULL", actual, tagId));
+      return actual;
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to count links for tag: " + tagId, e);
+    }
+  }
+
+  private Optional<Map<String, Long>> loadBuckets(String userId) {
+    return loadCounter(userId)
+      .filter(row -> Boolean.TRUE.equals(row.getProperty("reconciled")))
+      .map(ArcadeLinkCounterRepository::bucketsOf);
+  }
+
+  private Optional<Result> loadCounter(String userId) {
+    try {
+      return database.query("sql", "SELECT FROM LinkCounter WHERE userId = ?", userId).stream().findFirst();
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to load link counters for user: " + userId, e);
+    }
+  }
+
+  private static Map<String, Long> bucketsOf(Result row) {
+    Map<String, Long> buckets = new HashMap<>();
+    for (String name : ALL_BUCKETS) {
+      Number value = row.getProperty(name);
+      buckets.put(name, value != null ? value.longValue() : 0L);
+    }
+    return buckets;
+  }
+
+  /**
+   * Counts the user's links into their counter. Links saved or deleted while the GROUP BY runs only
+   * adjust a counter that already exists, so an empty one is created first and the count is added
+   * to it as the difference from what it held. That is only exact if no write landed during the
+   * count, so the count is kept when the counter read the same before and after it, and repeated
+   * otherwise. A counter left unreconciled is counted again on the next read.
+   */
+  private Map<String, Long> rebuild(String userId) {
+    try {
+      createCounter(userId);
+      for (int pass = 0; pass < REBUILD_PASSES; pass++) {
+        Optional<Result> before = loadCounter(userId);
+        if (before.isEmpty()) {
+          // Invalidated meanwhile; the next read starts over
+          return countLinks(userId);
+        }
+        Map<String, Long> stored = bucketsOf(before.get());
+        if (Boolean.TRUE.equals(before.get().getProperty("reconciled"))) {
+          return stored;
+        }
+        Map<String, Long> counted = countLinks(userId);
+        if (loadCounter(userId).map(ArcadeLinkCounterRepository::bucketsOf).filter(stored::equals).isPresent()) {
+          reconcile(userId, stored, counted);
+          return counted;
+        }
+      }
+      logger.debug("Links of user {} kept changing while counted, counter left for the next read", userId);
+      return countLinks(userId);
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to rebuild link counters for user: " + userId, e);
+    }
+  }
+
+  private void createCounter(String userId) {
+    StringBuilder sql = new StringBuilder("INSERT INTO LinkCounter SET userId = ?");
+    ALL_BUCKETS.forEach(name -> sql.append(", ").append(name).append(" = 0"));
+    try {
+      database.transaction(() -> database.command("sql", sql.toString(), userId));
+    } catch (ArcadeDBException e) {
+      // Left by an earlier or concurrent rebuild; it is reconciled below all the same
+      logger.debug("Link counter for user {} already exists", userId);
+    }
+  }
+
+  private Map<String, Long> countLinks(String userId) {
+    Map<String, Long> buckets = new HashMap<>();
+    for (String name : ALL_BUCKETS) {
+      buckets.put(name, 0L);
+    }
+    database
+      .query(
+        "sql",
+        """
+        SELECT readStatus, archived, favorited, count(*) as count
+        FROM Link
+        WHERE ownerId = ?
+        GROUP BY readStatus, archived, favorited
+        """,
+        userId
+      )
+      .stream()
+      .forEach(row -> buckets.merge(bucket(row), row.<Number>getProperty("count").longValue(), Long::sum));
+    return buckets;
+  }
+
+  /** Adds the difference between the count and the counter; only the first rebuild to get here applies it. */
+  private void reconcile(String userId, Map<String, Long> stored, Map<String, Long> counted) {
+    StringBuilder sql = new StringBuilder("UPDATE LinkCounter SET reconciled = true");
+    for (String name : ALL_BUCKETS) {
+      long delta = counted.get(name) - stored.get(name);
+      if (delta != 0) {
+        sql.append(", %1$s = %1$s + %2$d".formatted(name, delta));
+      }
+    }
+    sql.append(" WHERE userId = ? AND reconciled IS NULL");
+    try {
+      database.transaction(() -> database.command("sql", sql.toString(), userId));
+    } catch (ConcurrentModificationException e) {
+      logger.debug("Link counter for user {} reconciled concurrently", userId);
+    }
+  }
+}
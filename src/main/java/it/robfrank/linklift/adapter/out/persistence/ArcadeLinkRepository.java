@@ -1,14 +1,16 @@
 package it.robfrank.linklift.adapter.out.persistence;
 
 import com.arcadedb.exception.ArcadeDBException;
-import com.arcadedb.graph.Vertex;
 import com.arcadedb.query.sql.executor.Result;
 import com.arcadedb.query.sql.executor.ResultSet;
 import com.arcadedb.remote.RemoteDatabase;
 import it.robfrank.linklift.application.domain.exception.DatabaseException;
 import it.robfrank.linklift.application.domain.exception.LinkNotFoundException;
+import it.robfrank.linklift.application.domain.model.CanonicalUrl;
 import it.robfrank.linklift.application.domain.model.GraphData;
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
 import it.robfrank.linklift.application.domain.model.Link;
+import it.robfrank.linklift.application.domain.model.LinkCursor;
 import it.robfrank.linklift.application.domain.model.LinkPage;
 import it.robfrank.linklift.application.port.in.ListLinksQuery;
 import java.net.URI;
@@ -17,20 +19,44 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class ArcadeLinkRepository {
 
   private static final Logger logger = LoggerFactory.getLogger(ArcadeLinkRepository.class);
+  private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+  private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN);
+  private static final int RANK_CHUNK_SIZE = 1000;
+  private static final int BACKFILL_CHUNK_SIZE = 500;
   private final RemoteDatabase database;
   private final LinkMapper linkMapper;
+  private final ArcadeLinkCounterRepository linkCounters;
+  private final RidCache ridCache;
+  private final GraphSnapshotCache graphSnapshots;
 
   public ArcadeLinkRepository(RemoteDatabase database, LinkMapper linkMapper) {
+    this(database, linkMapper, new RidCache());
+  }
+
+  public ArcadeLinkRepository(RemoteDatabase database, LinkMapper linkMapper, RidCache ridCache) {
     this.linkMapper = linkMapper;
     this.database = database;
+    this.linkCounters = new ArcadeLinkCounterRepository(database);
+    this.ridCache = ridCache;
+    this.graphSnapshots = new GraphSnapshotCache();
   }
 
   public Link saveLink(Link link) {
@@ -42,6 +68,7 @@ public class ArcadeLinkRepository {
           INSERT INTO Link SET
           id= ?,
           url = ?,
+          urlHash = ?,
           title = ?,
           description = ?,
           extractedAt = ?,
@@ -56,6 +83,7 @@ public class ArcadeLinkRepository {
           """,
           link.id(),
           link.url(),
+          CanonicalUrl.hashOf(link.url()),
           link.title(),
           link.description(),
           link.extractedAt().truncatedTo(ChronoUnit.SECONDS).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
@@ -78,6 +106,9 @@ public class ArcadeLinkRepository {
   public Link updateLink(Link link) {
     try {
       database.transaction(() -> {
+        // Capture the previous state so the owner's counters can move the link between buckets
+        Optional<Result> previous = findCounterState(link.id());
+
         database.command(
           "sql",
           """
@@ -96,27 +127,60 @@ public class ArcadeLinkRepository {
           link.favorited(),
           link.id()
         );
+
+        previous.ifPresent(row ->
+          ownerOf(row).ifPresent(owner ->
+            linkCounters.move(owner, ArcadeLinkCounterRepository.bucket(row), ArcadeLinkCounterRepository.bucket(link.readStatus(), link.archived(), link.favorited()))
+          )
+        );
       });
+      graphSnapshots.updateContaining(link.id(), snapshot -> snapshot.withNode(link.id(), labelOf(link.title(), link.url()), link.url()));
       return link;
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to update link: " + link.id(), e);
     }
   }
 
+  /**
+   * Stores rank scores with one {@code sqlscript} round trip per chunk of links. Ranks are
+   * derived data, so the graph snapshot and counters are unaffected.
+   */
+  public void updateLinkRanks(Map<String, Double> ranksByLinkId) {
+    List<Map.Entry<String, Double>> entries = List.copyOf(ranksByLinkId.entrySet());
+    try {
+      for (int from = 0; from < entries.size(); from += RANK_CHUNK_SIZE) {
+        List<Map.Entry<String, Double>> chunk = entries.subList(from, Math.min(from + RANK_CHUNK_SIZE, entries.size()));
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < chunk.size(); i++) {
+          script.append("UPDATE Link SET rank = :rank%1$d WHERE id = :id%1$d;\n".formatted(i));
+          params.put("rank" + i, chunk.get(i).getValue());
+          params.put("id" + i, chunk.get(i).getKey());
+        }
+        database.transaction(() -> database.command("sqlscript", script.toString(), params));
+      }
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to update ranks of %d links".formatted(entries.size()), e);
+    }
+  }
+
   /**
    * Save a link and create an OwnsLink relationship to the specified user.
    * This method properly uses ArcadeDB's graph capabilities.
    */
   public Link saveLinkForUser(Link link, String userId) {
+    Optional<String> domain = domainOf(link.url());
+    List<GraphData.LinkEdge> backlinks = new ArrayList<>();
     try {
-      database.transaction(() -> {
+      ridCache.transaction(database, () -> {
         // First, create the Link vertex
-        database.command(
+        ResultSet inserted = database.command(
           "sql",
           """
           INSERT INTO Link SET
           id= ?,
           url = ?,
+          urlHash = ?,
           title = ?,
           description = ?,
           extractedAt = ?,
@@ -127,10 +191,12 @@ public class ArcadeLinkRepository {
           extractedUrls = ?,
           readStatus = ?,
           archived = ?,
-          favorited = ?
+          favorited = ?,
+          ownerId = ?
           """,
           link.id(),
           link.url(),
+          CanonicalUrl.hashOf(link.url()),
           link.title(),
           link.description(),
           link.extractedAt().truncatedTo(ChronoUnit.SECONDS).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
@@ -141,57 +207,185 @@ public class ArcadeLinkRepository {
           link.extractedUrls(),
           link.readStatus().name(),
           link.archived(),
-          link.favorited()
+          link.favorited(),
+          userId
         );
+        String linkRid = ridCache.remember("Link", link.id(), inserted).orElseGet(() -> ridCache.require(database, "Link", "id", link.id()));
 
-        // Then, create the OwnsLink relationship
+        // Then, create the OwnsLink relationship, addressing both vertices by RID
         database.command(
           "sql",
-          """
-          CREATE EDGE OwnsLink
-          FROM (SELECT FROM User WHERE id = ?)
-          TO (SELECT FROM Link WHERE id = ?)
-          SET createdAt = ?, accessLevel = 'OWNER'
-          """,
-          userId,
-          link.id(),
+          "CREATE EDGE OwnsLink FROM %s TO %s SET createdAt = ?, accessLevel = 'OWNER'".formatted(ridCache.require(database, "User", "id", userId), linkRid),
           link.extractedAt().truncatedTo(ChronoUnit.SECONDS).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
         );
+        linkCounters.increment(userId, ArcadeLinkCounterRepository.bucket(link.readStatus(), link.archived(), link.favorited()));
 
         // Extract domain and create belongsToDomain edge
-        try {
-          String domainName = new URI(link.url()).getHost();
-          if (domainName != null) {
-            if (domainName.startsWith("www.")) {
-              domainName = domainName.substring(4);
-            }
+        domain.ifPresent(domainName -> {
+          // A cached Domain already exists, so the UPSERT is only needed on a miss
+          String domainRid = ridCache
+            .get("Domain", domainName)
+            .or(() -> ridCache.remember("Domain", domainName, database.command("sql", "UPDATE Domain SET name = ? UPSERT RETURN AFTER WHERE name = ?", domainName, domainName)))
+            .orElseGet(() -> ridCache.require(database, "Domain", "name", domainName));
 
-            // Create Domain vertex if not exists
-            database.command("sql", "UPDATE Domain SET name = ? UPSERT WHERE name = ?", domainName, domainName);
+          database.command("sql", "CREATE EDGE belongsToDomain FROM %s TO %s".formatted(linkRid, domainRid));
+        });
 
-            // Create Edge
-            database.command(
-              "sql",
-              "CREATE EDGE belongsToDomain FROM (SELECT FROM Link WHERE id = ?) TO (SELECT FROM Domain WHERE name = ?)",
-              link.id(),
-              domainName
-            );
-          }
-        } catch (URISyntaxException e) {
-          // Log domain extraction errors instead of printing to stderr
-          logger.error("Failed to extract domain from URL: {}", link.url(), e);
-        }
+        // Finally, link the pages that referenced this URL before it was saved
+        backlinks.addAll(resolvePendingBacklinks(Map.of(CanonicalUrl.hashOf(link.url()), new StoredLink(link.id(), linkRid))));
       });
+      graphSnapshots.update(userId, snapshot -> snapshot.withNode(link.id(), labelOf(link.title(), link.url()), link.url()).withEdges(backlinks));
       return link;
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to save link: " + link.url(), e);
     }
   }
 
+  /**
+   * Save a batch of links for a user with one {@code sqlscript} round trip: one INSERT per link, a
+   * single OwnsLink edge statement for the whole batch, and one Domain upsert and edge statement per
+   * distinct domain in the batch.
+   */
+  public List<Link> saveLinksForUser(List<Link> links, String userId) {
+    if (links.isEmpty()) {
+      return links;
+    }
+    try {
+      Map<String, Object> params = new HashMap<>();
+      params.put("userId", userId);
+      params.put("linkIds", links.stream().map(Link::id).toList());
+      params.put("createdAt", LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).format(DATE_TIME_FORMATTER));
+
+      StringBuilder script = new StringBuilder();
+      Map<String, List<String>> linkIdsByDomain = new LinkedHashMap<>();
+      Map<String, Long> bucketCounts = new HashMap<>();
+      for (int i = 0; i < links.size(); i++) {
+        Link link = links.get(i);
+        script.append(
+          """
+          INSERT INTO Link SET id = :id%1$d, url = :url%1$d, urlHash = :urlHash%1$d, title = :title%1$d, description = :description%1$d,
+            extractedAt = :extractedAt%1$d, contentType = :contentType%1$d, extractedUrls = :extractedUrls%1$d, readStatus = :readStatus%1$d,
+            archived = :archived%1$d, favorited = :favorited%1$d, ownerId = :userId;
+          """.formatted(i)
+        );
+        params.put("id" + i, link.id());
+        params.put("url" + i, link.url());
+        params.put("urlHash" + i, CanonicalUrl.hashOf(link.url()));
+        params.put("title" + i, link.title());
+        params.put("description" + i, link.description());
+        params.put("extractedAt" + i, link.extractedAt().truncatedTo(ChronoUnit.SECONDS).format(DATE_TIME_FORMATTER));
+        params.put("contentType" + i, link.contentType());
+        params.put("extractedUrls" + i, link.extractedUrls());
+        params.put("readStatus" + i, link.readStatus().name());
+        params.put("archived" + i, link.archived());
+        params.put("favorited" + i, link.favorited());
+
+        domainOf(link.url()).ifPresent(domain -> linkIdsByDomain.computeIfAbsent(domain, d -> new ArrayList<>()).add(link.id()));
+        bucketCounts.merge(ArcadeLinkCounterRepository.bucket(link.readStatus(), link.archived(), link.favorited()), 1L, Long::sum);
+      }
+
+      script.append(
+        """
+        CREATE EDGE OwnsLink FROM %s TO (SELECT FROM Link WHERE id IN :linkIds)
+          SET createdAt = :createdAt, accessLevel = 'OWNER';
+        """.formatted(ridCache.require(database, "User", "id", userId))
+      );
+
+      // Each domain is written once per batch, however many of its links the batch contains;
+      // domains already in the RID cache exist and need no upsert
+      List<String> newDomains = new ArrayList<>();
+      int d = 0;
+      for (Map.Entry<String, List<String>> entry : linkIdsByDomain.entrySet()) {
+        Optional<String> domainRid = ridCache.get("Domain", entry.getKey());
+        if (domainRid.isPresent()) {
+          script.append("CREATE EDGE belongsToDomain FROM (SELECT FROM Link WHERE id IN :domainLinks%d) TO %s;\n".formatted(d, domainRid.get()));
+        } else {
+          script.append(
+            """
+            UPDATE Domain SET name = :domain%1$d UPSERT WHERE name = :domain%1$d;
+            CREATE EDGE belongsToDomain FROM (SELECT FROM Link WHERE id IN :domainLinks%1$d) TO (SELECT FROM Domain WHERE name = :domain%1$d);
+            """.formatted(d)
+          );
+          params.put("domain" + d, entry.getKey());
+          newDomains.add(entry.getKey());
+        }
+        params.put("domainLinks" + d, entry.getValue());
+        d++;
+      }
+
+      Map<String, String> linkRids = new HashMap<>();
+      List<GraphData.LinkEdge> backlinks = new ArrayList<>();
+      database.transaction(() -> {
+        database.command("sqlscript", script.toString(), params);
+        bucketCounts.forEach((bucket, count) -> linkCounters.add(userId, bucket, count));
+
+        Map<String, StoredLink> linksByHash = new HashMap<>();
+        database
+          .query("sql", "SELECT @rid as rid, id, urlHash FROM Link WHERE id IN ?", params.get("linkIds"))
+          .stream()
+          .forEach(row ->
+            RidCache.asRid(row.getProperty("rid")).ifPresent(rid -> {
+              linkRids.put(row.getProperty("id"), rid);
+              linksByHash.put(row.getProperty("urlHash"), new StoredLink(row.getProperty("id"), rid));
+            })
+          );
+        backlinks.addAll(resolvePendingBacklinks(linksByHash));
+      });
+      List<GraphData.LinkNode> nodes = links.stream().map(link -> new GraphData.LinkNode(link.id(), labelOf(link.title(), link.url()), link.url())).toList();
+      graphSnapshots.update(userId, snapshot -> snapshot.withNodes(nodes).withEdges(backlinks));
+
+      // Warm the cache with the batch's links, and the new domains in one query
+      linkRids.forEach((id, rid) -> ridCache.put("Link", id, rid));
+      if (!newDomains.isEmpty()) {
+        database
+          .query("sql", "SELECT @rid as rid, name FROM Domain WHERE name IN ?", newDomains)
+          .stream()
+          .forEach(row -> ridCache.put("Domain", row.getProperty("name"), row.getProperty("rid")));
+      }
+      return links;
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to save %d links for user: %s".formatted(links.size(), userId), e);
+    }
+  }
+
+  /** The given URLs that are already stored under some spelling of the same canonical URL. */
+  public Set<String> findExistingUrls(Collection<String> urls) {
+    if (urls.isEmpty()) {
+      return Set.of();
+    }
+    try {
+      Map<String, List<String>> urlsByHash = new HashMap<>();
+      urls.forEach(url -> urlsByHash.computeIfAbsent(CanonicalUrl.hashOf(url), hash -> new ArrayList<>()).add(url));
+      return database
+        .query("sql", "SELECT urlHash FROM Link WHERE urlHash IN ?", List.copyOf(urlsByHash.keySet()))
+        .stream()
+        .flatMap(result -> urlsByHash.getOrDefault(result.<String>getProperty("urlHash"), List.of()).stream())
+        .collect(Collectors.toSet());
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to look up existing link URLs", e);
+    }
+  }
+
+  /** Host of the URL without a leading {@code www.}, used as the Domain vertex name. */
+  private static Optional<String> domainOf(String url) {
+    try {
+      String domainName = new URI(url).getHost();
+      if (domainName == null) {
+        return Optional.empty();
+      }
+      return Optional.of(domainName.startsWith("www.") ? domainName.substring(4) : domainName);
+    } catch (URISyntaxException e) {
+      // Log domain extraction errors instead of printing to stderr
+      logger.error("Failed to extract domain from URL: {}", url, e);
+      return Optional.empty();
+    }
+  }
+
+  /** The link stored under {@code url} or any other spelling of the same canonical URL. */
   public Optional<Link> findLinkByUrl(String url) {
     try {
       return database
-        .query("sql", "SELECT FROM Link WHERE url = ?", url)
+        .query("sql", "SELECT FROM Link WHERE urlHash = ?", CanonicalUrl.hashOf(url))
         .stream()
         .findFirst()
         .flatMap(Result::getVertex)
@@ -227,7 +421,7 @@ public class ArcadeLinkRepository {
   public Optional<Link> findLinkByIdAndUserId(String id, String userId) {
     try {
       return database
-        .query("sql", "SELECT FROM (SELECT expand(out('OwnsLink')) FROM User WHERE id = ?) WHERE id = ?", userId, id)
+        .query("sql", "SELECT FROM Link WHERE id = ? AND ownerId = ?", id, userId)
         .stream()
         .findFirst()
         .flatMap(Result::getVertex)
@@ -263,106 +457,93 @@ public class ArcadeLinkRepository {
       FilterClause filter = buildFilterClause(query);
       boolean filterByTag = query.tagId() != null && !query.tagId().isBlank();
 
-      // First, get the total count using graph traversal
-      long totalCount = filterByTag ? getTotalLinkCountForUserAndTag(userId, query.tagId(), filter) : getTotalLinkCountForUser(userId, filter);
+      // Read the total from the denormalized counters rather than counting every owned link
+      long totalCount = countLinks(query, userId, filter, filterByTag);
 
       // Build the ORDER BY clause
       String orderClause = buildOrderClause(query.sortBy(), query.sortDirection());
 
-      // Calculate offset
-      int offset = query.page() * query.size();
-
-      // Query for the actual data using graph traversal
-      List<Link> links;
-      if (userId != null) {
-        String sql;
-        List<Object> params = new ArrayList<>();
-        params.add(userId);
-        if (filterByTag) {
-          params.add(query.tagId());
-          // Filter by tag using HasTag edge traversal
-          if (filter.isEmpty()) {
-            sql = """
-            SELECT FROM (
-              SELECT expand(out('OwnsLink'))
-              FROM User
-              WHERE id = ?
-            )
-            WHERE out('HasTag').id CONTAINS ?
-            %s
-            SKIP %d
-            LIMIT %d
-            """.formatted(orderClause, offset, query.size());
-          } else {
-            sql = """
-            SELECT FROM (
-              SELECT expand(out('OwnsLink'))
-              FROM User
-              WHERE id = ?
-            )
-            WHERE out('HasTag').id CONTAINS ? AND %s
-            %s
-            SKIP %d
-            LIMIT %d
-            """.formatted(filter.sql(), orderClause, offset, query.size());
-            params.addAll(filter.params());
-          }
-        } else if (filter.isEmpty()) {
-          sql = """
-          SELECT expand(out('OwnsLink'))
-          FROM User
-          WHERE id = ?
-          %s
-          SKIP %d
-          LIMIT %d
-          """.formatted(orderClause, offset, query.size());
-        } else {
-          sql = """
-          SELECT FROM (
-            SELECT expand(out('OwnsLink'))
-            FROM User
-            WHERE id = ?
-          )
-          WHERE %s
-          %s
-          SKIP %d
-          LIMIT %d
-          """.formatted(filter.sql(), orderClause, offset, query.size());
-          params.addAll(filter.params());
-        }
-        links = database.query("sql", sql, params.toArray()).stream().map(Result::getVertex).flatMap(Optional::stream).map(linkMapper::mapToDomain).toList();
+      // User-scoped pages filter on ownerId so the (ownerId, ..., extractedAt) indexes drive the scan
+      FilterClause where = userId != null ? new FilterClause("ownerId = ?", List.of(userId)).and(filter) : filter;
+
+      // Keyset mode seeks past the cursor instead of skipping rows, so page N costs the same as page 1
+      String skipClause = "";
+      if (query.hasCursor()) {
+        where = where.and(buildSeekClause(LinkCursor.decode(query.cursor())));
+      } else if (query.page() > 0) {
+        skipClause = "SKIP %d".formatted(query.page() * query.size());
+      }
+      String whereClause = where.isEmpty() ? "" : "WHERE " + where.sql();
+
+      // Fetch one extra row to learn whether a next page exists without a second query
+      int limit = query.size() + 1;
+
+      List<Object> params = new ArrayList<>();
+      String sql;
+      if (filterByTag) {
+        // A tag has far fewer links than its owner, so start from the tag's incoming edges
+        params.add(query.tagId());
+        sql = "SELECT FROM (SELECT expand(in('HasTag')) FROM Tag WHERE id = ?) %s %s %s LIMIT %d".formatted(whereClause, orderClause, skipClause, limit);
       } else {
-        // Query all links (admin use case)
-        String whereClause = filter.isEmpty() ? "" : "WHERE " + filter.sql();
-        String sql = "SELECT FROM Link %s %s SKIP %d LIMIT %d".formatted(whereClause, orderClause, offset, query.size());
-        links = database
-          .query("sql", sql, filter.params().toArray())
-          .stream()
-          .map(Result::getVertex)
-          .flatMap(Optional::stream)
-          .map(linkMapper::mapToDomain)
-          .toList();
+        // Without a user this lists all links (admin use case)
+        sql = "SELECT FROM Link %s %s %s LIMIT %d".formatted(whereClause, orderClause, skipClause, limit);
       }
+      params.addAll(where.params());
 
-      return new LinkPage(
-        links,
-        query.page(),
-        query.size(),
-        totalCount,
-        0, // Will be calculated in constructor
-        false, // Will be calculated in constructor
-        false // Will be calculated in constructor
-      );
+      List<Link> links = database.query("sql", sql, params.toArray()).stream().map(Result::getVertex).flatMap(Optional::stream).map(linkMapper::mapToDomain).toList();
+
+      boolean hasNext = links.size() > query.size();
+      if (hasNext) {
+        links = links.subList(0, query.size());
+      }
+      String nextCursor = hasNext && LinkCursor.supports(query.sortBy()) ? buildCursor(links.getLast(), query).encode() : null;
+
+      return new LinkPage(links, query.page(), query.size(), totalCount, 0, hasNext, query.hasCursor() || query.page() > 0, nextCursor);
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to load links with pagination", e);
     }
   }
 
+  /**
+   * Builds the seek predicate {@code (field, id) > (value, lastId)} (or {@code <} for DESC),
+   * matching the ORDER BY produced by {@link #buildOrderClause(String, String)}.
+   */
+  private FilterClause buildSeekClause(LinkCursor cursor) {
+    String op = "ASC".equalsIgnoreCase(cursor.sortDirection()) ? ">" : "<";
+    if ("id".equals(cursor.sortBy())) {
+      return new FilterClause("id %s ?".formatted(op), List.of(cursor.id()));
+    }
+    String field = mapSortField(cursor.sortBy());
+    // DATETIME values are compared against a parsed date, not the raw string
+    String value = "extractedAt".equals(field) ? "date(?, '%s')".formatted(DATE_TIME_PATTERN) : "?";
+    return new FilterClause(
+      "(%1$s %2$s %3$s OR (%1$s = %3$s AND id %2$s ?))".formatted(field, op, value),
+      List.of(cursor.sortValue(), cursor.sortValue(), cursor.id())
+    );
+  }
+
+  private LinkCursor buildCursor(Link last, ListLinksQuery query) {
+    String sortValue = switch (query.sortBy()) {
+      case "id" -> last.id();
+      case "url" -> last.url();
+      default -> last.extractedAt().truncatedTo(ChronoUnit.SECONDS).format(DATE_TIME_FORMATTER);
+    };
+    return new LinkCursor(query.sortBy(), query.sortDirection().toUpperCase(), sortValue, last.id());
+  }
+
   /** A WHERE fragment with bound parameters, so filter values are never inlined into SQL. */
   private record FilterClause(String sql, List<Object> params) {
     boolean isEmpty() {
       return sql.isEmpty();
     }
+
+    FilterClause and(FilterClause other) {
+      if (other.isEmpty()) return this;
+      if (isEmpty()) return other;
+      List<Object> merged = new ArrayList<>(params);
+      merged.addAll(other.params());
+      return new FilterClause(sql + " AND " + other.sql(), merged);
+    }
   }
 
   private FilterClause buildFilterClause(ListLinksQuery query) {
@@ -387,105 +568,77 @@ public class ArcadeLinkRepository {
 
   private long getTotalLinkCountForUserAndTag(String userId, String tagId, FilterClause filter) {
     try {
-      if (filter.isEmpty()) {
-        return database
-          .query(
-            "sql",
-            "SELECT count(*) as count FROM (SELECT expand(out('OwnsLink')) FROM User WHERE id = ?) WHERE out('HasTag').id CONTAINS ?",
-            userId,
-            tagId
-          )
-          .stream()
-          .findFirst()
-          .map(result -> result.getProperty("count"))
-          .map(count -> ((Number) count).longValue())
-          .orElse(0L);
-      } else {
-        List<Object> params = new ArrayList<>();
-        params.add(userId);
-        params.add(tagId);
-        params.addAll(filter.params());
-        return database
-          .query(
-            "sql",
-            "SELECT count(*) as count FROM (SELECT expand(out('OwnsLink')) FROM User WHERE id = ?) WHERE out('HasTag').id CONTAINS ? AND " + filter.sql(),
-            params.toArray()
-          )
-          .stream()
-          .findFirst()
-          .map(result -> result.getProperty("count"))
-          .map(count -> ((Number) count).longValue())
-          .orElse(0L);
-      }
+      FilterClause where = new FilterClause("ownerId = ?", List.of(userId)).and(filter);
+      List<Object> params = new ArrayList<>();
+      params.add(tagId);
+      params.addAll(where.params());
+      return database
+        .query("sql", "SELECT count(*) as count FROM (SELECT expand(in('HasTag')) FROM Tag WHERE id = ?) WHERE " + where.sql(), params.toArray())
+        .stream()
+        .findFirst()
+        .map(result -> result.getProperty("count"))
+        .map(count -> ((Number) count).longValue())
+        .orElse(0L);
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to count links for tag: " + tagId, e);
     }
   }
 
-  private long getTotalLinkCountForUser(String userId, FilterClause filter) {
+  private long countLinks(ListLinksQuery query, String userId, FilterClause filter, boolean filterByTag) {
+    if (userId == null) {
+      return getTotalLinkCount(filter);
+    }
+    if (!filterByTag) {
+      return linkCounters.count(userId, query.readStatus(), query.archived(), query.favorited());
+    }
+    // Tag counters are not split by status, so a tag combined with status filters still needs a count query
+    return filter.isEmpty() ? linkCounters.countForTag(query.tagId(), userId) : getTotalLinkCountForUserAndTag(userId, query.tagId(), filter);
+  }
+
+  private long getTotalLinkCount(FilterClause filter) {
     try {
-      if (userId != null) {
-        if (filter.isEmpty()) {
-          return database
-            .query(
-              "sql",
-              """
-              SELECT count(out('OwnsLink')) as count
-              FROM User
-              WHERE id = ?
-              """,
-              userId
-            )
-            .stream()
-            .findFirst()
-            .map(result -> result.getProperty("count"))
-            .map(count -> ((Number) count).longValue())
-            .orElse(0L);
-        } else {
-          List<Object> params = new ArrayList<>();
-          params.add(userId);
-          params.addAll(filter.params());
-          return database
-            .query("sql", "SELECT count(*) as count FROM (SELECT expand(out('OwnsLink')) FROM User WHERE id = ?) WHERE " + filter.sql(), params.toArray())
-            .stream()
-            .findFirst()
-            .map(result -> result.getProperty("count"))
-            .map(count -> ((Number) count).longValue())
-            .orElse(0L);
-        }
-      } else {
-        // Count all links (admin use case)
-        String whereClause = filter.isEmpty() ? "" : "WHERE " + filter.sql();
-        return database
-          .query("sql", "SELECT count(*) as count FROM Link " + whereClause, filter.params().toArray())
-          .stream()
-          .findFirst()
-          .map(result -> result.getProperty("count"))
-          .map(count -> ((Number) count).longValue())
-          .orElse(0L);
-      }
+      // Count all links (admin use case)
+      String whereClause = filter.isEmpty() ? "" : "WHERE " + filter.sql();
+      return database
+        .query("sql", "SELECT count(*) as count FROM Link " + whereClause, filter.params().toArray())
+        .stream()
+        .findFirst()
+        .map(result -> result.getProperty("count"))
+        .map(count -> ((Number) count).longValue())
+        .orElse(0L);
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to count total links", e);
     }
   }
 
+  /** Counter-relevant state of a link: its bucket fields, owner id and tag ids. */
+  private Optional<Result> findCounterState(String linkId) {
+    return database
+      .query("sql", "SELECT readStatus, archived, favorited, ownerId, out('HasTag').id as tags FROM Link WHERE id = ?", linkId)
+      .stream()
+      .findFirst();
+  }
+
+  private static Optional<String> ownerOf(Result row) {
+    return Optional.ofNullable(row.<String>getProperty("ownerId"));
+  }
+
+  private static List<String> idsOf(Result row, String property) {
+    Object value = row.getProperty(property);
+    if (value instanceof Collection<?> values) {
+      return values.stream().filter(Objects::nonNull).map(String::valueOf).toList();
+    }
+    return value != null ? List.of(String.valueOf(value)) : List.of();
+  }
+
   /**
-   * Find links owned by a specific user using graph traversal.
-   * This method leverages ArcadeDB's graph capabilities for optimal performance.
+   * Find links owned by a specific user, newest first.
+   * Served by the (ownerId, extractedAt) index.
    */
   public List<Link> findLinksByUserId(String userId) {
     try {
       return database
-        .query(
-          "sql",
-          """
-          SELECT expand(out('OwnsLink'))
-          FROM User
-          WHERE id = ?
-          ORDER BY extractedAt DESC
-          """,
-          userId
-        )
+        .query("sql", "SELECT FROM Link WHERE ownerId = ? ORDER BY extractedAt DESC", userId)
         .stream()
         .map(Result::getVertex)
         .flatMap(Optional::stream)
@@ -497,22 +650,12 @@ public class ArcadeLinkRepository {
   }
 
   /**
-   * Check if a user owns a specific link using graph traversal.
+   * Check if a user owns a specific link.
    */
   public boolean userOwnsLink(String userId, String linkId) {
     try {
       return database
-        .query(
-          "sql",
-          """
-          SELECT count(*) as count
-          FROM User
-          WHERE id = ?
-          AND out('OwnsLink').id CONTAINS ?
-          """,
-          userId,
-          linkId
-        )
+        .query("sql", "SELECT count(*) as count FROM Link WHERE id = ? AND ownerId = ?", linkId, userId)
         .stream()
         .findFirst()
         .map(result -> result.getProperty("count"))
@@ -524,24 +667,15 @@ public class ArcadeLinkRepository {
   }
 
   /**
-   * Get the owner of a specific link using graph traversal.
+   * Get the owner of a specific link.
    */
   public Optional<String> getLinkOwner(String linkId) {
     try {
       return database
-        .query(
-          "sql",
-          """
-          SELECT expand(in('OwnsLink').id)
-          FROM Link
-          WHERE id = ?
-          """,
-          linkId
-        )
+        .query("sql", "SELECT ownerId FROM Link WHERE id = ?", linkId)
         .stream()
         .findFirst()
-        .map(result -> result.getProperty("value"))
-        .map(String::valueOf);
+        .map(result -> result.<String>getProperty("ownerId"));
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to get link owner for: " + linkId, e);
     }
@@ -553,9 +687,26 @@ public class ArcadeLinkRepository {
   public void deleteLink(String linkId) {
     try {
       database.transaction(() -> {
+        findCounterState(linkId).ifPresent(row -> {
+          ownerOf(row).ifPresent(owner -> linkCounters.decrement(owner, ArcadeLinkCounterRepository.bucket(row)));
+          linkCounters.decrementTags(idsOf(row, "tags"), 1);
+        });
+
+        // Pages linking here wait for the URL again; this link no longer waits for anything
+        database
+          .query("sql", "SELECT url, in('linksTo').id as sources FROM Link WHERE id = ?", linkId)
+          .stream()
+          .findFirst()
+          .ifPresent(row -> addPendingBacklinks(row.getProperty("url"), idsOf(row, "sources")));
+        database.command("sql", "DELETE FROM PendingBacklink WHERE sourceId = ?", linkId);
+        // Passages are vertices keyed by link id without an edge to it, so nothing takes them along
+        database.command("sql", "DELETE FROM ContentChunk WHERE linkId = ?", linkId);
+
         // Delete the link vertex (edges will be cascade deleted)
         database.command("sql", "DELETE FROM Link WHERE id = ?", linkId);
       });
+      ridCache.invalidate("Link", linkId);
+      graphSnapshots.updateContaining(linkId, snapshot -> snapshot.withoutNode(linkId));
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to delete link: " + linkId, e);
     }
@@ -572,8 +723,8 @@ public class ArcadeLinkRepository {
           "sql",
           """
           SELECT FROM OwnsLink
-          WHERE @out in (SELECT FROM User where id = '?')
-          AND @in in (SELECT FROM Link where id  = '?')
+          WHERE @out in (SELECT FROM User where id = ?)
+          AND @in in (SELECT FROM Link where id = ?)
           """,
           fromUserId,
           linkId
@@ -588,8 +739,8 @@ public class ArcadeLinkRepository {
           "sql",
           """
           DELETE FROM OwnsLink
-          WHERE @in in (SELECT FROM Link WHERE id = '?')
-          AND @out in (SELECT FROM User WHERE id = '?')
+          WHERE @in in (SELECT FROM Link WHERE id = ?)
+          AND @out in (SELECT FROM User WHERE id = ?)
           """,
           linkId,
           fromUserId
@@ -602,15 +753,19 @@ public class ArcadeLinkRepository {
           "sql",
           """
           CREATE EDGE OwnsLink
-          FROM (SELECT FROM User WHERE id = '?')
-          TO (SELECT FROM Link WHERE id = '?')
+          FROM (SELECT FROM User WHERE id = ?)
+          TO (SELECT FROM Link WHERE id = ?)
           SET createdAt = ?, accessLevel = 'OWNER'
           """,
           toUserId,
           linkId,
           LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
         );
+        database.command("sql", "UPDATE Link SET ownerId = ? WHERE id = ?", toUserId, linkId);
+        // Both users' bucket counts changed; let them rebuild on next read
+        linkCounters.invalidate(List.of(fromUserId, toUserId));
       });
+      graphSnapshots.invalidate(List.of(fromUserId, toUserId));
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to transfer link ownership", e);
     }
@@ -619,7 +774,12 @@ public class ArcadeLinkRepository {
   private String buildOrderClause(String sortBy, String sortDirection) {
     // Map domain fields to database fields if needed
     String dbField = mapSortField(sortBy);
-    return "ORDER BY %s %s".formatted(dbField, sortDirection.toUpperCase());
+    String direction = sortDirection.toUpperCase();
+    if ("id".equals(dbField)) {
+      return "ORDER BY id %s".formatted(direction);
+    }
+    // id breaks ties so that pages (and keyset cursors) have a total, stable order
+    return "ORDER BY %s %s, id %s".formatted(dbField, direction, direction);
   }
 
   private String mapSortField(String sortBy) {
@@ -632,6 +792,7 @@ public class ArcadeLinkRepository {
       case "description" -> "description";
       case "extractedAt" -> "extractedAt";
       case "contentType" -> "contentType";
+      case "rank" -> "rank";
       default -> "extractedAt"; // Default fallback
     };
   }
@@ -653,7 +814,8 @@ public class ArcadeLinkRepository {
             FROM Link
             WHERE id = ?
           )
-          WHERE id != ? AND in('OwnsLink').id CONTAINS ?
+          WHERE id != ? AND ownerId = ?
+          ORDER BY rank DESC
           LIMIT 10
           """,
           linkId,
@@ -671,6 +833,12 @@ public class ArcadeLinkRepository {
     }
   }
 
+  /**
+   * Makes the link's outgoing {@code linksTo} edges match the stored links among its extracted URLs.
+   * Targets are resolved with one {@code urlHash IN ?} lookup and diffed against the existing edges, so
+   * only the missing edges are created and the stale ones deleted, in a single script. URLs that are
+   * not stored yet are recorded as {@code PendingBacklink}s and linked when they are saved.
+   */
   public void syncLinkConnections(String linkId, List<String> extractedUrls) {
     if (linkId == null || linkId.isBlank()) {
       logger.warn("Attempted to sync link connections with null or blank linkId");
@@ -681,65 +849,231 @@ public class ArcadeLinkRepository {
       return;
     }
 
-    database.transaction(() -> {
+    Set<String> targetIds = new LinkedHashSet<>();
+    AtomicBoolean synced = new AtomicBoolean();
+    ridCache.transaction(database, () -> {
       // Get the source link's RID
-      var sourceResult = database.query("sql", "SELECT @rid as rid FROM Link WHERE id = ?", linkId);
-      if (!sourceResult.hasNext()) {
+      Optional<String> source = ridCache.resolve(database, "Link", "id", linkId);
+      if (source.isEmpty()) {
         logger.warn("Source link not found: {}", linkId);
         return;
       }
-      var sourceRid = sourceResult.next().getProperty("rid");
-
-      // 1. Remove existing explicit linksTo edges from this link to other Links
-      database.command("sql", "DELETE FROM linksTo WHERE @out = ?", sourceRid);
-
-      // 2. Create new linksTo edges for each extracted URL that exists in our
-      // database
-      for (String targetUrl : extractedUrls) {
-        // Find all links with this URL and create edges to them
-        var targetLinks = database.query("sql", "SELECT @rid as rid FROM Link WHERE url = ?", targetUrl);
-        while (targetLinks.hasNext()) {
-          var result = targetLinks.next();
-          var targetRid = result.getProperty("rid");
-          // Create edge using RIDs for both source and target
-          database.command("sql", "CREATE EDGE linksTo FROM ? TO ?", sourceRid, targetRid);
+      String sourceRid = source.get();
+
+      // 1. Resolve every extracted URL that exists in our database, under any spelling, in one query.
+      // A page's links to itself (#fragment anchors, its own canonical URL) are not connections.
+      Map<String, String> urlsByHash = new LinkedHashMap<>();
+      extractedUrls.forEach(url -> urlsByHash.putIfAbsent(CanonicalUrl.hashOf(url), url));
+      Set<String> targets = new LinkedHashSet<>();
+      Set<String> storedHashes = new HashSet<>();
+      database
+        .query("sql", "SELECT @rid as rid, id, urlHash FROM Link WHERE urlHash IN ?", List.copyOf(urlsByHash.keySet()))
+        .stream()
+        .forEach(row ->
+          RidCache.asRid(row.getProperty("rid")).ifPresent(rid -> {
+            storedHashes.add(row.getProperty("urlHash"));
+            if (!rid.equals(sourceRid) && !linkId.equals(row.getProperty("id"))) {
+              targets.add(rid);
+              targetIds.add(row.getProperty("id"));
+            }
+          })
+        );
+
+      // 2. Diff against the current edges: keep one edge per wanted target, drop the rest
+      Set<String> linked = new HashSet<>();
+      List<String> staleEdges = new ArrayList<>();
+      database
+        .query("sql", "SELECT @rid as edge, @in as target FROM (SELECT expand(outE('linksTo')) FROM %s)".formatted(sourceRid))
+        .stream()
+        .forEach(row -> {
+          Optional<String> edge = RidCache.asRid(row.getProperty("edge"));
+          Optional<String> target = RidCache.asRid(row.getProperty("target"));
+          if (edge.isPresent() && (target.isEmpty() || !targets.contains(target.get()) || !linked.add(target.get()))) {
+            staleEdges.add(edge.get());
+          }
+        });
+      List<String> missing = targets.stream().filter(target -> !linked.contains(target)).toList();
+
+      // 3. Same diff for the URLs this link is still waiting for
+      Set<String> waiting = urlsByHash.keySet().stream().filter(hash -> !storedHashes.contains(hash)).collect(Collectors.toCollection(LinkedHashSet::new));
+      Set<String> pending = database
+        .query("sql", "SELECT urlHash FROM PendingBacklink WHERE sourceId = ?", linkId)
+        .stream()
+        .map(row -> row.<String>getProperty("urlHash"))
+        .collect(Collectors.toSet());
+
+      // 4. Apply the delta in one round trip
+      Map<String, Object> params = new HashMap<>();
+      params.put("sourceId", linkId);
+      StringBuilder script = new StringBuilder();
+      if (!staleEdges.isEmpty()) {
+        script.append("DELETE FROM linksTo WHERE @rid IN [%s];\n".formatted(String.join(", ", staleEdges)));
+      }
+      if (!missing.isEmpty()) {
+        script.append("CREATE EDGE linksTo FROM %s TO [%s];\n".formatted(sourceRid, String.join(", ", missing)));
+      }
+      List<String> resolved = pending.stream().filter(hash -> !waiting.contains(hash)).toList();
+      if (!resolved.isEmpty()) {
+        script.append("DELETE FROM PendingBacklink WHERE sourceId = :sourceId AND urlHash IN :resolved;\n");
+        params.put("resolved", resolved);
+      }
+      int p = 0;
+      for (String hash : waiting) {
+        if (!pending.contains(hash)) {
+          script.append("INSERT INTO PendingBacklink SET url = :pendingUrl%1$d, urlHash = :pendingHash%1$d, sourceId = :sourceId;\n".formatted(p));
+          params.put("pendingUrl" + p, urlsByHash.get(hash));
+          params.put("pendingHash" + p++, hash);
         }
       }
+      if (!script.isEmpty()) {
+        database.command("sqlscript", script.toString(), params);
+      }
+      synced.set(true);
     });
+    if (synced.get()) {
+      graphSnapshots.updateContaining(linkId, snapshot -> snapshot.withOutEdges(linkId, targetIds));
+    }
   }
 
-  public GraphData getGraphData(String userId) {
-    List<GraphData.LinkNode> nodes = new ArrayList<>();
-    List<GraphData.LinkEdge> edges = new ArrayList<>();
+  /**
+   * Creates the {@code linksTo} edges of the links waiting for the given URLs and drops their
+   * pending entries. Keys are {@link CanonicalUrl#hash()}es mapped to the link now stored under that
+   * URL. Must run inside the caller's transaction; returns the edges it created.
+   */
+  private List<GraphData.LinkEdge> resolvePendingBacklinks(Map<String, StoredLink> linksByKey) {
+    Map<String, List<String>> sourcesByKey = new HashMap<>();
+    database
+      .query("sql", "SELECT urlHash, sourceId FROM PendingBacklink WHERE urlHash IN ?", List.copyOf(linksByKey.keySet()))
+      .stream()
+      .forEach(row -> sourcesByKey.computeIfAbsent(row.getProperty("urlHash"), key -> new ArrayList<>()).add(row.getProperty("sourceId")));
+    if (sourcesByKey.isEmpty()) {
+      return List.of();
+    }
 
-    database.transaction(() -> {
-      // 1. Fetch all links the user owns
-      List<Vertex> links = new ArrayList<>();
-      ResultSet resultSet = database.query("sql", "SELECT expand(out('OwnsLink')) FROM User WHERE id = ?", userId);
-      while (resultSet.hasNext()) {
-        links.add(resultSet.next().getVertex().get());
-      }
+    Map<String, String> sourceRids = new HashMap<>();
+    database
+      .query("sql", "SELECT @rid as rid, id FROM Link WHERE id IN ?", sourcesByKey.values().stream().flatMap(List::stream).distinct().toList())
+      .stream()
+      .forEach(row -> RidCache.asRid(row.getProperty("rid")).ifPresent(rid -> sourceRids.put(row.getProperty("id"), rid)));
 
-      // 2. Map links to nodes
-      for (Vertex link : links) {
-        nodes.add(
-          new GraphData.LinkNode(link.getString("id"), link.getString("title") != null ? link.getString("title") : link.getString("url"), link.getString("url"))
-        );
+    List<GraphData.LinkEdge> created = new ArrayList<>();
+    StringBuilder script = new StringBuilder();
+    sourcesByKey.forEach((key, sourceIds) -> {
+      StoredLink target = linksByKey.get(key);
+      List<String> sources = sourceIds.stream().filter(sourceRids::containsKey).toList();
+      if (!sources.isEmpty()) {
+        script.append("CREATE EDGE linksTo FROM [%s] TO %s;\n".formatted(String.join(", ", sources.stream().map(sourceRids::get).toList()), target.rid()));
+        sources.forEach(sourceId -> created.add(new GraphData.LinkEdge(sourceId, target.id())));
       }
+    });
+    script.append("DELETE FROM PendingBacklink WHERE urlHash IN :hashes;\n");
+    database.command("sqlscript", script.toString(), Map.of("hashes", List.copyOf(sourcesByKey.keySet())));
+    return created;
+  }
 
-      // 3. Fetch all linksTo edges between these links
-      var edgeResultSet = database.query(
+  /** Records that the given links reference a URL that is not stored. Must run inside the caller's transaction. */
+  private void addPendingBacklinks(String url, List<String> sourceIds) {
+    String hash = CanonicalUrl.hashOf(url);
+    for (String sourceId : sourceIds) {
+      database.command(
         "sql",
-        "SELECT out.id as source, in.id as target FROM linksTo WHERE out.id IN (SELECT id FROM Link WHERE @rid IN (SELECT expand(out('OwnsLink')) FROM User WHERE id = ?)) AND in.id IN (SELECT id FROM Link WHERE @rid IN (SELECT expand(out('OwnsLink')) FROM User WHERE id = ?))",
-        userId,
-        userId
+        "UPDATE PendingBacklink SET url = ?, urlHash = ?, sourceId = ? UPSERT WHERE urlHash = ? AND sourceId = ?",
+        url,
+        hash,
+        sourceId,
+        hash,
+        sourceId
       );
-      while (edgeResultSet.hasNext()) {
-        var result = edgeResultSet.next();
-        edges.add(new GraphData.LinkEdge(result.getProperty("source"), result.getProperty("target")));
+    }
+  }
+
+  /**
+   * Hashes the canonical URL of links and pending backlinks stored before {@code urlHash} existed,
+   * which SQL cannot compute. Runs once at startup, before lookups depend on the hash; returns the
+   * number of rows updated.
+   */
+  public int backfillUrlHashes() {
+    try {
+      int updated = 0;
+      for (String type : List.of("Link", "PendingBacklink")) {
+        List<Result> rows = database.query("sql", "SELECT @rid as rid, url FROM %s WHERE urlHash IS NULL".formatted(type)).stream().toList();
+        for (int from = 0; from < rows.size(); from += BACKFILL_CHUNK_SIZE) {
+          List<Result> chunk = rows.subList(from, Math.min(rows.size(), from + BACKFILL_CHUNK_SIZE));
+          StringBuilder script = new StringBuilder();
+          Map<String, Object> params = new HashMap<>();
+          for (int i = 0; i < chunk.size(); i++) {
+            Result row = chunk.get(i);
+            Optional<String> rid = RidCache.asRid(row.getProperty("rid"));
+            if (rid.isPresent() && row.getProperty("url") != null) {
+              script.append("UPDATE %s SET urlHash = :hash%d;\n".formatted(rid.get(), i));
+              params.put("hash" + i, CanonicalUrl.hashOf(row.getProperty("url")));
+            }
+          }
+          if (!params.isEmpty()) {
+            database.transaction(() -> database.command("sqlscript", script.toString(), params));
+            updated += params.size();
+          }
+        }
       }
-    });
+      if (updated > 0) {
+        logger.info("Backfilled the URL hash of {} links and pending backlinks", updated);
+      }
+      return updated;
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to backfill link URL hashes", e);
+    }
+  }
+
+  /**
+   * The user's link graph, served from the snapshot cache. A miss loads it with two projected
+   * queries: the owned links' id, title and url, and the {@code linksTo} edges between them.
+   */
+  public GraphSnapshot getGraphSnapshot(String userId) {
+    return graphSnapshots.get(userId, () -> loadGraphSnapshot(userId));
+  }
+
+  private GraphSnapshot loadGraphSnapshot(String userId) {
+    try {
+      List<GraphData.LinkNode> nodes = database
+        .query("sql", "SELECT id, title, url FROM Link WHERE ownerId = ?", userId)
+        .stream()
+        .map(row -> new GraphData.LinkNode(row.getProperty("id"), labelOf(row.getProperty("title"), row.getProperty("url")), row.getProperty("url")))
+        .toList();
+
+      List<GraphData.LinkEdge> edges = database
+        .query(
+          "sql",
+          "SELECT out.id as source, in.id as target FROM (SELECT expand(outE('linksTo')) FROM Link WHERE ownerId = ?) WHERE in.ownerId = ?",
+          userId,
+          userId
+        )
+        .stream()
+        .map(row -> new GraphData.LinkEdge(row.getProperty("source"), row.getProperty("target")))
+        .toList();
+
+      return GraphSnapshot.of(nodes, edges);
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to load link graph for user: " + userId, e);
+    }
+  }
 
-    return new GraphData(nodes, edges);
+  /** Stored rank scores of the user's links, in one projected query. */
+  public Map<String, Double> getLinkRanks(String userId) {
+    try {
+      Map<String, Double> ranks = new HashMap<>();
+      database
+        .query("sql", "SELECT id, rank FROM Link WHERE ownerId = ? AND rank IS NOT NULL", userId)
+        .stream()
+        .forEach(row -> ranks.put(row.getProperty("id"), ((Number) row.getProperty("rank")).doubleValue()));
+      return ranks;
+    } catch (ArcadeDBException e) {
+      throw new DatabaseException("Failed to load link ranks for user: " + userId, e);
+    }
   }
+
+  private static String labelOf(String title, String url) {
+    return title != null ? title : url;
+  }
+
+  private record StoredLink(String id, String rid) {}
 }
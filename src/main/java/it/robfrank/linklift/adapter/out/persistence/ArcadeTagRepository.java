@@ -22,9 +22,17 @@ public class ArcadeTagRepository implements TagRepository {
   private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
   private final RemoteDatabase database;
+  private final ArcadeLinkCounterRepository linkCounters;
+  private final RidCache ridCache;
 
   public ArcadeTagRepository(RemoteDatabase database) {
+    this(database, new RidCache());
+  }
+
+  public ArcadeTagRepository(RemoteDatabase database, RidCache ridCache) {
     this.database = database;
+    this.linkCounters = new ArcadeLinkCounterRepository(database);
+    this.ridCache = ridCache;
   }
 
   @Override
@@ -60,6 +68,7 @@ public class ArcadeTagRepository implements TagRepository {
         database.command("sql", "DELETE FROM HasTag WHERE @in.id = ?", tagId);
         database.command("sql", "DELETE FROM Tag WHERE id = ?", tagId);
       });
+      ridCache.invalidate("Tag", tagId);
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to delete tag: " + tagId, e);
     }
@@ -181,7 +190,7 @@ public class ArcadeTagRepository implements TagRepository {
   @Override
   public void addTagToLink(@NonNull String linkId, @NonNull String tagId) {
     try {
-      database.transaction(() -> {
+      ridCache.transaction(database, () -> {
         // Check if edge already exists
         var existing = database.query("sql", "SELECT count(*) as count FROM HasTag WHERE @out.id = ? AND @in.id = ?", linkId, tagId);
         long count = existing.stream().findFirst().map(r -> r.<Number>getProperty("count")).map(Number::longValue).orElse(0L);
@@ -189,14 +198,9 @@ public class ArcadeTagRepository implements TagRepository {
         if (count == 0) {
           database.command(
             "sql",
-            """
-            CREATE EDGE HasTag
-            FROM (SELECT FROM Link WHERE id = ?)
-            TO (SELECT FROM Tag WHERE id = ?)
-            """,
-            linkId,
-            tagId
+            "CREATE EDGE HasTag FROM %s TO %s".formatted(ridCache.require(database, "Link", "id", linkId), ridCache.require(database, "Tag", "id", tagId))
           );
+          linkCounters.incrementTag(tagId);
         }
       });
     } catch (ArcadeDBException e) {
@@ -208,7 +212,14 @@ public class ArcadeTagRepository implements TagRepository {
   public void removeTagFromLink(@NonNull String linkId, @NonNull String tagId) {
     try {
       database.transaction(() -> {
-        database.command("sql", "DELETE FROM HasTag WHERE @out.id = ? AND @in.id = ?", linkId, tagId);
+        long removed = database
+          .command("sql", "DELETE FROM HasTag WHERE @out.id = ? AND @in.id = ?", linkId, tagId)
+          .stream()
+          .findFirst()
+          .map(r -> r.<Number>getProperty("count"))
+          .map(Number::longValue)
+          .orElse(0L);
+        linkCounters.decrementTags(List.of(tagId), removed);
       });
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to remove tag " + tagId + " from link " + linkId, e);
@@ -18,10 +18,16 @@ public class ArcadeUserRepository {
 
   private final RemoteDatabase database;
   private final UserMapper userMapper;
+  private final RidCache ridCache;
 
   public ArcadeUserRepository(RemoteDatabase database, UserMapper userMapper) {
+    this(database, userMapper, new RidCache());
+  }
+
+  public ArcadeUserRepository(RemoteDatabase database, UserMapper userMapper, RidCache ridCache) {
     this.database = database;
     this.userMapper = userMapper;
+    this.ridCache = ridCache;
   }
 
   public User save(User user) {
@@ -212,6 +218,7 @@ public class ArcadeUserRepository {
       database.transaction(() -> {
         database.command("sql", "DELETE FROM User WHERE id = ?", userId);
       });
+      ridCache.invalidate("User", userId);
     } catch (ArcadeDBException e) {
       throw new DatabaseException("Failed to delete user: " + userId, e);
     }
@@ -105,7 +105,11 @@ public class ContentMapper {
       extractedDescription,
       author,
       publishedDate,
-      embedding
+      embedding,
+      (String) map.get("etag"),
+      (String) map.get("lastModified"),
+      (String) map.get("contentHash"),
+      map.get("recheckIntervalSeconds") instanceof Number interval ? interval.longValue() : null
     );
   }
 
@@ -162,6 +166,19 @@ public class ContentMapper {
     if (content.publishedDate() != null) {
       vertex.set("publishedDate", content.publishedDate().format(FORMATTER));
     }
+    vertex.set("etag", content.etag());
+    vertex.set("lastModified", content.lastModified());
+    vertex.set("contentHash", content.contentHash());
+    vertex.set("recheckIntervalSeconds", content.recheckIntervalSeconds());
+    // Epoch millis, so the re-crawl can find due content with an index range scan
+    if (content.status() == DownloadStatus.COMPLETED && content.recheckIntervalSeconds() != null && content.downloadedAt() != null) {
+      vertex.set(
+        "recheckAt",
+        content.downloadedAt().plusSeconds(content.recheckIntervalSeconds()).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+      );
+    } else {
+      vertex.set("recheckAt", null);
+    }
 
     if (content.embedding() != null) {
       vertex.set("embedding", toList(content.embedding()));
@@ -1,8 +1,10 @@
 package it.robfrank.linklift.adapter.out.persistence;
 
 import it.robfrank.linklift.application.domain.model.Content;
+import it.robfrank.linklift.application.domain.model.ContentChunk;
 import it.robfrank.linklift.application.port.out.LoadContentPort;
 import it.robfrank.linklift.application.port.out.SaveContentPort;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import org.jspecify.annotations.NonNull;
@@ -51,13 +53,40 @@ public class ContentPersistenceAdapter implements SaveContentPort, LoadContentPo
 
   @Override
   @NonNull
-  public List<Content> findSimilar(@NonNull List<Float> queryVector, int limit, @NonNull String userId) {
+  public List<Content> findSimilar(@NonNull float[] queryVector, int limit, @NonNull String userId) {
     return repository.findSimilar(queryVector, limit, userId);
   }
 
+  @Override
+  @NonNull
+  public List<ContentChunk> findSimilarChunks(@NonNull float[] queryVector, int limit, @NonNull String userId) {
+    return repository.findSimilarChunks(queryVector, limit, userId);
+  }
+
+  @Override
+  public void replaceChunks(@NonNull String linkId, @NonNull List<ContentChunk> chunks) {
+    repository.replaceChunks(linkId, chunks);
+  }
+
+  @Override
+  public void markForEmbeddingBackfill(@NonNull String linkId) {
+    repository.markForEmbeddingBackfill(linkId);
+  }
+
   @Override
   @NonNull
   public List<Content> findContentsWithoutEmbeddings(int limit) {
     return repository.findContentsWithoutEmbeddings(limit);
   }
+
+  @Override
+  @NonNull
+  public List<String> findLinkIdsDueForRecheck(@NonNull Instant now, int limit) {
+    return repository.findLinkIdsDueForRecheck(now, limit);
+  }
+
+  @Override
+  public void deferRecheck(@NonNull List<String> linkIds, @NonNull Instant until) {
+    repository.deferRecheck(linkIds, until);
+  }
 }
@@ -0,0 +1,58 @@
+package it.robfrank.linklift.adapter.out.persistence;
+
+import it.robfrank.linklift.application.domain.model.DownloadJob;
+import it.robfrank.linklift.application.port.out.DownloadJobPort;
+import it.robfrank.linklift.application.port.out.RecrawlBudgetPort;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.jspecify.annotations.NonNull;
+
+public class DownloadJobPersistenceAdapter implements DownloadJobPort, RecrawlBudgetPort {
+
+  private final ArcadeDownloadJobRepository repository;
+
+  public DownloadJobPersistenceAdapter(@NonNull ArcadeDownloadJobRepository repository) {
+    this.repository = repository;
+  }
+
+  @Override
+  public void enqueueJobs(@NonNull List<DownloadJob> jobs) {
+    repository.enqueueJobs(jobs);
+  }
+
+  @Override
+  public int offerJobs(@NonNull List<DownloadJob> jobs) {
+    return repository.offerJobs(jobs);
+  }
+
+  @Override
+  public @NonNull List<DownloadJob> claimJobs(@NonNull String workerId, int limit, @NonNull Duration lease) {
+    return repository.claimJobs(workerId, limit, lease);
+  }
+
+  @Override
+  public void completeJob(@NonNull String jobId, @NonNull String workerId) {
+    repository.completeJob(jobId, workerId);
+  }
+
+  @Override
+  public void failJob(@NonNull String jobId, @NonNull String workerId, @NonNull String error) {
+    repository.failJob(jobId, workerId, error);
+  }
+
+  @Override
+  public void purgeFailedJobs(@NonNull Instant failedBefore) {
+    repository.purgeFailedJobs(failedBefore);
+  }
+
+  @Override
+  public int takeRechecks(int wanted, int perHour, int capacity) {
+    return repository.takeRecheckBudget(wanted, perHour, capacity);
+  }
+
+  @Override
+  public void returnRechecks(int count, int capacity) {
+    repository.returnRecheckBudget(count, capacity);
+  }
+}
@@ -0,0 +1,122 @@
+package it.robfrank.linklift.adapter.out.persistence;
+
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded LRU of per-user {@link GraphSnapshot}s, so the graph endpoint answers from memory once a
+ * user's graph has been loaded.
+ *
+ * <p>Cached snapshots are kept current by the link writes in {@link ArcadeLinkRepository}, which
+ * apply the same change to the snapshot after their transaction commits. A load that overlaps a
+ * write to the same user's graph, or to a link the loaded snapshot contains, is returned to its
+ * caller but not cached, since it may predate the write. Writes to other users' links do not keep a
+ * load from being cached.
+ *
+ * <p>Writes made by other nodes never reach this cache, so a snapshot is reloaded once it is older
+ * than {@code maxAge}: that bounds how stale a graph served here can be when several nodes share
+ * the database.
+ */
+final class GraphSnapshotCache {
+
+  static final int DEFAULT_MAX_USERS = 256;
+  static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(1);
+
+  private record Entry(GraphSnapshot snapshot, long loadedAt) {}
+
+  /** A load in progress and the writes it may have missed. Compared by identity. */
+  private static final class Load {
+
+    private final String userId;
+    private final Set<String> touchedLinkIds = new HashSet<>();
+    private boolean stale;
+
+    private Load(String userId) {
+      this.userId = userId;
+    }
+  }
+
+  private final Map<String, Entry> snapshots;
+  private final long maxAgeNanos;
+  // Guarded by snapshots
+  private final Set<Load> loading = new HashSet<>();
+
+  GraphSnapshotCache() {
+    this(DEFAULT_MAX_USERS, DEFAULT_MAX_AGE);
+  }
+
+  GraphSnapshotCache(int maxUsers, Duration maxAge) {
+    this.maxAgeNanos = maxAge.toNanos();
+    this.snapshots = Collections.synchronizedMap(
+      new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+          return size() > maxUsers;
+        }
+      }
+    );
+  }
+
+  GraphSnapshot get(String userId, Supplier<GraphSnapshot> loader) {
+    Entry cached = snapshots.get(userId);
+    if (cached != null && System.nanoTime() - cached.loadedAt() < maxAgeNanos) {
+      return cached.snapshot();
+    }
+    Load load = new Load(userId);
+    synchronized (snapshots) {
+      loading.add(load);
+    }
+    long loadedAt = System.nanoTime();
+    GraphSnapshot loaded = null;
+    try {
+      loaded = loader.get();
+      return loaded;
+    } finally {
+      synchronized (snapshots) {
+        loading.remove(load);
+        if (loaded != null && !load.stale && load.touchedLinkIds.stream().noneMatch(loaded::contains)) {
+          snapshots.put(userId, new Entry(loaded, loadedAt));
+        }
+      }
+    }
+  }
+
+  /** Applies a committed change to the user's snapshot, if it is cached. */
+  void update(String userId, UnaryOperator<GraphSnapshot> change) {
+    synchronized (snapshots) {
+      markStale(List.of(userId));
+      snapshots.computeIfPresent(userId, (user, entry) -> new Entry(change.apply(entry.snapshot()), entry.loadedAt()));
+    }
+  }
+
+  /** Applies a committed change to every cached snapshot that contains the link. */
+  void updateContaining(String linkId, UnaryOperator<GraphSnapshot> change) {
+    synchronized (snapshots) {
+      // The owner is not known here; a running load checks the link against what it loaded
+      loading.forEach(load -> load.touchedLinkIds.add(linkId));
+      snapshots.replaceAll((user, entry) ->
+        entry.snapshot().contains(linkId) ? new Entry(change.apply(entry.snapshot()), entry.loadedAt()) : entry
+      );
+    }
+  }
+
+  void invalidate(Collection<String> userIds) {
+    synchronized (snapshots) {
+      markStale(userIds);
+      userIds.forEach(snapshots::remove);
+    }
+  }
+
+  private void markStale(Collection<String> userIds) {
+    loading.forEach(load -> load.stale |= userIds.contains(load.userId));
+  }
+}
@@ -3,6 +3,7 @@ package it.robfrank.linklift.adapter.out.persistence;
 import com.arcadedb.graph.MutableVertex;
 import com.arcadedb.graph.Vertex;
 import com.arcadedb.remote.RemoteMutableVertex;
+import it.robfrank.linklift.application.domain.model.CanonicalUrl;
 import it.robfrank.linklift.application.domain.model.Link;
 import it.robfrank.linklift.application.domain.model.ReadStatus;
 import java.util.List;
@@ -31,6 +32,7 @@ public class LinkMapper {
   MutableVertex mapToVertex(Link link, RemoteMutableVertex vertex) {
     vertex.set("id", link.id());
     vertex.set("url", link.url());
+    vertex.set("urlHash", CanonicalUrl.hashOf(link.url()));
     vertex.set("title", link.title());
     vertex.set("description", link.description());
     vertex.set("extractedAt", link.extractedAt());
@@ -1,7 +1,7 @@
 package it.robfrank.linklift.adapter.out.persistence;
 
 import it.robfrank.linklift.application.domain.exception.LinkNotFoundException;
-import it.robfrank.linklift.application.domain.model.GraphData;
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
 import it.robfrank.linklift.application.domain.model.Link;
 import it.robfrank.linklift.application.domain.model.LinkPage;
 import it.robfrank.linklift.application.port.in.ListLinksQuery;
@@ -9,9 +9,12 @@ import it.robfrank.linklift.application.port.out.DeleteLinkPort;
 import it.robfrank.linklift.application.port.out.LoadLinksPort;
 import it.robfrank.linklift.application.port.out.SaveLinkPort;
 import it.robfrank.linklift.application.port.out.UpdateLinkPort;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.jspecify.annotations.NonNull;
 
 public class LinkPersistenceAdapter implements SaveLinkPort, LoadLinksPort, UpdateLinkPort, DeleteLinkPort {
@@ -39,6 +42,11 @@ public class LinkPersistenceAdapter implements SaveLinkPort, LoadLinksPort, Upda
     return saveLinkForUser(link, userId);
   }
 
+  @Override
+  public List<Link> saveAll(List<Link> links, String userId) {
+    return linkRepository.saveLinksForUser(links, userId);
+  }
+
   public Optional<Link> findLinkByUrl(String url) {
     return linkRepository.findLinkByUrl(url);
   }
@@ -79,6 +87,7 @@ public class LinkPersistenceAdapter implements SaveLinkPort, LoadLinksPort, Upda
   /**
    * Get the owner of a specific link.
    */
+  @Override
   public Optional<String> getLinkOwner(String linkId) {
     return linkRepository.getLinkOwner(linkId);
   }
@@ -108,14 +117,29 @@ public class LinkPersistenceAdapter implements SaveLinkPort, LoadLinksPort, Upda
     return linkRepository.findLinksByIds(ids);
   }
 
+  @Override
+  public Set<String> findExistingUrls(Collection<String> urls) {
+    return linkRepository.findExistingUrls(urls);
+  }
+
   @Override
   public @NonNull Link updateLink(@NonNull Link link) {
     return Objects.requireNonNull(linkRepository.updateLink(link));
   }
 
   @Override
-  public GraphData getGraphData(String userId) {
-    return linkRepository.getGraphData(userId);
+  public void updateLinkRanks(@NonNull Map<String, Double> ranksByLinkId) {
+    linkRepository.updateLinkRanks(ranksByLinkId);
+  }
+
+  @Override
+  public GraphSnapshot getGraphSnapshot(String userId) {
+    return linkRepository.getGraphSnapshot(userId);
+  }
+
+  @Override
+  public Map<String, Double> getLinkRanks(String userId) {
+    return linkRepository.getLinkRanks(userId);
   }
 
   @Override
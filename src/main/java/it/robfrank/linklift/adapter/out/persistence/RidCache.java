@@ -0,0 +1,169 @@
+package it.robfrank.linklift.adapter.out.persistence;
+
+import com.arcadedb.query.sql.executor.Result;
+import com.arcadedb.query.sql.executor.ResultSet;
+import com.arcadedb.remote.RemoteDatabase;
+import it.robfrank.linklift.application.domain.exception.DatabaseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded LRU map from business keys ({@code Link.id}, {@code Domain.name}, ...) to ArcadeDB record
+ * ids, shared by the persistence repositories.
+ *
+ * <p>Edge writes address vertices by RID instead of a {@code (SELECT FROM Type WHERE id = ?)}
+ * sub-select, which saves an index lookup per endpoint. A record keeps its RID for its whole life,
+ * so entries only go stale on delete: every repository that deletes a cached type must call
+ * {@link #invalidate}. Writes that look up or create vertices run through {@link #transaction}, so
+ * a RID is shared with other threads only once the record it names is committed.
+ */
+public final class RidCache {
+
+  public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+  // RIDs are inlined into SQL, so only values of this exact shape are ever cached; negative ones are
+  // temporary ids of records not yet committed
+  private static final Pattern RID_PATTERN = Pattern.compile("#\\d+:\\d+");
+
+  private final Map<String, String> entries;
+  // What the transaction running on this thread has learnt, applied to entries once it commits
+  private final ThreadLocal<Pending> pending = new ThreadLocal<>();
+
+  public RidCache() {
+    this(DEFAULT_MAX_ENTRIES);
+  }
+
+  public RidCache(int maxEntries) {
+    this.entries = Collections.synchronizedMap(
+      new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+          return size() > maxEntries;
+        }
+      }
+    );
+  }
+
+  /**
+   * Runs {@code block} in a database transaction. RIDs remembered or resolved inside it are visible
+   * to the block at once but cached for other threads only after the commit, and entries it
+   * invalidates are dropped again after the commit, so a rolled back insert or a racing lookup of a
+   * deleted vertex never leaves a RID behind. Nested calls join the outer transaction.
+   */
+  void transaction(RemoteDatabase database, Runnable block) {
+    if (pending.get() != null) {
+      block.run();
+      return;
+    }
+    Pending learnt = new Pending();
+    pending.set(learnt);
+    try {
+      database.transaction(() -> {
+        // A retried transaction starts over
+        learnt.clear();
+        block.run();
+      });
+    } finally {
+      pending.remove();
+    }
+    learnt.invalidated.forEach(entries::remove);
+    entries.putAll(learnt.rids);
+  }
+
+  /** Cached RID of the vertex, without touching the database. */
+  Optional<String> get(String type, String key) {
+    String cacheKey = cacheKey(type, key);
+    Pending learnt = pending.get();
+    if (learnt != null && learnt.rids.containsKey(cacheKey)) {
+      return Optional.of(learnt.rids.get(cacheKey));
+    }
+    return Optional.ofNullable(entries.get(cacheKey));
+  }
+
+  /**
+   * RID of the {@code type} vertex whose {@code keyProperty} equals {@code key}, looked up through
+   * the property's index on a miss. Type and property names are compile-time constants of the callers.
+   */
+  Optional<String> resolve(RemoteDatabase database, String type, String keyProperty, String key) {
+    Optional<String> cached = get(type, key);
+    if (cached.isPresent()) {
+      return cached;
+    }
+    return remember(type, key, database.query("sql", "SELECT @rid as rid FROM %s WHERE %s = ?".formatted(type, keyProperty), key));
+  }
+
+  /** Like {@link #resolve} but fails when the vertex does not exist. */
+  String require(RemoteDatabase database, String type, String keyProperty, String key) {
+    return resolve(database, type, keyProperty, key).orElseThrow(() -> new DatabaseException("%s not found: %s".formatted(type, key)));
+  }
+
+  /** Caches the RID of the first record in a command result (INSERT, UPSERT ... RETURN AFTER) and returns it. */
+  Optional<String> remember(String type, String key, ResultSet result) {
+    Optional<String> rid = result.stream().findFirst().flatMap(RidCache::ridOf);
+    rid.ifPresent(value -> store(cacheKey(type, key), value));
+    return rid;
+  }
+
+  void put(String type, String key, Object rid) {
+    asRid(rid).ifPresent(value -> store(cacheKey(type, key), value));
+  }
+
+  void invalidate(String type, String key) {
+    String cacheKey = cacheKey(type, key);
+    entries.remove(cacheKey);
+    Pending learnt = pending.get();
+    if (learnt != null) {
+      learnt.rids.remove(cacheKey);
+      learnt.invalidated.add(cacheKey);
+    }
+  }
+
+  void invalidate(String type, Collection<String> keys) {
+    keys.forEach(key -> invalidate(type, key));
+  }
+
+  private void store(String cacheKey, String rid) {
+    Pending learnt = pending.get();
+    if (learnt != null) {
+      learnt.rids.put(cacheKey, rid);
+      learnt.invalidated.remove(cacheKey);
+    } else {
+      entries.put(cacheKey, rid);
+    }
+  }
+
+  private static Optional<String> ridOf(Result result) {
+    Object rid = result.getIdentity().map(Object::toString).orElse(null);
+    if (rid == null) {
+      rid = result.hasProperty("rid") ? result.getProperty("rid") : result.getProperty("@rid");
+    }
+    return asRid(rid);
+  }
+
+  /** The value as a RID string safe to inline into SQL, or empty if it is not a RID. */
+  static Optional<String> asRid(Object value) {
+    return Optional.ofNullable(value).map(String::valueOf).filter(rid -> RID_PATTERN.matcher(rid).matches());
+  }
+
+  private static String cacheKey(String type, String key) {
+    return type + ':' + key;
+  }
+
+  private static final class Pending {
+
+    private final Map<String, String> rids = new HashMap<>();
+    private final Set<String> invalidated = new HashSet<>();
+
+    void clear() {
+      rids.clear();
+      invalidated.clear();
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package it.robfrank.linklift.application.domain.event;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** Published after a user's {@code linksTo} edges changed, so graph-derived data can be refreshed. */
+public class LinkGraphChangedEvent implements DomainEvent {
+
+  private final String userId;
+  private final String eventId;
+  private final LocalDateTime timestamp;
+
+  public LinkGraphChangedEvent(String userId) {
+    this.userId = userId;
+    this.eventId = UUID.randomUUID().toString();
+    this.timestamp = LocalDateTime.now();
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  @Override
+  public String getEventId() {
+    return eventId;
+  }
+
+  @Override
+  public LocalDateTime getTimestamp() {
+    return timestamp;
+  }
+}
@@ -0,0 +1,40 @@
+package it.robfrank.linklift.application.domain.event;
+
+import it.robfrank.linklift.application.domain.model.Link;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/** Published once per chunk of a bulk import, so each chunk's links are handed to the download pipeline as one batch. */
+public class LinksImportedEvent implements DomainEvent {
+
+  private final List<Link> links;
+  private final String userId;
+  private final String eventId;
+  private final LocalDateTime timestamp;
+
+  public LinksImportedEvent(List<Link> links, String userId) {
+    this.links = List.copyOf(links);
+    this.userId = userId;
+    this.eventId = UUID.randomUUID().toString();
+    this.timestamp = LocalDateTime.now();
+  }
+
+  public List<Link> getLinks() {
+    return links;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  @Override
+  public String getEventId() {
+    return eventId;
+  }
+
+  @Override
+  public LocalDateTime getTimestamp() {
+    return timestamp;
+  }
+}
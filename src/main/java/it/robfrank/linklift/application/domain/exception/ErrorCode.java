@@ -47,6 +47,9 @@ public enum ErrorCode {
   TAG_NOT_FOUND(2700, "Tag not found"),
   TAG_ALREADY_EXISTS(2701, "Tag already exists"),
 
+  // Domain-specific errors - Graph
+  GRAPH_CLUSTER_NOT_FOUND(2800, "Graph cluster not found"),
+
   // Authorization errors
   UNAUTHORIZED(2500, "Unauthorized access to resource"),
 
@@ -0,0 +1,9 @@
+package it.robfrank.linklift.application.domain.exception;
+
+public class GraphClusterNotFoundException extends LinkLiftException {
+
+  public GraphClusterNotFoundException(String clusterId) {
+    // Cluster ids are link ids, so only an id whose link has since been deleted goes stale
+    super("Graph cluster not found with id: " + clusterId + " (its link no longer exists; reload the cluster overview)", ErrorCode.GRAPH_CLUSTER_NOT_FOUND);
+  }
+}
@@ -0,0 +1,117 @@
+package it.robfrank.linklift.application.domain.model;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * The spelling of a URL that all its equivalent spellings share, used to tell whether two links
+ * point at the same page. It is a comparison key, not an address: {@code http} is folded into
+ * {@code https}, so the result is never fetched.
+ *
+ * <p>Scheme and host are lower-cased, a leading {@code www.} and the default port dropped, the path
+ * normalized without a trailing slash, tracking parameters ({@code utm_*}, click ids) removed and
+ * the remaining parameters sorted; the fragment is dropped. Strings that are not absolute
+ * hierarchical URLs are kept as they are.
+ */
+public record CanonicalUrl(@NonNull String value) {
+  private static final Set<String> TRACKING_PARAMETERS = Set.of(
+    "fbclid",
+    "gclid",
+    "dclid",
+    "gbraid",
+    "wbraid",
+    "msclkid",
+    "yclid",
+    "twclid",
+    "igshid",
+    "mc_cid",
+    "mc_eid",
+    "_hsenc",
+    "_hsmi",
+    "mkt_tok"
+  );
+  private static final int HASH_BYTES = 16;
+
+  public static @NonNull CanonicalUrl of(@NonNull String url) {
+    String trimmed = url.strip();
+    URI uri;
+    try {
+      uri = new URI(trimmed).normalize();
+    } catch (URISyntaxException e) {
+      return new CanonicalUrl(trimmed);
+    }
+    if (uri.getScheme() == null || uri.getHost() == null) {
+      return new CanonicalUrl(trimmed);
+    }
+
+    String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+    int port = uri.getPort();
+    if (port == 80 && scheme.equals("http") || port == 443 && scheme.equals("https")) {
+      port = -1;
+    }
+    if (scheme.equals("http")) {
+      scheme = "https";
+    }
+    String host = uri.getHost().toLowerCase(Locale.ROOT);
+    if (host.startsWith("www.")) {
+      host = host.substring(4);
+    }
+    String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+    while (path.endsWith("/")) {
+      path = path.substring(0, path.length() - 1);
+    }
+
+    StringBuilder canonical = new StringBuilder(scheme).append("://").append(host);
+    if (port != -1) {
+      canonical.append(':').append(port);
+    }
+    canonical.append(path.isEmpty() ? "/" : path);
+    List<String> parameters = parameters(uri.getRawQuery());
+    if (!parameters.isEmpty()) {
+      canonical.append('?').append(String.join("&", parameters));
+    }
+    return new CanonicalUrl(canonical.toString());
+  }
+
+  /** Query parameters without tracking ones, sorted so their order does not matter. */
+  private static List<String> parameters(String query) {
+    if (query == null || query.isEmpty()) {
+      return List.of();
+    }
+    List<String> kept = new ArrayList<>();
+    for (String parameter : query.split("&")) {
+      int separator = parameter.indexOf('=');
+      String name = (separator < 0 ? parameter : parameter.substring(0, separator)).toLowerCase(Locale.ROOT);
+      if (!parameter.isEmpty() && !name.startsWith("utm_") && !TRACKING_PARAMETERS.contains(name)) {
+        kept.add(parameter);
+      }
+    }
+    kept.sort(null);
+    return kept;
+  }
+
+  /** Fixed-width key of the canonical URL: the first 128 bits of its SHA-256, as 32 hex digits. */
+  public @NonNull String hash() {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(Arrays.copyOf(digest, HASH_BYTES));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /** Shorthand for {@code CanonicalUrl.of(url).hash()}. */
+  public static @NonNull String hashOf(@NonNull String url) {
+    return of(url).hash();
+  }
+}
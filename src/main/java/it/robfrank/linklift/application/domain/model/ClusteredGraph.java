@@ -0,0 +1,19 @@
+package it.robfrank.linklift.application.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Level-of-detail view of a user's link graph: each node is a community of links and each edge
+ * carries the number of {@code linksTo} edges between two communities.
+ */
+public record ClusteredGraph(
+  @JsonProperty("clusters") @NonNull List<ClusterNode> clusters,
+  @JsonProperty("edges") @NonNull List<ClusterEdge> edges,
+  @JsonProperty("totalClusters") int totalClusters
+) {
+  public record ClusterNode(@JsonProperty("id") @NonNull String id, @JsonProperty("label") @NonNull String label, @JsonProperty("size") int size) {}
+
+  public record ClusterEdge(@JsonProperty("source") @NonNull String source, @JsonProperty("target") @NonNull String target, @JsonProperty("weight") int weight) {}
+}
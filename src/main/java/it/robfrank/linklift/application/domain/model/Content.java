@@ -22,7 +22,13 @@ public record Content(
   @JsonProperty("extractedDescription") @Nullable String extractedDescription,
   @JsonProperty("author") @Nullable String author,
   @JsonProperty("publishedDate") @Nullable LocalDateTime publishedDate,
-  @JsonProperty("embedding") @Nullable float[] embedding
+  @JsonProperty("embedding") @Nullable float[] embedding,
+  // Validators of the response the content came from and a hash of its text, to skip unchanged pages on refresh
+  @JsonProperty("etag") @Nullable String etag,
+  @JsonProperty("lastModified") @Nullable String lastModified,
+  @JsonProperty("contentHash") @Nullable String contentHash,
+  // How long after downloadedAt the page is checked again; grows while it stays unchanged
+  @JsonProperty("recheckIntervalSeconds") @Nullable Long recheckIntervalSeconds
 ) {
   public Content {
     downloadedAt = downloadedAt.truncatedTo(ChronoUnit.SECONDS);
@@ -45,4 +51,106 @@ public record Content(
   ) {
     this(id, linkId, htmlContent, textContent, contentLength, downloadedAt, mimeType, status, null, null, null, null, null, null, null);
   }
+
+  /**
+   * Creates a Content instance without refresh validators (for backward
+   * compatibility).
+   */
+  public Content(
+    @NonNull String id,
+    @NonNull String linkId,
+    @Nullable String htmlContent,
+    @Nullable String textContent,
+    @Nullable Integer contentLength,
+    @NonNull LocalDateTime downloadedAt,
+    @Nullable String mimeType,
+    @NonNull DownloadStatus status,
+    @Nullable String summary,
+    @Nullable String heroImageUrl,
+    @Nullable String extractedTitle,
+    @Nullable String extractedDescription,
+    @Nullable String author,
+    @Nullable LocalDateTime publishedDate,
+    @Nullable float[] embedding
+  ) {
+    this(
+      id,
+      linkId,
+      htmlContent,
+      textContent,
+      contentLength,
+      downloadedAt,
+      mimeType,
+      status,
+      summary,
+      heroImageUrl,
+      extractedTitle,
+      extractedDescription,
+      author,
+      publishedDate,
+      embedding,
+      null,
+      null,
+      null,
+      null
+    );
+  }
+
+  /**
+   * This content as confirmed unchanged at {@code checkedAt}, with the validators of that response
+   * and the interval until the next check.
+   */
+  public @NonNull Content withRefreshCheck(
+    @NonNull LocalDateTime checkedAt,
+    @Nullable String etag,
+    @Nullable String lastModified,
+    @Nullable Long recheckIntervalSeconds
+  ) {
+    return new Content(
+      id,
+      linkId,
+      htmlContent,
+      textContent,
+      contentLength,
+      checkedAt,
+      mimeType,
+      status,
+      summary,
+      heroImageUrl,
+      extractedTitle,
+      extractedDescription,
+      author,
+      publishedDate,
+      embedding,
+      etag,
+      lastModified,
+      contentHash,
+      recheckIntervalSeconds
+    );
+  }
+
+  /** This content with a new embedding, everything else kept. */
+  public @NonNull Content withEmbedding(@Nullable float[] embedding) {
+    return new Content(
+      id,
+      linkId,
+      htmlContent,
+      textContent,
+      contentLength,
+      downloadedAt,
+      mimeType,
+      status,
+      summary,
+      heroImageUrl,
+      extractedTitle,
+      extractedDescription,
+      author,
+      publishedDate,
+      embedding,
+      etag,
+      lastModified,
+      contentHash,
+      recheckIntervalSeconds
+    );
+  }
 }
@@ -0,0 +1,17 @@
+package it.robfrank.linklift.application.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * One passage of a link's content with its own embedding, so a long page can be matched by any of
+ * its parts rather than by its opening only. {@code position} orders the passages within the page.
+ * Vectors are not read back by similarity queries, so {@code embedding} is null on their results.
+ */
+public record ContentChunk(
+  @JsonProperty("linkId") @NonNull String linkId,
+  @JsonProperty("position") int position,
+  @JsonProperty("text") @NonNull String text,
+  @JsonProperty("embedding") @Nullable float[] embedding
+) {}
@@ -0,0 +1,36 @@
+package it.robfrank.linklift.application.domain.model;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A queued content download. While a worker runs it, the job carries that worker's lease; once the
+ * lease expires any worker may claim the job again. Due jobs are claimed by descending
+ * {@code priority}, so background work waits behind what users asked for.
+ */
+public record DownloadJob(
+  @NonNull String id,
+  @NonNull String linkId,
+  @NonNull String url,
+  @NonNull DownloadStatus status,
+  int priority,
+  int attempts,
+  @NonNull Instant nextRunAt,
+  @Nullable String leaseOwner,
+  @Nullable Instant leaseExpiresAt
+) {
+  public static final int NORMAL_PRIORITY = 0;
+  public static final int BACKGROUND_PRIORITY = -1;
+
+  /** A new job that is due immediately. */
+  public static DownloadJob pending(@NonNull String linkId, @NonNull String url) {
+    return new DownloadJob(UUID.randomUUID().toString(), linkId, url, DownloadStatus.PENDING, NORMAL_PRIORITY, 0, Instant.now(), null, null);
+  }
+
+  /** A new job that is due immediately but only runs when no user-requested download is waiting. */
+  public static DownloadJob background(@NonNull String linkId, @NonNull String url) {
+    return new DownloadJob(UUID.randomUUID().toString(), linkId, url, DownloadStatus.PENDING, BACKGROUND_PRIORITY, 0, Instant.now(), null, null);
+  }
+}
@@ -0,0 +1,331 @@
+package it.robfrank.linklift.application.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * A user's link graph in compressed sparse row (CSR) form. Node {@code i} is the link
+ * {@code ids[i]}; its outgoing {@code linksTo} edges point at the node indices
+ * {@code targets[offsets[i]]} up to {@code targets[offsets[i + 1] - 1]}.
+ *
+ * <p>Snapshots are immutable: the {@code with...} methods return an updated copy, so a cached
+ * snapshot can be read concurrently while writes swap in its successor. Serialized as JSON it is
+ * the compact encoding of the graph: parallel string tables plus the two int arrays.
+ */
+public final class GraphSnapshot {
+
+  public static final GraphSnapshot EMPTY = new GraphSnapshot(new String[0], new String[0], new String[0], new int[] { 0 }, new int[0]);
+
+  private final String[] ids;
+  private final String[] labels;
+  private final String[] urls;
+  private final int[] offsets;
+  private final int[] targets;
+  private final Map<String, Integer> indexById;
+  private volatile GraphData graphData;
+
+  private GraphSnapshot(String[] ids, String[] labels, String[] urls, int[] offsets, int[] targets) {
+    this(ids, labels, urls, offsets, targets, indexOf(ids));
+  }
+
+  // The index is never modified once built, so copies with the same nodes share it
+  private GraphSnapshot(String[] ids, String[] labels, String[] urls, int[] offsets, int[] targets, Map<String, Integer> indexById) {
+    this.ids = ids;
+    this.labels = labels;
+    this.urls = urls;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.indexById = indexById;
+  }
+
+  private static Map<String, Integer> indexOf(String[] ids) {
+    Map<String, Integer> index = new HashMap<>(ids.length * 2);
+    for (int i = 0; i < ids.length; i++) {
+      index.put(ids[i], i);
+    }
+    return index;
+  }
+
+  /** Builds a snapshot; edges whose endpoints are not among the nodes and repeated edges are dropped. */
+  public static @NonNull GraphSnapshot of(@NonNull List<GraphData.LinkNode> nodes, @NonNull Collection<GraphData.LinkEdge> edges) {
+    int n = nodes.size();
+    String[] ids = new String[n];
+    String[] labels = new String[n];
+    String[] urls = new String[n];
+    Map<String, Integer> index = new HashMap<>(n * 2);
+    for (int i = 0; i < n; i++) {
+      GraphData.LinkNode node = nodes.get(i);
+      ids[i] = node.id();
+      labels[i] = node.label();
+      urls[i] = node.url();
+      index.put(node.id(), i);
+    }
+
+    List<Set<Integer>> adjacency = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      adjacency.add(new LinkedHashSet<>());
+    }
+    for (GraphData.LinkEdge edge : edges) {
+      Integer source = index.get(edge.source());
+      Integer target = index.get(edge.target());
+      if (source != null && target != null) {
+        adjacency.get(source).add(target);
+      }
+    }
+    return fromAdjacency(ids, labels, urls, adjacency);
+  }
+
+  public int nodeCount() {
+    return ids.length;
+  }
+
+  public int edgeCount() {
+    return targets.length;
+  }
+
+  /** Index of the link's node, or {@code -1} when the link is not part of this graph. */
+  public int indexOf(@NonNull String linkId) {
+    return indexById.getOrDefault(linkId, -1);
+  }
+
+  public boolean contains(@NonNull String linkId) {
+    return indexById.containsKey(linkId);
+  }
+
+  public @NonNull String id(int node) {
+    return ids[node];
+  }
+
+  public @NonNull String label(int node) {
+    return labels[node];
+  }
+
+  public @NonNull String url(int node) {
+    return urls[node];
+  }
+
+  /** Position in the edge arrays of the node's first outgoing edge. */
+  public int edgeStart(int node) {
+    return offsets[node];
+  }
+
+  /** Position in the edge arrays just past the node's last outgoing edge. */
+  public int edgeEnd(int node) {
+    return offsets[node + 1];
+  }
+
+  /** Node index the edge at the given position points to. */
+  public int target(int edge) {
+    return targets[edge];
+  }
+
+  @JsonProperty("ids")
+  public String @NonNull [] ids() {
+    return ids.clone();
+  }
+
+  @JsonProperty("labels")
+  public String @NonNull [] labels() {
+    return labels.clone();
+  }
+
+  @JsonProperty("urls")
+  public String @NonNull [] urls() {
+    return urls.clone();
+  }
+
+  @JsonProperty("offsets")
+  public int @NonNull [] offsets() {
+    return offsets.clone();
+  }
+
+  @JsonProperty("targets")
+  public int @NonNull [] targets() {
+    return targets.clone();
+  }
+
+  /** The node and edge list form of the graph, built once per snapshot. */
+  public @NonNull GraphData toGraphData() {
+    GraphData data = graphData;
+    if (data == null) {
+      List<GraphData.LinkNode> nodes = new ArrayList<>(ids.length);
+      for (int i = 0; i < ids.length; i++) {
+        nodes.add(new GraphData.LinkNode(ids[i], labels[i], urls[i]));
+      }
+      List<GraphData.LinkEdge> edges = new ArrayList<>(targets.length);
+      for (int i = 0; i < ids.length; i++) {
+        for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+          edges.add(new GraphData.LinkEdge(ids[i], ids[targets[e]]));
+        }
+      }
+      data = new GraphData(List.copyOf(nodes), List.copyOf(edges));
+      graphData = data;
+    }
+    return data;
+  }
+
+  /** Adds the link as a node without edges, or updates its label and url if it is already present. */
+  public @NonNull GraphSnapshot withNode(@NonNull String linkId, @NonNull String label, @NonNull String url) {
+    return withNodes(List.of(new GraphData.LinkNode(linkId, label, url)));
+  }
+
+  /**
+   * Adds the links as nodes without edges and updates the label and url of those already present,
+   * copying the arrays once for the whole batch.
+   */
+  public @NonNull GraphSnapshot withNodes(@NonNull List<GraphData.LinkNode> nodes) {
+    String[] newLabels = labels;
+    String[] newUrls = urls;
+    Map<String, GraphData.LinkNode> added = new LinkedHashMap<>();
+    for (GraphData.LinkNode node : nodes) {
+      int i = indexOf(node.id());
+      if (i < 0) {
+        added.put(node.id(), node);
+      } else if (!newLabels[i].equals(node.label()) || !newUrls[i].equals(node.url())) {
+        if (newLabels == labels) {
+          newLabels = labels.clone();
+          newUrls = urls.clone();
+        }
+        newLabels[i] = node.label();
+        newUrls[i] = node.url();
+      }
+    }
+    if (added.isEmpty()) {
+      return newLabels == labels ? this : new GraphSnapshot(ids, newLabels, newUrls, offsets, targets, indexById);
+    }
+    int n = ids.length;
+    int size = n + added.size();
+    String[] newIds = Arrays.copyOf(ids, size);
+    newLabels = Arrays.copyOf(newLabels, size);
+    newUrls = Arrays.copyOf(newUrls, size);
+    int[] newOffsets = Arrays.copyOf(offsets, size + 1);
+    Arrays.fill(newOffsets, n + 1, size + 1, offsets[n]);
+    Map<String, Integer> newIndex = new HashMap<>(indexById);
+    int i = n;
+    for (GraphData.LinkNode node : added.values()) {
+      newIds[i] = node.id();
+      newLabels[i] = node.label();
+      newUrls[i] = node.url();
+      newIndex.put(node.id(), i++);
+    }
+    return new GraphSnapshot(newIds, newLabels, newUrls, newOffsets, targets, newIndex);
+  }
+
+  /** Removes the link's node together with its incoming and outgoing edges. */
+  public @NonNull GraphSnapshot withoutNode(@NonNull String linkId) {
+    int removed = indexOf(linkId);
+    if (removed < 0) {
+      return this;
+    }
+    int n = ids.length;
+    String[] newIds = new String[n - 1];
+    String[] newLabels = new String[n - 1];
+    String[] newUrls = new String[n - 1];
+    int[] newOffsets = new int[n];
+    int[] newTargets = new int[targets.length];
+    int edges = 0;
+    for (int i = 0, j = 0; i < n; i++) {
+      if (i == removed) {
+        continue;
+      }
+      newIds[j] = ids[i];
+      newLabels[j] = labels[i];
+      newUrls[j] = urls[i];
+      for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+        int target = targets[e];
+        if (target != removed) {
+          newTargets[edges++] = target > removed ? target - 1 : target;
+        }
+      }
+      newOffsets[++j] = edges;
+    }
+    return new GraphSnapshot(newIds, newLabels, newUrls, newOffsets, Arrays.copyOf(newTargets, edges));
+  }
+
+  /** Replaces the link's outgoing edges with edges to those of the given links that are in the graph. */
+  public @NonNull GraphSnapshot withOutEdges(@NonNull String linkId, @NonNull Collection<String> targetIds) {
+    int source = indexOf(linkId);
+    if (source < 0) {
+      return this;
+    }
+    Set<Integer> replacement = new LinkedHashSet<>();
+    for (String targetId : targetIds) {
+      int target = indexOf(targetId);
+      if (target >= 0) {
+        replacement.add(target);
+      }
+    }
+    return withAdjacency(Map.of(source, replacement));
+  }
+
+  /** Adds the edges whose endpoints are both in the graph; edges already present are ignored. */
+  public @NonNull GraphSnapshot withEdges(@NonNull Collection<GraphData.LinkEdge> edges) {
+    Map<Integer, Set<Integer>> changed = new HashMap<>();
+    for (GraphData.LinkEdge edge : edges) {
+      int source = indexOf(edge.source());
+      int target = indexOf(edge.target());
+      if (source >= 0 && target >= 0) {
+        changed.computeIfAbsent(source, this::outgoing).add(target);
+      }
+    }
+    return changed.isEmpty() ? this : withAdjacency(changed);
+  }
+
+  private Set<Integer> outgoing(int node) {
+    Set<Integer> result = new LinkedHashSet<>();
+    for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+      result.add(targets[e]);
+    }
+    return result;
+  }
+
+  private GraphSnapshot withAdjacency(Map<Integer, Set<Integer>> changed) {
+    int n = ids.length;
+    int edgeCount = targets.length;
+    for (Map.Entry<Integer, Set<Integer>> entry : changed.entrySet()) {
+      int node = entry.getKey();
+      edgeCount += entry.getValue().size() - (offsets[node + 1] - offsets[node]);
+    }
+    int[] newOffsets = new int[n + 1];
+    int[] newTargets = new int[edgeCount];
+    int edges = 0;
+    for (int i = 0; i < n; i++) {
+      Set<Integer> replacement = changed.get(i);
+      if (replacement != null) {
+        for (int target : replacement) {
+          newTargets[edges++] = target;
+        }
+      } else {
+        int length = offsets[i + 1] - offsets[i];
+        System.arraycopy(targets, offsets[i], newTargets, edges, length);
+        edges += length;
+      }
+      newOffsets[i + 1] = edges;
+    }
+    return new GraphSnapshot(ids, labels, urls, newOffsets, newTargets, indexById);
+  }
+
+  private static GraphSnapshot fromAdjacency(String[] ids, String[] labels, String[] urls, List<Set<Integer>> adjacency) {
+    int[] offsets = new int[ids.length + 1];
+    for (int i = 0; i < ids.length; i++) {
+      offsets[i + 1] = offsets[i] + adjacency.get(i).size();
+    }
+    int[] targets = new int[offsets[ids.length]];
+    for (int i = 0; i < ids.length; i++) {
+      int e = offsets[i];
+      for (int target : adjacency.get(i)) {
+        targets[e++] = target;
+      }
+    }
+    return new GraphSnapshot(ids, labels, urls, offsets, targets);
+  }
+}
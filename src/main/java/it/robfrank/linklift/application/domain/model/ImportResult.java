@@ -0,0 +1,9 @@
+package it.robfrank.linklift.application.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record ImportResult(
+  @JsonProperty("imported") int imported,
+  @JsonProperty("duplicates") int duplicates,
+  @JsonProperty("invalid") int invalid
+) {}
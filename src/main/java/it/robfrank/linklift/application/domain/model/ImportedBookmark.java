@@ -0,0 +1,8 @@
+package it.robfrank.linklift.application.domain.model;
+
+import java.time.LocalDateTime;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/** A single entry read from a bookmark export, before it is validated and stored as a {@link Link}. */
+public record ImportedBookmark(@NonNull String url, @Nullable String title, @Nullable String description, @Nullable LocalDateTime addedAt) {}
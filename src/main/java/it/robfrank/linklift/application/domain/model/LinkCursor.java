@@ -0,0 +1,41 @@
+package it.robfrank.linklift.application.domain.model;
+
+import it.robfrank.linklift.application.domain.exception.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Keyset pagination position: the sort key and id of the last link returned on a page.
+ * Clients receive it as an opaque URL-safe token and send it back unchanged to fetch the next page.
+ */
+public record LinkCursor(@NonNull String sortBy, @NonNull String sortDirection, @NonNull String sortValue, @NonNull String id) {
+  /** Sort fields whose values are never null, so a {@code (sortValue, id)} seek is well defined. */
+  public static final Set<String> SUPPORTED_SORT_FIELDS = Set.of("id", "url", "extractedAt");
+
+  // URLs and ids cannot contain a raw newline, so it is a safe field separator.
+  private static final String SEPARATOR = "\n";
+
+  public static boolean supports(String sortBy) {
+    return sortBy != null && SUPPORTED_SORT_FIELDS.contains(sortBy);
+  }
+
+  public @NonNull String encode() {
+    String raw = String.join(SEPARATOR, sortBy, sortDirection.toUpperCase(), sortValue, id);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static @NonNull LinkCursor decode(@NonNull String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = raw.split(SEPARATOR, -1);
+      if (parts.length == 4 && supports(parts[0]) && !parts[3].isEmpty()) {
+        return new LinkCursor(parts[0], parts[1], parts[2], parts[3]);
+      }
+    } catch (IllegalArgumentException e) {
+      // fall through to the validation error below
+    }
+    throw new ValidationException("Invalid query parameters").addFieldError("cursor", "Malformed pagination cursor");
+  }
+}
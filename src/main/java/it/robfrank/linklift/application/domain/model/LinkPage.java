@@ -2,6 +2,7 @@ package it.robfrank.linklift.application.domain.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
+import org.jspecify.annotations.Nullable;
 
 public record LinkPage(
   @JsonProperty("content") List<Link> content,
@@ -10,12 +11,23 @@ public record LinkPage(
   @JsonProperty("totalElements") long totalElements,
   @JsonProperty("totalPages") int totalPages,
   @JsonProperty("hasNext") boolean hasNext,
-  @JsonProperty("hasPrevious") boolean hasPrevious
+  @JsonProperty("hasPrevious") boolean hasPrevious,
+  @JsonProperty("nextCursor") @Nullable String nextCursor
 ) {
   public LinkPage {
-    // Calculate derived fields
-    totalPages = size > 0 ? (int) Math.ceil((double) totalElements / size) : 0;
-    hasNext = page < totalPages - 1;
-    hasPrevious = page > 0;
+    // Calculate derived fields; hasNext/hasPrevious are supplied by the caller, which knows
+    // whether a further row exists (keyset pages have no meaningful page number).
+    totalPages = pageCount(totalElements, size);
+  }
+
+  /**
+   * Creates an offset-based page, deriving navigation flags from the page number.
+   */
+  public LinkPage(List<Link> content, int page, int size, long totalElements, int totalPages, boolean hasNext, boolean hasPrevious) {
+    this(content, page, size, totalElements, totalPages, page < pageCount(totalElements, size) - 1, page > 0, null);
+  }
+
+  private static int pageCount(long totalElements, int size) {
+    return size > 0 ? (int) Math.ceil((double) totalElements / size) : 0;
   }
 }
@@ -2,6 +2,7 @@ package it.robfrank.linklift.application.domain.service;
 
 import it.robfrank.linklift.application.domain.model.AnswerSource;
 import it.robfrank.linklift.application.domain.model.Content;
+import it.robfrank.linklift.application.domain.model.ContentChunk;
 import it.robfrank.linklift.application.domain.model.Link;
 import it.robfrank.linklift.application.domain.model.QuestionAnswer;
 import it.robfrank.linklift.application.domain.validation.ValidationUtils;
@@ -12,6 +13,8 @@ import it.robfrank.linklift.application.port.out.LoadContentPort;
 import it.robfrank.linklift.application.port.out.LoadLinksPort;
 import it.robfrank.linklift.application.port.out.QuestionAnswerPort;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -24,6 +27,9 @@ public class AskQuestionService implements AskQuestionUseCase {
 
   private static final Logger logger = LoggerFactory.getLogger(AskQuestionService.class);
   private static final int TOP_K = 5;
+  // Passages fetched to fill TOP_K sources, several of the best often come from the same page
+  private static final int TOP_PASSAGES = 20;
+  private static final int PASSAGES_PER_SOURCE = 3;
   private static final int EXCERPT_LENGTH = 300;
   private static final int MAX_QUESTION_LENGTH = 2000;
 
@@ -50,19 +56,73 @@ public class AskQuestionService implements AskQuestionUseCase {
     ValidationUtils.requireNotEmpty(command.question(), "question");
     ValidationUtils.requireMaxLength(command.question(), MAX_QUESTION_LENGTH, "question");
 
-    List<Float> questionVector = embeddingGenerator.generateEmbedding(command.question());
-    List<Content> similarContent = loadContentPort.findSimilar(questionVector, TOP_K, command.userId());
+    float[] questionVector = embeddingGenerator.generateEmbedding(command.question());
+    StringBuilder contextBuilder = new StringBuilder();
+    List<AnswerSource> sources = new ArrayList<>();
 
-    if (similarContent.isEmpty()) {
-      return new QuestionAnswer(command.question(), "I could not find any relevant content in your saved links to answer this question.", List.of());
+    List<ContentChunk> passages = loadContentPort.findSimilarChunks(questionVector, TOP_PASSAGES, command.userId());
+    if (!passages.isEmpty()) {
+      addPassages(passages, contextBuilder, sources);
+    } else {
+      // Content stored before it was split into passages is matched as a whole
+      List<Content> similarContent = loadContentPort.findSimilar(questionVector, TOP_K, command.userId());
+      if (similarContent.isEmpty()) {
+        return new QuestionAnswer(command.question(), "I could not find any relevant content in your saved links to answer this question.", List.of());
+      }
+      addExcerpts(similarContent, contextBuilder, sources);
     }
 
-    StringBuilder contextBuilder = new StringBuilder();
-    List<AnswerSource> sources = new ArrayList<>();
+    String answer = questionAnswerPort.generateAnswer(command.question(), contextBuilder.toString());
+    return new QuestionAnswer(command.question(), answer, sources);
+  }
 
-    // Batch-load the links for all similar content in a single query instead of one per item.
-    List<String> linkIds = similarContent.stream().map(Content::linkId).distinct().toList();
-    Map<String, Link> linksById = loadLinksPort.findLinksByIds(linkIds).stream().collect(Collectors.toMap(Link::id, Function.identity(), (a, b) -> a));
+  /**
+   * Up to {@code TOP_K} sources ranked by their best passage (max-sim), each with its best
+   * {@code PASSAGES_PER_SOURCE} passages in page order; the best one is the source's excerpt.
+   */
+  private void addPassages(List<ContentChunk> passages, StringBuilder contextBuilder, List<AnswerSource> sources) {
+    Map<String, List<ContentChunk>> passagesByLinkId = new LinkedHashMap<>();
+    for (ContentChunk passage : passages) {
+      List<ContentChunk> linkPassages = passagesByLinkId.get(passage.linkId());
+      if (linkPassages == null) {
+        if (passagesByLinkId.size() == TOP_K) {
+          continue;
+        }
+        linkPassages = new ArrayList<>();
+        passagesByLinkId.put(passage.linkId(), linkPassages);
+      }
+      if (linkPassages.size() < PASSAGES_PER_SOURCE) {
+        linkPassages.add(passage);
+      }
+    }
+
+    Map<String, Link> linksById = loadLinks(List.copyOf(passagesByLinkId.keySet()));
+    for (Map.Entry<String, List<ContentChunk>> entry : passagesByLinkId.entrySet()) {
+      Link link = linksById.get(entry.getKey());
+      if (link == null) {
+        logger.warn("Could not load link for content {}", entry.getKey());
+        continue;
+      }
+
+      String text = entry
+        .getValue()
+        .stream()
+        .sorted(Comparator.comparingInt(ContentChunk::position))
+        .map(ContentChunk::text)
+        .collect(Collectors.joining(" ... "));
+
+      String title = link.title() != null ? link.title() : link.url();
+      contextBuilder.append("Source: ").append(title).append("\n");
+      contextBuilder.append("URL: ").append(link.url()).append("\n");
+      contextBuilder.append("Content: ").append(text).append("\n\n");
+
+      sources.add(new AnswerSource(link.id(), title, link.url(), entry.getValue().getFirst().text()));
+    }
+  }
+
+  /** The opening of each page, for content that has no passages yet. */
+  private void addExcerpts(List<Content> similarContent, StringBuilder contextBuilder, List<AnswerSource> sources) {
+    Map<String, Link> linksById = loadLinks(similarContent.stream().map(Content::linkId).distinct().toList());
 
     for (Content content : similarContent) {
       Link link = linksById.get(content.linkId());
@@ -83,8 +143,10 @@ public class AskQuestionService implements AskQuestionUseCase {
 
       sources.add(new AnswerSource(link.id(), title, link.url(), excerpt.isEmpty() ? null : excerpt));
     }
+  }
 
-    String answer = questionAnswerPort.generateAnswer(command.question(), contextBuilder.toString());
-    return new QuestionAnswer(command.question(), answer, sources);
+  /** Batch-loads the links in a single query instead of one per item. */
+  private Map<String, Link> loadLinks(List<String> linkIds) {
+    return loadLinksPort.findLinksByIds(linkIds).stream().collect(Collectors.toMap(Link::id, Function.identity(), (a, b) -> a));
   }
 }
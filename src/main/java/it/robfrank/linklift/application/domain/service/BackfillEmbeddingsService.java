@@ -1,14 +1,19 @@
 package it.robfrank.linklift.application.domain.service;
 
 import it.robfrank.linklift.application.domain.model.Content;
+import it.robfrank.linklift.application.domain.model.ContentChunk;
 import it.robfrank.linklift.application.port.in.BackfillEmbeddingsUseCase;
 import it.robfrank.linklift.application.port.out.EmbeddingGenerator;
 import it.robfrank.linklift.application.port.out.LoadContentPort;
 import it.robfrank.linklift.application.port.out.SaveContentPort;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,39 +66,30 @@ public class BackfillEmbeddingsService implements BackfillEmbeddingsUseCase {
         }
 
         logger.atInfo().addArgument(() -> toProcess.size()).log("Processing batch of {} contents");
+        // Each page's passages in one call, the pages concurrently so a batching generator can
+        // send them in a few calls
+        Map<String, List<String>> passagesById = new HashMap<>();
+        Map<String, Future<List<float[]>>> requested = new HashMap<>();
+        for (Content content : toProcess) {
+          List<String> passages = ContentChunker.split(content.textContent());
+          if (!passages.isEmpty()) {
+            passagesById.put(content.id(), passages);
+            requested.put(content.id(), executorService.submit(() -> embeddingGenerator.generateEmbeddings(passages)));
+          }
+        }
         for (Content content : toProcess) {
           try {
-            String text = content.textContent();
-            if (text != null && !text.isBlank()) {
-              List<Float> embeddingList = embeddingGenerator.generateEmbedding(text);
-
-              // Convert List<Float> to float[] for Content constructor
-              float[] embedding = null;
-              if (embeddingList != null && !embeddingList.isEmpty()) {
-                embedding = new float[embeddingList.size()];
-                for (int i = 0; i < embeddingList.size(); i++) {
-                  embedding[i] = embeddingList.get(i);
-                }
+            Future<List<float[]>> requestedEmbeddings = requested.get(content.id());
+            if (requestedEmbeddings != null) {
+              List<ContentChunk> chunks = ContentChunker.chunks(content.linkId(), passagesById.get(content.id()), await(requestedEmbeddings));
+              if (chunks.isEmpty()) {
+                throw new IllegalStateException("No passage could be embedded");
               }
 
-              Content updatedContent = new Content(
-                content.id(),
-                content.linkId(),
-                content.htmlContent(),
-                content.textContent(),
-                content.contentLength(),
-                content.downloadedAt(),
-                content.mimeType(),
-                content.status(),
-                content.summary(),
-                content.heroImageUrl(),
-                content.extractedTitle(),
-                content.extractedDescription(),
-                content.author(),
-                content.publishedDate(),
-                embedding
-              );
+              // The page's embedding is the centroid of its passages
+              Content updatedContent = content.withEmbedding(ContentChunker.centroid(chunks.stream().map(ContentChunk::embedding).toList()));
               saveContentPort.updateContent(updatedContent);
+              saveContentPort.replaceChunks(content.linkId(), chunks);
               totalSuccess++;
             }
           } catch (Exception e) {
@@ -108,4 +104,12 @@ public class BackfillEmbeddingsService implements BackfillEmbeddingsUseCase {
       isProcessing.set(false);
     }
   }
+
+  private static <T> T await(Future<T> embedding) throws Exception {
+    try {
+      return embedding.get();
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof Exception cause ? cause : e;
+    }
+  }
 }
@@ -0,0 +1,110 @@
+package it.robfrank.linklift.application.domain.service;
+
+import it.robfrank.linklift.application.domain.model.ContentChunk;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * Splits page text into overlapping passages, the chunking stage shared by the download pipeline
+ * and the embedding backfill, which embed the passages in one batch per page.
+ *
+ * <p>Passages stay under the 512 characters the embedding adapter passes to the model, so no part
+ * of a page is cut off before it is embedded. They end at a sentence or word boundary where there is
+ * one, and each starts {@code OVERLAP} characters before the previous one ended, so a sentence
+ * across a boundary is whole in at least one of them. Pages longer than {@code MAX_PASSAGES}
+ * passages are indexed up to that point.
+ */
+public final class ContentChunker {
+
+  static final int MAX_PASSAGE_LENGTH = 480;
+  static final int OVERLAP = 80;
+  static final int MAX_PASSAGES = 128;
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private ContentChunker() {}
+
+  /** Overlapping passages of {@code text} with whitespace collapsed, in page order; none for blank text. */
+  public static @NonNull List<String> split(String text) {
+    if (text == null || text.isBlank()) {
+      return List.of();
+    }
+    String normalized = WHITESPACE.matcher(text.strip()).replaceAll(" ");
+    List<String> passages = new ArrayList<>();
+    int start = 0;
+    while (passages.size() < MAX_PASSAGES) {
+      int end = Math.min(start + MAX_PASSAGE_LENGTH, normalized.length());
+      if (end < normalized.length()) {
+        end = breakBefore(normalized, start, end);
+      }
+      passages.add(normalized.substring(start, end).strip());
+      if (end == normalized.length()) {
+        break;
+      }
+      // Back up by the overlap, then forward to the start of a word
+      int next = normalized.indexOf(' ', Math.max(start, end - OVERLAP)) + 1;
+      start = next > start && next < end ? next : end;
+    }
+    return passages;
+  }
+
+  /** The last sentence end in the second half of the window, else the last space, else {@code end}. */
+  private static int breakBefore(String text, int start, int end) {
+    int half = start + (end - start) / 2;
+    for (int i = end - 1; i > half; i--) {
+      char c = text.charAt(i - 1);
+      if (text.charAt(i) == ' ' && (c == '.' || c == '!' || c == '?')) {
+        return i;
+      }
+    }
+    int space = text.lastIndexOf(' ', end);
+    return space > start ? space : end;
+  }
+
+  /**
+   * The passages paired with their embeddings, in page order. Passages the generator returned no
+   * vector for are left out.
+   */
+  public static @NonNull List<ContentChunk> chunks(@NonNull String linkId, @NonNull List<String> passages, @NonNull List<float[]> embeddings) {
+    if (embeddings.size() != passages.size()) {
+      throw new IllegalStateException("Expected %d passage embeddings, got %d".formatted(passages.size(), embeddings.size()));
+    }
+    List<ContentChunk> chunks = new ArrayList<>(passages.size());
+    for (int i = 0; i < passages.size(); i++) {
+      float[] embedding = embeddings.get(i);
+      if (embedding != null && embedding.length > 0) {
+        chunks.add(new ContentChunk(linkId, i, passages.get(i), embedding));
+      }
+    }
+    return chunks;
+  }
+
+  /**
+   * The mean of the passage vectors, the page's own embedding for comparing whole pages (related
+   * links, tag suggestions); null when there is none.
+   */
+  public static float[] centroid(@NonNull List<float[]> embeddings) {
+    float[] centroid = null;
+    int count = 0;
+    for (float[] embedding : embeddings) {
+      if (embedding == null || embedding.length == 0) {
+        continue;
+      }
+      if (centroid == null) {
+        centroid = new float[embedding.length];
+      }
+      for (int i = 0; i < Math.min(centroid.length, embedding.length); i++) {
+        centroid[i] += embedding[i];
+      }
+      count++;
+    }
+    if (centroid != null && count > 1) {
+      for (int i = 0; i < centroid.length; i++) {
+        centroid[i] /= count;
+      }
+    }
+    return centroid;
+  }
+}
@@ -1,9 +1,11 @@
 package it.robfrank.linklift.application.domain.service;
 
+import it.robfrank.linklift.application.domain.event.LinkGraphChangedEvent;
 import it.robfrank.linklift.application.domain.exception.LinkNotFoundException;
 import it.robfrank.linklift.application.domain.validation.ValidationUtils;
 import it.robfrank.linklift.application.port.in.DeleteLinkUseCase;
 import it.robfrank.linklift.application.port.out.DeleteLinkPort;
+import it.robfrank.linklift.application.port.out.DomainEventPublisher;
 import it.robfrank.linklift.application.port.out.LoadLinksPort;
 import org.jspecify.annotations.NonNull;
 
@@ -11,10 +13,12 @@ public class DeleteLinkService implements DeleteLinkUseCase {
 
   private final LoadLinksPort loadLinksPort;
   private final DeleteLinkPort deleteLinkPort;
+  private final DomainEventPublisher eventPublisher;
 
-  public DeleteLinkService(LoadLinksPort loadLinksPort, DeleteLinkPort deleteLinkPort) {
+  public DeleteLinkService(LoadLinksPort loadLinksPort, DeleteLinkPort deleteLinkPort, DomainEventPublisher eventPublisher) {
     this.loadLinksPort = loadLinksPort;
     this.deleteLinkPort = deleteLinkPort;
+    this.eventPublisher = eventPublisher;
   }
 
   @Override
@@ -28,5 +32,6 @@ public class DeleteLinkService implements DeleteLinkUseCase {
     }
 
     deleteLinkPort.deleteLink(id);
+    eventPublisher.publish(new LinkGraphChangedEvent(userId));
   }
 }
@@ -3,6 +3,7 @@ package it.robfrank.linklift.application.domain.service;
 import it.robfrank.linklift.application.domain.event.ContentDownloadCompletedEvent;
 import it.robfrank.linklift.application.domain.event.ContentDownloadFailedEvent;
 import it.robfrank.linklift.application.domain.event.ContentDownloadStartedEvent;
+import it.robfrank.linklift.application.domain.event.LinkGraphChangedEvent;
 import it.robfrank.linklift.application.domain.exception.ContentDownloadException;
 import it.robfrank.linklift.application.domain.model.Content;
 import it.robfrank.linklift.application.domain.model.DownloadStatus;
@@ -11,15 +12,23 @@ import it.robfrank.linklift.application.domain.validation.ValidationUtils;
 import it.robfrank.linklift.application.port.in.DownloadContentCommand;
 import it.robfrank.linklift.application.port.in.DownloadContentUseCase;
 import it.robfrank.linklift.application.port.out.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +39,8 @@ public class DownloadContentService implements DownloadContentUseCase {
 
   private static final int MAX_CONTENT_SIZE = 10 * 1024 * 1024; // 10MB
   private static final int MAX_SUMMARY_LENGTH = 500;
+  private static final int MAX_BATCH_IN_FLIGHT = 16;
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
 
   private final ContentDownloaderPort contentDownloader;
   private final SaveContentPort saveContentPort;
@@ -40,7 +51,20 @@ public class DownloadContentService implements DownloadContentUseCase {
   private final SaveLinkPort saveLinkPort;
   private final UpdateLinkPort updateLinkPort;
   private final EmbeddingGenerator embeddingGenerator;
-  private final ExecutorService executorService;
+  private final LoadContentPort loadContentPort;
+  private final SharedPageCache pageCache;
+  private final Stages stages;
+
+  /**
+   * Where each step after the download runs. Parsing is CPU bound, embedding waits on Ollama and
+   * storing waits on the database, so each gets its own executor and none can starve the others.
+   */
+  public record Stages(@NonNull Executor parse, @NonNull Executor embed, @NonNull Executor persist) {
+    /** Runs every stage on the same executor. */
+    public static @NonNull Stages of(@NonNull Executor executor) {
+      return new Stages(executor, executor, executor);
+    }
+  }
 
   public DownloadContentService(
     @NonNull ContentDownloaderPort contentDownloader,
@@ -52,7 +76,9 @@ public class DownloadContentService implements DownloadContentUseCase {
     @NonNull SaveLinkPort saveLinkPort,
     @NonNull UpdateLinkPort updateLinkPort,
     @NonNull EmbeddingGenerator embeddingGenerator,
-    @NonNull ExecutorService executorService
+    @NonNull LoadContentPort loadContentPort,
+    @NonNull SharedPageCache pageCache,
+    @NonNull Stages stages
   ) {
     this.contentDownloader = contentDownloader;
     this.saveContentPort = saveContentPort;
@@ -63,7 +89,9 @@ public class DownloadContentService implements DownloadContentUseCase {
     this.saveLinkPort = saveLinkPort;
     this.updateLinkPort = updateLinkPort;
     this.embeddingGenerator = embeddingGenerator;
-    this.executorService = executorService;
+    this.loadContentPort = loadContentPort;
+    this.pageCache = pageCache;
+    this.stages = stages;
   }
 
   @Override
@@ -77,6 +105,45 @@ public class DownloadContentService implements DownloadContentUseCase {
 
   @Override
   public void downloadContentAsync(@NonNull DownloadContentCommand command) {
+    download(command);
+  }
+
+  @Override
+  public void downloadContentBatchAsync(@NonNull List<DownloadContentCommand> commands) {
+    ValidationUtils.requireNotNull(commands, "commands");
+    if (commands.isEmpty()) {
+      return;
+    }
+    logger.info("Queueing batch content download for {} links", commands.size());
+
+    // A fixed number of download chains drain the queue, so a large import never has more than
+    // MAX_BATCH_IN_FLIGHT downloads open at once and no thread blocks waiting for a slot
+    Queue<DownloadContentCommand> pending = new ConcurrentLinkedQueue<>(commands);
+    for (int i = 0; i < Math.min(MAX_BATCH_IN_FLIGHT, commands.size()); i++) {
+      downloadNext(pending);
+    }
+  }
+
+  private void downloadNext(Queue<DownloadContentCommand> pending) {
+    DownloadContentCommand next = pending.poll();
+    if (next == null) {
+      return;
+    }
+    CompletableFuture<Void> future;
+    try {
+      future = download(next);
+    } catch (RuntimeException e) {
+      logger.error("Skipping batch download for link: {}", next.linkId(), e);
+      future = CompletableFuture.completedFuture(null);
+    }
+    future.whenCompleteAsync((ignored, error) -> downloadNext(pending), stages.persist());
+  }
+
+  /**
+   * Downloads and stores the content of one link. Failures are recorded as usual and also fail the
+   * returned future, so callers tracking the download can tell the outcomes apart.
+   */
+  public CompletableFuture<Void> download(@NonNull DownloadContentCommand command) {
     ValidationUtils.requireNotNull(command, "command");
     ValidationUtils.requireNotEmpty(command.linkId(), "linkId");
     ValidationUtils.requireNotEmpty(command.url(), "url");
@@ -89,154 +156,222 @@ public class DownloadContentService implements DownloadContentUseCase {
 
     logger.info("Starting async content download for link: {}, url: {}", id, url);
 
-    // Start async download with retries
-    downloadWithRetry(url, 3)
-      .thenAccept(downloadedContent -> {
-        try {
-          // Validate content size
-          if (downloadedContent.contentLength() > MAX_CONTENT_SIZE) {
-            throw new ContentDownloadException("Content size exceeds maximum limit of " + MAX_CONTENT_SIZE + " bytes");
-          }
-
-          // Extract metadata
-          String html = downloadedContent.htmlContent();
-          ContentExtractorPort.ExtractedMetadata metadata = null;
-          String summary = null;
-
-          if (html != null && !html.isBlank()) {
-            try {
-              metadata = contentExtractor.extractMetadata(html, url);
-
-              // Generate summary if text content is available
-              if (metadata != null) {
-                String textContent = metadata.textContent();
-                if (textContent != null && !textContent.isBlank()) {
-                  summary = contentSummarizer.generateSummary(textContent, MAX_SUMMARY_LENGTH);
-                } else {
-                  String downloadedText = downloadedContent.textContent();
-                  if (downloadedText != null && !downloadedText.isBlank()) {
-                    summary = contentSummarizer.generateSummary(downloadedText, MAX_SUMMARY_LENGTH);
-                  }
-                }
-              }
-            } catch (Exception e) {
-              logger.error("Failed to extract metadata or generate summary for link: {}", id, e);
-            }
-          }
+    // Retries and per-host backoff happen behind the downloader port
+    return CompletableFuture.supplyAsync(() -> loadContentPort.findContentByLinkId(id).orElse(null), stages.persist())
+      .thenCompose(previous -> process(id, url, previous).thenAcceptAsync(page -> store(id, page, previous), stages.persist()))
+      .whenComplete((ignored, throwable) -> {
+        if (throwable != null) {
+          handleDownloadFailure(command, throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+        }
+      });
+  }
 
-          // Create Content entity
-          String contentId = UUID.randomUUID().toString();
-
-          String extractedTitle = metadata != null ? metadata.title() : null;
-          String extractedDescription = metadata != null ? metadata.description() : null;
-          String author = metadata != null ? metadata.author() : null;
-          String heroImageUrl = metadata != null ? metadata.heroImageUrl() : null;
-          LocalDateTime publishedDate = parseDate(metadata != null ? metadata.publishedDate() : null);
-          List<String> extractedUrls = metadata != null ? metadata.extractedUrls() : List.of();
-
-          // Update link with extracted URLs if available
-          if (extractedUrls != null && !extractedUrls.isEmpty()) {
-            Link existingLink = loadLinksPort.getLinkById(id);
-            if (existingLink != null) {
-              Link updatedLink = new Link(
-                existingLink.id(),
-                existingLink.url(),
-                existingLink.title(),
-                existingLink.description(),
-                existingLink.extractedAt(),
-                existingLink.contentType(),
-                extractedUrls,
-                existingLink.readStatus(),
-                existingLink.archived(),
-                existingLink.favorited()
-              );
-              updateLinkPort.updateLink(updatedLink);
-              saveLinkPort.syncLinkConnections(updatedLink);
-            }
-          }
+  /**
+   * Download, parse and embed stages. A link downloaded for the first time may get the page another
+   * new link to the same URL just went through; a refresh or re-check always asks the server, for the
+   * page only if it changed since the stored copy.
+   */
+  private CompletableFuture<SharedPageCache.Page> process(String id, String url, Content previous) {
+    ContentDownloaderPort.Validators validators = previous != null && previous.status() == DownloadStatus.COMPLETED
+      ? new ContentDownloaderPort.Validators(previous.etag(), previous.lastModified())
+      : ContentDownloaderPort.Validators.NONE;
+    Supplier<CompletableFuture<SharedPageCache.Page>> loader = () ->
+      (validators.isEmpty() ? contentDownloader.downloadContent(url) : contentDownloader.downloadContent(url, validators))
+        .thenApplyAsync(downloadedContent -> extract(id, url, downloadedContent, previous), stages.parse())
+        .thenCompose(page -> embed(id, page, previous));
+    return previous == null ? pageCache.load(url, loader) : loader.get();
+  }
 
-          // Generate embedding
-          List<Float> embeddingList = null;
-          if (metadata != null) {
-            String textForEmbedding = metadata.textContent();
-            if (textForEmbedding != null && !textForEmbedding.isBlank()) {
-              try {
-                embeddingList = embeddingGenerator.generateEmbedding(textForEmbedding);
-              } catch (Exception e) {
-                logger.error("Failed to generate embedding for link: {}", id, e);
-              }
-            }
-          }
+  /**
+   * Parse stage: metadata, main text, summary and passages of the downloaded page. A page whose text
+   * did not change since the stored copy keeps that copy's summary, embedding and passages.
+   */
+  private SharedPageCache.Page extract(String id, String url, ContentDownloaderPort.DownloadedContent downloadedContent, Content previous) {
+    if (downloadedContent.notModified()) {
+      return new SharedPageCache.Page(downloadedContent, null, null, null, null);
+    }
 
-          // Convert List<Float> to float[] for Content constructor
-          float[] embedding = null;
-          if (embeddingList != null && !embeddingList.isEmpty()) {
-            embedding = new float[embeddingList.size()];
-            for (int i = 0; i < embeddingList.size(); i++) {
-              embedding[i] = embeddingList.get(i);
-            }
-          }
+    // Validate content size
+    if (downloadedContent.contentLength() > MAX_CONTENT_SIZE) {
+      throw new ContentDownloadException("Content size exceeds maximum limit of " + MAX_CONTENT_SIZE + " bytes");
+    }
 
-          Content content = new Content(
-            contentId,
-            id,
-            downloadedContent.htmlContent(),
-            downloadedContent.textContent(),
-            downloadedContent.contentLength(),
-            LocalDateTime.now(),
-            downloadedContent.mimeType(),
-            DownloadStatus.COMPLETED,
-            summary,
-            heroImageUrl,
-            extractedTitle,
-            extractedDescription,
-            author,
-            publishedDate,
-            embedding
-          );
-
-          // Save content
-          Content savedContent = saveContentPort.saveContent(content);
-
-          // Create HasContent edge
-          // Ensure savedContent is not null before accessing its id
-          if (savedContent != null) {
-            saveContentPort.createHasContentEdge(id, savedContent.id());
-            // Publish success event
-            eventPublisher.publish(new ContentDownloadCompletedEvent(savedContent));
-          } else {
-            logger.warn("Saved content was null for link: {}. Cannot create edge or publish completion event.", id);
-          }
+    // Extract metadata
+    String html = downloadedContent.htmlContent();
+    ContentExtractorPort.ExtractedMetadata metadata = null;
+    String contentHash = null;
+    String summary = null;
+    List<String> passages = List.of();
 
-          logger.info("Content download completed for link: {}", id);
-        } catch (Exception e) {
-          handleDownloadFailure(command, e);
+    if (html != null && !html.isBlank()) {
+      try {
+        metadata = contentExtractor.extractMetadata(html, url);
+        contentHash = metadata != null ? hashText(metadata.textContent()) : null;
+        if (isUnchanged(previous, contentHash)) {
+          return new SharedPageCache.Page(downloadedContent, metadata, contentHash, previous.summary(), previous.embedding());
         }
-      })
-      .exceptionally(throwable -> {
-        handleDownloadFailure(command, throwable);
-        return null;
-      });
-  }
 
-  private CompletableFuture<ContentDownloaderPort.DownloadedContent> downloadWithRetry(String url, int retries) {
-    return contentDownloader
-      .downloadContent(url)
-      .handle((res, ex) -> {
-        if (ex == null) {
-          return CompletableFuture.completedFuture(res);
-        } else {
-          if (retries > 0) {
-            logger.warn("Download failed for url: {}. Retrying... ({} attempts remaining)", url, retries);
-            return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(1, TimeUnit.SECONDS)).thenCompose(v ->
-              downloadWithRetry(url, retries - 1)
-            );
-          } else {
-            return CompletableFuture.<ContentDownloaderPort.DownloadedContent>failedFuture(ex);
+        // Generate summary if text content is available
+        if (metadata != null) {
+          String textContent = metadata.textContent();
+          passages = ContentChunker.split(textContent);
+          if (textContent != null && !textContent.isBlank()) {
+            summary = contentSummarizer.generateSummary(textContent, MAX_SUMMARY_LENGTH);
           }
         }
-      })
-      .thenCompose(Function.identity());
+      } catch (Exception e) {
+        logger.error("Failed to extract metadata or generate summary for link: {}", id, e);
+      }
+    }
+    return new SharedPageCache.Page(downloadedContent, metadata, contentHash, summary, null, passages, null);
+  }
+
+  private static boolean isUnchanged(SharedPageCache.Page page, Content previous) {
+    return page.downloadedContent().notModified() || isUnchanged(previous, page.contentHash());
+  }
+
+  private static boolean isUnchanged(Content previous, String contentHash) {
+    return previous != null && previous.status() == DownloadStatus.COMPLETED && contentHash != null && contentHash.equals(previous.contentHash());
+  }
+
+  /** SHA-256 of the text with whitespace collapsed, so markup and formatting changes alone do not count. */
+  static String hashText(String text) {
+    if (text == null) {
+      return null;
+    }
+    String normalized = WHITESPACE.matcher(text.strip()).replaceAll(" ");
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Embed stage: the page's passages in one batch. Never fails the download: a page stored without
+   * embedding is flagged {@code needsEmbedding} for the embedding backfill, which an admin starts.
+   */
+  private CompletableFuture<SharedPageCache.Page> embed(String id, SharedPageCache.Page page, Content previous) {
+    if (isUnchanged(page, previous) || page.passages().isEmpty()) {
+      return CompletableFuture.completedFuture(page);
+    }
+    try {
+      return CompletableFuture.supplyAsync(() -> page.withPassageEmbeddings(embeddingGenerator.generateEmbeddings(page.passages())), stages.embed())
+        .exceptionally(e -> {
+          logger.error("Failed to generate embedding for link: {}", id, e);
+          return page;
+        });
+    } catch (RejectedExecutionException e) {
+      logger.warn("Embed stage rejected link {}, storing its content without embedding", id);
+      return CompletableFuture.completedFuture(page);
+    }
+  }
+
+  /** Persist stage: link connections, the content vertex, its passages and its edge. */
+  private void store(String id, SharedPageCache.Page page, Content previous) {
+    ContentDownloaderPort.DownloadedContent downloadedContent = page.downloadedContent();
+    ContentExtractorPort.ExtractedMetadata metadata = page.metadata();
+    ContentDownloaderPort.Validators validators = downloadedContent.validators();
+
+    if (isUnchanged(page, previous)) {
+      // Only record that the page was checked, and the validators to send next time
+      saveContentPort.updateContent(
+        previous.withRefreshCheck(LocalDateTime.now(), validators.etag(), validators.lastModified(), RecrawlService.nextInterval(previous, false))
+      );
+      logger.info("Content unchanged for link: {}", id);
+      return;
+    }
+
+    // Create Content entity; a link has at most one, so a refresh or a retry after a failure replaces it
+    String contentId = previous != null ? previous.id() : UUID.randomUUID().toString();
+
+    String extractedTitle = metadata != null ? metadata.title() : null;
+    String extractedDescription = metadata != null ? metadata.description() : null;
+    String author = metadata != null ? metadata.author() : null;
+    String heroImageUrl = metadata != null ? metadata.heroImageUrl() : null;
+    LocalDateTime publishedDate = parseDate(metadata != null ? metadata.publishedDate() : null);
+    List<String> extractedUrls = metadata != null ? metadata.extractedUrls() : List.of();
+
+    // Update link with extracted URLs if available
+    if (extractedUrls != null && !extractedUrls.isEmpty()) {
+      Link existingLink = loadLinksPort.getLinkById(id);
+      if (existingLink != null) {
+        Link updatedLink = new Link(
+          existingLink.id(),
+          existingLink.url(),
+          existingLink.title(),
+          existingLink.description(),
+          existingLink.extractedAt(),
+          existingLink.contentType(),
+          extractedUrls,
+          existingLink.readStatus(),
+          existingLink.archived(),
+          existingLink.favorited()
+        );
+        updateLinkPort.updateLink(updatedLink);
+        saveLinkPort.syncLinkConnections(updatedLink);
+        loadLinksPort.getLinkOwner(id).ifPresent(owner -> eventPublisher.publish(new LinkGraphChangedEvent(owner)));
+      }
+    }
+
+    Content content = new Content(
+      contentId,
+      id,
+      downloadedContent.htmlContent(),
+      metadata != null ? metadata.textContent() : null,
+      downloadedContent.contentLength(),
+      LocalDateTime.now(),
+      downloadedContent.mimeType(),
+      DownloadStatus.COMPLETED,
+      page.summary(),
+      heroImageUrl,
+      extractedTitle,
+      extractedDescription,
+      author,
+      publishedDate,
+      page.embedding(),
+      validators.etag(),
+      validators.lastModified(),
+      page.contentHash(),
+      RecrawlService.nextInterval(previous, true)
+    );
+
+    // Save content
+    Content savedContent = previous != null ? saveContentPort.updateContent(content) : saveContentPort.saveContent(content);
+    if (page.passageEmbeddings() != null) {
+      try {
+        saveContentPort.replaceChunks(id, ContentChunker.chunks(id, page.passages(), page.passageEmbeddings()));
+      } catch (RuntimeException e) {
+        logger.error("Failed to store passages for link: {}", id, e);
+        flagForBackfill(id);
+      }
+    }
+
+    // Create HasContent edge, failed downloads are stored without one
+    // Ensure savedContent is not null before accessing its id
+    if (savedContent != null) {
+      if (previous == null || previous.status() != DownloadStatus.COMPLETED) {
+        saveContentPort.createHasContentEdge(id, savedContent.id());
+      }
+      // Publish success event
+      eventPublisher.publish(new ContentDownloadCompletedEvent(savedContent));
+    } else {
+      logger.warn("Saved content was null for link: {}. Cannot create edge or publish completion event.", id);
+    }
+
+    logger.info("Content download completed for link: {}", id);
+  }
+
+  /**
+   * The content stays searchable by its own embedding, but its passages are missing or stale until
+   * the embedding backfill, which an admin starts, stores them again.
+   */
+  private void flagForBackfill(String id) {
+    try {
+      saveContentPort.markForEmbeddingBackfill(id);
+    } catch (RuntimeException e) {
+      logger.error("Failed to flag link {} for the embedding backfill", id, e);
+    }
   }
 
   private LocalDateTime parseDate(String dateStr) {
@@ -265,11 +400,20 @@ public class DownloadContentService implements DownloadContentUseCase {
     // Publish failure event
     eventPublisher.publish(new ContentDownloadFailedEvent(id, url, errorMessage));
 
-    // Save failed content record
+    // Record the failure on the link's content; a link has at most one
     try {
-      String contentId = UUID.randomUUID().toString();
-      Content failedContent = new Content(contentId, id, null, null, null, LocalDateTime.now(), null, DownloadStatus.FAILED);
-      saveContentPort.saveContent(failedContent);
+      Content previous = loadContentPort.findContentByLinkId(id).orElse(null);
+      if (previous != null && previous.status() == DownloadStatus.COMPLETED) {
+        // The stored copy stays, and a failed re-check backs off like an unchanged one, so a dead page
+        // is checked ever less often instead of using up the re-check budget
+        saveContentPort.updateContent(
+          previous.withRefreshCheck(LocalDateTime.now(), previous.etag(), previous.lastModified(), RecrawlService.nextInterval(previous, false))
+        );
+      } else if (previous != null) {
+        saveContentPort.updateContent(new Content(previous.id(), id, null, null, null, LocalDateTime.now(), null, DownloadStatus.FAILED));
+      } else {
+        saveContentPort.saveContent(new Content(UUID.randomUUID().toString(), id, null, null, null, LocalDateTime.now(), null, DownloadStatus.FAILED));
+      }
     } catch (Exception e) {
       logger.error("Failed to save error content record for link: {}", id, e);
     }
@@ -0,0 +1,209 @@
+package it.robfrank.linklift.application.domain.service;
+
+import it.robfrank.linklift.application.domain.model.DownloadJob;
+import it.robfrank.linklift.application.domain.model.Link;
+import it.robfrank.linklift.application.domain.validation.ValidationUtils;
+import it.robfrank.linklift.application.port.in.DownloadContentCommand;
+import it.robfrank.linklift.application.port.in.DownloadContentUseCase;
+import it.robfrank.linklift.application.port.out.DownloadJobPort;
+import it.robfrank.linklift.application.port.out.LoadLinksPort;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content downloads through the persistent {@code DownloadJob} queue.
+ *
+ * <p>Requests are stored as jobs and return immediately. Every node runs a worker that leases due
+ * jobs up to its free capacity and hands them to {@link DownloadContentService}; a job is removed
+ * once its download finished and marked failed when it did not. Jobs held by a node that died are
+ * leased again after {@link #LEASE} by whichever worker polls first, so a restart loses nothing.
+ * Failed jobs are kept for {@link #FAILED_RETENTION} so the error can be inspected, then purged.
+ */
+public class DownloadJobService implements DownloadContentUseCase, AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(DownloadJobService.class);
+
+  public static final int DEFAULT_CAPACITY = 64;
+  static final Duration LEASE = Duration.ofMinutes(10);
+  static final Duration POLL_INTERVAL = Duration.ofSeconds(2);
+  // A job leased this often without finishing keeps killing or stalling its workers
+  static final int MAX_ATTEMPTS = 3;
+  static final Duration FAILED_RETENTION = Duration.ofDays(7);
+  static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+  private final DownloadContentService downloader;
+  private final DownloadJobPort downloadJobPort;
+  private final LoadLinksPort loadLinksPort;
+  private final ScheduledExecutorService scheduler;
+  private final String workerId;
+  private final int capacity;
+  private final AtomicInteger running = new AtomicInteger();
+  private volatile boolean closed;
+
+  public DownloadJobService(
+    @NonNull DownloadContentService downloader,
+    @NonNull DownloadJobPort downloadJobPort,
+    @NonNull LoadLinksPort loadLinksPort,
+    @NonNull ScheduledExecutorService scheduler
+  ) {
+    this(downloader, downloadJobPort, loadLinksPort, scheduler, ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID(), DEFAULT_CAPACITY);
+  }
+
+  public DownloadJobService(
+    @NonNull DownloadContentService downloader,
+    @NonNull DownloadJobPort downloadJobPort,
+    @NonNull LoadLinksPort loadLinksPort,
+    @NonNull ScheduledExecutorService scheduler,
+    @NonNull String workerId,
+    int capacity
+  ) {
+    this.downloader = downloader;
+    this.downloadJobPort = downloadJobPort;
+    this.loadLinksPort = loadLinksPort;
+    this.scheduler = scheduler;
+    this.workerId = workerId;
+    this.capacity = capacity;
+  }
+
+  /** Starts polling the queue on this node. */
+  public void start() {
+    logger.info("Starting download worker {} with capacity {}", workerId, capacity);
+    scheduler.scheduleWithFixedDelay(this::poll, 0, POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    scheduler.scheduleWithFixedDelay(this::purgeFailedJobs, PURGE_INTERVAL.toMillis(), PURGE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops polling and waits briefly for a running poll to finish. Downloads already started run to
+   * completion and are settled; their slots are no longer refilled on this node. One that fails from
+   * now on may have been cut short by the shutdown, so its job is left to be leased again.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    logger.info("Stopping download worker {}", workerId);
+    closed = true;
+    scheduler.shutdown();
+    if (!scheduler.awaitTermination(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Override
+  public void downloadContentAsync(@NonNull DownloadContentCommand command) {
+    ValidationUtils.requireNotNull(command, "command");
+    enqueue(List.of(command));
+  }
+
+  @Override
+  public void downloadContentBatchAsync(@NonNull List<DownloadContentCommand> commands) {
+    ValidationUtils.requireNotNull(commands, "commands");
+    if (commands.isEmpty()) {
+      return;
+    }
+    logger.info("Queueing batch content download for {} links", commands.size());
+    enqueue(commands);
+  }
+
+  @Override
+  public void refreshContent(@NonNull String linkId) {
+    ValidationUtils.requireNotEmpty(linkId, "linkId");
+    Link link = loadLinksPort.getLinkById(linkId);
+    if (link != null) {
+      enqueue(List.of(new DownloadContentCommand(linkId, link.url())));
+    }
+  }
+
+  private void enqueue(List<DownloadContentCommand> commands) {
+    for (DownloadContentCommand command : commands) {
+      ValidationUtils.requireNotEmpty(command.linkId(), "linkId");
+      ValidationUtils.requireNotEmpty(command.url(), "url");
+    }
+    downloadJobPort.enqueueJobs(commands.stream().map(command -> DownloadJob.pending(command.linkId(), command.url())).toList());
+    // Start right away when there is room instead of waiting for the next poll
+    wake();
+  }
+
+  private void wake() {
+    try {
+      scheduler.execute(this::poll);
+    } catch (RejectedExecutionException e) {
+      // Shutting down; the queued jobs are claimed by the next node that polls
+      logger.debug("Download worker {} is stopped, not polling", workerId);
+    }
+  }
+
+  /** Leases as many due jobs as there are free slots and starts them. */
+  synchronized void poll() {
+    int free = capacity - running.get();
+    if (free <= 0) {
+      return;
+    }
+    List<DownloadJob> jobs;
+    try {
+      jobs = downloadJobPort.claimJobs(workerId, free, LEASE);
+    } catch (RuntimeException e) {
+      logger.error("Failed to claim download jobs for worker: {}", workerId, e);
+      return;
+    }
+    jobs.forEach(this::run);
+  }
+
+  /** Removes jobs that failed more than {@link #FAILED_RETENTION} ago; every node runs it, which is harmless. */
+  void purgeFailedJobs() {
+    try {
+      downloadJobPort.purgeFailedJobs(Instant.now().minus(FAILED_RETENTION));
+    } catch (RuntimeException e) {
+      logger.error("Failed to purge failed download jobs", e);
+    }
+  }
+
+  private void run(DownloadJob job) {
+    if (job.attempts() > MAX_ATTEMPTS) {
+      logger.warn("Giving up on download job {} for link {} after {} attempts", job.id(), job.linkId(), job.attempts() - 1);
+      settle(job, new IllegalStateException("Abandoned after %d attempts".formatted(job.attempts() - 1)));
+      return;
+    }
+    running.incrementAndGet();
+    CompletableFuture<Void> download;
+    try {
+      download = downloader.download(new DownloadContentCommand(job.linkId(), job.url()));
+    } catch (RuntimeException e) {
+      download = CompletableFuture.failedFuture(e);
+    }
+    download.whenComplete((ignored, error) -> {
+      running.decrementAndGet();
+      settle(job, error);
+      // A slot just freed up
+      wake();
+    });
+  }
+
+  private void settle(DownloadJob job, Throwable error) {
+    if (error != null && closed) {
+      logger.info("Download job {} for link {} did not finish before shutdown, leaving it for the next lease", job.id(), job.linkId());
+      return;
+    }
+    try {
+      if (error == null) {
+        downloadJobPort.completeJob(job.id(), workerId);
+      } else {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        downloadJobPort.failJob(job.id(), workerId, cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+      }
+    } catch (RuntimeException e) {
+      // The lease runs out and another poll picks the job up again
+      logger.error("Failed to settle download job {} for link {}", job.id(), job.linkId(), e);
+    }
+  }
+}
@@ -1,19 +1,67 @@
 package it.robfrank.linklift.application.domain.service;
 
+import it.robfrank.linklift.application.domain.exception.GraphClusterNotFoundException;
+import it.robfrank.linklift.application.domain.exception.ValidationException;
+import it.robfrank.linklift.application.domain.model.ClusteredGraph;
 import it.robfrank.linklift.application.domain.model.GraphData;
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
 import it.robfrank.linklift.application.port.in.GetGraphUseCase;
 import it.robfrank.linklift.application.port.out.LoadLinksPort;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 public class GetGraphService implements GetGraphUseCase {
 
+  static final int MAX_CLUSTERS = 500;
+
   private final LoadLinksPort loadLinksPort;
+  private final ForkJoinPool clusteringPool;
+  // Snapshots are immutable and replaced on every write, so a clustering stays valid for as long as its snapshot is cached
+  private final Map<GraphSnapshot, LinkGraphClustering> clusterings = Collections.synchronizedMap(new WeakHashMap<>());
 
   public GetGraphService(LoadLinksPort loadLinksPort) {
+    this(loadLinksPort, ForkJoinPool.commonPool());
+  }
+
+  public GetGraphService(LoadLinksPort loadLinksPort, ForkJoinPool clusteringPool) {
     this.loadLinksPort = loadLinksPort;
+    this.clusteringPool = clusteringPool;
   }
 
   @Override
   public GraphData getGraphData(String userId) {
-    return loadLinksPort.getGraphData(userId);
+    return loadLinksPort.getGraphSnapshot(userId).toGraphData();
+  }
+
+  @Override
+  public GraphSnapshot getGraphSnapshot(String userId) {
+    return loadLinksPort.getGraphSnapshot(userId);
+  }
+
+  @Override
+  public ClusteredGraph getClusteredGraph(String userId, int maxClusters) {
+    if (maxClusters < 1 || maxClusters > MAX_CLUSTERS) {
+      throw new ValidationException("Invalid cluster limit").addFieldError("limit", "Limit must be between 1 and " + MAX_CLUSTERS);
+    }
+    GraphSnapshot snapshot = loadLinksPort.getGraphSnapshot(userId);
+    return clusteringOf(snapshot).overview(snapshot, maxClusters);
+  }
+
+  @Override
+  public GraphData getClusterGraph(String userId, String clusterId) {
+    GraphSnapshot snapshot = loadLinksPort.getGraphSnapshot(userId);
+    return clusteringOf(snapshot).expand(snapshot, clusterId).orElseThrow(() -> new GraphClusterNotFoundException(clusterId));
+  }
+
+  private LinkGraphClustering clusteringOf(GraphSnapshot snapshot) {
+    LinkGraphClustering clustering = clusterings.get(snapshot);
+    if (clustering == null) {
+      // Concurrent first requests may both compute; either result is a valid clustering of the snapshot
+      clustering = LinkGraphClustering.compute(snapshot, clusteringPool);
+      clusterings.put(snapshot, clustering);
+    }
+    return clustering;
   }
 }
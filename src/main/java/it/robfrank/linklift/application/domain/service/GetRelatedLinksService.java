@@ -6,7 +6,6 @@ import it.robfrank.linklift.application.domain.validation.ValidationUtils;
 import it.robfrank.linklift.application.port.in.GetRelatedLinksUseCase;
 import it.robfrank.linklift.application.port.out.LoadContentPort;
 import it.robfrank.linklift.application.port.out.LoadLinksPort;
-import java.util.ArrayList;
 import java.util.List;
 import org.jspecify.annotations.NonNull;
 
@@ -32,13 +31,7 @@ public class GetRelatedLinksService implements GetRelatedLinksUseCase {
     if (contentOpt.isPresent()) {
       var content = contentOpt.get();
       if (content.embedding() != null && content.embedding().length > 0) {
-        float[] embedding = content.embedding();
-        var embeddingList = new ArrayList<Float>(embedding.length);
-        for (float f : embedding) {
-          embeddingList.add(f);
-        }
-
-        var similarContents = loadContentPort.findSimilar(embeddingList, MAX_SIMILAR_LINKS, userId);
+        var similarContents = loadContentPort.findSimilar(content.embedding(), MAX_SIMILAR_LINKS, userId);
         var linkIds = similarContents.stream().map(Content::linkId).filter(id -> !id.equals(linkId)).distinct().toList();
 
         if (!linkIds.isEmpty()) {
@@ -0,0 +1,130 @@
+package it.robfrank.linklift.application.domain.service;
+
+import it.robfrank.linklift.application.domain.event.LinksImportedEvent;
+import it.robfrank.linklift.application.domain.exception.ValidationException;
+import it.robfrank.linklift.application.domain.model.CanonicalUrl;
+import it.robfrank.linklift.application.domain.model.ImportResult;
+import it.robfrank.linklift.application.domain.model.ImportedBookmark;
+import it.robfrank.linklift.application.domain.model.Link;
+import it.robfrank.linklift.application.domain.model.ReadStatus;
+import it.robfrank.linklift.application.port.in.ImportLinksCommand;
+import it.robfrank.linklift.application.port.in.ImportLinksUseCase;
+import it.robfrank.linklift.application.port.out.DomainEventPublisher;
+import it.robfrank.linklift.application.port.out.LoadLinksPort;
+import it.robfrank.linklift.application.port.out.SaveLinkPort;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Imports bookmark exports in chunks: each chunk is checked for existing URLs with one query,
+ * written in one transaction and handed to the downloads with one event, so memory stays bounded
+ * by the chunk size whatever the size of the export. A URL repeated in a later chunk is found by
+ * that chunk's lookup, since the earlier one is already saved.
+ */
+public class ImportLinksService implements ImportLinksUseCase {
+
+  private static final Logger logger = LoggerFactory.getLogger(ImportLinksService.class);
+
+  static final int CHUNK_SIZE = 500;
+
+  private final LoadLinksPort loadLinksPort;
+  private final SaveLinkPort saveLinkPort;
+  private final DomainEventPublisher eventPublisher;
+
+  public ImportLinksService(@NonNull LoadLinksPort loadLinksPort, @NonNull SaveLinkPort saveLinkPort, @NonNull DomainEventPublisher eventPublisher) {
+    this.loadLinksPort = loadLinksPort;
+    this.saveLinkPort = saveLinkPort;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Override
+  public @NonNull ImportResult importLinks(@NonNull ImportLinksCommand command) {
+    if (command.userId() == null || command.userId().isBlank()) {
+      throw new ValidationException("Invalid import request").addFieldError("userId", "User ID is required");
+    }
+
+    int imported = 0;
+    int duplicates = 0;
+    int invalid = 0;
+
+    Iterator<ImportedBookmark> bookmarks = command.bookmarks().iterator();
+    while (bookmarks.hasNext()) {
+      // Keep only the first occurrence of a URL within the chunk, whatever its spelling
+      Map<String, ImportedBookmark> chunk = new LinkedHashMap<>();
+      Set<String> seenUrls = new HashSet<>();
+      while (bookmarks.hasNext() && chunk.size() < CHUNK_SIZE) {
+        ImportedBookmark bookmark = bookmarks.next();
+        if (!isValidUrl(bookmark.url())) {
+          invalid++;
+        } else if (!seenUrls.add(CanonicalUrl.of(bookmark.url()).value())) {
+          duplicates++;
+        } else {
+          chunk.put(bookmark.url(), bookmark);
+        }
+      }
+      if (chunk.isEmpty()) {
+        continue;
+      }
+
+      Set<String> existing = loadLinksPort.findExistingUrls(chunk.keySet());
+      duplicates += existing.size();
+
+      List<Link> links = chunk
+        .values()
+        .stream()
+        .filter(bookmark -> !existing.contains(bookmark.url()))
+        .map(this::toLink)
+        .toList();
+      if (!links.isEmpty()) {
+        List<Link> saved = saveLinkPort.saveAll(links, command.userId());
+        imported += saved.size();
+        eventPublisher.publish(new LinksImportedEvent(saved, command.userId()));
+      }
+    }
+
+    logger.info("Imported {} links for user {} ({} duplicates, {} invalid)", imported, command.userId(), duplicates, invalid);
+
+    return new ImportResult(imported, duplicates, invalid);
+  }
+
+  private Link toLink(ImportedBookmark bookmark) {
+    LocalDateTime addedAt = bookmark.addedAt() != null ? bookmark.addedAt() : LocalDateTime.now();
+    return new Link(
+      UUID.randomUUID().toString(),
+      bookmark.url(),
+      bookmark.title(),
+      bookmark.description(),
+      addedAt.truncatedTo(ChronoUnit.SECONDS),
+      "text/html",
+      List.of(),
+      ReadStatus.UNREAD,
+      false,
+      false
+    );
+  }
+
+  private static boolean isValidUrl(String url) {
+    if (url == null || url.isBlank()) {
+      return false;
+    }
+    try {
+      new URI(url).toURL();
+      return true;
+    } catch (MalformedURLException | URISyntaxException | IllegalArgumentException e) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,310 @@
+package it.robfrank.linklift.application.domain.service;
+
+import it.robfrank.linklift.application.domain.model.ClusteredGraph;
+import it.robfrank.linklift.application.domain.model.GraphData;
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Communities of a {@link GraphSnapshot} found by label propagation.
+ *
+ * <p>The propagation graph is undirected: every {@code linksTo} edge in both directions, plus one
+ * virtual node per domain connected to the links that belong to it, mirroring the
+ * {@code belongsToDomain} edges. Labels are seeded per domain and updated in place, one vertex
+ * range per fork-join task, until a sweep changes almost nothing.
+ *
+ * <p>A community is identified by the smallest link id among its members. That id is also a link,
+ * so {@link #expand} resolves any member's id to the community the link is in now: an id taken from
+ * an earlier overview keeps working after the graph changes, for as long as that link exists.
+ */
+final class LinkGraphClustering {
+
+  static final int MAX_ITERATIONS = 20;
+  // linksTo edges are a stronger signal of a shared topic than a shared domain
+  private static final int LINK_WEIGHT = 2;
+  private static final int DOMAIN_WEIGHT = 1;
+  private static final int LEAF_SIZE = 512;
+
+  // No reference to the snapshot itself, so a clustering cached under a weak snapshot key can be collected with it
+  private final int[] clusterOf;
+  private final List<Cluster> clusters;
+
+  private record Cluster(String id, String label, int[] members) {}
+
+  private LinkGraphClustering(int[] clusterOf, List<Cluster> clusters) {
+    this.clusterOf = clusterOf;
+    this.clusters = clusters;
+  }
+
+  static LinkGraphClustering compute(GraphSnapshot snapshot, ForkJoinPool pool) {
+    int n = snapshot.nodeCount();
+
+    // Domain virtual nodes are numbered after the link nodes
+    Map<String, Integer> domainIndex = new HashMap<>();
+    int[] domainOf = new int[n];
+    for (int i = 0; i < n; i++) {
+      domainOf[i] = domainOf(snapshot.url(i)).map(domain -> n + domainIndex.computeIfAbsent(domain, d -> domainIndex.size())).orElse(-1);
+    }
+    int vertices = n + domainIndex.size();
+
+    // Undirected weighted adjacency in CSR form
+    int[] degree = new int[vertices];
+    for (int i = 0; i < n; i++) {
+      for (int e = snapshot.edgeStart(i); e < snapshot.edgeEnd(i); e++) {
+        int target = snapshot.target(e);
+        if (target != i) {
+          degree[i]++;
+          degree[target]++;
+        }
+      }
+      if (domainOf[i] >= 0) {
+        degree[i]++;
+        degree[domainOf[i]]++;
+      }
+    }
+    int[] offsets = new int[vertices + 1];
+    for (int v = 0; v < vertices; v++) {
+      offsets[v + 1] = offsets[v] + degree[v];
+    }
+    int[] neighbours = new int[offsets[vertices]];
+    int[] weights = new int[offsets[vertices]];
+    int[] fill = offsets.clone();
+    for (int i = 0; i < n; i++) {
+      for (int e = snapshot.edgeStart(i); e < snapshot.edgeEnd(i); e++) {
+        int target = snapshot.target(e);
+        if (target != i) {
+          connect(neighbours, weights, fill, i, target, LINK_WEIGHT);
+        }
+      }
+      if (domainOf[i] >= 0) {
+        connect(neighbours, weights, fill, i, domainOf[i], DOMAIN_WEIGHT);
+      }
+    }
+
+    // Links start in their domain's community, which keeps a single bridging edge from flooding
+    // one label across the whole graph in the first sweeps
+    int[] labels = new int[vertices];
+    for (int v = 0; v < vertices; v++) {
+      labels[v] = v < n && domainOf[v] >= 0 ? domainOf[v] : v;
+    }
+    for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+      int changed = pool.invoke(new Sweep(offsets, neighbours, weights, labels, 0, vertices));
+      if (changed <= vertices / 1000) {
+        break;
+      }
+    }
+
+    // Number the communities of the link nodes; domain nodes only carried labels between them
+    int[] sizeOfLabel = new int[vertices];
+    for (int i = 0; i < n; i++) {
+      sizeOfLabel[labels[i]]++;
+    }
+    int[][] membersOfLabel = new int[vertices][];
+    for (int v = 0; v < vertices; v++) {
+      if (sizeOfLabel[v] > 0) {
+        membersOfLabel[v] = new int[sizeOfLabel[v]];
+        sizeOfLabel[v] = 0;
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      membersOfLabel[labels[i]][sizeOfLabel[labels[i]]++] = i;
+    }
+    List<int[]> groups = Arrays.stream(membersOfLabel)
+      .filter(Objects::nonNull)
+      .sorted(Comparator.<int[]>comparingInt(members -> members.length).reversed().thenComparing(members -> snapshot.id(smallestId(snapshot, members))))
+      .toList();
+    int[] clusterOf = new int[n];
+    List<Cluster> clusters = new ArrayList<>(groups.size());
+    for (int[] members : groups) {
+      for (int member : members) {
+        clusterOf[member] = clusters.size();
+      }
+      clusters.add(new Cluster(snapshot.id(smallestId(snapshot, members)), describe(snapshot, members), members));
+    }
+    return new LinkGraphClustering(clusterOf, clusters);
+  }
+
+  /** The largest {@code maxClusters} communities and the weighted edges between them; {@code snapshot} is the clustered one. */
+  ClusteredGraph overview(GraphSnapshot snapshot, int maxClusters) {
+    int visible = Math.min(maxClusters, clusters.size());
+    List<ClusteredGraph.ClusterNode> nodes = new ArrayList<>(visible);
+    for (int c = 0; c < visible; c++) {
+      Cluster cluster = clusters.get(c);
+      nodes.add(new ClusteredGraph.ClusterNode(cluster.id(), cluster.label(), cluster.members().length));
+    }
+
+    // Undirected pair of cluster indices, packed into a long
+    Map<Long, Integer> weights = new HashMap<>();
+    for (int i = 0; i < snapshot.nodeCount(); i++) {
+      for (int e = snapshot.edgeStart(i); e < snapshot.edgeEnd(i); e++) {
+        int from = clusterOf[i];
+        int to = clusterOf[snapshot.target(e)];
+        if (from != to && from < visible && to < visible) {
+          weights.merge(((long) Math.min(from, to) << 32) | Math.max(from, to), 1, Integer::sum);
+        }
+      }
+    }
+    List<ClusteredGraph.ClusterEdge> edges = weights
+      .entrySet()
+      .stream()
+      .map(entry ->
+        new ClusteredGraph.ClusterEdge(clusters.get((int) (entry.getKey() >>> 32)).id(), clusters.get((int) (long) entry.getKey()).id(), entry.getValue())
+      )
+      .sorted(Comparator.comparingInt(ClusteredGraph.ClusterEdge::weight).reversed())
+      .toList();
+    return new ClusteredGraph(nodes, edges, clusters.size());
+  }
+
+  /**
+   * The links of the community that the link {@code clusterId} belongs to and the {@code linksTo}
+   * edges among them, or empty when no such link is in the snapshot.
+   */
+  Optional<GraphData> expand(GraphSnapshot snapshot, String clusterId) {
+    int node = snapshot.indexOf(clusterId);
+    if (node < 0) {
+      return Optional.empty();
+    }
+    int index = clusterOf[node];
+    Cluster cluster = clusters.get(index);
+    List<GraphData.LinkNode> nodes = new ArrayList<>(cluster.members().length);
+    List<GraphData.LinkEdge> edges = new ArrayList<>();
+    for (int member : cluster.members()) {
+      nodes.add(new GraphData.LinkNode(snapshot.id(member), snapshot.label(member), snapshot.url(member)));
+      for (int e = snapshot.edgeStart(member); e < snapshot.edgeEnd(member); e++) {
+        int target = snapshot.target(e);
+        if (clusterOf[target] == index) {
+          edges.add(new GraphData.LinkEdge(snapshot.id(member), snapshot.id(target)));
+        }
+      }
+    }
+    return Optional.of(new GraphData(nodes, edges));
+  }
+
+  private static void connect(int[] neighbours, int[] weights, int[] fill, int a, int b, int weight) {
+    neighbours[fill[a]] = b;
+    weights[fill[a]++] = weight;
+    neighbours[fill[b]] = a;
+    weights[fill[b]++] = weight;
+  }
+
+  private static int smallestId(GraphSnapshot snapshot, int[] members) {
+    int smallest = members[0];
+    for (int member : members) {
+      if (snapshot.id(member).compareTo(snapshot.id(smallest)) < 0) {
+        smallest = member;
+      }
+    }
+    return smallest;
+  }
+
+  /** Most common domain of the community, or the title of its first link when none has a domain. */
+  private static String describe(GraphSnapshot snapshot, int[] members) {
+    Map<String, Integer> domains = new HashMap<>();
+    for (int member : members) {
+      domainOf(snapshot.url(member)).ifPresent(domain -> domains.merge(domain, 1, Integer::sum));
+    }
+    return domains
+      .entrySet()
+      .stream()
+      .max(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+      .map(Map.Entry::getKey)
+      .orElseGet(() -> snapshot.label(members[0]));
+  }
+
+  /** Host without a leading {@code www.}, as stored on the Domain vertices. */
+  private static Optional<String> domainOf(String url) {
+    try {
+      String host = new URI(url).getHost();
+      if (host == null) {
+        return Optional.empty();
+      }
+      return Optional.of(host.startsWith("www.") ? host.substring(4) : host);
+    } catch (URISyntaxException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * One propagation sweep over a vertex range: each vertex takes the label with the highest total
+   * edge weight among its neighbours, keeping its own on a tie. Returns the number of changes.
+   */
+  private static final class Sweep extends RecursiveTask<Integer> {
+
+    private final int[] offsets;
+    private final int[] neighbours;
+    private final int[] weights;
+    private final int[] labels;
+    private final int from;
+    private final int to;
+
+    Sweep(int[] offsets, int[] neighbours, int[] weights, int[] labels, int from, int to) {
+      this.offsets = offsets;
+      this.neighbours = neighbours;
+      this.weights = weights;
+      this.labels = labels;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Integer compute() {
+      if (to - from > LEAF_SIZE) {
+        int middle = (from + to) >>> 1;
+        Sweep left = new Sweep(offsets, neighbours, weights, labels, from, middle);
+        left.fork();
+        int right = new Sweep(offsets, neighbours, weights, labels, middle, to).compute();
+        return left.join() + right;
+      }
+
+      int maxDegree = 0;
+      for (int v = from; v < to; v++) {
+        maxDegree = Math.max(maxDegree, offsets[v + 1] - offsets[v]);
+      }
+      // Neighbour label and edge weight packed into a long, sorted so equal labels are adjacent
+      long[] pairs = new long[maxDegree];
+      int changed = 0;
+      for (int v = from; v < to; v++) {
+        int degree = offsets[v + 1] - offsets[v];
+        if (degree == 0) {
+          continue;
+        }
+        for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+          // Labels of other ranges may be written concurrently; any recent value is fine
+          pairs[e - offsets[v]] = ((long) labels[neighbours[e]] << 32) | weights[e];
+        }
+        Arrays.sort(pairs, 0, degree);
+        int current = labels[v];
+        int best = current;
+        int bestScore = 0;
+        for (int p = 0; p < degree; ) {
+          int label = (int) (pairs[p] >>> 32);
+          int score = 0;
+          for (; p < degree && (int) (pairs[p] >>> 32) == label; p++) {
+            score += (int) pairs[p];
+          }
+          // Labels come in ascending order, so the first one to reach the top score is the smallest
+          if (score > bestScore || (score == bestScore && label == current)) {
+            best = label;
+            bestScore = score;
+          }
+        }
+        if (best != current) {
+          labels[v] = best;
+          changed++;
+        }
+      }
+      return changed;
+    }
+  }
+}
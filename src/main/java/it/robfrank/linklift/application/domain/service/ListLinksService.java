@@ -2,6 +2,7 @@ package it.robfrank.linklift.application.domain.service;
 
 import it.robfrank.linklift.application.domain.event.LinksQueryEvent;
 import it.robfrank.linklift.application.domain.exception.ValidationException;
+import it.robfrank.linklift.application.domain.model.LinkCursor;
 import it.robfrank.linklift.application.domain.model.LinkPage;
 import it.robfrank.linklift.application.port.in.ListLinksQuery;
 import it.robfrank.linklift.application.port.in.ListLinksUseCase;
@@ -11,7 +12,7 @@ import java.util.Set;
 
 public class ListLinksService implements ListLinksUseCase {
 
-  private static final Set<String> VALID_SORT_FIELDS = Set.of("id", "url", "title", "description", "extractedAt", "contentType");
+  private static final Set<String> VALID_SORT_FIELDS = Set.of("id", "url", "title", "description", "extractedAt", "contentType", "rank");
 
   private static final Set<String> VALID_SORT_DIRECTIONS = Set.of("ASC", "DESC");
 
@@ -54,6 +55,10 @@ public class ListLinksService implements ListLinksUseCase {
       validationException.addFieldError("sortDirection", "Sort direction must be ASC or DESC");
     }
 
+    if (query.hasCursor()) {
+      validateCursor(query, validationException);
+    }
+
     // Validate userId is provided (required for user-owned links)
     if (query.userId() == null || query.userId().isBlank()) {
       validationException.addFieldError("userId", "User ID is required");
@@ -63,4 +68,20 @@ public class ListLinksService implements ListLinksUseCase {
       throw validationException;
     }
   }
+
+  private void validateCursor(ListLinksQuery query, ValidationException validationException) {
+    if (!LinkCursor.supports(query.sortBy())) {
+      validationException.addFieldError("cursor", "Cursor pagination supports sorting by: " + String.join(", ", LinkCursor.SUPPORTED_SORT_FIELDS));
+      return;
+    }
+    try {
+      LinkCursor cursor = LinkCursor.decode(query.cursor());
+      // A cursor is only meaningful for the ordering it was issued under.
+      if (!cursor.sortBy().equals(query.sortBy()) || !cursor.sortDirection().equalsIgnoreCase(query.sortDirection())) {
+        validationException.addFieldError("cursor", "Cursor does not match the requested sort order");
+      }
+    } catch (ValidationException e) {
+      validationException.addFieldError("cursor", e.getFieldErrors().get("cursor"));
+    }
+  }
 }
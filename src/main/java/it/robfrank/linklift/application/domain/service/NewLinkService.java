@@ -9,11 +9,13 @@ import it.robfrank.linklift.application.domain.model.ReadStatus;
 import it.robfrank.linklift.application.port.in.NewLinkCommand;
 import it.robfrank.linklift.application.port.in.NewLinkUseCase;
 import it.robfrank.linklift.application.port.out.DomainEventPublisher;
+import it.robfrank.linklift.application.port.out.LinkPreviewPort;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
@@ -25,10 +27,16 @@ public class NewLinkService implements NewLinkUseCase {
 
   private final LinkPersistenceAdapter linkPersistenceAdapter;
   private final DomainEventPublisher eventPublisher;
+  private final LinkPreviewPort linkPreview;
 
-  public NewLinkService(@NonNull LinkPersistenceAdapter linkPersistenceAdapter, @NonNull DomainEventPublisher eventPublisher) {
+  public NewLinkService(
+    @NonNull LinkPersistenceAdapter linkPersistenceAdapter,
+    @NonNull DomainEventPublisher eventPublisher,
+    @NonNull LinkPreviewPort linkPreview
+  ) {
     this.linkPersistenceAdapter = linkPersistenceAdapter;
     this.eventPublisher = eventPublisher;
+    this.linkPreview = linkPreview;
   }
 
   @Override
@@ -43,20 +51,33 @@ public class NewLinkService implements NewLinkUseCase {
       throw validationException;
     }
 
-    // Check if link already exists for this user
+    // Check if the link already exists under any spelling of its canonical URL
     if (linkPersistenceAdapter.findLinkByUrl(newLinkCommand.url()).isPresent()) {
       throw new LinkAlreadyExistsException(newLinkCommand.url());
     }
 
     var id = UUID.randomUUID().toString();
 
+    // Fill in what the client left out from the page head; the full download refines it later
+    String title = newLinkCommand.title();
+    String description = newLinkCommand.description();
+    String contentType = "text/html";
+    if (isBlank(title) || isBlank(description)) {
+      Optional<LinkPreviewPort.LinkPreview> preview = linkPreview.preview(newLinkCommand.url());
+      if (preview.isPresent()) {
+        title = isBlank(title) ? preview.get().title() : title;
+        description = isBlank(description) ? preview.get().description() : description;
+        contentType = preview.get().mimeType();
+      }
+    }
+
     Link link = new Link(
       id,
       newLinkCommand.url(),
-      newLinkCommand.title(),
-      newLinkCommand.description(),
+      title,
+      description,
       LocalDateTime.now(),
-      "text/html",
+      contentType,
       List.of(),
       ReadStatus.UNREAD,
       false,
@@ -73,6 +94,10 @@ public class NewLinkService implements NewLinkUseCase {
     return savedLink;
   }
 
+  private static boolean isBlank(String value) {
+    return value == null || value.isBlank();
+  }
+
   private void validateLinkUrl(@NonNull String url) {
     ValidationException validationException = new ValidationException("Invalid link data");
 
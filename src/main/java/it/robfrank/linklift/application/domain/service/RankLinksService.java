@@ -0,0 +1,192 @@
+package it.robfrank.linklift.application.domain.service;
+
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
+import it.robfrank.linklift.application.port.in.RankLinksUseCase;
+import it.robfrank.linklift.application.port.out.LoadLinksPort;
+import it.robfrank.linklift.application.port.out.UpdateLinkPort;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ranks each user's links by PageRank over their {@code linksTo} graph and stores the score as
+ * {@code Link.rank}, so lists can sort by it without a traversal.
+ *
+ * <p>Runs in the background after the graph changed. Power iteration works on the cached CSR
+ * {@link GraphSnapshot} with each sweep split across a fork-join pool, starts from the user's
+ * previous scores so a small change converges in a few sweeps, and writes back only the scores that
+ * moved. The previous scores are kept in memory per user and read back from the links on the first
+ * run after a start, so a restart does not rewrite every score.
+ */
+public class RankLinksService implements RankLinksUseCase {
+
+  private static final Logger logger = LoggerFactory.getLogger(RankLinksService.class);
+
+  static final double DAMPING = 0.85;
+  static final double TOLERANCE = 1e-9;
+  static final int MAX_ITERATIONS = 100;
+  // Scores closer than this to the stored value are not rewritten
+  static final double WRITE_THRESHOLD = 1e-6;
+  private static final int MAX_CACHED_USERS = 256;
+
+  private final LoadLinksPort loadLinksPort;
+  private final UpdateLinkPort updateLinkPort;
+  private final Executor executor;
+  private final ForkJoinPool pool;
+  private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+  private final Map<String, Map<String, Double>> lastRanks = Collections.synchronizedMap(
+    new LinkedHashMap<>(64, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Map<String, Double>> eldest) {
+        return size() > MAX_CACHED_USERS;
+      }
+    }
+  );
+
+  public RankLinksService(@NonNull LoadLinksPort loadLinksPort, @NonNull UpdateLinkPort updateLinkPort, @NonNull Executor executor) {
+    this(loadLinksPort, updateLinkPort, executor, ForkJoinPool.commonPool());
+  }
+
+  public RankLinksService(@NonNull LoadLinksPort loadLinksPort, @NonNull UpdateLinkPort updateLinkPort, @NonNull Executor executor, @NonNull ForkJoinPool pool) {
+    this.loadLinksPort = loadLinksPort;
+    this.updateLinkPort = updateLinkPort;
+    this.executor = executor;
+    this.pool = pool;
+  }
+
+  @Override
+  public void scheduleRanking(@NonNull String userId) {
+    if (!scheduled.add(userId)) {
+      return;
+    }
+    executor.execute(() -> {
+      // Cleared before running so a change made during the run schedules another one
+      scheduled.remove(userId);
+      try {
+        rankLinks(userId);
+      } catch (Exception e) {
+        logger.error("Failed to rank links for user: {}", userId, e);
+      }
+    });
+  }
+
+  void rankLinks(String userId) {
+    GraphSnapshot snapshot = loadLinksPort.getGraphSnapshot(userId);
+    Map<String, Double> previous = lastRanks.get(userId);
+    if (previous == null) {
+      previous = loadLinksPort.getLinkRanks(userId);
+    }
+
+    double[] initial = new double[snapshot.nodeCount()];
+    for (int i = 0; i < initial.length; i++) {
+      initial[i] = previous.getOrDefault(snapshot.id(i), Double.NaN);
+    }
+    double[] ranks = pageRank(snapshot, initial, pool);
+
+    Map<String, Double> current = new HashMap<>(ranks.length * 2);
+    Map<String, Double> changed = new HashMap<>();
+    for (int i = 0; i < ranks.length; i++) {
+      current.put(snapshot.id(i), ranks[i]);
+      Double stored = previous.get(snapshot.id(i));
+      if (stored == null || Math.abs(stored - ranks[i]) > WRITE_THRESHOLD) {
+        changed.put(snapshot.id(i), ranks[i]);
+      }
+    }
+    if (!changed.isEmpty()) {
+      updateLinkPort.updateLinkRanks(changed);
+    }
+    lastRanks.put(userId, current);
+    logger.debug("Ranked {} links for user {}, {} scores updated", ranks.length, userId, changed.size());
+  }
+
+  /**
+   * PageRank by pull-based power iteration. {@code initial} holds a starting score per node, or
+   * NaN where none is known; it is normalized before the first sweep. Dangling nodes spread their
+   * score evenly over all nodes.
+   */
+  static double[] pageRank(GraphSnapshot snapshot, double[] initial, ForkJoinPool pool) {
+    int n = snapshot.nodeCount();
+    if (n == 0) {
+      return new double[0];
+    }
+
+    // Incoming edges in CSR form, so each node's new score is a read-only gather
+    int[] outDegree = new int[n];
+    int[] inOffsets = new int[n + 1];
+    for (int i = 0; i < n; i++) {
+      outDegree[i] = snapshot.edgeEnd(i) - snapshot.edgeStart(i);
+      for (int e = snapshot.edgeStart(i); e < snapshot.edgeEnd(i); e++) {
+        inOffsets[snapshot.target(e) + 1]++;
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      inOffsets[i + 1] += inOffsets[i];
+    }
+    int[] sources = new int[inOffsets[n]];
+    int[] fill = inOffsets.clone();
+    for (int i = 0; i < n; i++) {
+      for (int e = snapshot.edgeStart(i); e < snapshot.edgeEnd(i); e++) {
+        sources[fill[snapshot.target(e)]++] = i;
+      }
+    }
+
+    double[] ranks = new double[n];
+    double known = 0;
+    int unknown = 0;
+    for (int i = 0; i < n; i++) {
+      if (Double.isNaN(initial[i])) {
+        unknown++;
+      } else {
+        known += initial[i];
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      // New nodes start at the uniform score; the previous scores keep their relative weights
+      ranks[i] = Double.isNaN(initial[i]) ? 1.0 / n : known > 0 ? initial[i] * (n - unknown) / (known * n) : 1.0 / n;
+    }
+
+    double[] next = new double[n];
+    for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+      double[] current = ranks;
+      double dangling = 0;
+      for (int i = 0; i < n; i++) {
+        if (outDegree[i] == 0) {
+          dangling += current[i];
+        }
+      }
+      double base = (1 - DAMPING) / n + DAMPING * dangling / n;
+      double[] target = next;
+      double delta = pool
+        .submit(() ->
+          IntStream.range(0, n)
+            .parallel()
+            .mapToDouble(v -> {
+              double sum = 0;
+              for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+                int u = sources[e];
+                sum += current[u] / outDegree[u];
+              }
+              target[v] = base + DAMPING * sum;
+              return Math.abs(target[v] - current[v]);
+            })
+            .sum()
+        )
+        .join();
+      next = ranks;
+      ranks = target;
+      if (delta < TOLERANCE) {
+        break;
+      }
+    }
+    return ranks;
+  }
+}
@@ -0,0 +1,136 @@
+package it.robfrank.linklift.application.domain.service;
+
+import it.robfrank.linklift.application.domain.model.Content;
+import it.robfrank.linklift.application.domain.model.DownloadJob;
+import it.robfrank.linklift.application.domain.model.DownloadStatus;
+import it.robfrank.linklift.application.domain.model.Link;
+import it.robfrank.linklift.application.port.out.DownloadJobPort;
+import it.robfrank.linklift.application.port.out.LoadContentPort;
+import it.robfrank.linklift.application.port.out.LoadLinksPort;
+import it.robfrank.linklift.application.port.out.RecrawlBudgetPort;
+import it.robfrank.linklift.application.port.out.SaveContentPort;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Background re-checks of stored pages, so saved content follows the page it came from.
+ *
+ * <p>Every page is due {@code recheckIntervalSeconds} after its {@code downloadedAt}. The interval
+ * starts at {@link #INITIAL_INTERVAL}, halves each time a check finds the page changed and doubles
+ * each time it finds it unchanged or fails, within {@link #MIN_INTERVAL} and {@link #MAX_INTERVAL}, so
+ * a page that went away takes ever less of the budget. Due pages are queued as
+ * {@link DownloadJob#background background} download jobs, which workers only pick up when no
+ * user-requested download is waiting, and go through the usual conditional refresh.
+ *
+ * <p>All nodes together queue at most {@code budgetPerHour} re-checks an hour, spread over the hour.
+ * The budget is a token bucket in the database that refills continuously and holds one tick's share;
+ * every {@link #TICK} each node takes what is there and spends it on the longest overdue pages, and
+ * puts back what it could not spend. Unspent budget is not saved up beyond one tick, so a backlog
+ * drains at the budgeted rate instead of in a burst, however many nodes run.
+ */
+public class RecrawlService implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(RecrawlService.class);
+
+  public static final int DEFAULT_BUDGET_PER_HOUR = 120;
+  static final Duration INITIAL_INTERVAL = Duration.ofDays(1);
+  static final Duration MIN_INTERVAL = Duration.ofHours(6);
+  static final Duration MAX_INTERVAL = Duration.ofDays(30);
+  static final Duration TICK = Duration.ofMinutes(1);
+  // Queued pages are not selected again for this long; storing them sets their next check anyway
+  static final Duration QUEUED_DEFERRAL = Duration.ofHours(6);
+
+  private final LoadContentPort loadContentPort;
+  private final SaveContentPort saveContentPort;
+  private final LoadLinksPort loadLinksPort;
+  private final DownloadJobPort downloadJobPort;
+  private final RecrawlBudgetPort recrawlBudgetPort;
+  private final ScheduledExecutorService scheduler;
+  private final int budgetPerHour;
+  // One tick's share, and at least one re-check so a small budget still makes progress
+  private final int capacity;
+
+  public RecrawlService(
+    @NonNull LoadContentPort loadContentPort,
+    @NonNull SaveContentPort saveContentPort,
+    @NonNull LoadLinksPort loadLinksPort,
+    @NonNull DownloadJobPort downloadJobPort,
+    @NonNull RecrawlBudgetPort recrawlBudgetPort,
+    @NonNull ScheduledExecutorService scheduler,
+    int budgetPerHour
+  ) {
+    this.loadContentPort = loadContentPort;
+    this.saveContentPort = saveContentPort;
+    this.loadLinksPort = loadLinksPort;
+    this.downloadJobPort = downloadJobPort;
+    this.recrawlBudgetPort = recrawlBudgetPort;
+    this.scheduler = scheduler;
+    this.budgetPerHour = budgetPerHour;
+    this.capacity = (int) Math.max(1, budgetPerHour / Duration.ofHours(1).dividedBy(TICK));
+  }
+
+  /** Starts queueing due re-checks on this node. */
+  public void start() {
+    logger.info("Starting background re-crawl with a budget of {} pages per hour", budgetPerHour);
+    scheduler.scheduleWithFixedDelay(this::tick, TICK.toMillis(), TICK.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /** Stops queueing re-checks on this node; the others keep spending the shared budget. */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+
+  /**
+   * The interval until the page is checked again: {@link #INITIAL_INTERVAL} for a page checked for the
+   * first time, otherwise half the previous interval if the page {@code changed} and twice as long if
+   * it did not.
+   */
+  static long nextInterval(Content previous, boolean changed) {
+    if (previous == null || previous.status() != DownloadStatus.COMPLETED || previous.recheckIntervalSeconds() == null) {
+      return INITIAL_INTERVAL.toSeconds();
+    }
+    long interval = changed ? previous.recheckIntervalSeconds() / 2 : previous.recheckIntervalSeconds() * 2;
+    return Math.clamp(interval, MIN_INTERVAL.toSeconds(), MAX_INTERVAL.toSeconds());
+  }
+
+  /** Queues as many due re-checks as the budget allows. */
+  synchronized void tick() {
+    try {
+      int budget = recrawlBudgetPort.takeRechecks(capacity, budgetPerHour, capacity);
+      if (budget == 0) {
+        return;
+      }
+      Instant now = Instant.now();
+      List<String> linkIds = loadContentPort.findLinkIdsDueForRecheck(now, budget);
+      if (linkIds.isEmpty()) {
+        recrawlBudgetPort.returnRechecks(budget, capacity);
+        return;
+      }
+      List<DownloadJob> jobs = new ArrayList<>();
+      for (String linkId : linkIds) {
+        Link link = loadLinksPort.getLinkById(linkId);
+        if (link != null) {
+          jobs.add(DownloadJob.background(linkId, link.url()));
+        }
+      }
+      // Links that already have a job waiting cost nothing extra
+      int queued = downloadJobPort.offerJobs(jobs);
+      saveContentPort.deferRecheck(linkIds, now.plus(QUEUED_DEFERRAL));
+      if (queued < budget) {
+        recrawlBudgetPort.returnRechecks(budget - queued, capacity);
+      }
+      logger.info("Queued {} of {} pages due for a re-check", queued, linkIds.size());
+    } catch (RuntimeException e) {
+      // The same pages are still due on the next tick
+      logger.error("Failed to queue pages due for a re-check", e);
+    }
+  }
+}
@@ -32,7 +32,7 @@ public class SearchContentService implements SearchContentUseCase {
     // crash the index
     int effectiveLimit = Math.min(limit, 1000);
 
-    List<Float> queryVector = embeddingGenerator.generateEmbedding(query);
+    float[] queryVector = embeddingGenerator.generateEmbedding(query);
     return loadContentPort.findSimilar(queryVector, effectiveLimit, userId);
   }
 }
@@ -0,0 +1,184 @@
+package it.robfrank.linklift.application.domain.service;
+
+import it.robfrank.linklift.application.domain.model.CanonicalUrl;
+import it.robfrank.linklift.application.port.out.ContentDownloaderPort;
+import it.robfrank.linklift.application.port.out.ContentExtractorPort;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processed pages keyed by {@link CanonicalUrl}, shared by links downloaded for the first time that
+ * point at the same page.
+ *
+ * <p>A page downloaded, extracted, summarised and embedded for one new link is reused by any other
+ * new link to the same URL for {@code ttl}, without another request or Ollama call. Concurrent loads
+ * of a URL are coalesced into the first one. Refreshes and re-checks of stored content must reach the
+ * server, so they do not go through the cache.
+ *
+ * <p>The cache holds whole pages, so it is bounded by their estimated heap size rather than their
+ * number; the least recently used pages go first.
+ */
+public final class SharedPageCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(SharedPageCache.class);
+
+  public static final Duration DEFAULT_TTL = Duration.ofMinutes(30);
+  public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+  /**
+   * A page after every stage of the pipeline, independent of the links pointing at it.
+   * {@code passageEmbeddings} is null until the passages are embedded, and stays null for a page
+   * whose passages are already stored.
+   */
+  record Page(
+    ContentDownloaderPort.DownloadedContent downloadedContent,
+    ContentExtractorPort.ExtractedMetadata metadata,
+    String contentHash,
+    String summary,
+    float[] embedding,
+    List<String> passages,
+    List<float[]> passageEmbeddings
+  ) {
+    /** A page with nothing to split: unchanged, or without text. */
+    Page(
+      ContentDownloaderPort.DownloadedContent downloadedContent,
+      ContentExtractorPort.ExtractedMetadata metadata,
+      String contentHash,
+      String summary,
+      float[] embedding
+    ) {
+      this(downloadedContent, metadata, contentHash, summary, embedding, List.of(), null);
+    }
+
+    /** The page with its passages embedded; its own embedding is their centroid. */
+    Page withPassageEmbeddings(List<float[]> passageEmbeddings) {
+      if (passageEmbeddings.size() != passages.size()) {
+        throw new IllegalStateException("Expected %d passage embeddings, got %d".formatted(passages.size(), passageEmbeddings.size()));
+      }
+      return new Page(downloadedContent, metadata, contentHash, summary, ContentChunker.centroid(passageEmbeddings), passages, passageEmbeddings);
+    }
+  }
+
+  private record Entry(Page page, long storedAt) {}
+
+  private final long ttlNanos;
+  private final long maxBytes;
+  private final LinkedHashMap<String, Entry> pages = new LinkedHashMap<>(256, 0.75f, true);
+  private final Map<String, CompletableFuture<Page>> inFlight = new ConcurrentHashMap<>();
+  private long bytes;
+
+  public SharedPageCache() {
+    this(DEFAULT_TTL, DEFAULT_MAX_BYTES);
+  }
+
+  public SharedPageCache(@NonNull Duration ttl, long maxBytes) {
+    this.ttlNanos = ttl.toNanos();
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * The cached page for {@code url} if it is still fresh, otherwise the result of the load already
+   * running for it, otherwise the result of {@code loader}.
+   */
+  CompletableFuture<Page> load(String url, Supplier<CompletableFuture<Page>> loader) {
+    String key = CanonicalUrl.of(url).value();
+    Page cached = fresh(key);
+    if (cached != null) {
+      logger.debug("Reusing cached page for {}", url);
+      return CompletableFuture.completedFuture(cached);
+    }
+    CompletableFuture<Page> created = new CompletableFuture<>();
+    CompletableFuture<Page> running = inFlight.putIfAbsent(key, created);
+    if (running != null) {
+      logger.debug("Joining the download already running for {}", url);
+      return running;
+    }
+    CompletableFuture<Page> loaded;
+    try {
+      loaded = loader.get();
+    } catch (RuntimeException e) {
+      loaded = CompletableFuture.failedFuture(e);
+    }
+    loaded.whenComplete((page, error) -> {
+      // Cached before the flight ends, so a caller arriving in between still finds the page
+      if (error == null && page.metadata() != null) {
+        put(key, page);
+      }
+      inFlight.remove(key, created);
+      if (error != null) {
+        created.completeExceptionally(error);
+      } else {
+        created.complete(page);
+      }
+    });
+    return created;
+  }
+
+  private synchronized Page fresh(String key) {
+    Entry entry = pages.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (System.nanoTime() - entry.storedAt() >= ttlNanos) {
+      remove(key);
+      return null;
+    }
+    return entry.page();
+  }
+
+  private synchronized void put(String key, Page page) {
+    long size = weight(page);
+    if (size > maxBytes) {
+      return;
+    }
+    remove(key);
+    pages.put(key, new Entry(page, System.nanoTime()));
+    bytes += size;
+    Iterator<Entry> eldest = pages.values().iterator();
+    while (bytes > maxBytes && eldest.hasNext()) {
+      bytes -= weight(eldest.next().page());
+      eldest.remove();
+    }
+  }
+
+  private void remove(String key) {
+    Entry removed = pages.remove(key);
+    if (removed != null) {
+      bytes -= weight(removed.page());
+    }
+  }
+
+  /**
+   * Roughly the heap the page holds on to: two bytes per character of its strings and four per float
+   * of its embeddings. Object headers and the short metadata fields are left out.
+   */
+  private static long weight(Page page) {
+    long chars = length(page.downloadedContent().htmlContent()) + length(page.summary());
+    if (page.metadata() != null) {
+      chars += length(page.metadata().mainContent()) + length(page.metadata().textContent());
+    }
+    for (String passage : page.passages()) {
+      chars += passage.length();
+    }
+    long floats = page.embedding() != null ? page.embedding().length : 0;
+    if (page.passageEmbeddings() != null) {
+      for (float[] passageEmbedding : page.passageEmbeddings()) {
+        floats += passageEmbedding.length;
+      }
+    }
+    return 2 * chars + 4 * floats;
+  }
+
+  private static long length(String text) {
+    return text != null ? text.length() : 0;
+  }
+}
@@ -43,10 +43,7 @@ public class SuggestTagsService implements SuggestTagsUseCase {
         return tagRepository.findByUserId(userId).stream().limit(MAX_SUGGESTIONS).toList();
       }
 
-      float[] rawEmbedding = contentOpt.get().embedding();
-      List<Float> embedding = new ArrayList<>(rawEmbedding.length);
-      for (float v : rawEmbedding) embedding.add(v);
-      var similarContents = loadContentPort.findSimilar(embedding, MAX_SIMILAR_LINKS + 1, userId);
+      var similarContents = loadContentPort.findSimilar(contentOpt.get().embedding(), MAX_SIMILAR_LINKS + 1, userId);
 
       Set<String> excludedTagIds = tagRepository.findTagsForLink(linkId).stream().map(Tag::id).collect(Collectors.toSet());
 
@@ -1,9 +1,13 @@
 package it.robfrank.linklift.application.port.in;
 
+import java.util.List;
 import org.jspecify.annotations.NonNull;
 
 public interface DownloadContentUseCase {
   void downloadContentAsync(@NonNull DownloadContentCommand command);
 
+  /** Downloads a batch of links in the background with bounded concurrency. */
+  void downloadContentBatchAsync(@NonNull List<DownloadContentCommand> commands);
+
   void refreshContent(@NonNull String linkId);
 }
@@ -1,7 +1,18 @@
 package it.robfrank.linklift.application.port.in;
 
+import it.robfrank.linklift.application.domain.model.ClusteredGraph;
 import it.robfrank.linklift.application.domain.model.GraphData;
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
 
 public interface GetGraphUseCase {
   GraphData getGraphData(String userId);
+
+  /** The same graph in its compact CSR encoding. */
+  GraphSnapshot getGraphSnapshot(String userId);
+
+  /** Level-of-detail view: the largest {@code maxClusters} link communities and the edges between them. */
+  ClusteredGraph getClusteredGraph(String userId, int maxClusters);
+
+  /** The links and edges inside one community of {@link #getClusteredGraph}. */
+  GraphData getClusterGraph(String userId, String clusterId);
 }
@@ -0,0 +1,12 @@
+package it.robfrank.linklift.application.port.in;
+
+import it.robfrank.linklift.application.domain.model.ImportedBookmark;
+import java.util.stream.Stream;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Bookmarks to import for a user. The stream is consumed once, lazily, so large exports are never
+ * held in memory; the caller owns closing it.
+ */
+public record ImportLinksCommand(@NonNull Stream<ImportedBookmark> bookmarks, @Nullable String userId) {}
@@ -0,0 +1,10 @@
+package it.robfrank.linklift.application.port.in;
+
+import it.robfrank.linklift.application.domain.model.ImportResult;
+import org.jspecify.annotations.NonNull;
+
+@FunctionalInterface
+public interface ImportLinksUseCase {
+  @NonNull
+  ImportResult importLinks(@NonNull ImportLinksCommand command);
+}
@@ -11,26 +11,33 @@ public record ListLinksQuery(
   ReadStatus readStatus,
   Boolean archived,
   Boolean favorited,
-  String tagId
+  String tagId,
+  String cursor
 ) {
   public ListLinksQuery {
     // Apply defaults if not provided (but don't fix invalid values)
     if (sortBy == null || sortBy.isBlank()) sortBy = "extractedAt";
     if (sortDirection == null || sortDirection.isBlank()) sortDirection = "DESC";
+    if (cursor != null && cursor.isBlank()) cursor = null;
+  }
+
+  /** True when the caller continues from a keyset cursor instead of a page offset. */
+  public boolean hasCursor() {
+    return cursor != null;
   }
 
   // Factory method for creation with defaults
   public static ListLinksQuery of(Integer page, Integer size, String sortBy, String sortDirection) {
     int safePage = page != null ? page : 0;
     int safeSize = size != null ? size : 20;
-    return new ListLinksQuery(safePage, safeSize, sortBy, sortDirection, null, null, null, null, null);
+    return new ListLinksQuery(safePage, safeSize, sortBy, sortDirection, null, null, null, null, null, null);
   }
 
   // Factory method for creation with user context
   public static ListLinksQuery forUser(Integer page, Integer size, String sortBy, String sortDirection, String userId) {
     int safePage = page != null ? page : 0;
     int safeSize = size != null ? size : 20;
-    return new ListLinksQuery(safePage, safeSize, sortBy, sortDirection, userId, null, null, null, null);
+    return new ListLinksQuery(safePage, safeSize, sortBy, sortDirection, userId, null, null, null, null, null);
   }
 
   // Factory method for creation with user context, status filters, and tag filter
@@ -44,9 +51,25 @@ public record ListLinksQuery(
     Boolean archived,
     Boolean favorited,
     String tagId
+  ) {
+    return forUserWithFiltersAndTag(page, size, sortBy, sortDirection, userId, readStatus, archived, favorited, tagId, null);
+  }
+
+  // Factory method for creation with user context, filters, tag filter and an optional keyset cursor
+  public static ListLinksQuery forUserWithFiltersAndTag(
+    Integer page,
+    Integer size,
+    String sortBy,
+    String sortDirection,
+    String userId,
+    ReadStatus readStatus,
+    Boolean archived,
+    Boolean favorited,
+    String tagId,
+    String cursor
   ) {
     int safePage = page != null ? page : 0;
     int safeSize = size != null ? size : 20;
-    return new ListLinksQuery(safePage, safeSize, sortBy, sortDirection, userId, readStatus, archived, favorited, tagId);
+    return new ListLinksQuery(safePage, safeSize, sortBy, sortDirection, userId, readStatus, archived, favorited, tagId, cursor);
   }
 }
@@ -0,0 +1,6 @@
+package it.robfrank.linklift.application.port.in;
+
+public interface RankLinksUseCase {
+  /** Queues a background recomputation of the user's link ranks; requests made before it runs are coalesced. */
+  void scheduleRanking(String userId);
+}
@@ -2,10 +2,38 @@ package it.robfrank.linklift.application.port.out;
 
 import java.util.concurrent.CompletableFuture;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 
 public interface ContentDownloaderPort {
   @NonNull
   CompletableFuture<DownloadedContent> downloadContent(@NonNull String url);
 
-  record DownloadedContent(@NonNull String htmlContent, @NonNull String textContent, @NonNull String mimeType, int contentLength) {}
+  /**
+   * Downloads the page unless it is unchanged since the response the validators came from, in which
+   * case the result is {@link DownloadedContent#notModified()}. Downloaders that cannot ask the
+   * server download the page as usual.
+   */
+  default @NonNull CompletableFuture<DownloadedContent> downloadContent(@NonNull String url, @NonNull Validators validators) {
+    return downloadContent(url);
+  }
+
+  /** The {@code ETag} and {@code Last-Modified} headers of a response, either may be missing. */
+  record Validators(@Nullable String etag, @Nullable String lastModified) {
+    public static final Validators NONE = new Validators(null, null);
+
+    public boolean isEmpty() {
+      return etag == null && lastModified == null;
+    }
+  }
+
+  record DownloadedContent(@NonNull String htmlContent, @NonNull String mimeType, int contentLength, @NonNull Validators validators, boolean notModified) {
+    public DownloadedContent(@NonNull String htmlContent, @NonNull String mimeType, int contentLength) {
+      this(htmlContent, mimeType, contentLength, Validators.NONE, false);
+    }
+
+    /** The server confirmed the copy the validators came from is still current; there is no body. */
+    public static @NonNull DownloadedContent unchanged(@NonNull Validators validators) {
+      return new DownloadedContent("", "", 0, validators, true);
+    }
+  }
 }
@@ -0,0 +1,34 @@
+package it.robfrank.linklift.application.port.out;
+
+import it.robfrank.linklift.application.domain.model.DownloadJob;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.jspecify.annotations.NonNull;
+
+public interface DownloadJobPort {
+  /** Queues the jobs; a link that already has a job gets it reset to pending. */
+  void enqueueJobs(@NonNull List<DownloadJob> jobs);
+
+  /**
+   * Queues the jobs of links that have no pending or running job; a job already waiting or running
+   * for a link is left as it is, checked in the same write. Returns how many jobs were queued.
+   */
+  int offerJobs(@NonNull List<DownloadJob> jobs);
+
+  /**
+   * Leases up to {@code limit} due jobs to {@code workerId}: pending jobs whose next run is due and
+   * running jobs whose lease expired. A job is never leased to two workers at once.
+   */
+  @NonNull
+  List<DownloadJob> claimJobs(@NonNull String workerId, int limit, @NonNull Duration lease);
+
+  /** Removes a finished job, unless the worker lost its lease meanwhile. */
+  void completeJob(@NonNull String jobId, @NonNull String workerId);
+
+  /** Marks a job as failed for good, unless the worker lost its lease meanwhile. */
+  void failJob(@NonNull String jobId, @NonNull String workerId, @NonNull String error);
+
+  /** Removes the jobs that failed before {@code failedBefore}. */
+  void purgeFailedJobs(@NonNull Instant failedBefore);
+}
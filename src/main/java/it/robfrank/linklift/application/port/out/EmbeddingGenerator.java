@@ -5,5 +5,13 @@ import org.jspecify.annotations.NonNull;
 
 public interface EmbeddingGenerator {
   @NonNull
-  List<Float> generateEmbedding(@NonNull String text);
+  float[] generateEmbedding(@NonNull String text);
+
+  /**
+   * Embeddings of several texts, in the same order. Implementations that can embed a batch in one
+   * call override this; by default the texts are embedded one by one.
+   */
+  default @NonNull List<float[]> generateEmbeddings(@NonNull List<String> texts) {
+    return texts.stream().map(this::generateEmbedding).toList();
+  }
 }
@@ -0,0 +1,16 @@
+package it.robfrank.linklift.application.port.out;
+
+import java.util.Optional;
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+public interface LinkPreviewPort {
+  /**
+   * Reads the title and description of a page from its {@code <head>} only, giving up after a short
+   * deadline. Empty when the page could not be read in time or is not a web page.
+   */
+  @NonNull
+  Optional<LinkPreview> preview(@NonNull String url);
+
+  record LinkPreview(@Nullable String title, @Nullable String description, @NonNull String mimeType) {}
+}
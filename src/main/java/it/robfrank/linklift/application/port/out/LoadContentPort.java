@@ -1,6 +1,8 @@
 package it.robfrank.linklift.application.port.out;
 
 import it.robfrank.linklift.application.domain.model.Content;
+import it.robfrank.linklift.application.domain.model.ContentChunk;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import org.jspecify.annotations.NonNull;
@@ -14,11 +16,20 @@ public interface LoadContentPort {
 
   /**
    * Finds content most similar to the query vector, restricted to links owned by the
-   * given user. Cross-user content is never returned.
+   * given user. Cross-user content is never returned. A page scores as its best-matching
+   * passage; content without passages yet is matched by its own embedding.
    */
   @NonNull
-  List<Content> findSimilar(@NonNull List<Float> queryVector, int limit, @NonNull String userId);
+  List<Content> findSimilar(@NonNull float[] queryVector, int limit, @NonNull String userId);
+
+  /** Passages most similar to the query vector, best first, restricted to links owned by the given user. */
+  @NonNull
+  List<ContentChunk> findSimilarChunks(@NonNull float[] queryVector, int limit, @NonNull String userId);
 
   @NonNull
   List<Content> findContentsWithoutEmbeddings(int limit);
+
+  /** Links whose completed content is due for a re-check at {@code now}, the longest overdue first. */
+  @NonNull
+  List<String> findLinkIdsDueForRecheck(@NonNull Instant now, int limit);
 }
@@ -1,11 +1,14 @@
 package it.robfrank.linklift.application.port.out;
 
-import it.robfrank.linklift.application.domain.model.GraphData;
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
 import it.robfrank.linklift.application.domain.model.Link;
 import it.robfrank.linklift.application.domain.model.LinkPage;
 import it.robfrank.linklift.application.port.in.ListLinksQuery;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface LoadLinksPort {
   LinkPage loadLinks(ListLinksQuery query);
@@ -14,12 +17,21 @@ public interface LoadLinksPort {
 
   List<Link> findLinksByIds(List<String> ids);
 
+  /** Returns the subset of the given URLs that are already stored under the same canonical URL, in one query. */
+  Set<String> findExistingUrls(Collection<String> urls);
+
   Link getLinkById(String id);
 
   /** Loads a link by id only if it is owned by the given user; combines existence + ownership in one query. */
   Optional<Link> findLinkByIdAndUserId(String id, String userId);
 
-  GraphData getGraphData(String userId);
+  /** The user's link graph; served from memory once loaded and kept current by the link writes. */
+  GraphSnapshot getGraphSnapshot(String userId);
+
+  /** Stored rank scores of the user's links by link id; links not ranked yet are left out. */
+  Map<String, Double> getLinkRanks(String userId);
 
   boolean userOwnsLink(String userId, String linkId);
+
+  Optional<String> getLinkOwner(String linkId);
 }
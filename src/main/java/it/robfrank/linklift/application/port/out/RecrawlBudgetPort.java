@@ -0,0 +1,14 @@
+package it.robfrank.linklift.application.port.out;
+
+/** The hourly re-check budget, shared by all nodes. */
+public interface RecrawlBudgetPort {
+  /**
+   * Takes up to {@code wanted} re-checks from the budget, which refills at {@code perHour} and holds
+   * at most {@code capacity}. Returns how many were granted; none when another node took them at the
+   * same moment.
+   */
+  int takeRechecks(int wanted, int perHour, int capacity);
+
+  /** Puts back re-checks that were taken but not spent, up to {@code capacity}. */
+  void returnRechecks(int count, int capacity);
+}
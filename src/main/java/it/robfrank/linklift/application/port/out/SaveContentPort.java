@@ -1,6 +1,9 @@
 package it.robfrank.linklift.application.port.out;
 
 import it.robfrank.linklift.application.domain.model.Content;
+import it.robfrank.linklift.application.domain.model.ContentChunk;
+import java.time.Instant;
+import java.util.List;
 import org.jspecify.annotations.NonNull;
 
 public interface SaveContentPort {
@@ -13,4 +16,13 @@ public interface SaveContentPort {
   void createHasContentEdge(@NonNull String linkId, @NonNull String contentId);
 
   void deleteContentByLinkId(@NonNull String linkId);
+
+  /** Replaces the passages stored for the content of this link. */
+  void replaceChunks(@NonNull String linkId, @NonNull List<ContentChunk> chunks);
+
+  /** Flags the content of this link for the embedding backfill, which splits and embeds it again. */
+  void markForEmbeddingBackfill(@NonNull String linkId);
+
+  /** Moves the next re-check of these links to {@code until}; storing their content again sets it anew. */
+  void deferRecheck(@NonNull List<String> linkIds, @NonNull Instant until);
 }
@@ -1,11 +1,15 @@
 package it.robfrank.linklift.application.port.out;
 
 import it.robfrank.linklift.application.domain.model.Link;
+import java.util.List;
 
 public interface SaveLinkPort {
   Link saveLink(Link link);
 
   Link save(Link link, String userId);
 
+  /** Saves a batch of links for the user in a single transaction. */
+  List<Link> saveAll(List<Link> links, String userId);
+
   void syncLinkConnections(Link link);
 }
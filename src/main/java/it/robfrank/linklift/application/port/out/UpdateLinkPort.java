@@ -1,9 +1,13 @@
 package it.robfrank.linklift.application.port.out;
 
 import it.robfrank.linklift.application.domain.model.Link;
+import java.util.Map;
 import org.jspecify.annotations.NonNull;
 
 public interface UpdateLinkPort {
   @NonNull
   Link updateLink(@NonNull Link link);
+
+  /** Stores graph rank scores by link id, in one round trip. */
+  void updateLinkRanks(@NonNull Map<String, Double> ranksByLinkId);
 }
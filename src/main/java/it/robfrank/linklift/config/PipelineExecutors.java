@@ -0,0 +1,109 @@
+package it.robfrank.linklift.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import it.robfrank.linklift.application.domain.service.DownloadContentService;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.NonNull;
+
+/**
+ * One executor per stage of the content pipeline, so a slow dependency only backs up its own stage.
+ *
+ * <ul>
+ *   <li>{@code io}: virtual threads for the HTTP client and background jobs.
+ *   <li>{@code parse}: one platform thread per core for HTML extraction. When its queue is full the
+ *       submitting thread parses the page itself, which slows down the downloads feeding it.
+ *   <li>{@code embed}: threads waiting on embeddings behind a bounded queue; their texts are batched
+ *       into fewer Ollama calls, so more of them mean larger batches. When the queue is full the
+ *       submitting thread embeds the page itself, as with {@code parse}, so a slow Ollama holds
+ *       back parsing and downloads instead of leaving pages without an embedding.
+ *   <li>{@code persist}: virtual threads for database writes.
+ * </ul>
+ *
+ * <p>Each executor reports under {@code linklift.pipeline.executor*}, tagged with the stage
+ * {@code name}: queued and active tasks, time spent waiting ({@code .idle}) and running.
+ */
+public final class PipelineExecutors implements AutoCloseable {
+
+  public static final int DEFAULT_EMBED_CONCURRENCY = 16;
+  public static final int DEFAULT_EMBED_QUEUE_CAPACITY = 256;
+  private static final int PARSE_QUEUE_PER_THREAD = 16;
+  private static final String METRIC_PREFIX = "linklift.pipeline";
+  static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(30);
+
+  private final ExecutorService io;
+  private final ExecutorService parse;
+  private final ExecutorService embed;
+  private final ExecutorService persist;
+
+  public PipelineExecutors(@NonNull MeterRegistry registry, int embedConcurrency, int embedQueueCapacity) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    this.io = monitor(registry, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("linklift-io-", 0).factory()), "io");
+    this.parse = monitor(
+      registry,
+      new ThreadPoolExecutor(
+        cores,
+        cores,
+        0,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(cores * PARSE_QUEUE_PER_THREAD),
+        Thread.ofPlatform().name("linklift-parse-", 0).daemon(true).factory(),
+        new ThreadPoolExecutor.CallerRunsPolicy()
+      ),
+      "parse"
+    );
+    this.embed = monitor(
+      registry,
+      new ThreadPoolExecutor(
+        embedConcurrency,
+        embedConcurrency,
+        0,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(embedQueueCapacity),
+        Thread.ofPlatform().name("linklift-embed-", 0).daemon(true).factory(),
+        new ThreadPoolExecutor.CallerRunsPolicy()
+      ),
+      "embed"
+    );
+    this.persist = monitor(registry, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("linklift-persist-", 0).factory()), "persist");
+  }
+
+  private static ExecutorService monitor(MeterRegistry registry, ExecutorService executor, String stage) {
+    return ExecutorServiceMetrics.monitor(registry, executor, stage, METRIC_PREFIX, Tags.empty());
+  }
+
+  /** Virtual threads for blocking I/O outside the download pipeline. */
+  public @NonNull ExecutorService io() {
+    return io;
+  }
+
+  public DownloadContentService.@NonNull Stages downloadStages() {
+    return new DownloadContentService.Stages(parse, embed, persist);
+  }
+
+  /**
+   * Stops accepting work and gives the pages already in the pipeline up to {@link #SHUTDOWN_GRACE}
+   * to be stored; whatever is still running after that is interrupted.
+   */
+  @Override
+  public void close() {
+    List<ExecutorService> stages = List.of(io, parse, embed, persist);
+    stages.forEach(ExecutorService::shutdown);
+    long deadline = System.nanoTime() + SHUTDOWN_GRACE.toNanos();
+    try {
+      for (ExecutorService stage : stages) {
+        stage.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    stages.forEach(ExecutorService::shutdownNow);
+  }
+}
@@ -7,6 +7,7 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +25,16 @@ public final class SecureConfiguration {
   private static final String OLLAMA_URL_ENV = "LINKLIFT_OLLAMA_URL";
   private static final String OLLAMA_MODEL_ENV = "LINKLIFT_OLLAMA_MODEL";
   private static final String OLLAMA_DIMENSIONS_ENV = "LINKLIFT_OLLAMA_DIMENSIONS";
+  private static final String DOWNLOAD_MAX_IN_FLIGHT_ENV = "LINKLIFT_DOWNLOAD_MAX_IN_FLIGHT";
+  private static final String DOWNLOAD_MAX_PER_HOST_ENV = "LINKLIFT_DOWNLOAD_MAX_PER_HOST";
+  private static final String EMBED_CONCURRENCY_ENV = "LINKLIFT_EMBED_CONCURRENCY";
+  private static final String EMBED_QUEUE_CAPACITY_ENV = "LINKLIFT_EMBED_QUEUE_CAPACITY";
+  private static final String EMBED_BATCH_SIZE_ENV = "LINKLIFT_EMBED_BATCH_SIZE";
+  private static final String EMBED_BATCH_WAIT_MS_ENV = "LINKLIFT_EMBED_BATCH_WAIT_MS";
+  private static final String EMBEDDING_CACHE_ENTRIES_ENV = "LINKLIFT_EMBEDDING_CACHE_ENTRIES";
+  private static final String EMBEDDING_CACHE_FILE_ENV = "LINKLIFT_EMBEDDING_CACHE_FILE";
+  private static final String RECRAWL_BUDGET_PER_HOUR_ENV = "LINKLIFT_RECRAWL_BUDGET_PER_HOUR";
+  private static final String LINK_PREVIEW_TIMEOUT_MS_ENV = "LINKLIFT_LINK_PREVIEW_TIMEOUT_MS";
 
   // Development fallback - WARNING: Never use in production
   private static final String DEVELOPMENT_JWT_SECRET = generateSecureDevSecret();
@@ -185,4 +196,102 @@ public final class SecureConfiguration {
       return 384;
     }
   }
+
+  /**
+   * Retrieves the maximum number of content downloads open at once across all hosts.
+   * Set LINKLIFT_DOWNLOAD_MAX_IN_FLIGHT environment variable to override.
+   */
+  public static int getDownloadMaxInFlight(int defaultValue) {
+    return getPositiveInt(DOWNLOAD_MAX_IN_FLIGHT_ENV, defaultValue);
+  }
+
+  /**
+   * Retrieves the maximum number of content downloads open at once against a single host.
+   * Set LINKLIFT_DOWNLOAD_MAX_PER_HOST environment variable to override.
+   */
+  public static int getDownloadMaxPerHost(int defaultValue) {
+    return getPositiveInt(DOWNLOAD_MAX_PER_HOST_ENV, defaultValue);
+  }
+
+  /**
+   * Retrieves the number of downloaded pages embedded at once; their texts are batched into fewer Ollama calls.
+   * Set LINKLIFT_EMBED_CONCURRENCY environment variable to override.
+   */
+  public static int getEmbedConcurrency(int defaultValue) {
+    return getPositiveInt(EMBED_CONCURRENCY_ENV, defaultValue);
+  }
+
+  /**
+   * Retrieves how many downloaded pages may wait for an embedding before new ones are stored without.
+   * Set LINKLIFT_EMBED_QUEUE_CAPACITY environment variable to override.
+   */
+  public static int getEmbedQueueCapacity(int defaultValue) {
+    return getPositiveInt(EMBED_QUEUE_CAPACITY_ENV, defaultValue);
+  }
+
+  /**
+   * Retrieves the maximum number of texts sent to Ollama in one embedding call.
+   * Set LINKLIFT_EMBED_BATCH_SIZE environment variable to override.
+   */
+  public static int getEmbedBatchSize(int defaultValue) {
+    return getPositiveInt(EMBED_BATCH_SIZE_ENV, defaultValue);
+  }
+
+  /**
+   * Retrieves how long a text waits for others to share its embedding call, in milliseconds.
+   * Set LINKLIFT_EMBED_BATCH_WAIT_MS environment variable to override.
+   */
+  public static int getEmbedBatchWaitMillis(int defaultValue) {
+    return getPositiveInt(EMBED_BATCH_WAIT_MS_ENV, defaultValue);
+  }
+
+  /**
+   * Retrieves how many embeddings are kept in memory.
+   * Set LINKLIFT_EMBEDDING_CACHE_ENTRIES environment variable to override.
+   */
+  public static int getEmbeddingCacheEntries(int defaultValue) {
+    return getPositiveInt(EMBEDDING_CACHE_ENTRIES_ENV, defaultValue);
+  }
+
+  /**
+   * Retrieves the file embeddings are persisted to across restarts; without one they are cached in memory only.
+   * Set LINKLIFT_EMBEDDING_CACHE_FILE environment variable to enable.
+   */
+  public static Optional<Path> getEmbeddingCacheFile() {
+    String value = System.getenv(EMBEDDING_CACHE_FILE_ENV);
+    return value == null || value.isBlank() ? Optional.empty() : Optional.of(Path.of(value.trim()));
+  }
+
+  /**
+   * Retrieves how many stored pages this node re-checks per hour in the background.
+   * Set LINKLIFT_RECRAWL_BUDGET_PER_HOUR environment variable to override.
+   */
+  public static int getRecrawlBudgetPerHour(int defaultValue) {
+    return getPositiveInt(RECRAWL_BUDGET_PER_HOUR_ENV, defaultValue);
+  }
+
+  /**
+   * Retrieves how long saving a link waits for the page title, in milliseconds.
+   * Set LINKLIFT_LINK_PREVIEW_TIMEOUT_MS environment variable to override.
+   */
+  public static int getLinkPreviewTimeoutMillis(int defaultValue) {
+    return getPositiveInt(LINK_PREVIEW_TIMEOUT_MS_ENV, defaultValue);
+  }
+
+  private static int getPositiveInt(String env, int defaultValue) {
+    String value = System.getenv(env);
+    if (value == null || value.isBlank()) {
+      return defaultValue;
+    }
+    try {
+      int parsed = Integer.parseInt(value.trim());
+      if (parsed > 0) {
+        return parsed;
+      }
+    } catch (NumberFormatException e) {
+      // fall through to the warning below
+    }
+    logger.warn("Invalid value for {}. Expected positive integer, got: {}. Defaulting to {}", env, value, defaultValue);
+    return defaultValue;
+  }
 }
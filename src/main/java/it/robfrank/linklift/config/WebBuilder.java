@@ -22,6 +22,8 @@ import it.robfrank.linklift.application.domain.service.AuthorizationService;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Builds the Javalin application.
@@ -35,6 +37,8 @@ import java.util.function.Consumer;
  */
 public class WebBuilder {
 
+  private static final Logger logger = LoggerFactory.getLogger(WebBuilder.class);
+
   private AuthorizationService authorizationService;
   private JwtAuthenticationHandler jwtAuthenticationHandler;
   private RequireAuthentication requireAuthentication;
@@ -42,9 +46,15 @@ public class WebBuilder {
   private final JvmGcMetrics jvmGcMetrics;
 
   private final List<Consumer<JavalinDefaultRoutingApi>> routeRegistrations = new ArrayList<>();
+  private final List<AutoCloseable> closeOnStop = new ArrayList<>();
 
   public WebBuilder() {
-    registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    this(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+  }
+
+  /** Uses the given registry, so meters registered by other components are scraped from {@code /metrics} too. */
+  public WebBuilder(PrometheusMeterRegistry registry) {
+    this.registry = registry;
     new ClassLoaderMetrics().bindTo(registry);
     new JvmMemoryMetrics().bindTo(registry);
     jvmGcMetrics = new JvmGcMetrics();
@@ -83,6 +93,15 @@ public class WebBuilder {
     return this;
   }
 
+  public WebBuilder withImportLinksController(ImportLinksController importLinksController) {
+    routeRegistrations.add(routes -> {
+      routes.before("/api/v1/links/import", requireAuthentication);
+      routes.before("/api/v1/links/import", RequirePermission.any(authorizationService, Role.Permissions.CREATE_LINK));
+      routes.post("/api/v1/links/import", importLinksController::importLinks);
+    });
+    return this;
+  }
+
   public WebBuilder withListLinksController(ListLinksController listLinksController) {
     routeRegistrations.add(routes -> {
       routes.before("/api/v1/links", requireAuthentication);
@@ -92,6 +111,14 @@ public class WebBuilder {
       routes.before("/api/v1/graph", requireAuthentication);
       routes.before("/api/v1/graph", RequirePermission.any(authorizationService, Role.Permissions.READ_OWN_LINKS));
       routes.get("/api/v1/graph", listLinksController::getGraph);
+
+      routes.before("/api/v1/graph/clusters", requireAuthentication);
+      routes.before("/api/v1/graph/clusters", RequirePermission.any(authorizationService, Role.Permissions.READ_OWN_LINKS));
+      routes.get("/api/v1/graph/clusters", listLinksController::getGraphClusters);
+
+      routes.before("/api/v1/graph/clusters/{clusterId}", requireAuthentication);
+      routes.before("/api/v1/graph/clusters/{clusterId}", RequirePermission.any(authorizationService, Role.Permissions.READ_OWN_LINKS));
+      routes.get("/api/v1/graph/clusters/{clusterId}", listLinksController::getGraphCluster);
     });
     return this;
   }
@@ -257,6 +284,12 @@ public class WebBuilder {
     return this;
   }
 
+  /** Closes the resource when the server stops; resources are closed in the order they were added. */
+  public WebBuilder withCloseOnStop(AutoCloseable resource) {
+    closeOnStop.add(resource);
+    return this;
+  }
+
   public Javalin build() {
     return Javalin.create(config -> {
       // Register cleanup on application shutdown
@@ -264,6 +297,13 @@ public class WebBuilder {
         if (jvmGcMetrics != null) {
           jvmGcMetrics.close();
         }
+        for (AutoCloseable resource : closeOnStop) {
+          try {
+            resource.close();
+          } catch (Exception e) {
+            logger.error("Failed to close {} on shutdown", resource.getClass().getSimpleName(), e);
+          }
+        }
       });
 
       config.bundledPlugins.enableCors(cors -> cors.addRule(it -> it.anyHost()));
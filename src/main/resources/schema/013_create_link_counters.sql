@@ -0,0 +1,19 @@
+-- Denormalized per-user link counts by readStatus x archived x favorited
+CREATE VERTEX TYPE LinkCounter IF NOT EXISTS;
+CREATE PROPERTY LinkCounter.userId IF NOT EXISTS STRING (MANDATORY TRUE, NOTNULL TRUE);
+CREATE PROPERTY LinkCounter.unread_active_plain IF NOT EXISTS LONG;
+CREATE PROPERTY LinkCounter.unread_active_favorited IF NOT EXISTS LONG;
+CREATE PROPERTY LinkCounter.unread_archived_plain IF NOT EXISTS LONG;
+CREATE PROPERTY LinkCounter.unread_archived_favorited IF NOT EXISTS LONG;
+CREATE PROPERTY LinkCounter.reading_active_plain IF NOT EXISTS LONG;
+CREATE PROPERTY LinkCounter.reading_active_favorited IF NOT EXISTS LONG;
+CREATE PROPERTY LinkCounter.reading_archived_plain IF NOT EXISTS LONG;
+CREATE PROPERTY LinkCounter.reading_archived_favorited IF NOT EXISTS LONG;
+CREATE PROPERTY LinkCounter.read_active_plain IF NOT EXISTS LONG;
+CREATE PROPERTY LinkCounter.read_active_favorited IF NOT EXISTS LONG;
+CREATE PROPERTY LinkCounter.read_archived_plain IF NOT EXISTS LONG;
+CREATE PROPERTY LinkCounter.read_archived_favorited IF NOT EXISTS LONG;
+CREATE INDEX IF NOT EXISTS ON LinkCounter (userId) UNIQUE;
+
+-- Number of links carrying each tag (null until first computed)
+CREATE PROPERTY Tag.linkCount IF NOT EXISTS LONG;
@@ -0,0 +1,8 @@
+-- Denormalize the owning user onto Link so user-scoped reads are index range scans
+CREATE PROPERTY Link.ownerId IF NOT EXISTS STRING;
+CREATE INDEX IF NOT EXISTS ON Link (ownerId, extractedAt) NOTUNIQUE NULL_STRATEGY SKIP;
+CREATE INDEX IF NOT EXISTS ON Link (ownerId, readStatus, extractedAt) NOTUNIQUE NULL_STRATEGY SKIP;
+CREATE INDEX IF NOT EXISTS ON Link (ownerId, favorited, extractedAt) NOTUNIQUE NULL_STRATEGY SKIP;
+
+-- Backfill links created before ownerId existed from their OwnsLink edge
+UPDATE Link SET ownerId = first(in('OwnsLink').id) WHERE ownerId IS NULL AND in('OwnsLink').size() > 0;
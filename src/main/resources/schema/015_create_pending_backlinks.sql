@@ -0,0 +1,7 @@
+-- Reverse index from a normalized extracted URL that is not stored yet to the links referencing it,
+-- so saving that URL later can create the waiting linksTo edges without rescanning extractedUrls
+CREATE VERTEX TYPE PendingBacklink IF NOT EXISTS;
+CREATE PROPERTY PendingBacklink.url IF NOT EXISTS STRING (MANDATORY TRUE, NOTNULL TRUE);
+CREATE PROPERTY PendingBacklink.sourceId IF NOT EXISTS STRING (MANDATORY TRUE, NOTNULL TRUE);
+CREATE INDEX IF NOT EXISTS ON PendingBacklink (url, sourceId) UNIQUE;
+CREATE INDEX IF NOT EXISTS ON PendingBacklink (sourceId) NOTUNIQUE;
@@ -0,0 +1,3 @@
+-- PageRank of the link within its owner's linksTo graph, maintained by a background job
+CREATE PROPERTY Link.rank IF NOT EXISTS DOUBLE;
+CREATE INDEX IF NOT EXISTS ON Link (ownerId, rank) NOTUNIQUE NULL_STRATEGY SKIP;
@@ -0,0 +1,17 @@
+-- Persistent queue of content downloads, shared by all LinkLift nodes. A worker claims a job by
+-- setting leaseOwner and leaseExpiresAt; a job whose lease expired is claimed again by anyone.
+-- Times are epoch milliseconds so lease checks are plain numeric comparisons.
+CREATE VERTEX TYPE DownloadJob IF NOT EXISTS;
+CREATE PROPERTY DownloadJob.id IF NOT EXISTS STRING (MANDATORY TRUE, NOTNULL TRUE);
+CREATE PROPERTY DownloadJob.linkId IF NOT EXISTS STRING (MANDATORY TRUE, NOTNULL TRUE);
+CREATE PROPERTY DownloadJob.url IF NOT EXISTS STRING (MANDATORY TRUE, NOTNULL TRUE);
+CREATE PROPERTY DownloadJob.status IF NOT EXISTS STRING (MANDATORY TRUE, NOTNULL TRUE);
+CREATE PROPERTY DownloadJob.attempts IF NOT EXISTS INTEGER;
+CREATE PROPERTY DownloadJob.nextRunAt IF NOT EXISTS LONG;
+CREATE PROPERTY DownloadJob.leaseOwner IF NOT EXISTS STRING;
+CREATE PROPERTY DownloadJob.leaseExpiresAt IF NOT EXISTS LONG;
+CREATE PROPERTY DownloadJob.lastError IF NOT EXISTS STRING;
+CREATE INDEX IF NOT EXISTS ON DownloadJob (id) UNIQUE;
+-- One job per link: queueing a link again resets its job
+CREATE INDEX IF NOT EXISTS ON DownloadJob (linkId) UNIQUE;
+CREATE INDEX IF NOT EXISTS ON DownloadJob (status, nextRunAt) NOTUNIQUE;
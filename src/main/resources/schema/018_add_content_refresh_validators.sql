@@ -0,0 +1,4 @@
+-- Response validators and text hash, so a refresh can skip pages that did not change
+CREATE PROPERTY Content.etag IF NOT EXISTS STRING;
+CREATE PROPERTY Content.lastModified IF NOT EXISTS STRING;
+CREATE PROPERTY Content.contentHash IF NOT EXISTS STRING;
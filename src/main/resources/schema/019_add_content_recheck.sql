@@ -0,0 +1,6 @@
+-- Adaptive re-crawl: recheckAt = downloadedAt + recheckIntervalSeconds, as epoch milliseconds
+CREATE PROPERTY Content.recheckIntervalSeconds IF NOT EXISTS LONG;
+CREATE PROPERTY Content.recheckAt IF NOT EXISTS LONG;
+CREATE INDEX IF NOT EXISTS ON Content (recheckAt) NOTUNIQUE NULL_STRATEGY SKIP;
+-- Content downloaded before re-crawling existed is due right away, within the hourly budget
+UPDATE Content SET recheckIntervalSeconds = 86400, recheckAt = 0 WHERE status = 'COMPLETED' AND recheckAt IS NULL;
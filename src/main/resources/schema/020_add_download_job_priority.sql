@@ -0,0 +1,3 @@
+-- Jobs with a higher priority are claimed first; background re-crawls queue below user requests
+CREATE PROPERTY DownloadJob.priority IF NOT EXISTS INTEGER;
+UPDATE DownloadJob SET priority = 0 WHERE priority IS NULL;
@@ -0,0 +1,10 @@
+-- Fixed-width hash of the canonical URL, so spellings of the same page (case, default port,
+-- trailing slash, tracking parameters, parameter order) are found as duplicates with one index probe.
+-- Not unique: links saved before canonicalization may already differ only in spelling.
+-- Existing rows are hashed by ArcadeLinkRepository.backfillUrlHashes at startup
+CREATE PROPERTY Link.urlHash IF NOT EXISTS STRING;
+CREATE INDEX IF NOT EXISTS ON Link (urlHash) NOTUNIQUE NULL_STRATEGY SKIP;
+
+-- Pending backlinks wait on the same hash; url stays for readability
+CREATE PROPERTY PendingBacklink.urlHash IF NOT EXISTS STRING;
+CREATE INDEX IF NOT EXISTS ON PendingBacklink (urlHash, sourceId) NOTUNIQUE NULL_STRATEGY SKIP;
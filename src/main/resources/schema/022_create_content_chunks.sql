@@ -0,0 +1,22 @@
+-- Overlapping passages of a link's content, each with its own embedding, so search and /ask can
+-- match any part of a long page instead of its first 512 characters. Written by
+-- ArcadeContentRepository.replaceChunks, a link's passages all at once.
+CREATE VERTEX TYPE ContentChunk IF NOT EXISTS;
+CREATE PROPERTY ContentChunk.linkId IF NOT EXISTS STRING (MANDATORY TRUE, NOTNULL TRUE);
+CREATE PROPERTY ContentChunk.position IF NOT EXISTS INTEGER;
+CREATE PROPERTY ContentChunk.text IF NOT EXISTS STRING;
+CREATE PROPERTY ContentChunk.embedding IF NOT EXISTS ARRAY_OF_FLOATS;
+CREATE INDEX IF NOT EXISTS ON ContentChunk (linkId) NOTUNIQUE;
+
+CREATE INDEX IF NOT EXISTS ON ContentChunk(embedding) LSM_VECTOR METADATA {
+    "dimensions": 384,
+    "maxConnections": 16,
+    "beamWidth": 100,
+    "similarity": "COSINE"
+    };
+
+-- Set once a link's passages are written, even if the page had none
+CREATE PROPERTY Content.chunked IF NOT EXISTS BOOLEAN;
+-- Content embedded before passages existed is queued for the embedding backfill, which splits it;
+-- until then it is still found by its own embedding
+UPDATE Content SET needsEmbedding = true WHERE needsEmbedding = false AND chunked IS NULL AND textContent IS NOT NULL;
@@ -0,0 +1,3 @@
+-- Set once a rebuild has folded the user's link count into the counter; counters written before
+-- this flag existed are counted again on their next read
+CREATE PROPERTY LinkCounter.reconciled IF NOT EXISTS BOOLEAN;
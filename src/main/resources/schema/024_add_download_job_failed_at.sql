@@ -0,0 +1,2 @@
+-- When a job failed for good, in epoch milliseconds; failed jobs are purged after a retention period
+CREATE PROPERTY DownloadJob.failedAt IF NOT EXISTS LONG;
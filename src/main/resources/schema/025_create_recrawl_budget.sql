@@ -0,0 +1,8 @@
+-- Re-check budget shared by all nodes: a token bucket in one row, refilled by the time elapsed
+-- since updatedAt (epoch milliseconds). A row without tokens counts as full.
+CREATE VERTEX TYPE RecrawlBudget IF NOT EXISTS;
+CREATE PROPERTY RecrawlBudget.id IF NOT EXISTS STRING (MANDATORY TRUE, NOTNULL TRUE);
+CREATE PROPERTY RecrawlBudget.tokens IF NOT EXISTS DOUBLE;
+CREATE PROPERTY RecrawlBudget.updatedAt IF NOT EXISTS LONG;
+CREATE INDEX IF NOT EXISTS ON RecrawlBudget (id) UNIQUE;
+UPDATE RecrawlBudget SET id = 'recrawl' UPSERT WHERE id = 'recrawl';
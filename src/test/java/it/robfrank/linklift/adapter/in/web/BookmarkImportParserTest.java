@@ -0,0 +1,65 @@
+package it.robfrank.linklift.adapter.in.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import it.robfrank.linklift.application.domain.model.ImportedBookmark;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BookmarkImportParserTest {
+
+  @Test
+  void parseNdjson_shouldReadOneBookmarkPerLineAndSkipMalformedLines() {
+    InputStream input = stream(
+      """
+      {"url":"https://a.example","title":"A","description":"first"}
+
+      not json
+      {"title":"no url"}
+      {"url":"https://b.example"}
+      """
+    );
+
+    List<ImportedBookmark> bookmarks = BookmarkImportParser.parseNdjson(input).toList();
+
+    assertThat(bookmarks).containsExactly(
+      new ImportedBookmark("https://a.example", "A", "first", null),
+      new ImportedBookmark("https://b.example", null, null, null)
+    );
+  }
+
+  @Test
+  void parseNetscape_shouldReadAnchorsWithOptionalDescriptions() {
+    InputStream input = stream(
+      """
+      <!DOCTYPE NETSCAPE-Bookmark-file-1>
+      <TITLE>Bookmarks</TITLE>
+      <DL><p>
+          <DT><H3 ADD_DATE="1600000000">Folder</H3>
+          <DL><p>
+              <DT><A HREF="https://a.example/?x=1&amp;y=2" ADD_DATE="1600000000">A &amp; B</A>
+              <DD>Described
+              <DT><A HREF="https://b.example">B</A>
+          </DL><p>
+          <DT><A HREF="https://c.example" ADD_DATE="1600000000">C</A>
+      </DL><p>
+      """
+    );
+
+    List<ImportedBookmark> bookmarks = BookmarkImportParser.parseNetscape(input).toList();
+
+    assertThat(bookmarks).extracting(ImportedBookmark::url).containsExactly("https://a.example/?x=1&y=2", "https://b.example", "https://c.example");
+    assertThat(bookmarks.get(0).title()).isEqualTo("A & B");
+    assertThat(bookmarks.get(0).description()).isEqualTo("Described");
+    assertThat(bookmarks.get(0).addedAt()).isNotNull();
+    assertThat(bookmarks.get(1).description()).isNull();
+    assertThat(bookmarks.get(1).addedAt()).isNull();
+  }
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -11,6 +11,7 @@ import io.javalin.testtools.Response;
 import it.robfrank.linklift.adapter.in.web.error.GlobalExceptionHandler;
 import it.robfrank.linklift.application.domain.exception.ValidationException;
 import it.robfrank.linklift.application.domain.model.GraphData;
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
 import it.robfrank.linklift.application.domain.model.Link;
 import it.robfrank.linklift.application.domain.model.LinkPage;
 import it.robfrank.linklift.application.domain.model.ReadStatus;
@@ -244,4 +245,35 @@ class ListLinksControllerTest {
       assertThatJson(responseBody).and(json -> json.node("data.nodes").isArray().isEmpty(), json -> json.node("data.edges").isArray().isEmpty());
     });
   }
+
+  @Test
+  void getGraph_shouldReturnCsrArrays_whenCompactFormatRequested() {
+    // Given
+    GraphSnapshot snapshot = GraphSnapshot.of(
+      List.of(new GraphData.LinkNode("node-1", "Example", "https://example.com"), new GraphData.LinkNode("node-2", "Related", "https://related.com")),
+      List.of(new GraphData.LinkEdge("node-1", "node-2"))
+    );
+    when(getGraphUseCase.getGraphSnapshot("user-123")).thenReturn(snapshot);
+
+    Javalin app = Javalin.create(cfg -> {
+      GlobalExceptionHandler.configure(cfg.routes);
+      cfg.routes.before(ctx -> {
+        var securityContext = new SecurityContext("user-123", "testuser", "test@example.com", List.of(), true, LocalDateTime.now(), "127.0.0.1", "test-agent");
+        it.robfrank.linklift.adapter.in.web.security.SecurityContext.setSecurityContext(ctx, securityContext);
+      });
+      cfg.routes.get("/graph", listLinksController::getGraph);
+    });
+
+    JavalinTest.test(app, (server, client) -> {
+      Response response = client.get("/graph?format=compact");
+
+      assertThat(response.code()).isEqualTo(200);
+      String responseBody = response.body().string();
+      assertThatJson(responseBody).and(
+        json -> json.node("data.ids").isEqualTo(List.of("node-1", "node-2")),
+        json -> json.node("data.offsets").isEqualTo(List.of(0, 1, 1)),
+        json -> json.node("data.targets").isEqualTo(List.of(1))
+      );
+    });
+  }
 }
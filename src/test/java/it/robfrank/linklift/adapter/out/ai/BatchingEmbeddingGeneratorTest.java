@@ -0,0 +1,102 @@
+package it.robfrank.linklift.adapter.out.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.robfrank.linklift.application.port.out.EmbeddingGenerator;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BatchingEmbeddingGeneratorTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final RecordingGenerator delegate = new RecordingGenerator();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void generateEmbedding_shouldCoalesceConcurrentCallersIntoOneBatch() {
+    BatchingEmbeddingGenerator generator = new BatchingEmbeddingGenerator(delegate, registry, executor, 4, Duration.ofSeconds(10), 1);
+
+    List<CompletableFuture<float[]>> results = List.of("a", "bb", "ccc", "dddd")
+      .stream()
+      .map(text -> CompletableFuture.supplyAsync(() -> generator.generateEmbedding(text), executor))
+      .toList();
+
+    assertThat(results.stream().map(CompletableFuture::join).toList()).containsExactly(
+      new float[] { 1 },
+      new float[] { 2 },
+      new float[] { 3 },
+      new float[] { 4 }
+    );
+    assertThat(delegate.batches).hasSize(1);
+    assertThat(delegate.batches.getFirst()).containsExactlyInAnyOrder("a", "bb", "ccc", "dddd");
+    assertThat(registry.get("linklift.embedding.batch.size").summary().max()).isEqualTo(4);
+    assertThat(registry.get("linklift.embedding.batch.latency").timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  void generateEmbedding_shouldSendAPartialBatch_onceTheOldestTextWaitedLongEnough() {
+    BatchingEmbeddingGenerator generator = new BatchingEmbeddingGenerator(delegate, registry, executor, 32, Duration.ofMillis(20), 1);
+
+    assertThat(generator.generateEmbedding("alone")).containsExactly(5f);
+    assertThat(delegate.batches).containsExactly(List.of("alone"));
+  }
+
+  @Test
+  void generateEmbeddings_shouldSplitLargeRequestsIntoBatches() {
+    BatchingEmbeddingGenerator generator = new BatchingEmbeddingGenerator(delegate, registry, executor, 2, Duration.ofMillis(20), 2);
+
+    List<float[]> embeddings = generator.generateEmbeddings(List.of("a", "bb", "ccc", "dddd", "eeeee"));
+
+    assertThat(embeddings).containsExactly(new float[] { 1 }, new float[] { 2 }, new float[] { 3 }, new float[] { 4 }, new float[] { 5 });
+    assertThat(delegate.batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(2));
+    assertThat(delegate.batches.stream().mapToInt(List::size).sum()).isEqualTo(5);
+  }
+
+  @Test
+  void generateEmbedding_shouldFailOnlyTheRejectedText_whenABatchFails() {
+    delegate.rejected = "bad";
+    BatchingEmbeddingGenerator generator = new BatchingEmbeddingGenerator(delegate, registry, executor, 3, Duration.ofSeconds(10), 1);
+
+    CompletableFuture<float[]> good = CompletableFuture.supplyAsync(() -> generator.generateEmbedding("good"), executor);
+    CompletableFuture<float[]> bad = CompletableFuture.supplyAsync(() -> generator.generateEmbedding("bad"), executor);
+    CompletableFuture<float[]> fine = CompletableFuture.supplyAsync(() -> generator.generateEmbedding("fine"), executor);
+
+    assertThat(good.join()).containsExactly(4f);
+    assertThat(fine.join()).containsExactly(4f);
+    assertThatThrownBy(bad::join).hasCauseInstanceOf(IllegalArgumentException.class);
+  }
+
+  /** Embeds a text as its length and records the batches it was asked for. */
+  private static final class RecordingGenerator implements EmbeddingGenerator {
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+    private volatile String rejected;
+
+    @Override
+    public float[] generateEmbedding(String text) {
+      if (text.equals(rejected)) {
+        throw new IllegalArgumentException("Rejected: " + text);
+      }
+      return new float[] { text.length() };
+    }
+
+    @Override
+    public List<float[]> generateEmbeddings(List<String> texts) {
+      batches.add(List.copyOf(texts));
+      return texts.stream().map(this::generateEmbedding).toList();
+    }
+  }
+}
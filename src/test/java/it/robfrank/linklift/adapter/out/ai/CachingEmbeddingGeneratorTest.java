@@ -0,0 +1,157 @@
+package it.robfrank.linklift.adapter.out.ai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.robfrank.linklift.application.port.out.EmbeddingGenerator;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CachingEmbeddingGeneratorTest {
+
+  @TempDir
+  Path directory;
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final CountingGenerator delegate = new CountingGenerator();
+
+  @Test
+  void generateEmbedding_shouldEmbedARepeatedTextOnce() throws Exception {
+    try (CachingEmbeddingGenerator generator = new CachingEmbeddingGenerator(delegate, "model", registry)) {
+      assertThat(generator.generateEmbedding("what is a vector index?")).containsExactly(23f, 1f);
+      assertThat(generator.generateEmbedding("what is a vector index?")).containsExactly(23f, 1f);
+    }
+
+    assertThat(delegate.requested).containsExactly("what is a vector index?");
+    assertThat(registry.get("linklift.embedding.cache").tag("tier", "memory").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void generateEmbedding_shouldServeVectorsFromTheFileAfterARestart() throws Exception {
+    Path file = directory.resolve("embeddings.cache");
+    try (CachingEmbeddingGenerator generator = new CachingEmbeddingGenerator(delegate, "model", registry, 10, file, 1024 * 1024)) {
+      generator.generateEmbedding("first");
+      generator.generateEmbedding("second");
+    }
+
+    CountingGenerator restarted = new CountingGenerator();
+    try (CachingEmbeddingGenerator generator = new CachingEmbeddingGenerator(restarted, "model", registry, 10, file, 1024 * 1024)) {
+      assertThat(generator.generateEmbedding("second")).containsExactly(6f, 1f);
+      assertThat(generator.generateEmbedding("first")).containsExactly(5f, 1f);
+    }
+
+    assertThat(restarted.requested).isEmpty();
+    assertThat(registry.get("linklift.embedding.cache").tag("tier", "file").counter().count()).isEqualTo(2);
+  }
+
+  @Test
+  void open_shouldDropARecordCutShortByACrash() throws Exception {
+    Path file = directory.resolve("embeddings.cache");
+    try (CachingEmbeddingGenerator generator = new CachingEmbeddingGenerator(delegate, "model", registry, 10, file, 1024 * 1024)) {
+      generator.generateEmbedding("kept");
+    }
+    long complete = Files.size(file);
+    Files.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 0, 0, 0, 9 }, StandardOpenOption.APPEND);
+
+    CountingGenerator restarted = new CountingGenerator();
+    try (CachingEmbeddingGenerator generator = new CachingEmbeddingGenerator(restarted, "model", registry, 10, file, 1024 * 1024)) {
+      assertThat(Files.size(file)).isEqualTo(complete);
+      assertThat(generator.generateEmbedding("kept")).containsExactly(4f, 1f);
+      generator.generateEmbedding("added");
+    }
+
+    assertThat(restarted.requested).containsExactly("added");
+  }
+
+  @Test
+  void generateEmbedding_shouldReadARecordWrittenOverADroppedTailFromTheFile() throws Exception {
+    Path file = directory.resolve("embeddings.cache");
+    try (CachingEmbeddingGenerator generator = new CachingEmbeddingGenerator(delegate, "model", registry, 10, file, 1024 * 1024)) {
+      generator.generateEmbedding("kept");
+    }
+    // A tail of 28 bytes, shorter than the 32-byte record that takes its place
+    byte[] tail = new byte[28];
+    tail[19] = 9;
+    Files.write(file, tail, StandardOpenOption.APPEND);
+
+    CountingGenerator restarted = new CountingGenerator();
+    try (CachingEmbeddingGenerator generator = new CachingEmbeddingGenerator(restarted, "model", registry, 1, file, 1024 * 1024)) {
+      generator.generateEmbedding("added");
+      // Pushes the new vector out of memory, so the next lookup reads it from the file
+      generator.generateEmbedding("kept");
+
+      assertThat(generator.generateEmbedding("added")).containsExactly(5f, 1f);
+    }
+
+    assertThat(restarted.requested).containsExactly("added");
+  }
+
+  @Test
+  void open_shouldDropARecordWhoseVectorWasNeverWritten() throws Exception {
+    Path file = directory.resolve("embeddings.cache");
+    try (CachingEmbeddingGenerator generator = new CachingEmbeddingGenerator(delegate, "model", registry, 10, file, 1024 * 1024)) {
+      generator.generateEmbedding("kept");
+    }
+    long complete = Files.size(file);
+    try (CachingEmbeddingGenerator generator = new CachingEmbeddingGenerator(delegate, "model", registry, 10, file, 1024 * 1024)) {
+      generator.generateEmbedding("torn");
+    }
+    // The record's blocks were allocated but its floats never reached the disk
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(8), Files.size(file) - 8);
+    }
+
+    CountingGenerator restarted = new CountingGenerator();
+    try (CachingEmbeddingGenerator generator = new CachingEmbeddingGenerator(restarted, "model", registry, 10, file, 1024 * 1024)) {
+      assertThat(Files.size(file)).isEqualTo(complete);
+      assertThat(generator.generateEmbedding("kept")).containsExactly(4f, 1f);
+      assertThat(generator.generateEmbedding("torn")).containsExactly(4f, 1f);
+    }
+
+    assertThat(restarted.requested).containsExactly("torn");
+  }
+
+  @Test
+  void generateEmbeddings_shouldOnlyAskTheDelegateForMisses() throws Exception {
+    try (CachingEmbeddingGenerator generator = new CachingEmbeddingGenerator(delegate, "model", registry)) {
+      generator.generateEmbedding("b");
+
+      assertThat(generator.generateEmbeddings(List.of("aa", "b", "cccc"))).containsExactly(new float[] { 2, 1 }, new float[] { 1, 1 }, new float[] { 4, 1 });
+    }
+
+    assertThat(delegate.requested).containsExactly("b", "aa", "cccc");
+  }
+
+  @Test
+  void keyOf_shouldDependOnTheModelAndOnlyOnTheTextTheModelSees() {
+    CachingEmbeddingGenerator generator = new CachingEmbeddingGenerator(delegate, "model", registry);
+    String prefix = "x".repeat(512);
+
+    assertThat(generator.keyOf(prefix + "ignored")).isEqualTo(generator.keyOf(prefix + "cut off"));
+    assertThat(generator.keyOf("text")).isNotEqualTo(new CachingEmbeddingGenerator(delegate, "other-model", registry).keyOf("text"));
+  }
+
+  /** Embeds a text as its length and records which texts reached it. */
+  private static final class CountingGenerator implements EmbeddingGenerator {
+
+    private final List<String> requested = new CopyOnWriteArrayList<>();
+
+    @Override
+    public float[] generateEmbedding(String text) {
+      requested.add(text);
+      return new float[] { text.length(), 1 };
+    }
+
+    @Override
+    public List<float[]> generateEmbeddings(List<String> texts) {
+      return texts.stream().map(this::generateEmbedding).toList();
+    }
+  }
+}
@@ -1,9 +1,7 @@
 package it.robfrank.linklift.adapter.out.ai;
 
 import it.robfrank.linklift.application.port.out.EmbeddingGenerator;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import org.jspecify.annotations.NonNull;
@@ -16,8 +14,8 @@ import org.jspecify.annotations.Nullable;
  */
 public class FakeEmbeddingGenerator implements EmbeddingGenerator {
 
-  private final Map<String, List<Float>> embeddingCache = new HashMap<>();
-  private final Function<String, List<Float>> embeddingFunction;
+  private final Map<String, float[]> embeddingCache = new HashMap<>();
+  private final Function<String, float[]> embeddingFunction;
   private @Nullable RuntimeException exceptionToThrow = null;
 
   /**
@@ -28,12 +26,11 @@ public class FakeEmbeddingGenerator implements EmbeddingGenerator {
     this(text -> {
       // Generate deterministic embedding based on text hash
       int hash = text.hashCode();
-      List<Float> embedding = new ArrayList<>(384);
+      float[] embedding = new float[384];
       for (int i = 0; i < 384; i++) {
         // Use hash and index to generate values between -1 and 1
         // This ensures embeddings are deterministic and normalized
-        float value = (float) Math.sin(hash + i) * 0.5f;
-        embedding.add(value);
+        embedding[i] = (float) Math.sin(hash + i) * 0.5f;
       }
       return embedding;
     });
@@ -44,12 +41,12 @@ public class FakeEmbeddingGenerator implements EmbeddingGenerator {
    *
    * @param embeddingFunction function that generates embeddings from text
    */
-  public FakeEmbeddingGenerator(@NonNull Function<String, List<Float>> embeddingFunction) {
+  public FakeEmbeddingGenerator(@NonNull Function<String, float[]> embeddingFunction) {
     this.embeddingFunction = embeddingFunction;
   }
 
   @Override
-  public @NonNull List<Float> generateEmbedding(@NonNull String text) {
+  public @NonNull float[] generateEmbedding(@NonNull String text) {
     if (exceptionToThrow != null) {
       RuntimeException ex = exceptionToThrow;
       exceptionToThrow = null; // Only throw once
@@ -42,7 +42,7 @@ class OllamaEmbeddingAdapterTest {
     );
 
     // Act
-    List<Float> embedding = adapter.generateEmbedding("test text");
+    float[] embedding = adapter.generateEmbedding("test text");
 
     // Assert
     assertThat(embedding).hasSize(4).containsExactly(0.1f, 0.2f, 0.3f, 0.4f);
@@ -73,7 +73,7 @@ class OllamaEmbeddingAdapterTest {
     stubFor(post(urlEqualTo("/api/embeddings")).willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json").withBody(responseJson)));
 
     // Act
-    List<Float> embedding = adapter.generateEmbedding("text");
+    float[] embedding = adapter.generateEmbedding("text");
 
     // Assert
     assertThat(embedding).isEmpty();
@@ -86,12 +86,25 @@ class OllamaEmbeddingAdapterTest {
     stubFor(post(urlEqualTo("/api/embeddings")).willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json").withBody(responseJson)));
 
     // Act
-    List<Float> embedding = adapter.generateEmbedding("text");
+    float[] embedding = adapter.generateEmbedding("text");
 
     // Assert
     assertThat(embedding).hasSize(2).containsExactly(0.1f, 0.3f);
   }
 
+  @Test
+  void generateEmbedding_shouldSkipOtherFieldsOfTheResponse() throws Exception {
+    // Arrange
+    String responseJson = "{\"model\": \"test-model\", \"options\": {\"embedding\": [9.9]}, \"embedding\": [0.1, 0.2], \"total_duration\": 12}";
+    stubFor(post(urlEqualTo("/api/embeddings")).willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json").withBody(responseJson)));
+
+    // Act
+    float[] embedding = adapter.generateEmbedding("text");
+
+    // Assert
+    assertThat(embedding).containsExactly(0.1f, 0.2f);
+  }
+
   // ==================== Error Handling Tests ====================
 
   @Test
@@ -217,7 +230,7 @@ class OllamaEmbeddingAdapterTest {
     );
 
     // Act
-    List<Float> embedding = adapter.generateEmbedding("test");
+    float[] embedding = adapter.generateEmbedding("test");
 
     // Assert
     assertThat(embedding).hasSize(1024);
@@ -231,7 +244,7 @@ class OllamaEmbeddingAdapterTest {
     stubFor(post(urlEqualTo("/api/embeddings")).willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json").withBody(responseJson)));
 
     // Act
-    List<Float> embedding = adapter.generateEmbedding(longText);
+    float[] embedding = adapter.generateEmbedding(longText);
 
     // Assert
     assertThat(embedding).hasSize(2);
@@ -248,7 +261,7 @@ class OllamaEmbeddingAdapterTest {
     stubFor(post(urlEqualTo("/api/embeddings")).willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json").withBody(responseJson)));
 
     // Act
-    List<Float> embedding = adapter.generateEmbedding("test");
+    float[] embedding = adapter.generateEmbedding("test");
 
     // Assert - should return the embedding even with dimension mismatch
     assertThat(embedding).hasSize(2);
@@ -268,4 +281,34 @@ class OllamaEmbeddingAdapterTest {
     // Assert - should have called WireMock 3 times
     verify(3, postRequestedFor(urlEqualTo("/api/embeddings")));
   }
+
+  @Test
+  void generateEmbeddings_shouldSendAllTextsInOneBatchCall() throws Exception {
+    // Arrange
+    String responseJson = "{\"embeddings\": [[0.1, 0.2], [0.3, 0.4]]}";
+    stubFor(
+      post(urlEqualTo("/api/embed"))
+        .withRequestBody(matchingJsonPath("$.model", equalTo("test-model")))
+        .withRequestBody(matchingJsonPath("$.input[0]", equalTo("first")))
+        .withRequestBody(matchingJsonPath("$.input[1]", equalTo("second")))
+        .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json").withBody(responseJson))
+    );
+
+    // Act
+    List<float[]> embeddings = adapter.generateEmbeddings(List.of("first", "second"));
+
+    // Assert
+    assertThat(embeddings).containsExactly(new float[] { 0.1f, 0.2f }, new float[] { 0.3f, 0.4f });
+    verify(1, postRequestedFor(urlEqualTo("/api/embed")));
+  }
+
+  @Test
+  void generateEmbeddings_shouldThrowException_whenTheVectorCountDoesNotMatch() throws Exception {
+    // Arrange
+    String responseJson = "{\"embeddings\": [[0.1, 0.2]]}";
+    stubFor(post(urlEqualTo("/api/embed")).willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/json").withBody(responseJson)));
+
+    // Act & Assert
+    assertThatThrownBy(() -> adapter.generateEmbeddings(List.of("first", "second"))).isInstanceOf(RuntimeException.class).hasMessageContaining("expected 2");
+  }
 }
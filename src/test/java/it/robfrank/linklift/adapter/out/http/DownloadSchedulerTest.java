@@ -0,0 +1,170 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.robfrank.linklift.application.port.out.ContentDownloaderPort;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DownloadSchedulerTest {
+
+  // Resumed hosts start their downloads on a timer thread
+  private final List<String> started = new CopyOnWriteArrayList<>();
+  private final List<CompletableFuture<ContentDownloaderPort.DownloadedContent>> open = new CopyOnWriteArrayList<>();
+  private final ContentDownloaderPort delegate = url -> {
+    CompletableFuture<ContentDownloaderPort.DownloadedContent> future = new CompletableFuture<>();
+    open.add(future);
+    started.add(url);
+    return future;
+  };
+
+  private static final RetryPolicy FAST_RETRIES = new RetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(10));
+
+  private MeterRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void downloadContent_shouldLimitRequestsPerHostAndRotateAcrossHosts() {
+    DownloadScheduler scheduler = new DownloadScheduler(delegate, registry, 3, 1);
+
+    scheduler.downloadContent("https://a.example/1");
+    scheduler.downloadContent("https://a.example/2");
+    scheduler.downloadContent("https://a.example/3");
+    scheduler.downloadContent("https://b.example/1");
+
+    assertThat(started).containsExactly("https://a.example/1", "https://b.example/1");
+    assertThat(registry.get("linklift.download.queue.depth").gauge().value()).isEqualTo(2.0);
+
+    open.getFirst().complete(content());
+
+    assertThat(started).containsExactly("https://a.example/1", "https://b.example/1", "https://a.example/2");
+    assertThat(registry.get("linklift.download.queue.wait").timer().count()).isEqualTo(3);
+  }
+
+  @Test
+  void downloadContent_shouldLimitRequestsGlobally() {
+    DownloadScheduler scheduler = new DownloadScheduler(delegate, registry, 2, 2);
+
+    scheduler.downloadContent("https://a.example/1");
+    scheduler.downloadContent("https://b.example/1");
+    scheduler.downloadContent("https://c.example/1");
+
+    assertThat(started).hasSize(2);
+    assertThat(registry.get("linklift.download.in.flight").gauge().value()).isEqualTo(2.0);
+
+    open.get(1).completeExceptionally(new IllegalStateException("boom"));
+
+    assertThat(started).containsExactly("https://a.example/1", "https://b.example/1", "https://c.example/1");
+  }
+
+  @Test
+  void downloadContent_shouldPauseThrottledHostAndRetryAfterTheDelay() {
+    DownloadScheduler scheduler = new DownloadScheduler(delegate, registry, 4, 1);
+
+    CompletableFuture<ContentDownloaderPort.DownloadedContent> result = scheduler.downloadContent("https://a.example/1");
+    scheduler.downloadContent("https://a.example/2");
+    scheduler.downloadContent("https://b.example/1");
+    open.getFirst().completeExceptionally(new HostThrottledException("https://a.example/1", 429, Duration.ofMillis(200)));
+
+    // The other host keeps going while a.example is paused
+    assertThat(started).containsExactly("https://a.example/1", "https://b.example/1");
+    assertThat(registry.get("linklift.download.hosts.paused").gauge().value()).isEqualTo(1.0);
+    assertThat(result).isNotDone();
+
+    // After Retry-After the throttled request goes first
+    await().atMost(Duration.ofSeconds(5)).until(() -> started.size() == 3);
+    assertThat(started.get(2)).isEqualTo("https://a.example/1");
+    open.get(2).complete(content());
+
+    assertThat(result).isCompleted();
+    assertThat(registry.get("linklift.download.throttled").counter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void downloadContent_shouldGiveUpAfterRepeatedThrottling() {
+    DownloadScheduler scheduler = new DownloadScheduler(delegate, registry, 4, 1);
+
+    CompletableFuture<ContentDownloaderPort.DownloadedContent> result = scheduler.downloadContent("https://a.example/1");
+    for (int attempt = 0; attempt < RetryPolicy.DEFAULT.maxAttempts(); attempt++) {
+      int expected = attempt + 1;
+      await().atMost(Duration.ofSeconds(5)).until(() -> started.size() == expected);
+      open.get(attempt).completeExceptionally(new HostThrottledException("https://a.example/1", 429, Duration.ZERO));
+    }
+
+    assertThat(result).isCompletedExceptionally();
+    assertThat(started).hasSize(RetryPolicy.DEFAULT.maxAttempts());
+  }
+
+  @Test
+  void downloadContent_shouldRetryTransientFailuresAfterABackoff() {
+    DownloadScheduler scheduler = new DownloadScheduler(delegate, registry, 4, 1, FAST_RETRIES, new HostCircuitBreakers());
+
+    CompletableFuture<ContentDownloaderPort.DownloadedContent> result = scheduler.downloadContent("https://a.example/1");
+    open.getFirst().completeExceptionally(serverError("https://a.example/1"));
+
+    await().atMost(Duration.ofSeconds(5)).until(() -> started.size() == 2);
+    open.get(1).complete(content());
+
+    assertThat(result).isCompleted();
+    assertThat(registry.get("linklift.download.retries").tag("reason", "transient").counter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  void downloadContent_shouldNotRetryPermanentFailures() {
+    DownloadScheduler scheduler = new DownloadScheduler(delegate, registry, 4, 1, FAST_RETRIES, new HostCircuitBreakers());
+
+    CompletableFuture<ContentDownloaderPort.DownloadedContent> result = scheduler.downloadContent("https://a.example/missing");
+    open.getFirst().completeExceptionally(new HttpStatusException("https://a.example/missing", 404, null));
+
+    assertThat(result).isCompletedExceptionally();
+    assertThat(started).hasSize(1);
+  }
+
+  @Test
+  void downloadContent_shouldFailFastWhileTheHostCircuitIsOpen() {
+    HostCircuitBreakers breakers = new HostCircuitBreakers(2, Duration.ofMinutes(1), System::nanoTime);
+    DownloadScheduler scheduler = new DownloadScheduler(delegate, registry, 4, 1, new RetryPolicy(1, Duration.ZERO, Duration.ZERO), breakers);
+
+    scheduler.downloadContent("https://a.example/1");
+    scheduler.downloadContent("https://a.example/2");
+    CompletableFuture<ContentDownloaderPort.DownloadedContent> queued = scheduler.downloadContent("https://a.example/3");
+    open.get(0).completeExceptionally(serverError("https://a.example/1"));
+    open.get(1).completeExceptionally(serverError("https://a.example/2"));
+
+    // The breaker opened on the second failure and dropped the request still waiting
+    assertThat(queued).isCompletedExceptionally();
+    assertThat(scheduler.downloadContent("https://a.example/4")).isCompletedExceptionally();
+    assertThat(started).hasSize(2);
+    assertThat(registry.get("linklift.download.circuit.hosts").tag("state", "open").gauge().value()).isEqualTo(1.0);
+    assertThat(registry.get("linklift.download.circuit.rejected").counter().count()).isEqualTo(2.0);
+
+    // Other hosts are unaffected
+    scheduler.downloadContent("https://b.example/1");
+    assertThat(started).hasSize(3);
+  }
+
+  @Test
+  void hostOf_shouldIgnoreCaseAndTolerateMalformedUrls() {
+    assertThat(DownloadScheduler.hostOf("https://WWW.Example.com/path")).isEqualTo("www.example.com");
+    assertThat(DownloadScheduler.hostOf("not a url")).isEmpty();
+  }
+
+  private static HttpStatusException serverError(String url) {
+    return new HttpStatusException(url, 502, null);
+  }
+
+  private static ContentDownloaderPort.DownloadedContent content() {
+    return new ContentDownloaderPort.DownloadedContent("<html></html>", "text/html", 13);
+  }
+}
@@ -0,0 +1,59 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class HostCircuitBreakersTest {
+
+  private final AtomicLong now = new AtomicLong();
+  private final HostCircuitBreakers breakers = new HostCircuitBreakers(3, Duration.ofSeconds(30), now::get);
+
+  @Test
+  void shouldOpenAfterConsecutiveFailuresOnly() {
+    breakers.onFailure("a.example");
+    breakers.onFailure("a.example");
+    breakers.onSuccess("a.example");
+    breakers.onFailure("a.example");
+    breakers.onFailure("a.example");
+    assertThat(breakers.state("a.example")).isEqualTo(HostCircuitBreakers.State.CLOSED);
+
+    assertThat(breakers.onFailure("a.example")).isTrue();
+    assertThat(breakers.state("a.example")).isEqualTo(HostCircuitBreakers.State.OPEN);
+    assertThat(breakers.permits("a.example")).isFalse();
+    assertThat(breakers.permits("b.example")).isTrue();
+  }
+
+  @Test
+  void shouldLetOneTrialThroughOnceTheOpenPeriodPassed() {
+    openBreaker();
+    now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+    assertThat(breakers.state("a.example")).isEqualTo(HostCircuitBreakers.State.HALF_OPEN);
+    assertThat(breakers.permits("a.example")).isTrue();
+    breakers.onStart("a.example");
+    assertThat(breakers.permits("a.example")).isFalse();
+
+    breakers.onSuccess("a.example");
+    assertThat(breakers.state("a.example")).isEqualTo(HostCircuitBreakers.State.CLOSED);
+  }
+
+  @Test
+  void shouldReopenWhenTheTrialFails() {
+    openBreaker();
+    now.addAndGet(Duration.ofSeconds(31).toNanos());
+    breakers.onStart("a.example");
+
+    assertThat(breakers.onFailure("a.example")).isTrue();
+    assertThat(breakers.state("a.example")).isEqualTo(HostCircuitBreakers.State.OPEN);
+    assertThat(breakers.count(HostCircuitBreakers.State.OPEN)).isEqualTo(1);
+  }
+
+  private void openBreaker() {
+    for (int i = 0; i < 3; i++) {
+      breakers.onFailure("a.example");
+    }
+  }
+}
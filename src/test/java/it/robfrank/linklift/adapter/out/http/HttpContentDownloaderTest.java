@@ -3,17 +3,22 @@ package it.robfrank.linklift.adapter.out.http;
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
-import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import it.robfrank.linklift.application.domain.exception.ContentDownloadException;
 import it.robfrank.linklift.application.port.out.ContentDownloaderPort;
+import java.io.ByteArrayOutputStream;
 import java.net.http.HttpClient;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPOutputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
@@ -47,7 +52,6 @@ class HttpContentDownloaderTest {
     // Assert
     assertThat(result).isNotNull();
     assertThat(result.htmlContent()).isEqualTo(htmlContent);
-    assertThat(result.textContent()).contains("Test content");
     assertThat(result.mimeType()).isEqualTo("text/html; charset=UTF-8");
     assertThat(result.contentLength()).isGreaterThan(0);
 
@@ -55,22 +59,47 @@ class HttpContentDownloaderTest {
   }
 
   @Test
-  void downloadContent_shouldExtractTextFromHtml() throws Exception {
+  void downloadContent_shouldReturnValidatorsOfTheResponse() throws Exception {
     // Arrange
-    String url = wireMock.baseUrl() + "/html";
-    String htmlContent = "<html><head><title>Test</title></head><body><h1>Hello</h1><p>World</p></body></html>";
+    String url = wireMock.baseUrl() + "/validated";
+    stubFor(
+      get(urlEqualTo("/validated")).willReturn(
+        aResponse()
+          .withStatus(200)
+          .withHeader("Content-Type", "text/html")
+          .withHeader("ETag", "\"abc\"")
+          .withHeader("Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT")
+          .withBody("<html></html>")
+      )
+    );
 
-    stubFor(get(urlEqualTo("/html")).willReturn(aResponse().withStatus(200).withHeader("Content-Type", "text/html").withBody(htmlContent)));
+    // Act
+    ContentDownloaderPort.DownloadedContent result = httpContentDownloader.downloadContent(url).get();
+
+    // Assert
+    assertThat(result.notModified()).isFalse();
+    assertThat(result.validators()).isEqualTo(new ContentDownloaderPort.Validators("\"abc\"", "Mon, 01 Jan 2024 00:00:00 GMT"));
+  }
+
+  @Test
+  void downloadContent_shouldSendValidatorsAndReportNotModified() throws Exception {
+    // Arrange
+    String url = wireMock.baseUrl() + "/unchanged";
+    stubFor(
+      get(urlEqualTo("/unchanged"))
+        .withHeader("If-None-Match", equalTo("\"abc\""))
+        .withHeader("If-Modified-Since", equalTo("Mon, 01 Jan 2024 00:00:00 GMT"))
+        .willReturn(aResponse().withStatus(304).withHeader("ETag", "\"abc\""))
+    );
 
     // Act
-    CompletableFuture<ContentDownloaderPort.DownloadedContent> future = httpContentDownloader.downloadContent(url);
-    ContentDownloaderPort.DownloadedContent result = future.get();
+    ContentDownloaderPort.DownloadedContent result = httpContentDownloader
+      .downloadContent(url, new ContentDownloaderPort.Validators("\"abc\"", "Mon, 01 Jan 2024 00:00:00 GMT"))
+      .get();
 
     // Assert
-    assertThat(result.textContent()).contains("Hello");
-    assertThat(result.textContent()).contains("World");
-    assertThat(result.textContent()).doesNotContain("<html>");
-    assertThat(result.textContent()).doesNotContain("<body>");
+    assertThat(result.notModified()).isTrue();
+    assertThat(result.validators()).isEqualTo(new ContentDownloaderPort.Validators("\"abc\"", "Mon, 01 Jan 2024 00:00:00 GMT"));
   }
 
   @Test
@@ -110,51 +139,39 @@ class HttpContentDownloaderTest {
       assertThat(e.getCause().getMessage()).contains("Failed to download content from URL");
       // The inner message contains the status code
       assertThat(e.getCause().getCause().getMessage()).contains("HTTP error 404");
+      assertThat(RetryPolicy.isRetryable(e)).isFalse();
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     }
   }
 
   @Test
-  void downloadContent_shouldRetryOnServerError() throws Exception {
+  void downloadContent_shouldReportServerErrorWithoutRetrying() {
     // Arrange
-    String url = wireMock.baseUrl() + "/retry";
-    String htmlContent = "<html><body>Success</body></html>";
+    String url = wireMock.baseUrl() + "/server-error";
 
-    // First call returns 503, second call returns 200
-    stubFor(
-      get(urlEqualTo("/retry"))
-        .inScenario("Retry Scenario")
-        .whenScenarioStateIs(Scenario.STARTED)
-        .willReturn(aResponse().withStatus(503))
-        .willSetStateTo("Succeeded")
-    );
-
-    stubFor(
-      get(urlEqualTo("/retry"))
-        .inScenario("Retry Scenario")
-        .whenScenarioStateIs("Succeeded")
-        .willReturn(aResponse().withStatus(200).withHeader("Content-Type", "text/html").withBody(htmlContent))
-    );
+    stubFor(get(urlEqualTo("/server-error")).willReturn(aResponse().withStatus(503)));
 
     // Act
     CompletableFuture<ContentDownloaderPort.DownloadedContent> future = httpContentDownloader.downloadContent(url);
-    ContentDownloaderPort.DownloadedContent result = future.get();
 
     // Assert
-    assertThat(result).isNotNull();
-    assertThat(result.textContent()).contains("Success");
-
-    // Verify retry happened
-    verify(2, getRequestedFor(urlEqualTo("/retry")));
+    assertThatThrownBy(future::get)
+      .isInstanceOf(ExecutionException.class)
+      .rootCause()
+      .isInstanceOfSatisfying(HttpStatusException.class, e -> assertThat(e.getStatusCode()).isEqualTo(503));
+    assertThat(RetryPolicy.isRetryable(catchThrowable(future::join))).isTrue();
+
+    // Retries are left to the scheduler
+    verify(1, getRequestedFor(urlEqualTo("/server-error")));
   }
 
   @Test
-  void downloadContent_shouldFailAfterMaxRetries() {
+  void downloadContent_shouldHandleNetworkErrors() {
     // Arrange
-    String url = wireMock.baseUrl() + "/fail-retries";
+    String url = wireMock.baseUrl() + "/network-error";
 
-    stubFor(get(urlEqualTo("/fail-retries")).willReturn(aResponse().withStatus(503)));
+    stubFor(get(urlEqualTo("/network-error")).willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
 
     // Act
     CompletableFuture<ContentDownloaderPort.DownloadedContent> future = httpContentDownloader.downloadContent(url);
@@ -165,32 +182,99 @@ class HttpContentDownloaderTest {
     } catch (ExecutionException e) {
       assertThat(e.getCause()).isInstanceOf(ContentDownloadException.class);
       assertThat(e.getCause().getMessage()).contains("Failed to download content from URL");
+      assertThat(RetryPolicy.isRetryable(e)).isTrue();
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     }
+  }
 
-    // Verify all 3 attempts were made
-    verify(3, getRequestedFor(urlEqualTo("/fail-retries")));
+  @Test
+  void downloadContent_shouldRejectNonHtmlWithoutReadingTheBody() {
+    // Arrange
+    String url = wireMock.baseUrl() + "/file.pdf";
+
+    stubFor(get(urlEqualTo("/file.pdf")).willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/pdf").withBody(new byte[4096])));
+
+    // Act & Assert
+    assertThatThrownBy(() -> httpContentDownloader.downloadContent(url).get())
+      .rootCause()
+      .isInstanceOf(ContentRejectedException.class)
+      .hasMessageContaining("application/pdf");
   }
 
   @Test
-  void downloadContent_shouldHandleNetworkErrors() {
+  void downloadContent_shouldRejectDeclaredLengthOverTheCap() {
     // Arrange
-    String url = wireMock.baseUrl() + "/network-error";
+    String url = wireMock.baseUrl() + "/large";
+    HttpContentDownloader capped = new HttpContentDownloader(httpClient, 100);
 
-    stubFor(get(urlEqualTo("/network-error")).willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
+    stubFor(get(urlEqualTo("/large")).willReturn(aResponse().withStatus(200).withHeader("Content-Type", "text/html").withBody("x".repeat(1000))));
+
+    // Act & Assert
+    assertThatThrownBy(() -> capped.downloadContent(url).get()).rootCause().isInstanceOf(ContentRejectedException.class).hasMessageContaining("Content length");
+  }
+
+  @Test
+  void downloadContent_shouldAbortStreamedBodyOverTheCap() {
+    // Arrange
+    String url = wireMock.baseUrl() + "/streamed";
+    HttpContentDownloader capped = new HttpContentDownloader(httpClient, 100);
+
+    // Chunked, so there is no Content-Length to check up front
+    stubFor(
+      get(urlEqualTo("/streamed")).willReturn(
+        aResponse().withStatus(200).withHeader("Content-Type", "text/html").withBody("x".repeat(1000)).withChunkedDribbleDelay(10, 50)
+      )
+    );
+
+    // Act & Assert
+    assertThatThrownBy(() -> capped.downloadContent(url).get()).rootCause().isInstanceOf(ContentRejectedException.class);
+  }
+
+  @Test
+  void downloadContent_shouldDecodeGzipAndDeclaredCharset() throws Exception {
+    // Arrange
+    String url = wireMock.baseUrl() + "/gzip";
+    String htmlContent = "<html><body><p>Caff\u00e8 e perch\u00e9</p></body></html>";
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(htmlContent.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    stubFor(
+      get(urlEqualTo("/gzip")).willReturn(
+        aResponse()
+          .withStatus(200)
+          .withHeader("Content-Type", "text/html; charset=ISO-8859-1")
+          .withHeader("Content-Encoding", "gzip")
+          .withBody(compressed.toByteArray())
+      )
+    );
 
     // Act
-    CompletableFuture<ContentDownloaderPort.DownloadedContent> future = httpContentDownloader.downloadContent(url);
+    ContentDownloaderPort.DownloadedContent result = httpContentDownloader.downloadContent(url).get();
 
     // Assert
-    try {
-      future.get();
-    } catch (ExecutionException e) {
-      assertThat(e.getCause()).isInstanceOf(ContentDownloadException.class);
-      assertThat(e.getCause().getMessage()).contains("Failed to download content after retries");
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-    }
+    assertThat(result.htmlContent()).isEqualTo(htmlContent);
+    assertThat(result.contentLength()).isEqualTo(htmlContent.length());
+  }
+
+  @Test
+  void downloadContent_shouldUseCharsetFromMetaTag() throws Exception {
+    // Arrange
+    String url = wireMock.baseUrl() + "/meta-charset";
+    String htmlContent = "<html><head><meta charset=\"windows-1252\"></head><body>\u20ac 10</body></html>";
+
+    stubFor(
+      get(urlEqualTo("/meta-charset")).willReturn(
+        aResponse().withStatus(200).withHeader("Content-Type", "text/html").withBody(htmlContent.getBytes(Charset.forName("windows-1252")))
+      )
+    );
+
+    // Act
+    ContentDownloaderPort.DownloadedContent result = httpContentDownloader.downloadContent(url).get();
+
+    // Assert
+    assertThat(result.htmlContent()).contains("\u20ac 10");
   }
 }
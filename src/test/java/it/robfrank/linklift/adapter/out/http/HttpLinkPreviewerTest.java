@@ -0,0 +1,103 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import it.robfrank.linklift.application.port.out.LinkPreviewPort;
+import java.net.http.HttpClient;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class HttpLinkPreviewerTest {
+
+  @RegisterExtension
+  static WireMockExtension wireMock = WireMockExtension.newInstance().options(wireMockConfig().dynamicPort()).build();
+
+  private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+  private HttpLinkPreviewer previewer;
+
+  @BeforeEach
+  void setUp() {
+    WireMock.configureFor(wireMock.getPort());
+    previewer = new HttpLinkPreviewer(httpClient, Duration.ofSeconds(1), 1024);
+  }
+
+  @Test
+  void preview_shouldReadTitleAndDescriptionFromTheHead() {
+    stubFor(
+      get(urlEqualTo("/page")).willReturn(
+        aResponse()
+          .withStatus(200)
+          .withHeader("Content-Type", "text/html; charset=UTF-8")
+          .withBody(
+            """
+            <html><head><title>Plain title</title>
+            <meta property="og:title" content="Rock &amp; Roll">
+            <meta name="description" content="A page about music">
+            </head><body>%s</body></html>
+            """.formatted("x".repeat(100_000))
+          )
+      )
+    );
+
+    Optional<LinkPreviewPort.LinkPreview> preview = previewer.preview(wireMock.baseUrl() + "/page");
+
+    assertThat(preview).contains(new LinkPreviewPort.LinkPreview("Rock & Roll", "A page about music", "text/html"));
+  }
+
+  @Test
+  void preview_shouldUseTheMetaCharset_whenTheHeaderHasNone() {
+    Charset latin1 = Charset.forName("ISO-8859-1");
+    stubFor(
+      get(urlEqualTo("/latin1")).willReturn(
+        aResponse()
+          .withStatus(200)
+          .withHeader("Content-Type", "text/html")
+          .withBody("<html><head><meta charset=\"ISO-8859-1\"><title>Café</title></head></html>".getBytes(latin1))
+      )
+    );
+
+    assertThat(previewer.preview(wireMock.baseUrl() + "/latin1")).map(LinkPreviewPort.LinkPreview::title).contains("Café");
+  }
+
+  @Test
+  void preview_shouldReturnOnlyTheType_forPagesThatAreNotHtml() {
+    stubFor(get(urlEqualTo("/file.pdf")).willReturn(aResponse().withStatus(200).withHeader("Content-Type", "application/pdf").withBody(new byte[2048])));
+
+    assertThat(previewer.preview(wireMock.baseUrl() + "/file.pdf")).contains(new LinkPreviewPort.LinkPreview(null, null, "application/pdf"));
+  }
+
+  @Test
+  void preview_shouldBeEmpty_whenTheServerMissesTheDeadline() {
+    stubFor(get(urlEqualTo("/slow")).willReturn(aResponse().withStatus(200).withFixedDelay(3000).withBody("<title>Too late</title>")));
+
+    assertThat(previewer.preview(wireMock.baseUrl() + "/slow")).isEmpty();
+  }
+
+  @Test
+  void preview_shouldBeEmpty_forErrorResponses() {
+    stubFor(get(urlEqualTo("/missing")).willReturn(aResponse().withStatus(404).withBody("<title>Not found</title>")));
+
+    assertThat(previewer.preview(wireMock.baseUrl() + "/missing")).isEmpty();
+  }
+
+  @Test
+  void headTokenizer_shouldSkipScriptsAndComments() {
+    HeadTokenizer.Head head = HeadTokenizer.read(
+      """
+      <head><!-- <title>Commented</title> --><script>document.write("<title>Scripted</title>")</script>
+      <TITLE>  Real
+        title &#8211; site </TITLE><meta name='twitter:description' content=Short></head>
+      """
+    );
+
+    assertThat(head).isEqualTo(new HeadTokenizer.Head("Real title – site", "Short"));
+  }
+}
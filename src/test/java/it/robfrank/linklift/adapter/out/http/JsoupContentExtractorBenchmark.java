@@ -0,0 +1,112 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Extraction cost per page against the extractor it replaced and the single parse it needs.
+ *
+ * <p>Runs over every {@code .html} file in the directory named by {@code linklift.benchmark.corpus},
+ * by default the pages under {@code src/test/resources/benchmark/pages}: a synthetic blog article and
+ * four saved documentation pages from Node.js (MIT) and npm (Artistic-2.0), two of them with an
+ * {@code [role=main]} element and two falling back to the body. Point it at another folder of saved
+ * pages to measure those:
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *   -Dexec.args="-cp %classpath -Dlinklift.benchmark.corpus=/path/to/pages it.robfrank.linklift.adapter.out.http.JsoupContentExtractorBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+public class JsoupContentExtractorBenchmark {
+
+  private static final String BASE_URL = "https://example.com/posts/benchmark";
+  private static final String CORPUS_PROPERTY = "linklift.benchmark.corpus";
+
+  private final JsoupContentExtractor extractor = new JsoupContentExtractor();
+  private final BaselineJsoupContentExtractor baseline = new BaselineJsoupContentExtractor();
+  private List<String> pages;
+
+  @Setup
+  public void loadCorpus() {
+    Path corpus = Path.of(System.getProperty(CORPUS_PROPERTY, "src/test/resources/benchmark/pages"));
+    try (Stream<Path> files = Files.list(corpus)) {
+      pages = files
+        .filter(file -> file.toString().endsWith(".html"))
+        .sorted()
+        .map(file -> {
+          try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        })
+        .toList();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read benchmark corpus " + corpus.toAbsolutePath(), e);
+    }
+    if (pages.isEmpty()) {
+      throw new IllegalStateException("No .html pages in benchmark corpus " + corpus.toAbsolutePath());
+    }
+  }
+
+  /** The floor: one parse per page and nothing else. */
+  @Benchmark
+  public void parseOnly(Blackhole blackhole) {
+    for (String page : pages) {
+      blackhole.consume(Jsoup.parse(page, BASE_URL));
+    }
+  }
+
+  /** The work per page before the rewrite: the downloader's parse for body text, then the old extractor. */
+  @Benchmark
+  public void baseline(Blackhole blackhole) {
+    for (String page : pages) {
+      blackhole.consume(Jsoup.parse(page).body().text());
+      blackhole.consume(baseline.extractMetadata(page, BASE_URL));
+    }
+  }
+
+  @Benchmark
+  public void extractMetadata(Blackhole blackhole) {
+    for (String page : pages) {
+      blackhole.consume(extractor.extractMetadata(page, BASE_URL));
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    OptionsBuilder options = new OptionsBuilder();
+    options.include(JsoupContentExtractorBenchmark.class.getSimpleName());
+    // The forked benchmark JVMs do not inherit system properties
+    if (System.getProperty(CORPUS_PROPERTY) != null) {
+      options.jvmArgsAppend("-D" + CORPUS_PROPERTY + "=" + System.getProperty(CORPUS_PROPERTY));
+    }
+    new Runner(options.build()).run();
+  }
+}
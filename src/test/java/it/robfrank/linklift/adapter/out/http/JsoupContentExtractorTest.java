@@ -0,0 +1,136 @@
+package it.robfrank.linklift.adapter.out.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import it.robfrank.linklift.application.port.out.ContentExtractorPort.ExtractedMetadata;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class JsoupContentExtractorTest {
+
+  private final JsoupContentExtractor extractor = new JsoupContentExtractor();
+
+  @Test
+  void extractMetadata_shouldPreferOpenGraphOverOtherSources() {
+    String html = """
+      <html><head>
+        <title>Page title</title>
+        <meta name="description" content="Plain description">
+        <meta property="og:description" content="OG description">
+        <meta name="twitter:title" content="Twitter title">
+        <meta property="og:title" content="OG title">
+        <meta name="author" content="Jane Doe">
+        <meta property="article:published_time" content="2024-05-01T10:00:00Z">
+        <meta property="og:image" content="/images/hero.png">
+      </head><body><p>Body</p></body></html>
+      """;
+
+    ExtractedMetadata metadata = extractor.extractMetadata(html, "https://example.com/posts/1");
+
+    assertThat(metadata.title()).isEqualTo("OG title");
+    assertThat(metadata.description()).isEqualTo("OG description");
+    assertThat(metadata.author()).isEqualTo("Jane Doe");
+    assertThat(metadata.publishedDate()).isEqualTo("2024-05-01T10:00:00Z");
+    assertThat(metadata.heroImageUrl()).isEqualTo("https://example.com/images/hero.png");
+  }
+
+  @Test
+  void extractMetadata_shouldFallBackToDocumentTitleAndPageElements() {
+    String html = """
+      <html><head><title>Page title</title></head><body>
+        <a rel="author" href="/about">John Smith</a>
+        <time datetime="2023-01-01">Jan 1</time>
+        <img src="first.jpg">
+      </body></html>
+      """;
+
+    ExtractedMetadata metadata = extractor.extractMetadata(html, "https://example.com/posts/1");
+
+    assertThat(metadata.title()).isEqualTo("Page title");
+    assertThat(metadata.description()).isNull();
+    assertThat(metadata.author()).isEqualTo("John Smith");
+    assertThat(metadata.publishedDate()).isEqualTo("2023-01-01");
+    assertThat(metadata.heroImageUrl()).isEqualTo("https://example.com/posts/first.jpg");
+  }
+
+  @Test
+  void extractMetadata_shouldTakeMainContentWithoutBoilerplate() {
+    String html = """
+      <html><body>
+        <nav><a href="https://example.com/home">Home</a></nav>
+        <div class="content">Generic content</div>
+        <article>
+          <header>Article header</header>
+          <p>Article text</p>
+          <script>track()</script>
+          <div class="ad">Buy now</div>
+        </article>
+        <footer>Footer</footer>
+      </body></html>
+      """;
+
+    ExtractedMetadata metadata = extractor.extractMetadata(html, "https://example.com/");
+
+    assertThat(metadata.textContent()).isEqualTo("Article text");
+    assertThat(metadata.mainContent()).contains("<p>Article text</p>").doesNotContain("script", "Buy now", "Article header");
+    assertThat(metadata.extractedUrls()).containsExactly("https://example.com/home");
+  }
+
+  @Test
+  void extractMetadata_shouldSkipLinksInTheBoilerplateOfTheMainContent() {
+    String html = """
+      <html><body>
+        <header><a href="https://example.com/home">Home</a></header>
+        <article>
+          <p>See <a href="https://example.org/cited">this</a>.</p>
+          <div class="ad"><a href="https://ads.example.net/click">Buy now</a></div>
+          <footer><a href="https://example.com/tags/java">java</a></footer>
+        </article>
+      </body></html>
+      """;
+
+    ExtractedMetadata metadata = extractor.extractMetadata(html, "https://example.com/");
+
+    assertThat(metadata.extractedUrls()).containsExactly("https://example.com/home", "https://example.org/cited");
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = { "blog-article.html", "nodejs-console.html", "nodejs-os.html", "npm-install.html", "npm-scripts.html" })
+  void extractMetadata_shouldMatchTheBaselineExtractorOnSavedPages(String page) throws IOException {
+    String html;
+    try (InputStream in = getClass().getResourceAsStream("/benchmark/pages/" + page)) {
+      html = new String(Objects.requireNonNull(in).readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    ExtractedMetadata expected = new BaselineJsoupContentExtractor().extractMetadata(html, "https://example.com/posts/1");
+
+    assertThat(extractor.extractMetadata(html, "https://example.com/posts/1")).isEqualTo(expected);
+  }
+
+  @Test
+  void extractMetadata_shouldUseBodyWhenThereIsNoMainContentElement() {
+    String html = "<html><body><nav>Menu</nav><h1>Hello</h1><p>World</p><footer>Footer</footer></body></html>";
+
+    ExtractedMetadata metadata = extractor.extractMetadata(html, "https://example.com/");
+
+    assertThat(metadata.textContent()).isEqualTo("Hello World");
+  }
+
+  @Test
+  void extractMetadata_shouldResolveDeduplicateAndLimitUrls() {
+    String links = IntStream.range(0, 250).mapToObj(i -> "<a href=\"/page/" + i + "\">" + i + "</a>").collect(Collectors.joining());
+    String html = "<html><body><a href=\"/page/0\">again</a><a href=\"mailto:me@example.com\">mail</a>" + links + "</body></html>";
+
+    ExtractedMetadata metadata = extractor.extractMetadata(html, "https://example.com/");
+
+    assertThat(metadata.extractedUrls()).hasSize(200).doesNotHaveDuplicates().allMatch(url -> url.startsWith("https://example.com/page/"));
+    assertThat(metadata.extractedUrls().getFirst()).isEqualTo("https://example.com/page/0");
+  }
+}
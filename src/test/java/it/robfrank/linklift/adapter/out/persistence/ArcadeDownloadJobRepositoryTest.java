@@ -0,0 +1,175 @@
+package it.robfrank.linklift.adapter.out.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.arcadedb.Constants;
+import com.arcadedb.remote.RemoteDatabase;
+import com.github.dockerjava.api.command.CreateContainerCmd;
+import it.robfrank.linklift.application.domain.model.DownloadJob;
+import it.robfrank.linklift.application.domain.model.DownloadStatus;
+import it.robfrank.linklift.config.DatabaseInitializer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers
+class ArcadeDownloadJobRepositoryTest {
+
+  @Container
+  private static final GenericContainer arcadeDBContainer = new GenericContainer("arcadedata/arcadedb:" + Constants.getRawVersion())
+    .withExposedPorts(2480)
+    .withStartupTimeout(Duration.ofSeconds(90))
+    .withEnv(
+      "JAVA_OPTS",
+      """
+      -Darcadedb.dateImplementation=java.time.LocalDate
+      -Darcadedb.dateTimeImplementation=java.time.LocalDateTime
+      -Darcadedb.server.rootPassword=playwithdata
+      -Darcadedb.server.plugins=Postgres:com.arcadedb.postgres.PostgresProtocolPlugin
+      """
+    )
+    .withCreateContainerCmdModifier(cmd -> ((CreateContainerCmd) cmd).withUser("root"))
+    .waitingFor(Wait.forHttp("/api/v1/ready").forPort(2480).forStatusCode(204));
+
+  private RemoteDatabase database;
+  private ArcadeDownloadJobRepository repository;
+
+  @BeforeAll
+  static void setup() {
+    new DatabaseInitializer(arcadeDBContainer.getHost(), arcadeDBContainer.getMappedPort(2480), "root", "playwithdata").initializeDatabase();
+  }
+
+  @BeforeEach
+  void setUp() {
+    database = new RemoteDatabase(arcadeDBContainer.getHost(), arcadeDBContainer.getMappedPort(2480), "linklift", "root", "playwithdata");
+    repository = new ArcadeDownloadJobRepository(database);
+    database.command("sql", "DELETE FROM DownloadJob");
+    database.command("sql", "DELETE FROM RecrawlBudget");
+  }
+
+  @Test
+  void shouldLeaseEachJobToOneWorker() {
+    repository.enqueueJobs(List.of(DownloadJob.pending("link-1", "https://example.com/1"), DownloadJob.pending("link-2", "https://example.com/2")));
+
+    List<DownloadJob> first = repository.claimJobs("worker-1", 10, Duration.ofMinutes(10));
+    List<DownloadJob> second = repository.claimJobs("worker-2", 10, Duration.ofMinutes(10));
+
+    assertThat(first).extracting(DownloadJob::linkId).containsExactlyInAnyOrder("link-1", "link-2");
+    assertThat(first).allSatisfy(job -> {
+      assertThat(job.status()).isEqualTo(DownloadStatus.IN_PROGRESS);
+      assertThat(job.leaseOwner()).isEqualTo("worker-1");
+      assertThat(job.attempts()).isEqualTo(1);
+    });
+    assertThat(second).isEmpty();
+  }
+
+  @Test
+  void shouldReclaimJobsWhoseLeaseExpired() {
+    repository.enqueueJobs(List.of(DownloadJob.pending("link-1", "https://example.com/1")));
+    repository.claimJobs("crashed-worker", 10, Duration.ZERO.minusMillis(1));
+
+    List<DownloadJob> reclaimed = repository.claimJobs("worker-2", 10, Duration.ofMinutes(10));
+
+    assertThat(reclaimed).singleElement().satisfies(job -> {
+      assertThat(job.leaseOwner()).isEqualTo("worker-2");
+      assertThat(job.attempts()).isEqualTo(2);
+    });
+  }
+
+  @Test
+  void shouldIgnoreCompletionFromAWorkerThatLostTheLease() {
+    repository.enqueueJobs(List.of(DownloadJob.pending("link-1", "https://example.com/1")));
+    DownloadJob job = repository.claimJobs("worker-1", 10, Duration.ofMinutes(10)).getFirst();
+
+    repository.completeJob(job.id(), "worker-2");
+    assertThat(countJobs()).isEqualTo(1);
+
+    repository.completeJob(job.id(), "worker-1");
+    assertThat(countJobs()).isZero();
+  }
+
+  @Test
+  void shouldResetTheJobWhenALinkIsQueuedAgain() {
+    repository.enqueueJobs(List.of(DownloadJob.pending("link-1", "https://example.com/1")));
+    DownloadJob job = repository.claimJobs("worker-1", 10, Duration.ofMinutes(10)).getFirst();
+    repository.failJob(job.id(), "worker-1", "HTTP error 500");
+
+    repository.enqueueJobs(List.of(DownloadJob.pending("link-1", "https://example.com/1")));
+
+    assertThat(countJobs()).isEqualTo(1);
+    assertThat(repository.claimJobs("worker-1", 10, Duration.ofMinutes(10))).singleElement().extracting(DownloadJob::attempts).isEqualTo(1);
+  }
+
+  @Test
+  void shouldClaimUserRequestedJobsBeforeBackgroundOnes() {
+    repository.enqueueJobs(List.of(DownloadJob.background("link-1", "https://example.com/1")));
+    repository.enqueueJobs(List.of(DownloadJob.pending("link-2", "https://example.com/2")));
+
+    assertThat(repository.claimJobs("worker-1", 1, Duration.ofMinutes(10))).singleElement().extracting(DownloadJob::linkId).isEqualTo("link-2");
+  }
+
+  @Test
+  void offerJobs_shouldLeaveQueuedLinksAlone() {
+    repository.enqueueJobs(List.of(DownloadJob.pending("link-1", "https://example.com/1")));
+
+    int queued = repository.offerJobs(List.of(DownloadJob.background("link-1", "https://example.com/1"), DownloadJob.background("link-2", "https://example.com/2")));
+
+    assertThat(queued).isEqualTo(1);
+    assertThat(repository.claimJobs("worker-1", 10, Duration.ofMinutes(10)))
+      .extracting(DownloadJob::linkId, DownloadJob::priority)
+      .containsExactly(tuple("link-1", DownloadJob.NORMAL_PRIORITY), tuple("link-2", DownloadJob.BACKGROUND_PRIORITY));
+  }
+
+  @Test
+  void offerJobs_shouldNotResetAClaimedJobButReplaceAFailedOne() {
+    repository.enqueueJobs(List.of(DownloadJob.pending("link-1", "https://example.com/1"), DownloadJob.pending("link-2", "https://example.com/2")));
+    List<DownloadJob> claimed = repository.claimJobs("worker-1", 2, Duration.ofMinutes(10));
+    repository.failJob(claimed.get(1).id(), "worker-1", "HTTP error 500");
+
+    int queued = repository.offerJobs(List.of(DownloadJob.background("link-1", "https://example.com/1"), DownloadJob.background("link-2", "https://example.com/2")));
+
+    assertThat(queued).isEqualTo(1);
+    assertThat(database.query("sql", "SELECT linkId, status, leaseOwner FROM DownloadJob ORDER BY linkId").stream().toList())
+      .extracting(row -> row.<String>getProperty("linkId"), row -> row.<String>getProperty("status"), row -> row.<String>getProperty("leaseOwner"))
+      .containsExactlyInAnyOrder(
+        tuple(claimed.get(0).linkId(), DownloadStatus.IN_PROGRESS.name(), "worker-1"),
+        tuple(claimed.get(1).linkId(), DownloadStatus.PENDING.name(), null)
+      );
+  }
+
+  @Test
+  void recheckBudget_shouldBeSharedAndCappedAtItsCapacity() {
+    ArcadeDownloadJobRepository otherNode = new ArcadeDownloadJobRepository(database);
+
+    assertThat(repository.takeRecheckBudget(5, 120, 2)).isEqualTo(2);
+    assertThat(otherNode.takeRecheckBudget(5, 120, 2)).isZero();
+
+    otherNode.returnRecheckBudget(5, 2);
+    assertThat(repository.takeRecheckBudget(5, 120, 2)).isEqualTo(2);
+  }
+
+  @Test
+  void purgeFailedJobs_shouldKeepRecentFailuresAndQueuedJobs() {
+    repository.enqueueJobs(List.of(DownloadJob.pending("link-1", "https://example.com/1"), DownloadJob.pending("link-2", "https://example.com/2")));
+    DownloadJob job = repository.claimJobs("worker-1", 1, Duration.ofMinutes(10)).getFirst();
+    repository.failJob(job.id(), "worker-1", "HTTP error 500");
+
+    repository.purgeFailedJobs(Instant.now().minus(Duration.ofDays(7)));
+    assertThat(countJobs()).isEqualTo(2);
+
+    repository.purgeFailedJobs(Instant.now().plusSeconds(1));
+    assertThat(countJobs()).isEqualTo(1);
+  }
+
+  private long countJobs() {
+    return database.query("sql", "SELECT count(*) as count FROM DownloadJob").next().<Number>getProperty("count").longValue();
+  }
+}
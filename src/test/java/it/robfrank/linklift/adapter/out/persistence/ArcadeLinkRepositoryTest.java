@@ -8,11 +8,13 @@ import com.github.dockerjava.api.command.CreateContainerCmd;
 import it.robfrank.linklift.application.domain.model.Link;
 import it.robfrank.linklift.application.domain.model.LinkPage;
 import it.robfrank.linklift.application.domain.model.ReadStatus;
+import it.robfrank.linklift.application.domain.model.Tag;
 import it.robfrank.linklift.application.port.in.ListLinksQuery;
 import it.robfrank.linklift.config.DatabaseInitializer;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeAll;
@@ -99,6 +101,37 @@ class ArcadeLinkRepositoryTest {
     assertThat(foundLink.get()).isEqualTo(testLink);
   }
 
+  @Test
+  void shouldFindLinkByAnotherSpellingOfItsUrl() {
+    Link testLink = new Link(
+      UUID.randomUUID().toString(),
+      "https://example-canonical.com/page?b=2&a=1",
+      "Test Title",
+      "Test Description",
+      LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+      "text/html",
+      List.of(),
+      ReadStatus.UNREAD,
+      false,
+      false
+    );
+    linkRepository.saveLink(testLink);
+
+    String variant = "http://WWW.example-canonical.com/page/?a=1&utm_source=feed&b=2#top";
+
+    assertThat(linkRepository.findLinkByUrl(variant)).contains(testLink);
+    assertThat(linkRepository.findExistingUrls(List.of(variant, "https://example-canonical.com/other"))).containsExactly(variant);
+  }
+
+  @Test
+  void shouldBackfillUrlHashesOfLinksSavedWithoutOne() {
+    String id = UUID.randomUUID().toString();
+    database.command("sql", "INSERT INTO Link SET id = ?, url = ?, extractedAt = ?", id, "https://example-legacy.com/", "2024-01-01 00:00:00");
+
+    assertThat(linkRepository.backfillUrlHashes()).isPositive();
+    assertThat(linkRepository.findLinkByUrl("https://example-legacy.com")).map(Link::id).contains(id);
+  }
+
   @Test
   void shouldFindLinkByid() {
     Link testLink = new Link(
@@ -178,4 +211,161 @@ class ArcadeLinkRepositoryTest {
     assertThat(linkRepository.findLinkByIdAndUserId(link.id(), other)).isEmpty();
     assertThat(linkRepository.findLinkByIdAndUserId("does-not-exist", owner)).isEmpty();
   }
+
+  @Test
+  void findLinksWithPaginationForUser_walksAllPagesWithKeysetCursor() {
+    String userId = UUID.randomUUID().toString();
+    database.command(
+      "sql",
+      "INSERT INTO User SET id = ?, username = ?, email = ?, passwordHash = 'h', salt = 's', createdAt = sysdate(), isActive = true",
+      userId,
+      "u-" + userId,
+      userId + "@test.local"
+    );
+
+    // Two links share a timestamp so the id tie-breaker is exercised
+    LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    List<LocalDateTime> times = List.of(base, base.minusMinutes(1), base.minusMinutes(1), base.minusMinutes(2), base.minusMinutes(3));
+    for (int i = 0; i < times.size(); i++) {
+      Link link = new Link(
+        UUID.randomUUID().toString(),
+        "https://keyset-" + userId + "-" + i + ".example",
+        "Link " + i,
+        "d",
+        times.get(i),
+        "text/html",
+        List.of(),
+        ReadStatus.UNREAD,
+        false,
+        false
+      );
+      linkRepository.saveLinkForUser(link, userId);
+    }
+
+    List<String> seen = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      ListLinksQuery query = ListLinksQuery.forUserWithFiltersAndTag(0, 2, "extractedAt", "DESC", userId, null, null, null, null, cursor);
+      LinkPage page = linkRepository.findLinksWithPaginationForUser(query, userId);
+      page.content().forEach(link -> seen.add(link.id()));
+      assertThat(page.totalElements()).isEqualTo(5);
+      cursor = page.nextCursor();
+      assertThat(page.hasNext()).isEqualTo(cursor != null);
+      pages++;
+    } while (cursor != null);
+
+    assertThat(pages).isEqualTo(3);
+    assertThat(seen).hasSize(5).doesNotHaveDuplicates();
+  }
+
+  @Test
+  void findLinksWithPaginationForUser_keepsCounterTotalsInSyncWithWrites() {
+    String userId = UUID.randomUUID().toString();
+    database.command(
+      "sql",
+      "INSERT INTO User SET id = ?, username = ?, email = ?, passwordHash = 'h', salt = 's', createdAt = sysdate(), isActive = true",
+      userId,
+      "u-" + userId,
+      userId + "@test.local"
+    );
+
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    List<Link> links = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Link link = new Link(
+        UUID.randomUUID().toString(),
+        "https://counter-" + userId + "-" + i + ".example",
+        "Link " + i,
+        "d",
+        now.minusMinutes(i),
+        "text/html",
+        List.of(),
+        ReadStatus.UNREAD,
+        false,
+        false
+      );
+      links.add(link);
+      linkRepository.saveLinkForUser(link, userId);
+      if (i == 0) {
+        // First read builds the counter; later writes must keep it current
+        assertThat(totalFor(userId, null, null)).isEqualTo(1);
+      }
+    }
+
+    Link first = links.getFirst();
+    linkRepository.updateLink(
+      new Link(first.id(), first.url(), first.title(), first.description(), first.extractedAt(), first.contentType(), List.of(), ReadStatus.READ, false, true)
+    );
+    linkRepository.deleteLink(links.getLast().id());
+
+    assertThat(totalFor(userId, null, null)).isEqualTo(2);
+    assertThat(totalFor(userId, ReadStatus.READ, null)).isEqualTo(1);
+    assertThat(totalFor(userId, ReadStatus.UNREAD, null)).isEqualTo(1);
+    assertThat(totalFor(userId, null, true)).isEqualTo(1);
+  }
+
+  @Test
+  void findLinksWithPaginationForUser_countsWritesMadeWhileTheCounterIsBuilt() {
+    String userId = UUID.randomUUID().toString();
+    database.command(
+      "sql",
+      "INSERT INTO User SET id = ?, username = ?, email = ?, passwordHash = 'h', salt = 's', createdAt = sysdate(), isActive = true",
+      userId,
+      "u-" + userId,
+      userId + "@test.local"
+    );
+    linkRepository.saveLinkForUser(unreadLink("https://race-" + userId + "-0.example"), userId);
+    linkRepository.saveLinkForUser(unreadLink("https://race-" + userId + "-1.example"), userId);
+    // A counter created by a rebuild that has not counted yet: a link saved now only adjusts it
+    database.command("sql", "INSERT INTO LinkCounter SET userId = ?, unread_active_plain = 0", userId);
+    linkRepository.saveLinkForUser(unreadLink("https://race-" + userId + "-2.example"), userId);
+
+    assertThat(totalFor(userId, null, null)).isEqualTo(3);
+
+    linkRepository.saveLinkForUser(unreadLink("https://race-" + userId + "-3.example"), userId);
+    assertThat(totalFor(userId, null, null)).isEqualTo(4);
+  }
+
+  @Test
+  void findLinksWithPaginationForUser_filtersTaggedLinksByOwner() {
+    String userId = UUID.randomUUID().toString();
+    database.command(
+      "sql",
+      "INSERT INTO User SET id = ?, username = ?, email = ?, passwordHash = 'h', salt = 's', createdAt = sysdate(), isActive = true",
+      userId,
+      "u-" + userId,
+      userId + "@test.local"
+    );
+    ArcadeTagRepository tagRepository = new ArcadeTagRepository(database);
+    Tag tag = tagRepository.save(new Tag(UUID.randomUUID().toString(), "owner-scan-" + userId, userId, null));
+
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    Link tagged = new Link(UUID.randomUUID().toString(), "https://tagged-" + userId + ".example", "T", "d", now, "text/html", List.of(), ReadStatus.READ, false, false);
+    Link untagged = new Link(UUID.randomUUID().toString(), "https://untagged-" + userId + ".example", "U", "d", now, "text/html", List.of(), ReadStatus.READ, false, false);
+    linkRepository.saveLinkForUser(tagged, userId);
+    linkRepository.saveLinkForUser(untagged, userId);
+    tagRepository.addTagToLink(tagged.id(), tag.id());
+
+    ListLinksQuery byTag = ListLinksQuery.forUserWithFiltersAndTag(0, 20, "extractedAt", "DESC", userId, null, null, null, tag.id());
+    ListLinksQuery byTagAndStatus = ListLinksQuery.forUserWithFiltersAndTag(0, 20, "extractedAt", "DESC", userId, ReadStatus.READ, null, null, tag.id());
+    ListLinksQuery otherUser = ListLinksQuery.forUserWithFiltersAndTag(0, 20, "extractedAt", "DESC", "someone-else", null, null, null, tag.id());
+
+    assertThat(linkRepository.findLinksWithPaginationForUser(byTag, userId).content()).extracting(Link::id).containsExactly(tagged.id());
+    assertThat(linkRepository.findLinksWithPaginationForUser(byTagAndStatus, userId).totalElements()).isEqualTo(1);
+    LinkPage foreign = linkRepository.findLinksWithPaginationForUser(otherUser, "someone-else");
+    assertThat(foreign.content()).isEmpty();
+    assertThat(foreign.totalElements()).isZero();
+    assertThat(linkRepository.getLinkOwner(tagged.id())).hasValue(userId);
+  }
+
+  private static Link unreadLink(String url) {
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+    return new Link(UUID.randomUUID().toString(), url, "L", "d", now, "text/html", List.of(), ReadStatus.UNREAD, false, false);
+  }
+
+  private long totalFor(String userId, ReadStatus readStatus, Boolean favorited) {
+    ListLinksQuery query = ListLinksQuery.forUserWithFiltersAndTag(0, 20, "extractedAt", "DESC", userId, readStatus, null, favorited, null);
+    return linkRepository.findLinksWithPaginationForUser(query, userId).totalElements();
+  }
 }
@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import com.arcadedb.Constants;
 import com.arcadedb.remote.RemoteDatabase;
 import com.github.dockerjava.api.command.CreateContainerCmd;
+import it.robfrank.linklift.application.domain.model.ContentChunk;
 import it.robfrank.linklift.application.domain.model.Link;
 import it.robfrank.linklift.application.domain.model.ReadStatus;
 import it.robfrank.linklift.application.domain.model.User;
@@ -12,6 +13,7 @@ import it.robfrank.linklift.config.DatabaseInitializer;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeAll;
@@ -285,6 +287,9 @@ class GraphOperationsTest {
       false
     );
     linkRepository.saveLinkForUser(testLink, userId);
+    float[] embedding = new float[384];
+    Arrays.fill(embedding, 0.1f);
+    new ArcadeContentRepository(database).replaceChunks(linkId, List.of(new ContentChunk(linkId, 0, "Testing deletion", embedding)));
 
     // Verify link exists and relationship exists
     assertThat(linkRepository.findLinkById(linkId)).isPresent();
@@ -293,9 +298,10 @@ class GraphOperationsTest {
     // When: Delete the link
     linkRepository.deleteLink(linkId);
 
-    // Then: Link should be deleted and relationship should be gone
+    // Then: Link should be deleted and relationship and passages should be gone
     assertThat(linkRepository.findLinkById(linkId)).isEmpty();
     assertThat(linkRepository.userOwnsLink(userId, linkId)).isFalse();
+    assertThat(database.query("sql", "SELECT FROM ContentChunk WHERE linkId = ?", linkId).hasNext()).isFalse();
   }
 
   @Test
@@ -377,6 +383,139 @@ class GraphOperationsTest {
     assertThat(count).isGreaterThan(0L);
   }
 
+  @Test
+  void shouldSyncOnlyTheDeltaOfConnections() {
+    // Given: a user owning a source link and three potential targets
+    String userId = UUID.randomUUID().toString();
+    userRepository.save(
+      new User(
+        userId,
+        "deltatestuser",
+        "delta@example.com",
+        "hashedPassword",
+        "salt",
+        LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+        null,
+        true,
+        "Delta",
+        "User",
+        null
+      )
+    );
+    String sourceLinkId = UUID.randomUUID().toString();
+    List<String> targetUrls = List.of("https://link-delta-a.com", "https://link-delta-b.com", "https://link-delta-c.com");
+    for (String url : targetUrls) {
+      linkRepository.saveLinkForUser(link(UUID.randomUUID().toString(), url), userId);
+    }
+    linkRepository.saveLinkForUser(link(sourceLinkId, "https://link-delta-source.com"), userId);
+
+    linkRepository.syncLinkConnections(sourceLinkId, List.of(targetUrls.get(0), targetUrls.get(1), "https://not-stored.com"));
+    String keptEdge = edgeRid(sourceLinkId, targetUrls.get(0));
+
+    // When: the page now links to a and c only
+    linkRepository.syncLinkConnections(sourceLinkId, List.of(targetUrls.get(0), targetUrls.get(2), targetUrls.get(0)));
+
+    // Then: b is dropped, c is added and the edge to a is left untouched
+    List<String> linkedUrls = database
+      .query("sql", "SELECT out('linksTo').url as urls FROM Link WHERE id = ?", sourceLinkId)
+      .next()
+      .<List<String>>getProperty("urls");
+    assertThat(linkedUrls).containsExactlyInAnyOrder(targetUrls.get(0), targetUrls.get(2));
+    assertThat(edgeRid(sourceLinkId, targetUrls.get(0))).isEqualTo(keptEdge);
+  }
+
+  @Test
+  void shouldNotLinkAPageToItself_whenItLinksToItsOwnFragments() {
+    // Given: a page whose table of contents points at its own sections
+    String userId = UUID.randomUUID().toString();
+    userRepository.save(
+      new User(
+        userId,
+        "selflinktestuser",
+        "selflink@example.com",
+        "hashedPassword",
+        "salt",
+        LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+        null,
+        true,
+        "Self",
+        "Link",
+        null
+      )
+    );
+    String sourceLinkId = UUID.randomUUID().toString();
+    String targetLinkId = UUID.randomUUID().toString();
+    linkRepository.saveLinkForUser(link(sourceLinkId, "https://link-self-source.com/guide"), userId);
+    linkRepository.saveLinkForUser(link(targetLinkId, "https://link-self-target.com"), userId);
+
+    // When
+    linkRepository.syncLinkConnections(
+      sourceLinkId,
+      List.of("https://link-self-source.com/guide#install", "https://link-self-source.com/guide/#usage", "https://link-self-target.com")
+    );
+
+    // Then: only the other page is linked and the page's own URL is not left waiting either
+    List<String> linkedIds = database
+      .query("sql", "SELECT out('linksTo').id as ids FROM Link WHERE id = ?", sourceLinkId)
+      .next()
+      .<List<String>>getProperty("ids");
+    assertThat(linkedIds).containsExactly(targetLinkId);
+    assertThat(database.query("sql", "SELECT FROM PendingBacklink WHERE sourceId = ?", sourceLinkId).hasNext()).isFalse();
+  }
+
+  @Test
+  void shouldLinkWaitingSourcesWhenReferencedUrlIsSavedLater() {
+    // Given: a page referencing a URL nobody has saved yet
+    String userId = UUID.randomUUID().toString();
+    userRepository.save(
+      new User(
+        userId,
+        "pendingtestuser",
+        "pending@example.com",
+        "hashedPassword",
+        "salt",
+        LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS),
+        null,
+        true,
+        "Pending",
+        "User",
+        null
+      )
+    );
+    String sourceLinkId = UUID.randomUUID().toString();
+    linkRepository.saveLinkForUser(link(sourceLinkId, "https://link-pending-source.com"), userId);
+    linkRepository.syncLinkConnections(sourceLinkId, List.of("https://LINK-pending-target.com/page#section"));
+
+    // When: the referenced page is saved
+    String targetLinkId = UUID.randomUUID().toString();
+    linkRepository.saveLinkForUser(link(targetLinkId, "https://link-pending-target.com/page"), userId);
+
+    // Then: the waiting source links to it and nothing is pending anymore
+    List<String> linkedIds = database
+      .query("sql", "SELECT out('linksTo').id as ids FROM Link WHERE id = ?", sourceLinkId)
+      .next()
+      .<List<String>>getProperty("ids");
+    assertThat(linkedIds).containsExactly(targetLinkId);
+    assertThat(database.query("sql", "SELECT FROM PendingBacklink WHERE sourceId = ?", sourceLinkId).hasNext()).isFalse();
+  }
+
+  private Link link(String id, String url) {
+    return new Link(id, url, "Title", "Description", LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), "text/html", List.of(), ReadStatus.UNREAD, false, false);
+  }
+
+  private String edgeRid(String sourceLinkId, String targetUrl) {
+    return database
+      .query(
+        "sql",
+        "SELECT @rid as rid FROM (SELECT expand(outE('linksTo')) FROM Link WHERE id = ?) WHERE in.url = ?",
+        sourceLinkId,
+        targetUrl
+      )
+      .next()
+      .getProperty("rid")
+      .toString();
+  }
+
   private void cleanupTestData() {
     try {
       // Clean up any existing test data
@@ -0,0 +1,82 @@
+package it.robfrank.linklift.adapter.out.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import it.robfrank.linklift.application.domain.model.GraphData;
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class GraphSnapshotCacheTest {
+
+  private static final GraphSnapshot SNAPSHOT = GraphSnapshot.of(List.of(new GraphData.LinkNode("a", "A", "https://a.example")), List.of());
+
+  @Test
+  void get_shouldServeTheCachedSnapshotUntilItExpires() {
+    AtomicInteger loads = new AtomicInteger();
+    GraphSnapshotCache cache = new GraphSnapshotCache(8, Duration.ofMinutes(5));
+
+    cache.get("user-1", () -> {
+      loads.incrementAndGet();
+      return SNAPSHOT;
+    });
+    GraphSnapshot cached = cache.get("user-1", () -> {
+      loads.incrementAndGet();
+      return GraphSnapshot.EMPTY;
+    });
+
+    assertThat(cached).isSameAs(SNAPSHOT);
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void get_shouldReloadAnExpiredSnapshot() {
+    GraphSnapshotCache cache = new GraphSnapshotCache(8, Duration.ZERO);
+    cache.get("user-1", () -> SNAPSHOT);
+
+    assertThat(cache.get("user-1", () -> GraphSnapshot.EMPTY)).isSameAs(GraphSnapshot.EMPTY);
+  }
+
+  @Test
+  void update_shouldApplyLocalWritesToTheCachedSnapshot() {
+    GraphSnapshotCache cache = new GraphSnapshotCache(8, Duration.ofMinutes(5));
+    cache.get("user-1", () -> SNAPSHOT);
+
+    cache.update("user-1", snapshot -> snapshot.withNode("b", "B", "https://b.example"));
+
+    assertThat(cache.get("user-1", () -> GraphSnapshot.EMPTY).ids()).containsExactly("a", "b");
+  }
+
+  @Test
+  void get_shouldCacheALoad_whenOnlyOtherUsersLinksAreWrittenMeanwhile() {
+    GraphSnapshotCache cache = new GraphSnapshotCache(8, Duration.ofMinutes(5));
+
+    cache.get("user-1", () -> {
+      cache.update("user-2", snapshot -> snapshot.withNode("c", "C", "https://c.example"));
+      cache.updateContaining("c", snapshot -> snapshot.withoutNode("c"));
+      cache.invalidate(List.of("user-2"));
+      return SNAPSHOT;
+    });
+
+    assertThat(cache.get("user-1", () -> GraphSnapshot.EMPTY)).isSameAs(SNAPSHOT);
+  }
+
+  @Test
+  void get_shouldNotCacheALoad_whenALinkItContainsIsWrittenMeanwhile() {
+    GraphSnapshotCache cache = new GraphSnapshotCache(8, Duration.ofMinutes(5));
+
+    cache.get("user-1", () -> {
+      cache.updateContaining("a", snapshot -> snapshot.withoutNode("a"));
+      return SNAPSHOT;
+    });
+    cache.get("user-2", () -> {
+      cache.update("user-2", snapshot -> snapshot.withNode("b", "B", "https://b.example"));
+      return SNAPSHOT;
+    });
+
+    assertThat(cache.get("user-1", () -> GraphSnapshot.EMPTY)).isSameAs(GraphSnapshot.EMPTY);
+    assertThat(cache.get("user-2", () -> GraphSnapshot.EMPTY)).isSameAs(GraphSnapshot.EMPTY);
+  }
+}
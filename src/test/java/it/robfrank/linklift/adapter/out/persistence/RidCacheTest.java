@@ -0,0 +1,95 @@
+package it.robfrank.linklift.adapter.out.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.arcadedb.database.Database;
+import com.arcadedb.remote.RemoteDatabase;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class RidCacheTest {
+
+  @Test
+  void put_shouldCacheOnlyWellFormedRids() {
+    RidCache cache = new RidCache();
+
+    cache.put("Link", "a", "#12:34");
+    cache.put("Link", "b", "12:34; DELETE FROM Link");
+    cache.put("Link", "c", "#12:-2");
+
+    assertThat(cache.get("Link", "a")).contains("#12:34");
+    assertThat(cache.get("Link", "b")).isEmpty();
+    assertThat(cache.get("Link", "c")).isEmpty();
+    assertThat(cache.get("Tag", "a")).isEmpty();
+  }
+
+  @Test
+  void invalidate_shouldDropEntries() {
+    RidCache cache = new RidCache();
+    cache.put("Content", "c1", "#5:1");
+    cache.put("Content", "c2", "#5:2");
+    cache.put("Link", "l1", "#3:1");
+
+    cache.invalidate("Content", List.of("c1", "c2"));
+    cache.invalidate("Link", "l1");
+
+    assertThat(cache.get("Content", "c1")).isEmpty();
+    assertThat(cache.get("Content", "c2")).isEmpty();
+    assertThat(cache.get("Link", "l1")).isEmpty();
+  }
+
+  @Test
+  void put_shouldEvictLeastRecentlyUsedBeyondCapacity() {
+    RidCache cache = new RidCache(2);
+    cache.put("Link", "a", "#1:1");
+    cache.put("Link", "b", "#1:2");
+    cache.get("Link", "a");
+
+    cache.put("Link", "c", "#1:3");
+
+    assertThat(cache.get("Link", "a")).isPresent();
+    assertThat(cache.get("Link", "b")).isEmpty();
+    assertThat(cache.get("Link", "c")).isPresent();
+  }
+
+  @Test
+  void transaction_shouldShareRidsWithOtherThreadsOnlyAfterTheCommit() {
+    RemoteDatabase database = mock(RemoteDatabase.class);
+    doAnswer(invocation -> {
+      invocation.<Database.TransactionScope>getArgument(0).execute();
+      return null;
+    })
+      .when(database)
+      .transaction(any());
+    RidCache cache = new RidCache();
+
+    cache.transaction(database, () -> {
+      cache.put("Link", "a", "#12:1");
+      assertThat(cache.get("Link", "a")).contains("#12:1");
+      assertThat(CompletableFuture.supplyAsync(() -> cache.get("Link", "a")).join()).isEmpty();
+    });
+
+    assertThat(CompletableFuture.supplyAsync(() -> cache.get("Link", "a")).join()).contains("#12:1");
+  }
+
+  @Test
+  void transaction_shouldForgetRidsOfARolledBackTransaction() {
+    RemoteDatabase database = mock(RemoteDatabase.class);
+    doAnswer(invocation -> {
+      invocation.<Database.TransactionScope>getArgument(0).execute();
+      throw new IllegalStateException("rolled back");
+    })
+      .when(database)
+      .transaction(any());
+    RidCache cache = new RidCache();
+
+    assertThatThrownBy(() -> cache.transaction(database, () -> cache.put("Link", "a", "#12:1"))).isInstanceOf(IllegalStateException.class);
+
+    assertThat(cache.get("Link", "a")).isEmpty();
+  }
+}
@@ -0,0 +1,35 @@
+package it.robfrank.linklift.application.domain.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class CanonicalUrlTest {
+
+  @Test
+  void of_shouldGiveEverySpellingOfAPageTheSameValue() {
+    assertThat(CanonicalUrl.of("HTTP://WWW.Example.COM:80/Docs/?b=2&utm_source=feed&a=1#intro").value()).isEqualTo("https://example.com/Docs?a=1&b=2");
+    assertThat(CanonicalUrl.of("https://example.com:443/Docs?fbclid=x&a=1&b=2").value()).isEqualTo("https://example.com/Docs?a=1&b=2");
+  }
+
+  @Test
+  void of_shouldKeepNonDefaultPortsAndPathCase() {
+    assertThat(CanonicalUrl.of("https://example.com:8443/a/./b/../C/").value()).isEqualTo("https://example.com:8443/a/C");
+    assertThat(CanonicalUrl.of("https://example.com").value()).isEqualTo("https://example.com/");
+  }
+
+  @Test
+  void of_shouldKeepStringsThatAreNotAbsoluteUrls() {
+    assertThat(CanonicalUrl.of("  not a url  ").value()).isEqualTo("not a url");
+    assertThat(CanonicalUrl.of("mailto:someone@example.com").value()).isEqualTo("mailto:someone@example.com");
+  }
+
+  @Test
+  void hash_shouldBeFixedWidthAndMatchAcrossSpellings() {
+    String hash = CanonicalUrl.hashOf("http://www.example.com/page/?utm_medium=email");
+
+    assertThat(hash).hasSize(32).matches("[0-9a-f]+");
+    assertThat(CanonicalUrl.hashOf("https://example.com/page")).isEqualTo(hash);
+    assertThat(CanonicalUrl.hashOf("https://example.com/other")).isNotEqualTo(hash);
+  }
+}
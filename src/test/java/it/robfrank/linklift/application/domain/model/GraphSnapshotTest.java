@@ -0,0 +1,84 @@
+package it.robfrank.linklift.application.domain.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class GraphSnapshotTest {
+
+  private static final GraphSnapshot SNAPSHOT = GraphSnapshot.of(
+    List.of(node("a"), node("b"), node("c")),
+    List.of(edge("a", "b"), edge("a", "c"), edge("b", "c"), edge("a", "b"), edge("a", "unknown"))
+  );
+
+  @Test
+  void of_shouldBuildCsrArraysAndDropRepeatedOrDanglingEdges() {
+    assertThat(SNAPSHOT.ids()).containsExactly("a", "b", "c");
+    assertThat(SNAPSHOT.offsets()).containsExactly(0, 2, 3, 3);
+    assertThat(SNAPSHOT.targets()).containsExactly(1, 2, 2);
+  }
+
+  @Test
+  void toGraphData_shouldListNodesAndEdgesByLinkId() {
+    GraphData data = SNAPSHOT.toGraphData();
+
+    assertThat(data.nodes()).extracting(GraphData.LinkNode::id).containsExactly("a", "b", "c");
+    assertThat(data.edges()).containsExactly(edge("a", "b"), edge("a", "c"), edge("b", "c"));
+  }
+
+  @Test
+  void withNode_shouldAppendNewLinkAndRelabelExistingOne() {
+    GraphSnapshot updated = SNAPSHOT.withNode("d", "D", "https://d.example").withNode("a", "Renamed", "https://a.example");
+
+    assertThat(updated.nodeCount()).isEqualTo(4);
+    assertThat(updated.label(updated.indexOf("a"))).isEqualTo("Renamed");
+    assertThat(updated.edgeStart(updated.indexOf("d"))).isEqualTo(updated.edgeEnd(updated.indexOf("d")));
+    assertThat(updated.toGraphData().edges()).isEqualTo(SNAPSHOT.toGraphData().edges());
+  }
+
+  @Test
+  void withNodes_shouldAppendABatchInOneCopyAndKeepEdgesResolvable() {
+    GraphSnapshot updated = SNAPSHOT.withNodes(
+      List.of(new GraphData.LinkNode("d", "First", "https://d.example"), new GraphData.LinkNode("b", "Renamed", "https://b.example"), node("e"), node("d"))
+    ).withEdges(List.of(edge("e", "a")));
+
+    assertThat(updated.ids()).containsExactly("a", "b", "c", "d", "e");
+    assertThat(updated.offsets()).containsExactly(0, 2, 3, 3, 3, 4);
+    assertThat(updated.label(updated.indexOf("b"))).isEqualTo("Renamed");
+    assertThat(updated.label(updated.indexOf("d"))).isEqualTo("D");
+    assertThat(updated.toGraphData().edges()).containsExactly(edge("a", "b"), edge("a", "c"), edge("b", "c"), edge("e", "a"));
+    assertThat(SNAPSHOT.withNodes(List.of(node("a")))).isSameAs(SNAPSHOT);
+  }
+
+  @Test
+  void withoutNode_shouldDropIncidentEdgesAndRenumberNodes() {
+    GraphSnapshot updated = SNAPSHOT.withoutNode("b");
+
+    assertThat(updated.ids()).containsExactly("a", "c");
+    assertThat(updated.toGraphData().edges()).containsExactly(edge("a", "c"));
+  }
+
+  @Test
+  void withOutEdges_shouldReplaceOnlyTheSourceAdjacency() {
+    GraphSnapshot updated = SNAPSHOT.withOutEdges("a", List.of("c", "outside"));
+
+    assertThat(updated.toGraphData().edges()).containsExactly(edge("a", "c"), edge("b", "c"));
+  }
+
+  @Test
+  void withEdges_shouldAddMissingEdgesOnly() {
+    GraphSnapshot updated = SNAPSHOT.withEdges(List.of(edge("c", "a"), edge("a", "b")));
+
+    assertThat(updated.edgeCount()).isEqualTo(4);
+    assertThat(updated.toGraphData().edges()).contains(edge("c", "a"));
+  }
+
+  private static GraphData.LinkNode node(String id) {
+    return new GraphData.LinkNode(id, id.toUpperCase(), "https://" + id + ".example");
+  }
+
+  private static GraphData.LinkEdge edge(String source, String target) {
+    return new GraphData.LinkEdge(source, target);
+  }
+}
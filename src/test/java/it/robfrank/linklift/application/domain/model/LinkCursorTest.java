@@ -0,0 +1,40 @@
+package it.robfrank.linklift.application.domain.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import it.robfrank.linklift.application.domain.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+class LinkCursorTest {
+
+  @Test
+  void encode_shouldRoundTripThroughDecode() {
+    LinkCursor cursor = new LinkCursor("extractedAt", "DESC", "2024-05-01 10:15:30", "link-42");
+
+    LinkCursor decoded = LinkCursor.decode(cursor.encode());
+
+    assertThat(decoded).isEqualTo(cursor);
+  }
+
+  @Test
+  void encode_shouldProduceUrlSafeToken() {
+    String token = new LinkCursor("url", "ASC", "https://example.com/a?b=c&d=e", "id-1").encode();
+
+    assertThat(token).doesNotContain("+", "/", "=", "&", "?");
+  }
+
+  @Test
+  void decode_shouldRejectGarbage() {
+    assertThatThrownBy(() -> LinkCursor.decode("not a cursor!"))
+      .isInstanceOf(ValidationException.class)
+      .satisfies(ex -> assertThat(((ValidationException) ex).getFieldErrors()).containsKey("cursor"));
+  }
+
+  @Test
+  void decode_shouldRejectUnsupportedSortField() {
+    String token = new LinkCursor("title", "ASC", "Some title", "id-1").encode();
+
+    assertThatThrownBy(() -> LinkCursor.decode(token)).isInstanceOf(ValidationException.class);
+  }
+}
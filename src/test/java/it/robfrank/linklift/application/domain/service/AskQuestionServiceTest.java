@@ -5,7 +5,9 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 import it.robfrank.linklift.application.domain.exception.ValidationException;
+import it.robfrank.linklift.application.domain.model.AnswerSource;
 import it.robfrank.linklift.application.domain.model.Content;
+import it.robfrank.linklift.application.domain.model.ContentChunk;
 import it.robfrank.linklift.application.domain.model.DownloadStatus;
 import it.robfrank.linklift.application.domain.model.Link;
 import it.robfrank.linklift.application.domain.model.QuestionAnswer;
@@ -20,6 +22,7 @@ import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -40,7 +43,7 @@ class AskQuestionServiceTest {
 
   private AskQuestionService service;
 
-  private static final List<Float> FAKE_VECTOR = List.of(0.1f, 0.2f, 0.3f);
+  private static final float[] FAKE_VECTOR = { 0.1f, 0.2f, 0.3f };
 
   @BeforeEach
   void setUp() {
@@ -80,6 +83,31 @@ class AskQuestionServiceTest {
     assertThat(result.sources().getFirst().url()).isEqualTo("https://example.com");
   }
 
+  @Test
+  void ask_buildsContextFromTheBestPassagesOfEachSource() {
+    when(embeddingGenerator.generateEmbedding("How are vectors indexed?")).thenReturn(FAKE_VECTOR);
+    when(loadContentPort.findSimilarChunks(FAKE_VECTOR, 20, "user1")).thenReturn(
+      List.of(
+        new ContentChunk("link1", 4, "An HNSW graph links each vector to its neighbours.", null),
+        new ContentChunk("link2", 0, "Vectors can also be indexed by clustering.", null),
+        new ContentChunk("link1", 1, "Each passage of a page gets its own vector.", null)
+      )
+    );
+    Link link1 = new Link("link1", "https://example.com/hnsw", "HNSW", null, LocalDateTime.now(), null, List.of(), ReadStatus.UNREAD, false, false);
+    Link link2 = new Link("link2", "https://example.com/ivf", "IVF", null, LocalDateTime.now(), null, List.of(), ReadStatus.UNREAD, false, false);
+    when(loadLinksPort.findLinksByIds(List.of("link1", "link2"))).thenReturn(List.of(link2, link1));
+    when(questionAnswerPort.generateAnswer(eq("How are vectors indexed?"), anyString())).thenReturn("answer");
+
+    QuestionAnswer result = service.ask(new AskQuestionCommand("How are vectors indexed?", "user1"));
+
+    assertThat(result.sources()).extracting(AnswerSource::linkId).containsExactly("link1", "link2");
+    assertThat(result.sources().getFirst().excerpt()).isEqualTo("An HNSW graph links each vector to its neighbours.");
+    ArgumentCaptor<String> context = ArgumentCaptor.forClass(String.class);
+    verify(questionAnswerPort).generateAnswer(eq("How are vectors indexed?"), context.capture());
+    assertThat(context.getValue()).contains("Content: Each passage of a page gets its own vector. ... An HNSW graph links each vector to its neighbours.\n");
+    verify(loadContentPort, never()).findSimilar(any(), anyInt(), anyString());
+  }
+
   @Test
   void ask_returnsEmptyResponseWhenNoContent() {
     when(embeddingGenerator.generateEmbedding("unknown topic")).thenReturn(FAKE_VECTOR);
@@ -325,6 +325,47 @@ class BackfillEmbeddingsServiceTest extends ArcadeDbTestBase {
       });
   }
 
+  @Test
+  void backfill_shouldPreserveRefreshValidators_whenUpdatingWithEmbedding() throws Exception {
+    // Given - content downloaded with validators and a text hash exists without embedding
+    Content original = new Content(
+      "id-1",
+      "link-1",
+      "html",
+      "text content",
+      100,
+      FIXED_TEST_TIME,
+      "text/html",
+      DownloadStatus.COMPLETED,
+      null,
+      null,
+      null,
+      null,
+      null,
+      null,
+      null,
+      "\"v1\"",
+      "Mon, 01 Jan 2024 12:00:00 GMT",
+      "hash-1",
+      null
+    );
+    repository.saveContent(original);
+
+    // When - backfill is executed
+    backfillEmbeddingsService.backfill();
+
+    // Then - the next refresh can still be conditional
+    await()
+      .atMost(Duration.ofSeconds(5))
+      .untilAsserted(() -> {
+        Content updated = repository.findContentById("id-1").orElseThrow();
+        assertThat(updated.embedding()).isNotNull().hasSize(384);
+        assertThat(updated.etag()).isEqualTo("\"v1\"");
+        assertThat(updated.lastModified()).isEqualTo("Mon, 01 Jan 2024 12:00:00 GMT");
+        assertThat(updated.contentHash()).isEqualTo("hash-1");
+      });
+  }
+
   // ==================== Edge Cases ====================
 
   @Test
@@ -0,0 +1,69 @@
+package it.robfrank.linklift.application.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import it.robfrank.linklift.application.domain.model.ContentChunk;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ContentChunkerTest {
+
+  @Test
+  void split_shouldReturnNoPassages_forBlankText() {
+    assertThat(ContentChunker.split(null)).isEmpty();
+    assertThat(ContentChunker.split(" \n\t ")).isEmpty();
+  }
+
+  @Test
+  void split_shouldKeepAShortTextAsOnePassage_withWhitespaceCollapsed() {
+    assertThat(ContentChunker.split("  A short\n\npage.  ")).containsExactly("A short page.");
+  }
+
+  @Test
+  void split_shouldCoverALongTextWithOverlappingPassages_endingAtSentences() {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      text.append("Sentence number ").append(i).append(" talks about vectors. ");
+    }
+
+    List<String> passages = ContentChunker.split(text.toString());
+
+    assertThat(passages).hasSizeGreaterThan(5);
+    assertThat(passages).allSatisfy(passage -> assertThat(passage).hasSizeLessThanOrEqualTo(ContentChunker.MAX_PASSAGE_LENGTH));
+    assertThat(passages.subList(0, passages.size() - 1)).allSatisfy(passage -> assertThat(passage).endsWith("vectors."));
+    assertThat(passages.getFirst()).startsWith("Sentence number 0 ");
+    assertThat(passages.getLast()).endsWith("Sentence number 99 talks about vectors.");
+    for (int i = 1; i < passages.size(); i++) {
+      String start = passages.get(i).substring(0, 20);
+      assertThat(passages.get(i - 1)).contains(start);
+    }
+  }
+
+  @Test
+  void split_shouldStopAtTheMaximumNumberOfPassages() {
+    assertThat(ContentChunker.split("word ".repeat(100_000))).hasSize(ContentChunker.MAX_PASSAGES);
+  }
+
+  @Test
+  void split_shouldCutAWordLongerThanAPassage() {
+    assertThat(ContentChunker.split("x".repeat(1000))).allSatisfy(passage -> assertThat(passage).hasSizeLessThanOrEqualTo(ContentChunker.MAX_PASSAGE_LENGTH));
+  }
+
+  @Test
+  void chunks_shouldSkipPassagesWithoutAVector() {
+    List<float[]> embeddings = List.of(new float[] { 1 }, new float[0], new float[] { 3 });
+
+    List<ContentChunk> chunks = ContentChunker.chunks("link-1", List.of("first", "second", "third"), embeddings);
+
+    assertThat(chunks).extracting(ContentChunk::position).containsExactly(0, 2);
+    assertThat(chunks).extracting(ContentChunk::text).containsExactly("first", "third");
+    assertThatThrownBy(() -> ContentChunker.chunks("link-1", List.of("first"), List.of())).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void centroid_shouldAverageThePassageVectors() {
+    assertThat(ContentChunker.centroid(List.of(new float[] { 1, 0 }, new float[] { 0, 1 }, new float[0]))).containsExactly(0.5f, 0.5f);
+    assertThat(ContentChunker.centroid(List.of())).isNull();
+  }
+}
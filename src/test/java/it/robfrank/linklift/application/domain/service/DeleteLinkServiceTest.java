@@ -4,8 +4,10 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import it.robfrank.linklift.application.domain.event.LinkGraphChangedEvent;
 import it.robfrank.linklift.application.domain.exception.LinkNotFoundException;
 import it.robfrank.linklift.application.port.out.DeleteLinkPort;
+import it.robfrank.linklift.application.port.out.DomainEventPublisher;
 import it.robfrank.linklift.application.port.out.LoadLinksPort;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,11 +24,14 @@ class DeleteLinkServiceTest {
   @Mock
   private DeleteLinkPort deleteLinkPort;
 
+  @Mock
+  private DomainEventPublisher eventPublisher;
+
   private DeleteLinkService deleteLinkService;
 
   @BeforeEach
   void setUp() {
-    deleteLinkService = new DeleteLinkService(loadLinksPort, deleteLinkPort);
+    deleteLinkService = new DeleteLinkService(loadLinksPort, deleteLinkPort, eventPublisher);
   }
 
   @Test
@@ -43,6 +48,7 @@ class DeleteLinkServiceTest {
     // Assert
     verify(loadLinksPort, times(1)).userOwnsLink(userId, linkId);
     verify(deleteLinkPort, times(1)).deleteLink(linkId);
+    verify(eventPublisher).publish(any(LinkGraphChangedEvent.class));
   }
 
   @Test
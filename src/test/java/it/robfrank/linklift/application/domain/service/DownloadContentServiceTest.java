@@ -10,14 +10,19 @@ import it.robfrank.linklift.application.domain.event.ContentDownloadCompletedEve
 import it.robfrank.linklift.application.domain.event.ContentDownloadFailedEvent;
 import it.robfrank.linklift.application.domain.event.ContentDownloadStartedEvent;
 import it.robfrank.linklift.application.domain.exception.ContentDownloadException;
+import it.robfrank.linklift.application.domain.exception.DatabaseException;
 import it.robfrank.linklift.application.domain.exception.ValidationException;
 import it.robfrank.linklift.application.domain.model.Content;
+import it.robfrank.linklift.application.domain.model.ContentChunk;
 import it.robfrank.linklift.application.domain.model.DownloadStatus;
 import it.robfrank.linklift.application.port.in.DownloadContentCommand;
 import it.robfrank.linklift.application.port.out.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -56,7 +61,7 @@ class DownloadContentServiceTest {
   private EmbeddingGenerator embeddingGenerator;
 
   @Mock
-  private ExecutorService executorService;
+  private LoadContentPort loadContentPort;
 
   private DownloadContentService downloadContentService;
 
@@ -72,7 +77,9 @@ class DownloadContentServiceTest {
       saveLinkPort,
       updateLinkPort,
       embeddingGenerator,
-      executorService
+      loadContentPort,
+      new SharedPageCache(),
+      DownloadContentService.Stages.of(Runnable::run)
     );
 
     // Default mock behavior for new ports
@@ -80,7 +87,9 @@ class DownloadContentServiceTest {
       .when(contentExtractorPort.extractMetadata(any(), any()))
       .thenReturn(new ContentExtractorPort.ExtractedMetadata("Test Title", "Test Desc", "Author", "2023-01-01", "img", "html", "text", List.of()));
     lenient().when(contentSummarizerPort.generateSummary(any(), anyInt())).thenReturn("Test Summary");
-    lenient().when(embeddingGenerator.generateEmbedding(any())).thenReturn(List.of(0.1f, 0.2f, 0.3f));
+    lenient()
+      .when(embeddingGenerator.generateEmbeddings(any()))
+      .thenAnswer(invocation -> invocation.<List<String>>getArgument(0).stream().map(passage -> new float[] { 0.1f, 0.2f, 0.3f }).toList());
   }
 
   @Test
@@ -89,7 +98,6 @@ class DownloadContentServiceTest {
     DownloadContentCommand command = new DownloadContentCommand("link-123", "https://example.com");
     ContentDownloaderPort.DownloadedContent downloadedContent = new ContentDownloaderPort.DownloadedContent(
       "<html><body>Test</body></html>",
-      "Test",
       "text/html",
       1024
     );
@@ -123,7 +131,6 @@ class DownloadContentServiceTest {
     DownloadContentCommand command = new DownloadContentCommand("link-123", "https://example.com");
     ContentDownloaderPort.DownloadedContent downloadedContent = new ContentDownloaderPort.DownloadedContent(
       "<html><body>Test Content</body></html>",
-      "Test Content",
       "text/html",
       2048
     );
@@ -148,7 +155,7 @@ class DownloadContentServiceTest {
     Content savedContent = contentCaptor.getValue();
     assertThat(savedContent.linkId()).isEqualTo("link-123");
     assertThat(savedContent.htmlContent()).isEqualTo("<html><body>Test Content</body></html>");
-    assertThat(savedContent.textContent()).isEqualTo("Test Content");
+    assertThat(savedContent.textContent()).isEqualTo("text");
     assertThat(savedContent.mimeType()).isEqualTo("text/html");
     assertThat(savedContent.contentLength()).isEqualTo(2048);
     assertThat(savedContent.status()).isEqualTo(DownloadStatus.COMPLETED);
@@ -166,6 +173,55 @@ class DownloadContentServiceTest {
     assertThat(completedEvent.getContent().linkId()).isEqualTo("link-123");
   }
 
+  @Test
+  void download_shouldEmbedThePassagesOfALongPageAndStoreThemAsChunks() {
+    // Arrange
+    String sentence = "Vector indexes store one embedding per passage of a page. ";
+    String text = sentence.repeat(30);
+    when(contentExtractorPort.extractMetadata(any(), any())).thenReturn(
+      new ContentExtractorPort.ExtractedMetadata("Title", null, null, null, null, "html", text, List.of())
+    );
+    when(contentDownloader.downloadContent("https://example.com/long")).thenReturn(
+      CompletableFuture.completedFuture(new ContentDownloaderPort.DownloadedContent("<html>long</html>", "text/html", text.length()))
+    );
+    when(saveContentPort.saveContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    downloadContentService.download(new DownloadContentCommand("link-long", "https://example.com/long")).join();
+
+    // Assert - all passages go out in one batch, and each is stored with its vector
+    List<String> passages = ContentChunker.split(text);
+    assertThat(passages).hasSizeGreaterThan(3);
+    verify(embeddingGenerator).generateEmbeddings(passages);
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<ContentChunk>> chunksCaptor = ArgumentCaptor.forClass(List.class);
+    verify(saveContentPort).replaceChunks(eq("link-long"), chunksCaptor.capture());
+    assertThat(chunksCaptor.getValue()).extracting(ContentChunk::text).containsExactlyElementsOf(passages);
+    assertThat(chunksCaptor.getValue().getLast().position()).isEqualTo(passages.size() - 1);
+  }
+
+  @Test
+  void download_shouldFlagTheContentForTheBackfill_whenItsPassagesCannotBeStored() {
+    // Arrange
+    String text = "Vector indexes store one embedding per passage of a page. ".repeat(30);
+    when(contentExtractorPort.extractMetadata(any(), any())).thenReturn(
+      new ContentExtractorPort.ExtractedMetadata("Title", null, null, null, null, "html", text, List.of())
+    );
+    when(contentDownloader.downloadContent("https://example.com/long")).thenReturn(
+      CompletableFuture.completedFuture(new ContentDownloaderPort.DownloadedContent("<html>long</html>", "text/html", text.length()))
+    );
+    when(saveContentPort.saveContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    doThrow(new DatabaseException("vector index unavailable")).when(saveContentPort).replaceChunks(eq("link-long"), anyList());
+
+    // Act
+    downloadContentService.download(new DownloadContentCommand("link-long", "https://example.com/long")).join();
+
+    // Assert - the content itself is stored and completed, and queued to be split again
+    verify(saveContentPort).markForEmbeddingBackfill("link-long");
+    verify(eventPublisher).publish(any(ContentDownloadCompletedEvent.class));
+  }
+
   @Test
   void downloadContentAsync_shouldHandleFailureAndPublishFailedEvent() {
     // Arrange
@@ -177,9 +233,9 @@ class DownloadContentServiceTest {
     // Act
     downloadContentService.downloadContentAsync(command);
 
-    // Wait for async processing (including retries: 3 attempts with 1s delay each)
+    // Wait for async processing; retries happen behind the downloader port
     try {
-      Thread.sleep(3500);
+      Thread.sleep(200);
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     }
@@ -201,18 +257,72 @@ class DownloadContentServiceTest {
     assertThat(failedEvent.getErrorMessage()).contains("Download failed");
   }
 
+  @Test
+  void download_shouldFailAfterRecordingTheFailure() {
+    // Arrange
+    DownloadContentCommand command = new DownloadContentCommand("link-123", "https://example.com");
+
+    when(contentDownloader.downloadContent("https://example.com")).thenReturn(CompletableFuture.failedFuture(new ContentDownloadException("Download failed")));
+    when(saveContentPort.saveContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    CompletableFuture<Void> download = downloadContentService.download(command);
+
+    // Assert
+    assertThat(download).isCompletedExceptionally();
+    verify(contentDownloader, times(1)).downloadContent("https://example.com");
+    verify(saveContentPort).saveContent(argThat(content -> content.status() == DownloadStatus.FAILED));
+  }
+
+  @Test
+  void download_shouldKeepTheStoredCopyAndBackOff_whenAReCheckFails() {
+    // Arrange
+    Content stored = storedContent("\"v1\"", DownloadContentService.hashText("text"));
+    ContentDownloaderPort.Validators validators = new ContentDownloaderPort.Validators("\"v1\"", "Mon, 01 Jan 2024 00:00:00 GMT");
+    when(loadContentPort.findContentByLinkId("link-123")).thenReturn(Optional.of(stored));
+    when(contentDownloader.downloadContent("https://example.com", validators)).thenReturn(
+      CompletableFuture.failedFuture(new ContentDownloadException("HTTP error 404"))
+    );
+    when(saveContentPort.updateContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    CompletableFuture<Void> download = downloadContentService.download(new DownloadContentCommand("link-123", "https://example.com"));
+
+    // Assert
+    assertThat(download).isCompletedExceptionally();
+    ArgumentCaptor<Content> contentCaptor = ArgumentCaptor.forClass(Content.class);
+    verify(saveContentPort).updateContent(contentCaptor.capture());
+    assertThat(contentCaptor.getValue().id()).isEqualTo(stored.id());
+    assertThat(contentCaptor.getValue().status()).isEqualTo(DownloadStatus.COMPLETED);
+    assertThat(contentCaptor.getValue().textContent()).isEqualTo(stored.textContent());
+    assertThat(contentCaptor.getValue().downloadedAt()).isAfter(stored.downloadedAt());
+    assertThat(contentCaptor.getValue().recheckIntervalSeconds()).isEqualTo(Duration.ofDays(4).toSeconds());
+    verify(saveContentPort, never()).saveContent(any());
+  }
+
+  @Test
+  void download_shouldReplaceTheFailedRecord_whenARetryFailsAgain() {
+    // Arrange
+    Content failed = new Content("content-1", "link-123", null, null, null, LocalDateTime.now().minusHours(1), null, DownloadStatus.FAILED);
+    when(loadContentPort.findContentByLinkId("link-123")).thenReturn(Optional.of(failed));
+    when(contentDownloader.downloadContent("https://example.com")).thenReturn(CompletableFuture.failedFuture(new ContentDownloadException("Download failed")));
+    when(saveContentPort.updateContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    downloadContentService.download(new DownloadContentCommand("link-123", "https://example.com"));
+
+    // Assert
+    verify(saveContentPort).updateContent(argThat(content -> content.id().equals("content-1") && content.status() == DownloadStatus.FAILED));
+    verify(saveContentPort, never()).saveContent(any());
+  }
+
   @Test
   void downloadContentAsync_shouldRejectContentExceedingMaxSize() {
     // Arrange
     DownloadContentCommand command = new DownloadContentCommand("link-123", "https://example.com");
     // Create content larger than 10MB
     int largeSize = 11 * 1024 * 1024;
-    ContentDownloaderPort.DownloadedContent downloadedContent = new ContentDownloaderPort.DownloadedContent(
-      "x".repeat(largeSize),
-      "Large content",
-      "text/html",
-      largeSize
-    );
+    ContentDownloaderPort.DownloadedContent downloadedContent = new ContentDownloaderPort.DownloadedContent("x".repeat(largeSize), "text/html", largeSize);
 
     when(contentDownloader.downloadContent("https://example.com")).thenReturn(CompletableFuture.completedFuture(downloadedContent));
     when(saveContentPort.saveContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -242,7 +352,6 @@ class DownloadContentServiceTest {
     DownloadContentCommand command = new DownloadContentCommand("link-123", "https://example.com");
     ContentDownloaderPort.DownloadedContent downloadedContent = new ContentDownloaderPort.DownloadedContent(
       "<html><body>Test Content</body></html>",
-      "Test Content",
       "text/html",
       2048
     );
@@ -260,7 +369,7 @@ class DownloadContentServiceTest {
 
     doReturn(CompletableFuture.completedFuture(downloadedContent)).when(contentDownloader).downloadContent(anyString());
     when(contentExtractorPort.extractMetadata(any(), any())).thenReturn(metadata);
-    when(embeddingGenerator.generateEmbedding(anyString())).thenThrow(new RuntimeException("Ollama down"));
+    when(embeddingGenerator.generateEmbeddings(anyList())).thenThrow(new RuntimeException("Ollama down"));
     when(saveContentPort.saveContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
     // Act
@@ -284,6 +393,181 @@ class DownloadContentServiceTest {
     verify(eventPublisher, atLeastOnce()).publish(any(ContentDownloadCompletedEvent.class));
   }
 
+  @Test
+  void download_shouldStoreContentWithoutEmbedding_whenTheEmbedStageRejectsIt() {
+    // Arrange
+    DownloadContentService service = new DownloadContentService(
+      contentDownloader,
+      saveContentPort,
+      eventPublisher,
+      contentExtractorPort,
+      contentSummarizerPort,
+      loadLinksPort,
+      saveLinkPort,
+      updateLinkPort,
+      embeddingGenerator,
+      loadContentPort,
+      new SharedPageCache(),
+      new DownloadContentService.Stages(Runnable::run, task -> {
+        throw new RejectedExecutionException("shut down");
+      }, Runnable::run)
+    );
+    when(contentDownloader.downloadContent("https://example.com")).thenReturn(
+      CompletableFuture.completedFuture(new ContentDownloaderPort.DownloadedContent("<html><body>Test</body></html>", "text/html", 1024))
+    );
+    when(saveContentPort.saveContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    service.download(new DownloadContentCommand("link-123", "https://example.com")).join();
+
+    // Assert
+    ArgumentCaptor<Content> contentCaptor = ArgumentCaptor.forClass(Content.class);
+    verify(saveContentPort).saveContent(contentCaptor.capture());
+    assertThat(contentCaptor.getValue().status()).isEqualTo(DownloadStatus.COMPLETED);
+    assertThat(contentCaptor.getValue().embedding()).isNull();
+    verifyNoInteractions(embeddingGenerator);
+  }
+
+  @Test
+  void download_shouldReuseThePage_forAnotherLinkToTheSameUrl() {
+    // Arrange
+    when(contentDownloader.downloadContent("https://Example.com/post#comments")).thenReturn(
+      CompletableFuture.completedFuture(new ContentDownloaderPort.DownloadedContent("<html><body>text</body></html>", "text/html", 30))
+    );
+    when(saveContentPort.saveContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    downloadContentService.download(new DownloadContentCommand("link-1", "https://Example.com/post#comments")).join();
+    downloadContentService.download(new DownloadContentCommand("link-2", "https://example.com/post")).join();
+
+    // Assert
+    verify(contentDownloader, times(1)).downloadContent(any());
+    verify(embeddingGenerator, times(1)).generateEmbeddings(any());
+    verify(saveContentPort).saveContent(argThat(content -> content.linkId().equals("link-1") && content.embedding() != null));
+    verify(saveContentPort).saveContent(argThat(content -> content.linkId().equals("link-2") && content.embedding() != null));
+  }
+
+  @Test
+  void download_shouldAskTheServer_whenRefreshingAPageThatIsStillCached() {
+    // Arrange
+    Content stored = storedContent("\"v1\"", DownloadContentService.hashText("text"));
+    ContentDownloaderPort.Validators validators = new ContentDownloaderPort.Validators("\"v1\"", "Mon, 01 Jan 2024 00:00:00 GMT");
+    when(loadContentPort.findContentByLinkId("link-123")).thenReturn(Optional.empty(), Optional.of(stored));
+    when(contentDownloader.downloadContent("https://example.com")).thenReturn(
+      CompletableFuture.completedFuture(new ContentDownloaderPort.DownloadedContent("<html><body>text</body></html>", "text/html", 30))
+    );
+    when(contentDownloader.downloadContent("https://example.com", validators)).thenReturn(
+      CompletableFuture.completedFuture(ContentDownloaderPort.DownloadedContent.unchanged(validators))
+    );
+    when(saveContentPort.saveContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    when(saveContentPort.updateContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    downloadContentService.download(new DownloadContentCommand("link-123", "https://example.com")).join();
+    downloadContentService.download(new DownloadContentCommand("link-123", "https://example.com")).join();
+
+    // Assert
+    verify(contentDownloader).downloadContent("https://example.com");
+    verify(contentDownloader).downloadContent("https://example.com", validators);
+  }
+
+  @Test
+  void download_shouldSkipProcessing_whenServerReportsNotModified() {
+    // Arrange
+    Content stored = storedContent("\"v1\"", DownloadContentService.hashText("text"));
+    ContentDownloaderPort.Validators validators = new ContentDownloaderPort.Validators("\"v1\"", "Mon, 01 Jan 2024 00:00:00 GMT");
+    when(loadContentPort.findContentByLinkId("link-123")).thenReturn(Optional.of(stored));
+    when(contentDownloader.downloadContent("https://example.com", validators)).thenReturn(
+      CompletableFuture.completedFuture(ContentDownloaderPort.DownloadedContent.unchanged(validators))
+    );
+    when(saveContentPort.updateContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    downloadContentService.download(new DownloadContentCommand("link-123", "https://example.com")).join();
+
+    // Assert
+    ArgumentCaptor<Content> contentCaptor = ArgumentCaptor.forClass(Content.class);
+    verify(saveContentPort).updateContent(contentCaptor.capture());
+    assertThat(contentCaptor.getValue().id()).isEqualTo(stored.id());
+    assertThat(contentCaptor.getValue().summary()).isEqualTo(stored.summary());
+    assertThat(contentCaptor.getValue().downloadedAt()).isAfter(stored.downloadedAt());
+    assertThat(contentCaptor.getValue().recheckIntervalSeconds()).isEqualTo(Duration.ofDays(4).toSeconds());
+    verify(saveContentPort, never()).saveContent(any());
+    verifyNoInteractions(contentExtractorPort, contentSummarizerPort, embeddingGenerator);
+  }
+
+  @Test
+  void download_shouldSkipSummaryAndEmbedding_whenTextHashIsUnchanged() {
+    // Arrange
+    Content stored = storedContent(null, DownloadContentService.hashText("  text\n"));
+    when(loadContentPort.findContentByLinkId("link-123")).thenReturn(Optional.of(stored));
+    when(contentDownloader.downloadContent("https://example.com")).thenReturn(
+      CompletableFuture.completedFuture(new ContentDownloaderPort.DownloadedContent("<html><body>text</body></html>", "text/html", 30))
+    );
+    when(saveContentPort.updateContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    downloadContentService.download(new DownloadContentCommand("link-123", "https://example.com")).join();
+
+    // Assert
+    verify(saveContentPort).updateContent(argThat(content -> content.id().equals(stored.id()) && "old summary".equals(content.summary())));
+    verify(contentSummarizerPort, never()).generateSummary(any(), anyInt());
+    verify(embeddingGenerator, never()).generateEmbeddings(any());
+  }
+
+  @Test
+  void download_shouldReplaceStoredContent_whenTextChanged() {
+    // Arrange
+    Content stored = storedContent("\"v1\"", DownloadContentService.hashText("old text"));
+    ContentDownloaderPort.Validators validators = new ContentDownloaderPort.Validators("\"v1\"", "Mon, 01 Jan 2024 00:00:00 GMT");
+    when(loadContentPort.findContentByLinkId("link-123")).thenReturn(Optional.of(stored));
+    when(contentDownloader.downloadContent("https://example.com", validators)).thenReturn(
+      CompletableFuture.completedFuture(
+        new ContentDownloaderPort.DownloadedContent("<html><body>text</body></html>", "text/html", 30, new ContentDownloaderPort.Validators("\"v2\"", null), false)
+      )
+    );
+    when(saveContentPort.updateContent(any(Content.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // Act
+    downloadContentService.download(new DownloadContentCommand("link-123", "https://example.com")).join();
+
+    // Assert
+    ArgumentCaptor<Content> contentCaptor = ArgumentCaptor.forClass(Content.class);
+    verify(saveContentPort).updateContent(contentCaptor.capture());
+    Content updated = contentCaptor.getValue();
+    assertThat(updated.id()).isEqualTo(stored.id());
+    assertThat(updated.summary()).isEqualTo("Test Summary");
+    assertThat(updated.etag()).isEqualTo("\"v2\"");
+    assertThat(updated.contentHash()).isEqualTo(DownloadContentService.hashText("text"));
+    assertThat(updated.recheckIntervalSeconds()).isEqualTo(Duration.ofDays(1).toSeconds());
+    verify(saveContentPort, never()).saveContent(any());
+    verify(saveContentPort, never()).createHasContentEdge(any(), any());
+  }
+
+  private static Content storedContent(String etag, String contentHash) {
+    return new Content(
+      "content-1",
+      "link-123",
+      "<html><body>text</body></html>",
+      "text",
+      30,
+      LocalDateTime.now().minusDays(1),
+      "text/html",
+      DownloadStatus.COMPLETED,
+      "old summary",
+      null,
+      "Title",
+      null,
+      null,
+      null,
+      new float[] { 0.1f },
+      etag,
+      etag != null ? "Mon, 01 Jan 2024 00:00:00 GMT" : null,
+      contentHash,
+      Duration.ofDays(2).toSeconds()
+    );
+  }
+
   @Test
   void downloadContentAsync_shouldThrowValidationException_whenCommandIsNull() {
     // Act & Assert
@@ -0,0 +1,164 @@
+package it.robfrank.linklift.application.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import it.robfrank.linklift.application.domain.exception.ContentDownloadException;
+import it.robfrank.linklift.application.domain.exception.ValidationException;
+import it.robfrank.linklift.application.domain.model.DownloadJob;
+import it.robfrank.linklift.application.domain.model.DownloadStatus;
+import it.robfrank.linklift.application.domain.model.Link;
+import it.robfrank.linklift.application.port.in.DownloadContentCommand;
+import it.robfrank.linklift.application.port.out.DownloadJobPort;
+import it.robfrank.linklift.application.port.out.LoadLinksPort;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DownloadJobServiceTest {
+
+  @Mock
+  private DownloadContentService downloader;
+
+  @Mock
+  private DownloadJobPort downloadJobPort;
+
+  @Mock
+  private LoadLinksPort loadLinksPort;
+
+  @Mock
+  private ScheduledExecutorService scheduler;
+
+  private DownloadJobService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new DownloadJobService(downloader, downloadJobPort, loadLinksPort, scheduler, "worker-1", 2);
+  }
+
+  @Test
+  void downloadContentBatchAsync_shouldQueueOneJobPerLinkAndWakeTheWorker() {
+    service.downloadContentBatchAsync(
+      List.of(new DownloadContentCommand("link-1", "https://example.com/1"), new DownloadContentCommand("link-2", "https://example.com/2"))
+    );
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<DownloadJob>> jobs = ArgumentCaptor.forClass(List.class);
+    verify(downloadJobPort).enqueueJobs(jobs.capture());
+    assertThat(jobs.getValue()).extracting(DownloadJob::linkId).containsExactly("link-1", "link-2");
+    assertThat(jobs.getValue()).allSatisfy(job -> assertThat(job.status()).isEqualTo(DownloadStatus.PENDING));
+    verify(scheduler).execute(any());
+    verifyNoInteractions(downloader);
+  }
+
+  @Test
+  void downloadContentAsync_shouldRejectCommandWithoutUrl() {
+    assertThatThrownBy(() -> service.downloadContentAsync(new DownloadContentCommand("link-1", ""))).isInstanceOf(ValidationException.class);
+
+    verifyNoInteractions(downloadJobPort);
+  }
+
+  @Test
+  void refreshContent_shouldQueueTheStoredUrl() {
+    when(loadLinksPort.getLinkById("link-1")).thenReturn(
+      new Link("link-1", "https://example.com/1", "Title", null, null, null, List.of(), null, false, false)
+    );
+
+    service.refreshContent("link-1");
+
+    verify(downloadJobPort).enqueueJobs(argThat(jobs -> jobs.size() == 1 && jobs.getFirst().url().equals("https://example.com/1")));
+  }
+
+  @Test
+  void poll_shouldCompleteSucceededJobsAndFailTheOthers() {
+    when(downloadJobPort.claimJobs(eq("worker-1"), eq(2), any())).thenReturn(List.of(claimed("job-1", "link-1", 1), claimed("job-2", "link-2", 1)));
+    when(downloader.download(new DownloadContentCommand("link-1", "https://example.com/link-1"))).thenReturn(CompletableFuture.completedFuture(null));
+    when(downloader.download(new DownloadContentCommand("link-2", "https://example.com/link-2"))).thenReturn(
+      CompletableFuture.failedFuture(new ContentDownloadException("HTTP error 404"))
+    );
+
+    service.poll();
+
+    verify(downloadJobPort).completeJob("job-1", "worker-1");
+    verify(downloadJobPort).failJob("job-2", "worker-1", "HTTP error 404");
+  }
+
+  @Test
+  void poll_shouldNotClaimBeyondCapacity() {
+    when(downloadJobPort.claimJobs(eq("worker-1"), eq(2), any())).thenReturn(List.of(claimed("job-1", "link-1", 1), claimed("job-2", "link-2", 1)));
+    when(downloader.download(any())).thenReturn(new CompletableFuture<>());
+
+    service.poll();
+    service.poll();
+
+    verify(downloadJobPort, times(1)).claimJobs(any(), anyInt(), any());
+  }
+
+  @Test
+  void poll_shouldGiveUpOnJobsThatKeptLosingTheirLease() {
+    when(downloadJobPort.claimJobs(eq("worker-1"), eq(2), any())).thenReturn(List.of(claimed("job-1", "link-1", DownloadJobService.MAX_ATTEMPTS + 1)));
+
+    service.poll();
+
+    verify(downloadJobPort).failJob(eq("job-1"), eq("worker-1"), contains("Abandoned"));
+    verifyNoInteractions(downloader);
+  }
+
+  @Test
+  void purgeFailedJobs_shouldRemoveJobsFailedBeforeTheRetention() {
+    Instant before = Instant.now();
+
+    service.purgeFailedJobs();
+
+    ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+    verify(downloadJobPort).purgeFailedJobs(cutoff.capture());
+    assertThat(cutoff.getValue()).isBetween(
+      before.minus(DownloadJobService.FAILED_RETENTION),
+      Instant.now().minus(DownloadJobService.FAILED_RETENTION)
+    );
+  }
+
+  @Test
+  void close_shouldStopTheSchedulerAndStillSettleRunningDownloads() throws Exception {
+    CompletableFuture<Void> download = new CompletableFuture<>();
+    when(downloadJobPort.claimJobs(eq("worker-1"), eq(2), any())).thenReturn(List.of(claimed("job-1", "link-1", 1)));
+    when(downloader.download(any())).thenReturn(download);
+    when(scheduler.awaitTermination(anyLong(), any())).thenReturn(true);
+    service.poll();
+
+    service.close();
+    doThrow(new RejectedExecutionException()).when(scheduler).execute(any());
+    download.complete(null);
+
+    verify(scheduler).shutdown();
+    verify(downloadJobPort).completeJob("job-1", "worker-1");
+  }
+
+  @Test
+  void close_shouldLeaveDownloadsFailingDuringShutdownToTheNextLease() throws Exception {
+    CompletableFuture<Void> download = new CompletableFuture<>();
+    when(downloadJobPort.claimJobs(eq("worker-1"), eq(2), any())).thenReturn(List.of(claimed("job-1", "link-1", 1)));
+    when(downloader.download(any())).thenReturn(download);
+    service.poll();
+
+    service.close();
+    download.completeExceptionally(new RejectedExecutionException());
+
+    verify(downloadJobPort, never()).failJob(any(), any(), any());
+  }
+
+  private static DownloadJob claimed(String id, String linkId, int attempts) {
+    return new DownloadJob(id, linkId, "https://example.com/" + linkId, DownloadStatus.IN_PROGRESS, DownloadJob.NORMAL_PRIORITY, attempts, Instant.now(), "worker-1", Instant.now());
+  }
+}
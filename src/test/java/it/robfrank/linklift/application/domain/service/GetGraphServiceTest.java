@@ -0,0 +1,127 @@
+package it.robfrank.linklift.application.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+import it.robfrank.linklift.application.domain.exception.GraphClusterNotFoundException;
+import it.robfrank.linklift.application.domain.exception.ValidationException;
+import it.robfrank.linklift.application.domain.model.ClusteredGraph;
+import it.robfrank.linklift.application.domain.model.GraphData;
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
+import it.robfrank.linklift.application.port.out.LoadLinksPort;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class GetGraphServiceTest {
+
+  // Two densely linked groups on different hosts, joined by a single edge
+  private static final GraphSnapshot SNAPSHOT = GraphSnapshot.of(
+    List.of(
+      node("a1", "https://alpha.example/1"),
+      node("a2", "https://alpha.example/2"),
+      node("a3", "https://www.alpha.example/3"),
+      node("b1", "https://beta.example/1"),
+      node("b2", "https://beta.example/2"),
+      node("b3", "https://beta.example/3")
+    ),
+    List.of(edge("a1", "a2"), edge("a2", "a3"), edge("a3", "a1"), edge("b1", "b2"), edge("b2", "b3"), edge("b3", "b1"), edge("a1", "b1"))
+  );
+
+  @Mock
+  private LoadLinksPort loadLinksPort;
+
+  private GetGraphService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new GetGraphService(loadLinksPort);
+  }
+
+  @Test
+  void getGraphData_shouldRenderTheSnapshot() {
+    when(loadLinksPort.getGraphSnapshot("user-1")).thenReturn(SNAPSHOT);
+
+    GraphData data = service.getGraphData("user-1");
+
+    assertThat(data.nodes()).hasSize(6);
+    assertThat(data.edges()).hasSize(7);
+  }
+
+  @Test
+  void getClusteredGraph_shouldAggregateCommunitiesWithWeightedEdges() {
+    when(loadLinksPort.getGraphSnapshot("user-1")).thenReturn(SNAPSHOT);
+
+    ClusteredGraph graph = service.getClusteredGraph("user-1", 10);
+
+    assertThat(graph.totalClusters()).isEqualTo(2);
+    assertThat(graph.clusters()).extracting(ClusteredGraph.ClusterNode::label).containsExactlyInAnyOrder("alpha.example", "beta.example");
+    assertThat(graph.clusters()).extracting(ClusteredGraph.ClusterNode::size).containsExactly(3, 3);
+    assertThat(graph.edges()).singleElement().extracting(ClusteredGraph.ClusterEdge::weight).isEqualTo(1);
+  }
+
+  @Test
+  void getClusterGraph_shouldExpandOneCommunity() {
+    when(loadLinksPort.getGraphSnapshot("user-1")).thenReturn(SNAPSHOT);
+    String alpha = service
+      .getClusteredGraph("user-1", 10)
+      .clusters()
+      .stream()
+      .filter(cluster -> cluster.label().equals("alpha.example"))
+      .findFirst()
+      .orElseThrow()
+      .id();
+
+    GraphData cluster = service.getClusterGraph("user-1", alpha);
+
+    assertThat(cluster.nodes()).extracting(GraphData.LinkNode::id).containsExactlyInAnyOrder("a1", "a2", "a3");
+    assertThat(cluster.edges()).hasSize(3);
+  }
+
+  @Test
+  void getClusterGraph_shouldResolveAnIdThroughTheLinkItNames() {
+    when(loadLinksPort.getGraphSnapshot("user-1")).thenReturn(SNAPSHOT);
+
+    // An id from an earlier overview may no longer be the smallest of its community
+    GraphData cluster = service.getClusterGraph("user-1", "b2");
+
+    assertThat(cluster.nodes()).extracting(GraphData.LinkNode::id).containsExactlyInAnyOrder("b1", "b2", "b3");
+  }
+
+  @Test
+  void getClusteredGraph_shouldKeepOnlyTheLargestClustersWithinLimit() {
+    when(loadLinksPort.getGraphSnapshot("user-1")).thenReturn(SNAPSHOT);
+
+    ClusteredGraph graph = service.getClusteredGraph("user-1", 1);
+
+    assertThat(graph.clusters()).hasSize(1);
+    assertThat(graph.edges()).isEmpty();
+    assertThat(graph.totalClusters()).isEqualTo(2);
+  }
+
+  @Test
+  void getClusterGraph_shouldRejectUnknownCluster() {
+    when(loadLinksPort.getGraphSnapshot("user-1")).thenReturn(SNAPSHOT);
+
+    assertThatThrownBy(() -> service.getClusterGraph("user-1", "missing")).isInstanceOf(GraphClusterNotFoundException.class);
+  }
+
+  @Test
+  void getClusteredGraph_shouldRejectInvalidLimit() {
+    assertThatThrownBy(() -> service.getClusteredGraph("user-1", 0)).isInstanceOf(ValidationException.class);
+    verifyNoInteractions(loadLinksPort);
+  }
+
+  private static GraphData.LinkNode node(String id, String url) {
+    return new GraphData.LinkNode(id, id, url);
+  }
+
+  private static GraphData.LinkEdge edge(String source, String target) {
+    return new GraphData.LinkEdge(source, target);
+  }
+}
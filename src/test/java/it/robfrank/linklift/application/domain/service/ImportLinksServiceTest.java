@@ -0,0 +1,106 @@
+package it.robfrank.linklift.application.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import it.robfrank.linklift.application.domain.event.LinksImportedEvent;
+import it.robfrank.linklift.application.domain.exception.ValidationException;
+import it.robfrank.linklift.application.domain.model.ImportResult;
+import it.robfrank.linklift.application.domain.model.ImportedBookmark;
+import it.robfrank.linklift.application.domain.model.Link;
+import it.robfrank.linklift.application.port.in.ImportLinksCommand;
+import it.robfrank.linklift.application.port.out.DomainEventPublisher;
+import it.robfrank.linklift.application.port.out.LoadLinksPort;
+import it.robfrank.linklift.application.port.out.SaveLinkPort;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ImportLinksServiceTest {
+
+  @Mock
+  private LoadLinksPort loadLinksPort;
+
+  @Mock
+  private SaveLinkPort saveLinkPort;
+
+  @Mock
+  private DomainEventPublisher eventPublisher;
+
+  private ImportLinksService importLinksService;
+
+  @BeforeEach
+  void setUp() {
+    importLinksService = new ImportLinksService(loadLinksPort, saveLinkPort, eventPublisher);
+  }
+
+  @Test
+  void importLinks_shouldSkipInvalidDuplicateAndExistingUrls() {
+    // Given
+    LocalDateTime addedAt = LocalDateTime.of(2020, 1, 2, 3, 4, 5);
+    Stream<ImportedBookmark> bookmarks = Stream.of(
+      new ImportedBookmark("https://new.example", "New", "desc", addedAt),
+      new ImportedBookmark("not a url", null, null, null),
+      new ImportedBookmark("https://new.example", "Again", null, null),
+      new ImportedBookmark("https://existing.example", "Existing", null, null)
+    );
+    when(loadLinksPort.findExistingUrls(any())).thenReturn(Set.of("https://existing.example"));
+    when(saveLinkPort.saveAll(anyList(), eq("user-1"))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // When
+    ImportResult result = importLinksService.importLinks(new ImportLinksCommand(bookmarks, "user-1"));
+
+    // Then
+    assertThat(result).isEqualTo(new ImportResult(1, 2, 1));
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<Link>> saved = ArgumentCaptor.forClass(List.class);
+    verify(saveLinkPort).saveAll(saved.capture(), eq("user-1"));
+    assertThat(saved.getValue()).singleElement().satisfies(link -> {
+      assertThat(link.url()).isEqualTo("https://new.example");
+      assertThat(link.title()).isEqualTo("New");
+      assertThat(link.extractedAt()).isEqualTo(addedAt);
+    });
+    verify(eventPublisher).publish(any(LinksImportedEvent.class));
+  }
+
+  @Test
+  void importLinks_shouldWriteAndPublishEachChunk() {
+    // Given
+    int total = ImportLinksService.CHUNK_SIZE * 2 + 1;
+    Stream<ImportedBookmark> bookmarks = IntStream.range(0, total).mapToObj(i -> new ImportedBookmark("https://site" + i + ".example", null, null, null));
+    when(loadLinksPort.findExistingUrls(any())).thenReturn(Set.of());
+    when(saveLinkPort.saveAll(anyList(), eq("user-1"))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // When
+    ImportResult result = importLinksService.importLinks(new ImportLinksCommand(bookmarks, "user-1"));
+
+    // Then
+    assertThat(result.imported()).isEqualTo(total);
+    verify(saveLinkPort, times(3)).saveAll(anyList(), eq("user-1"));
+    ArgumentCaptor<LinksImportedEvent> events = ArgumentCaptor.forClass(LinksImportedEvent.class);
+    verify(eventPublisher, times(3)).publish(events.capture());
+    assertThat(events.getAllValues())
+      .extracting(event -> event.getLinks().size())
+      .containsExactly(ImportLinksService.CHUNK_SIZE, ImportLinksService.CHUNK_SIZE, 1);
+  }
+
+  @Test
+  void importLinks_shouldRequireUser() {
+    assertThatThrownBy(() -> importLinksService.importLinks(new ImportLinksCommand(Stream.empty(), null))).isInstanceOf(ValidationException.class);
+    verifyNoInteractions(saveLinkPort, eventPublisher);
+  }
+}
@@ -9,6 +9,7 @@ import static org.mockito.Mockito.when;
 import it.robfrank.linklift.application.domain.event.LinksQueryEvent;
 import it.robfrank.linklift.application.domain.exception.ValidationException;
 import it.robfrank.linklift.application.domain.model.Link;
+import it.robfrank.linklift.application.domain.model.LinkCursor;
 import it.robfrank.linklift.application.domain.model.LinkPage;
 import it.robfrank.linklift.application.domain.model.ReadStatus;
 import it.robfrank.linklift.application.port.in.ListLinksQuery;
@@ -183,4 +184,44 @@ class ListLinksServiceTest {
 
     verify(loadLinksPort, Mockito.times(validDirections.length)).loadLinks(any(ListLinksQuery.class));
   }
+
+  @Test
+  void listLinks_shouldAcceptCursorIssuedForSameSortOrder() {
+    // Given
+    String cursor = new LinkCursor("extractedAt", "DESC", "2024-01-01 00:00:00", "link-1").encode();
+    ListLinksQuery query = ListLinksQuery.forUserWithFiltersAndTag(0, 20, "extractedAt", "desc", "user-123", null, null, null, null, cursor);
+    LinkPage linkPage = new LinkPage(List.of(), 0, 20, 0, 0, false, true, null);
+
+    when(loadLinksPort.loadLinks(query)).thenReturn(linkPage);
+
+    // When
+    LinkPage result = listLinksService.listLinks(query);
+
+    // Then
+    assertThat(result).isEqualTo(linkPage);
+  }
+
+  @Test
+  void listLinks_shouldThrowValidationException_whenCursorDoesNotMatchSortOrder() {
+    // Given
+    String cursor = new LinkCursor("url", "ASC", "https://example.com", "link-1").encode();
+    ListLinksQuery query = ListLinksQuery.forUserWithFiltersAndTag(0, 20, "extractedAt", "DESC", "user-123", null, null, null, null, cursor);
+
+    // When & Then
+    assertThatThrownBy(() -> listLinksService.listLinks(query))
+      .isInstanceOf(ValidationException.class)
+      .satisfies(ex -> assertThat(((ValidationException) ex).getFieldErrors()).containsKey("cursor"));
+  }
+
+  @Test
+  void listLinks_shouldThrowValidationException_whenCursorUsedWithNullableSortField() {
+    // Given
+    String cursor = new LinkCursor("extractedAt", "DESC", "2024-01-01 00:00:00", "link-1").encode();
+    ListLinksQuery query = ListLinksQuery.forUserWithFiltersAndTag(0, 20, "title", "DESC", "user-123", null, null, null, null, cursor);
+
+    // When & Then
+    assertThatThrownBy(() -> listLinksService.listLinks(query))
+      .isInstanceOf(ValidationException.class)
+      .satisfies(ex -> assertThat(((ValidationException) ex).getFieldErrors().get("cursor")).contains("Cursor pagination supports sorting by"));
+  }
 }
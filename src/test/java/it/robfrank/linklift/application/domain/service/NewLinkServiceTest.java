@@ -14,8 +14,10 @@ import it.robfrank.linklift.application.port.in.DownloadContentCommand;
 import it.robfrank.linklift.application.port.in.DownloadContentUseCase;
 import it.robfrank.linklift.application.port.in.NewLinkCommand;
 import it.robfrank.linklift.application.port.out.DomainEventPublisher;
+import it.robfrank.linklift.application.port.out.LinkPreviewPort;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -34,6 +36,9 @@ class NewLinkServiceTest {
   @Mock
   private DownloadContentUseCase downloadContentUseCase;
 
+  @Mock
+  private LinkPreviewPort linkPreview;
+
   private NewLinkService newLinkService;
 
   @BeforeEach
@@ -43,7 +48,7 @@ class NewLinkServiceTest {
         downloadContentUseCase.downloadContentAsync(new DownloadContentCommand(event.getLink().id(), event.getLink().url()))
       );
 
-    newLinkService = new NewLinkService(linkPersistenceAdapter, eventPublisher);
+    newLinkService = new NewLinkService(linkPersistenceAdapter, eventPublisher, linkPreview);
   }
 
   @Test
@@ -87,5 +92,35 @@ class NewLinkServiceTest {
 
     // Verify async content download was triggered
     verify(downloadContentUseCase, times(1)).downloadContentAsync(any());
+    verifyNoInteractions(linkPreview);
+  }
+
+  @Test
+  void newLink_shouldTakeMissingTitleAndDescriptionFromThePreview() {
+    NewLinkCommand command = new NewLinkCommand("https://example.com", " ", null, "user-123");
+    when(linkPreview.preview("https://example.com")).thenReturn(
+      Optional.of(new LinkPreviewPort.LinkPreview("Page Title", "Page description", "application/xhtml+xml"))
+    );
+    when(linkPersistenceAdapter.saveLinkForUser(any(Link.class), eq("user-123"))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    Link result = newLinkService.newLink(command);
+
+    assertThat(result.title()).isEqualTo("Page Title");
+    assertThat(result.description()).isEqualTo("Page description");
+    assertThat(result.contentType()).isEqualTo("application/xhtml+xml");
+  }
+
+  @Test
+  void newLink_shouldSaveTheLinkAsSent_whenThereIsNoPreview() {
+    NewLinkCommand command = new NewLinkCommand("https://example.com", "Example Title", null, "user-123");
+    when(linkPreview.preview("https://example.com")).thenReturn(Optional.empty());
+    when(linkPersistenceAdapter.saveLinkForUser(any(Link.class), eq("user-123"))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    Link result = newLinkService.newLink(command);
+
+    assertThat(result.title()).isEqualTo("Example Title");
+    assertThat(result.description()).isNull();
+    assertThat(result.contentType()).isEqualTo("text/html");
+    verify(downloadContentUseCase).downloadContentAsync(any());
   }
 }
@@ -0,0 +1,128 @@
+package it.robfrank.linklift.application.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+import it.robfrank.linklift.application.domain.model.GraphData;
+import it.robfrank.linklift.application.domain.model.GraphSnapshot;
+import it.robfrank.linklift.application.port.out.LoadLinksPort;
+import it.robfrank.linklift.application.port.out.UpdateLinkPort;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RankLinksServiceTest {
+
+  // a and b both cite c, c cites a; d is isolated
+  private static final GraphSnapshot SNAPSHOT = GraphSnapshot.of(
+    List.of(node("a"), node("b"), node("c"), node("d")),
+    List.of(edge("a", "c"), edge("b", "c"), edge("c", "a"))
+  );
+
+  @Mock
+  private LoadLinksPort loadLinksPort;
+
+  @Mock
+  private UpdateLinkPort updateLinkPort;
+
+  private final List<Runnable> tasks = new ArrayList<>();
+  private RankLinksService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new RankLinksService(loadLinksPort, updateLinkPort, tasks::add);
+  }
+
+  @Test
+  void pageRank_shouldFavourTheMostCitedLink() {
+    double[] ranks = RankLinksService.pageRank(SNAPSHOT, unknown(4), ForkJoinPool.commonPool());
+
+    assertThat(Arrays.stream(ranks).sum()).isCloseTo(1.0, within(1e-6));
+    assertThat(ranks[2]).isGreaterThan(ranks[0]).isGreaterThan(ranks[1]);
+    assertThat(ranks[1]).isCloseTo(ranks[3], within(1e-9));
+  }
+
+  @Test
+  void pageRank_shouldConvergeToTheSameScoresFromAWarmStart() {
+    double[] cold = RankLinksService.pageRank(SNAPSHOT, unknown(4), ForkJoinPool.commonPool());
+
+    double[] warm = RankLinksService.pageRank(SNAPSHOT, new double[] { 0.7, 0.1, 0.1, 0.1 }, ForkJoinPool.commonPool());
+
+    for (int i = 0; i < cold.length; i++) {
+      assertThat(warm[i]).isCloseTo(cold[i], within(1e-6));
+    }
+  }
+
+  @Test
+  void scheduleRanking_shouldCoalesceRequestsUntilTheJobRuns() {
+    when(loadLinksPort.getGraphSnapshot("user-1")).thenReturn(SNAPSHOT);
+
+    service.scheduleRanking("user-1");
+    service.scheduleRanking("user-1");
+    assertThat(tasks).hasSize(1);
+
+    tasks.removeFirst().run();
+    service.scheduleRanking("user-1");
+    assertThat(tasks).hasSize(1);
+  }
+
+  @Test
+  void rankLinks_shouldOnlyWriteScoresThatMoved() {
+    when(loadLinksPort.getGraphSnapshot("user-1")).thenReturn(SNAPSHOT, SNAPSHOT, SNAPSHOT.withEdges(List.of(edge("d", "c"))));
+
+    service.rankLinks("user-1");
+    service.rankLinks("user-1");
+    service.rankLinks("user-1");
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Map<String, Double>> written = ArgumentCaptor.forClass(Map.class);
+    verify(updateLinkPort, times(2)).updateLinkRanks(written.capture());
+    assertThat(written.getAllValues().getFirst()).containsOnlyKeys("a", "b", "c", "d");
+    assertThat(written.getAllValues().getLast()).containsKeys("c", "d");
+  }
+
+  @Test
+  void rankLinks_shouldStartFromTheStoredScoresAfterARestart() {
+    double[] stored = RankLinksService.pageRank(SNAPSHOT, unknown(4), ForkJoinPool.commonPool());
+    when(loadLinksPort.getGraphSnapshot("user-1")).thenReturn(SNAPSHOT);
+    when(loadLinksPort.getLinkRanks("user-1")).thenReturn(Map.of("a", stored[0], "b", stored[1], "c", stored[2], "d", stored[3]));
+
+    service.rankLinks("user-1");
+
+    verify(updateLinkPort, never()).updateLinkRanks(anyMap());
+  }
+
+  @Test
+  void rankLinks_shouldSkipWritesForAnEmptyGraph() {
+    when(loadLinksPort.getGraphSnapshot("user-1")).thenReturn(GraphSnapshot.EMPTY);
+
+    service.rankLinks("user-1");
+
+    verify(updateLinkPort, never()).updateLinkRanks(anyMap());
+  }
+
+  private static double[] unknown(int n) {
+    double[] initial = new double[n];
+    Arrays.fill(initial, Double.NaN);
+    return initial;
+  }
+
+  private static GraphData.LinkNode node(String id) {
+    return new GraphData.LinkNode(id, id, "https://" + id + ".example");
+  }
+
+  private static GraphData.LinkEdge edge(String source, String target) {
+    return new GraphData.LinkEdge(source, target);
+  }
+}
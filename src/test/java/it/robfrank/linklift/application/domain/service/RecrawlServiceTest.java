@@ -0,0 +1,146 @@
+package it.robfrank.linklift.application.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import it.robfrank.linklift.application.domain.model.Content;
+import it.robfrank.linklift.application.domain.model.DownloadJob;
+import it.robfrank.linklift.application.domain.model.DownloadStatus;
+import it.robfrank.linklift.application.domain.model.Link;
+import it.robfrank.linklift.application.port.out.DownloadJobPort;
+import it.robfrank.linklift.application.port.out.LoadContentPort;
+import it.robfrank.linklift.application.port.out.LoadLinksPort;
+import it.robfrank.linklift.application.port.out.RecrawlBudgetPort;
+import it.robfrank.linklift.application.port.out.SaveContentPort;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class RecrawlServiceTest {
+
+  @Mock
+  private LoadContentPort loadContentPort;
+
+  @Mock
+  private SaveContentPort saveContentPort;
+
+  @Mock
+  private LoadLinksPort loadLinksPort;
+
+  @Mock
+  private DownloadJobPort downloadJobPort;
+
+  @Mock
+  private RecrawlBudgetPort recrawlBudgetPort;
+
+  @Mock
+  private ScheduledExecutorService scheduler;
+
+  @Test
+  void tick_shouldQueueDuePagesAsBackgroundJobsAndDeferThem() {
+    RecrawlService service = new RecrawlService(loadContentPort, saveContentPort, loadLinksPort, downloadJobPort, recrawlBudgetPort, scheduler, 120);
+    when(recrawlBudgetPort.takeRechecks(2, 120, 2)).thenReturn(2);
+    when(loadContentPort.findLinkIdsDueForRecheck(any(), eq(2))).thenReturn(List.of("link-1", "link-2"));
+    when(loadLinksPort.getLinkById("link-1")).thenReturn(link("link-1"));
+    when(loadLinksPort.getLinkById("link-2")).thenReturn(null);
+    when(downloadJobPort.offerJobs(anyList())).thenReturn(1);
+
+    service.tick();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<DownloadJob>> jobs = ArgumentCaptor.forClass(List.class);
+    verify(downloadJobPort).offerJobs(jobs.capture());
+    assertThat(jobs.getValue())
+      .singleElement()
+      .satisfies(job -> {
+        assertThat(job.linkId()).isEqualTo("link-1");
+        assertThat(job.priority()).isEqualTo(DownloadJob.BACKGROUND_PRIORITY);
+      });
+    verify(saveContentPort).deferRecheck(eq(List.of("link-1", "link-2")), any());
+    // The second page was not queued, so its share goes back for the next node
+    verify(recrawlBudgetPort).returnRechecks(1, 2);
+  }
+
+  @Test
+  void tick_shouldQueueNothingWhileTheSharedBudgetIsSpent() {
+    RecrawlService service = new RecrawlService(loadContentPort, saveContentPort, loadLinksPort, downloadJobPort, recrawlBudgetPort, scheduler, 120);
+    when(recrawlBudgetPort.takeRechecks(anyInt(), anyInt(), anyInt())).thenReturn(0);
+
+    service.tick();
+
+    verifyNoInteractions(loadContentPort, downloadJobPort, saveContentPort);
+  }
+
+  @Test
+  void tick_shouldAskForAtLeastOneRecheckWhenTheBudgetIsBelowOnePerTick() {
+    RecrawlService service = new RecrawlService(loadContentPort, saveContentPort, loadLinksPort, downloadJobPort, recrawlBudgetPort, scheduler, 10);
+    when(recrawlBudgetPort.takeRechecks(1, 10, 1)).thenReturn(1);
+    when(loadContentPort.findLinkIdsDueForRecheck(any(), eq(1))).thenReturn(List.of("link-1"));
+    when(loadLinksPort.getLinkById("link-1")).thenReturn(link("link-1"));
+    when(downloadJobPort.offerJobs(anyList())).thenReturn(1);
+
+    service.tick();
+
+    verify(downloadJobPort).offerJobs(anyList());
+    verify(recrawlBudgetPort, never()).returnRechecks(anyInt(), anyInt());
+  }
+
+  @Test
+  void tick_shouldReturnTheBudgetWhileNothingIsDue() {
+    RecrawlService service = new RecrawlService(loadContentPort, saveContentPort, loadLinksPort, downloadJobPort, recrawlBudgetPort, scheduler, 120);
+    when(recrawlBudgetPort.takeRechecks(2, 120, 2)).thenReturn(2);
+    when(loadContentPort.findLinkIdsDueForRecheck(any(), eq(2))).thenReturn(List.of());
+
+    service.tick();
+
+    verify(recrawlBudgetPort).returnRechecks(2, 2);
+    verifyNoInteractions(downloadJobPort, saveContentPort);
+  }
+
+  @Test
+  void nextInterval_shouldShrinkForChangingPagesAndGrowForStableOnes() {
+    long day = Duration.ofDays(1).toSeconds();
+
+    assertThat(RecrawlService.nextInterval(null, true)).isEqualTo(day);
+    assertThat(RecrawlService.nextInterval(content(day), false)).isEqualTo(2 * day);
+    assertThat(RecrawlService.nextInterval(content(day), true)).isEqualTo(day / 2);
+    assertThat(RecrawlService.nextInterval(content(Duration.ofHours(6).toSeconds()), true)).isEqualTo(Duration.ofHours(6).toSeconds());
+    assertThat(RecrawlService.nextInterval(content(Duration.ofDays(20).toSeconds()), false)).isEqualTo(Duration.ofDays(30).toSeconds());
+  }
+
+  private static Link link(String id) {
+    return new Link(id, "https://example.com/" + id, "Title", null, null, null, List.of(), null, false, false);
+  }
+
+  private static Content content(long recheckIntervalSeconds) {
+    return new Content(
+      "content-1",
+      "link-1",
+      null,
+      "text",
+      4,
+      LocalDateTime.now(),
+      "text/html",
+      DownloadStatus.COMPLETED,
+      null,
+      null,
+      null,
+      null,
+      null,
+      null,
+      null,
+      null,
+      null,
+      null,
+      recheckIntervalSeconds
+    );
+  }
+}
@@ -2,10 +2,12 @@ package it.robfrank.linklift.application.domain.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 import it.robfrank.linklift.adapter.out.ai.FakeEmbeddingGenerator;
 import it.robfrank.linklift.application.domain.exception.ValidationException;
 import it.robfrank.linklift.application.domain.model.Content;
+import it.robfrank.linklift.application.domain.model.ContentChunk;
 import it.robfrank.linklift.application.domain.model.DownloadStatus;
 import it.robfrank.linklift.testcontainers.ArcadeDbTestBase;
 import java.time.LocalDateTime;
@@ -25,17 +27,6 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
     return new Content(id, linkId, null, "test content", null, FIXED_TEST_TIME, null, DownloadStatus.COMPLETED);
   }
 
-  private static float[] toFloatArray(List<Float> list) {
-    if (list == null || list.isEmpty()) {
-      return null;
-    }
-    float[] array = new float[list.size()];
-    for (int i = 0; i < list.size(); i++) {
-      array[i] = list.get(i);
-    }
-    return array;
-  }
-
   private Content withEmbedding(Content content, String query) {
     return new Content(
       content.id(),
@@ -52,7 +43,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       content.extractedDescription(),
       content.author(),
       content.publishedDate(),
-      toFloatArray(embeddingGenerator.generateEmbedding(query))
+      embeddingGenerator.generateEmbedding(query)
     );
   }
 
@@ -80,6 +71,31 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
     assertThat(results).extracting(Content::linkId).containsExactly("link-mine");
   }
 
+  @Test
+  void search_shouldFindAPageByAPassageFarFromItsOpening() {
+    // Given - a page whose opening is about something else, and one of whose later passages matches
+    repository.saveContent(withEmbedding(createTestContent("id-long", "link-long"), "the opening of the page"));
+    repository.replaceChunks(
+      "link-long",
+      List.of(
+        new ContentChunk("link-long", 0, "the opening of the page", embeddingGenerator.generateEmbedding("the opening of the page")),
+        new ContentChunk("link-long", 7, "a passage about vector indexes", embeddingGenerator.generateEmbedding("vector indexes"))
+      )
+    );
+    giveUserOwnershipOfLink(TEST_USER_ID, "link-long");
+    repository.saveContent(withEmbedding(createTestContent("id-other", "link-other"), "something unrelated"));
+    giveUserOwnershipOfLink(TEST_USER_ID, "link-other");
+
+    // When - the passage is searched for
+    List<Content> results = searchContentService.search("vector indexes", 1, TEST_USER_ID);
+
+    // Then - the page is found through the passage, which is also the best match on its own
+    assertThat(results).extracting(Content::linkId).containsExactly("link-long");
+    assertThat(repository.findSimilarChunks(embeddingGenerator.generateEmbedding("vector indexes"), 1, TEST_USER_ID))
+      .extracting(ContentChunk::position, ContentChunk::text)
+      .containsExactly(tuple(7, "a passage about vector indexes"));
+  }
+
   @Test
   void search_shouldReturnResults_whenValidQueryProvided() {
     // Given - content with embedding exists
@@ -99,7 +115,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       content.extractedDescription(),
       content.author(),
       content.publishedDate(),
-      toFloatArray(embeddingGenerator.generateEmbedding("test query"))
+      embeddingGenerator.generateEmbedding("test query")
     );
     giveUserOwnershipOfLink(TEST_USER_ID, "link-1");
     repository.saveContent(content);
@@ -132,7 +148,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       differentContent.extractedDescription(),
       differentContent.author(),
       differentContent.publishedDate(),
-      toFloatArray(embeddingGenerator.generateEmbedding("completely different content"))
+      embeddingGenerator.generateEmbedding("completely different content")
     );
     giveUserOwnershipOfLink(TEST_USER_ID, "link-2");
     repository.saveContent(differentContent);
@@ -163,7 +179,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
         null,
         null,
         null,
-        toFloatArray(embeddingGenerator.generateEmbedding("test query"))
+        embeddingGenerator.generateEmbedding("test query")
       );
       giveUserOwnershipOfLink(TEST_USER_ID, "link-" + i);
       repository.saveContent(content);
@@ -194,7 +210,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       null,
       null,
       null,
-      toFloatArray(embeddingGenerator.generateEmbedding("multi result query"))
+      embeddingGenerator.generateEmbedding("multi result query")
     );
     Content result2 = new Content(
       "id-2",
@@ -211,7 +227,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       null,
       null,
       null,
-      toFloatArray(embeddingGenerator.generateEmbedding("multi result query"))
+      embeddingGenerator.generateEmbedding("multi result query")
     );
     Content result3 = new Content(
       "id-3",
@@ -228,7 +244,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       null,
       null,
       null,
-      toFloatArray(embeddingGenerator.generateEmbedding("multi result query"))
+      embeddingGenerator.generateEmbedding("multi result query")
     );
 
     giveUserOwnershipOfLink(TEST_USER_ID, "link-1");
@@ -294,7 +310,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       null,
       null,
       null,
-      toFloatArray(embeddingGenerator.generateEmbedding("recovery test"))
+      embeddingGenerator.generateEmbedding("recovery test")
     );
     giveUserOwnershipOfLink(TEST_USER_ID, "link-1");
     repository.saveContent(content);
@@ -326,7 +342,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       null,
       null,
       null,
-      toFloatArray(embeddingGenerator.generateEmbedding("test"))
+      embeddingGenerator.generateEmbedding("test")
     );
     giveUserOwnershipOfLink(TEST_USER_ID, "link-1");
     repository.saveContent(content);
@@ -356,7 +372,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       null,
       null,
       null,
-      toFloatArray(embeddingGenerator.generateEmbedding("test"))
+      embeddingGenerator.generateEmbedding("test")
     );
     giveUserOwnershipOfLink(TEST_USER_ID, "link-1");
     repository.saveContent(content);
@@ -387,7 +403,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       null,
       null,
       null,
-      toFloatArray(embeddingGenerator.generateEmbedding("test"))
+      embeddingGenerator.generateEmbedding("test")
     );
     giveUserOwnershipOfLink(TEST_USER_ID, "link-1");
     repository.saveContent(content);
@@ -418,7 +434,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       null,
       null,
       null,
-      toFloatArray(embeddingGenerator.generateEmbedding(query))
+      embeddingGenerator.generateEmbedding(query)
     );
     giveUserOwnershipOfLink(TEST_USER_ID, "link-1");
     repository.saveContent(result);
@@ -450,7 +466,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       null,
       null,
       null,
-      toFloatArray(embeddingGenerator.generateEmbedding(query))
+      embeddingGenerator.generateEmbedding(query)
     );
     giveUserOwnershipOfLink(TEST_USER_ID, "link-1");
     repository.saveContent(result);
@@ -482,7 +498,7 @@ class SearchContentServiceTest extends ArcadeDbTestBase {
       null,
       null,
       null,
-      toFloatArray(embeddingGenerator.generateEmbedding(query))
+      embeddingGenerator.generateEmbedding(query)
     );
     giveUserOwnershipOfLink(TEST_USER_ID, "link-1");
     repository.saveContent(result);
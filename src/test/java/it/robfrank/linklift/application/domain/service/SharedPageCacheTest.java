@@ -0,0 +1,109 @@
+package it.robfrank.linklift.application.domain.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import it.robfrank.linklift.application.port.out.ContentDownloaderPort;
+import it.robfrank.linklift.application.port.out.ContentExtractorPort;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class SharedPageCacheTest {
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void load_shouldCoalesceConcurrentLoadsOfTheSameUrl() {
+    SharedPageCache cache = new SharedPageCache();
+    CompletableFuture<SharedPageCache.Page> download = new CompletableFuture<>();
+
+    CompletableFuture<SharedPageCache.Page> first = cache.load("https://example.com/a", counting(() -> download));
+    CompletableFuture<SharedPageCache.Page> second = cache.load("HTTPS://EXAMPLE.COM:443/a#top", counting(() -> download));
+    download.complete(page(100));
+
+    assertThat(loads).hasValue(1);
+    assertThat(second.join()).isSameAs(first.join());
+  }
+
+  @Test
+  void load_shouldReuseAPageUntilItExpires() {
+    SharedPageCache fresh = new SharedPageCache();
+    fresh.load("https://example.com/a", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+    fresh.load("https://example.com/a", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+
+    SharedPageCache expired = new SharedPageCache(Duration.ZERO, SharedPageCache.DEFAULT_MAX_BYTES);
+    expired.load("https://example.com/a", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+    expired.load("https://example.com/a", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+
+    assertThat(loads).hasValue(3);
+  }
+
+  @Test
+  void load_shouldShareAPageBetweenSpellingsOfTheSameCanonicalUrl() {
+    SharedPageCache cache = new SharedPageCache();
+    cache.load("https://www.example.com/a/?utm_source=feed", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+    cache.load("https://example.com/a", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void load_shouldWeighPagesByTheirStringsAndEmbeddings() {
+    // Each page retains about 2 * 109 chars and 4 * 1 float, so only one of them fits
+    SharedPageCache cache = new SharedPageCache(SharedPageCache.DEFAULT_TTL, 300);
+    cache.load("https://example.com/a", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+    cache.load("https://example.com/b", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+    loads.set(0);
+
+    cache.load("https://example.com/a", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void load_shouldEvictTheLeastRecentlyUsedPages_whenFull() {
+    SharedPageCache cache = new SharedPageCache(SharedPageCache.DEFAULT_TTL, 500);
+    cache.load("https://example.com/a", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+    cache.load("https://example.com/b", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+    cache.load("https://example.com/a", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+    cache.load("https://example.com/c", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+    loads.set(0);
+
+    cache.load("https://example.com/a", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+    cache.load("https://example.com/b", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void load_shouldLetTheNextCallerRetry_whenALoadFails() {
+    SharedPageCache cache = new SharedPageCache();
+
+    Supplier<CompletableFuture<SharedPageCache.Page>> failing = () -> CompletableFuture.failedFuture(new IllegalStateException("connection reset"));
+    CompletableFuture<SharedPageCache.Page> failed = cache.load("https://example.com/a", counting(failing));
+    cache.load("https://example.com/a", counting(() -> CompletableFuture.completedFuture(page(100)))).join();
+
+    assertThat(failed).isCompletedExceptionally();
+    assertThat(loads).hasValue(2);
+  }
+
+  private Supplier<CompletableFuture<SharedPageCache.Page>> counting(Supplier<CompletableFuture<SharedPageCache.Page>> loader) {
+    return () -> {
+      loads.incrementAndGet();
+      return loader.get();
+    };
+  }
+
+  private static SharedPageCache.Page page(int length) {
+    return new SharedPageCache.Page(
+      new ContentDownloaderPort.DownloadedContent("x".repeat(length), "text/html", length),
+      new ContentExtractorPort.ExtractedMetadata("Title", null, null, null, null, "x", "x", List.of()),
+      "hash",
+      "summary",
+      new float[] { 0.1f }
+    );
+  }
+}
@@ -46,7 +46,7 @@ class SuggestTagsServiceTest {
     List<Tag> result = service.suggestTags("link-1", "user-1");
 
     assertThat(result).containsExactlyElementsOf(userTags);
-    verify(loadContentPort, never()).findSimilar(anyList(), anyInt(), anyString());
+    verify(loadContentPort, never()).findSimilar(any(), anyInt(), anyString());
   }
 
   @Test
@@ -71,7 +71,7 @@ class SuggestTagsServiceTest {
     when(loadContentPort.findContentByLinkId("link-1")).thenReturn(Optional.of(content));
 
     Content similar = new Content("c2", "link-2", null, "text2", null, LocalDateTime.now(), null, DownloadStatus.COMPLETED);
-    when(loadContentPort.findSimilar(anyList(), anyInt(), eq("user-1"))).thenReturn(List.of(similar));
+    when(loadContentPort.findSimilar(any(), anyInt(), eq("user-1"))).thenReturn(List.of(similar));
 
     Tag alreadyOnLink = tag("tA", "existing", "user-1");
     Tag suggestible = tag("tB", "suggest-me", "user-1");
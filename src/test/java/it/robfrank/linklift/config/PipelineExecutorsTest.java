@@ -0,0 +1,71 @@
+package it.robfrank.linklift.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.robfrank.linklift.application.domain.service.DownloadContentService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PipelineExecutorsTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final PipelineExecutors executors = new PipelineExecutors(registry, 1, 1);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    executors.close();
+  }
+
+  @Test
+  void embedStage_shouldRunWorkOnTheCallerOnceItsQueueIsFull() throws InterruptedException {
+    DownloadContentService.Stages stages = executors.downloadStages();
+    CountDownLatch started = new CountDownLatch(1);
+    stages.embed().execute(() -> {
+      started.countDown();
+      await(release);
+    });
+    started.await();
+    stages.embed().execute(() -> {});
+    AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+    stages.embed().execute(() -> ranOn.set(Thread.currentThread()));
+
+    assertThat(ranOn.get()).isSameAs(Thread.currentThread());
+    assertThat(registry.get("linklift.pipeline.executor.queued").tag("name", "embed").gauge().value()).isEqualTo(1);
+  }
+
+  @Test
+  void close_shouldLetQueuedWorkFinishAndRejectNewWork() {
+    DownloadContentService.Stages stages = executors.downloadStages();
+    AtomicBoolean persisted = new AtomicBoolean();
+    stages.persist().execute(() -> persisted.set(true));
+
+    executors.close();
+
+    assertThat(persisted).isTrue();
+    assertThatThrownBy(() -> stages.persist().execute(() -> {})).isInstanceOf(RejectedExecutionException.class);
+  }
+
+  @Test
+  void eachStage_shouldReportItsOwnMetrics() {
+    assertThat(registry.get("linklift.pipeline.executor").timers())
+      .extracting(timer -> timer.getId().getTag("name"))
+      .containsExactlyInAnyOrder("io", "parse", "embed", "persist");
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -248,7 +248,7 @@ class VectorSearchE2ETest {
           userId + "@test.local"
         );
       }
-      database.command("sql", "INSERT INTO Link SET id = ?, url = ?", linkId, "https://test.local/" + linkId);
+      database.command("sql", "INSERT INTO Link SET id = ?, url = ?, ownerId = ?", linkId, "https://test.local/" + linkId, userId);
       database.command(
         "sql",
         "CREATE EDGE OwnsLink FROM (SELECT FROM User WHERE id = ?) TO (SELECT FROM Link WHERE id = ?) SET createdAt = sysdate(), accessLevel = 'OWNER'",